@@ -0,0 +1,99 @@
+package io.bytecodemapper.benchmarks;
+
+import io.bytecodemapper.core.cfg.ReducedCFG;
+import io.bytecodemapper.core.df.DF;
+import io.bytecodemapper.core.dom.Dominators;
+import io.bytecodemapper.core.wl.WLRefinement;
+import org.objectweb.asm.tree.MethodNode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-method extraction chain of mapOldNew, one stage per benchmark: ReducedCFG (including
+ * its in-place normalization), dominators, dominance frontiers and the WL signature. Each stage
+ * runs on the previous stage's output computed in setup; one op = every method of the sample.
+ *
+ * Run: gradlew :benchmarks:jmh -Pjmh.args="CfgPipelineBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CfgPipelineBenchmark {
+
+  @Param({"testData/classes/pkg", "testData/obfuscated.jar", "data/weeks/osrs-170.jar"})
+  public String fixture;
+
+  @Param({"200"})
+  public int maxClasses;
+
+  /** WL iterations, as used by extraction in the orchestrator. */
+  @Param({"3"})
+  public int wlIterations;
+
+  private List<MethodNode> methods;
+  private List<ReducedCFG> cfgs;
+  private List<Dominators> doms;
+  private List<Map<Integer, int[]>> dfs;
+  private List<Map<Integer, int[]>> tdfs;
+
+  @Setup
+  public void load() throws Exception {
+    Fixtures.discardStdout();
+    methods = new ArrayList<MethodNode>();
+    cfgs = new ArrayList<ReducedCFG>();
+    doms = new ArrayList<Dominators>();
+    dfs = new ArrayList<Map<Integer, int[]>>();
+    tdfs = new ArrayList<Map<Integer, int[]>>();
+    for (MethodNode mn : Fixtures.methods(Fixtures.classes(fixture, maxClasses))) {
+      try {
+        // the first build normalizes the body in place; later builds see the normalized form
+        ReducedCFG cfg = ReducedCFG.build(mn);
+        Dominators dom = Dominators.compute(cfg);
+        Map<Integer, int[]> df = DF.compute(cfg, dom);
+        Map<Integer, int[]> tdf = DF.iterateToFixpoint(df);
+        methods.add(mn);
+        cfgs.add(cfg);
+        doms.add(dom);
+        dfs.add(df);
+        tdfs.add(tdf);
+      } catch (RuntimeException e) {
+        // leave methods the CFG builder rejects out of the sample
+      }
+    }
+  }
+
+  @Benchmark
+  public void reducedCfgBuild(Blackhole bh) {
+    for (MethodNode mn : methods) bh.consume(ReducedCFG.build(mn));
+  }
+
+  @Benchmark
+  public void dominatorsCompute(Blackhole bh) {
+    for (ReducedCFG cfg : cfgs) bh.consume(Dominators.compute(cfg));
+  }
+
+  @Benchmark
+  public void dfCompute(Blackhole bh) {
+    for (int i = 0; i < cfgs.size(); i++) bh.consume(DF.compute(cfgs.get(i), doms.get(i)));
+  }
+
+  @Benchmark
+  public void dfIterateToFixpoint(Blackhole bh) {
+    for (Map<Integer, int[]> df : dfs) bh.consume(DF.iterateToFixpoint(df));
+  }
+
+  @Benchmark
+  public void wlComputeSignature(Blackhole bh) {
+    for (int i = 0; i < cfgs.size(); i++) {
+      bh.consume(WLRefinement.computeSignature(cfgs.get(i), doms.get(i), dfs.get(i), tdfs.get(i), wlIterations));
+    }
+  }
+}
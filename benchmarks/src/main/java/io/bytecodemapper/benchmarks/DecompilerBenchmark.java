@@ -0,0 +1,157 @@
+package io.bytecodemapper.benchmarks;
+
+import org.jetbrains.java.decompiler.main.ClassesProcessor;
+import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.Fernflower;
+import org.jetbrains.java.decompiler.main.collectors.ImportCollector;
+import org.jetbrains.java.decompiler.main.extern.IBytecodeProvider;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+import org.jetbrains.java.decompiler.main.extern.IResultSaver;
+import org.jetbrains.java.decompiler.main.rels.ClassWrapper;
+import org.jetbrains.java.decompiler.main.rels.MethodProcessorRunnable;
+import org.jetbrains.java.decompiler.modules.decompiler.vars.VarProcessor;
+import org.jetbrains.java.decompiler.struct.StructClass;
+import org.jetbrains.java.decompiler.struct.StructMethod;
+import org.jetbrains.java.decompiler.struct.gen.MethodDescriptor;
+import org.jetbrains.java.decompiler.util.InterpreterUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Manifest;
+import java.util.zip.ZipFile;
+
+/**
+ * Fernflower on a loaded context (options as in DecompilerTestFixture, single-threaded, no
+ * method time limit): {@code codeToJava} for every method with code of the root classes, and
+ * {@code classWriter} for the whole per-class write (lambdas, wrappers, nested classes and
+ * ClassWriter.classToJava), i.e. what one class costs in decompileContext minus the file I/O.
+ * One op = every root class of the sample.
+ *
+ * The lambda and nested-class passes rewrite the context's class tree, so a context only
+ * decompiles once: each invocation gets a freshly loaded one, outside the measurement.
+ *
+ * Run: gradlew :benchmarks:jmh -Pjmh.args="DecompilerBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecompilerBenchmark {
+
+  @Param({"testData/classes/pkg", "testData/obfuscated.jar", "data/weeks/osrs-170.jar"})
+  public String fixture;
+
+  @Param({"200"})
+  public int maxClasses;
+
+  private DecompilerContext context;
+  private Fernflower fernflower;
+  private List<StructClass> roots;
+
+  @Setup(Level.Invocation)
+  public void load() {
+    File source = new File(fixture);
+    Map<String, Object> options = new HashMap<String, Object>();
+    options.put(IFernflowerPreferences.LOG_LEVEL, "error");
+    options.put(IFernflowerPreferences.DECOMPILE_GENERIC_SIGNATURES, "1");
+    options.put(IFernflowerPreferences.REMOVE_SYNTHETIC, "1");
+    options.put(IFernflowerPreferences.REMOVE_BRIDGE, "1");
+    options.put(IFernflowerPreferences.LITERALS_AS_IS, "1");
+    options.put(IFernflowerPreferences.UNIT_TEST_MODE, "1");
+    options.put(IFernflowerPreferences.THREADS, "1");
+    fernflower = new Fernflower(new Provider(), new NoSaver(), options, new QuietLogger());
+    fernflower.addSource(source);
+    DecompilerContext.getClassProcessor().loadClasses(null);
+    context = DecompilerContext.getCurrentContext();
+
+    Map<String, ClassesProcessor.ClassNode> rootNodes = DecompilerContext.getClassProcessor().getMapRootClasses();
+    List<String> names = new ArrayList<String>();
+    for (Map.Entry<String, ClassesProcessor.ClassNode> e : rootNodes.entrySet()) {
+      if (e.getValue().type == ClassesProcessor.ClassNode.CLASS_ROOT && e.getValue().classStruct.isOwn()) names.add(e.getKey());
+    }
+    Collections.sort(names);
+    roots = new ArrayList<StructClass>();
+    for (String name : names) {
+      if (maxClasses > 0 && roots.size() >= maxClasses) break;
+      roots.add(rootNodes.get(name).classStruct);
+    }
+    if (roots.isEmpty()) throw new IllegalStateException("fixture has no class files: " + source.getAbsolutePath());
+  }
+
+  @TearDown(Level.Invocation)
+  public void clear() {
+    fernflower.clearContext();
+  }
+
+  @Benchmark
+  public void codeToJava(Blackhole bh) throws IOException {
+    DecompilerContext.setCurrentContext(context);
+    Map<String, ClassesProcessor.ClassNode> rootNodes = DecompilerContext.getClassProcessor().getMapRootClasses();
+    for (StructClass cl : roots) {
+      // the state ClassesProcessor.writeClass and ClassWrapper.init set up around each method
+      DecompilerContext.startClass(new ImportCollector(rootNodes.get(cl.qualifiedName)));
+      DecompilerContext.setProperty(DecompilerContext.CURRENT_CLASS, cl);
+      DecompilerContext.setProperty(DecompilerContext.CURRENT_CLASS_WRAPPER, new ClassWrapper(cl));
+      for (StructMethod mt : cl.getMethods()) {
+        if (!mt.containsCode()) continue;
+        MethodDescriptor md = MethodDescriptor.parseDescriptor(mt.getDescriptor());
+        VarProcessor varProc = new VarProcessor(mt, md);
+        DecompilerContext.startMethod(varProc);
+        try {
+          bh.consume(MethodProcessorRunnable.codeToJava(mt, md, varProc));
+        } catch (RuntimeException | StackOverflowError e) {
+          // decompileContext logs these and emits a stub body; keep the attempt in the measurement
+          bh.consume(e);
+        }
+      }
+      cl.releaseResources();
+    }
+  }
+
+  @Benchmark
+  public void classWriter(Blackhole bh) {
+    DecompilerContext.setCurrentContext(context);
+    for (StructClass cl : roots) bh.consume(fernflower.getClassContent(cl));
+  }
+
+  private static final class Provider implements IBytecodeProvider {
+    @Override
+    public byte[] getBytecode(String externalPath, String internalPath) throws IOException {
+      File file = new File(externalPath);
+      if (internalPath == null) return InterpreterUtil.getBytes(file);
+      ZipFile archive = new ZipFile(file);
+      try {
+        return InterpreterUtil.getBytes(archive, archive.getEntry(internalPath));
+      } finally {
+        archive.close();
+      }
+    }
+  }
+
+  private static final class NoSaver implements IResultSaver {
+    @Override public void saveFolder(String path) {}
+    @Override public void copyFile(String source, String path, String entryName) {}
+    @Override public void saveClassFile(String path, String qualifiedName, String entryName, String content, int[] mapping) {}
+    @Override public void createArchive(String path, String archiveName, Manifest manifest) {}
+    @Override public void saveDirEntry(String path, String archiveName, String entryName) {}
+    @Override public void copyEntry(String source, String path, String archiveName, String entry) {}
+    @Override public void saveClassEntry(String path, String archiveName, String qualifiedName, String entryName, String content) {}
+    @Override public void closeArchive(String path, String archiveName) {}
+  }
+
+  private static final class QuietLogger extends IFernflowerLogger {
+    @Override public void writeMessage(String message, Severity severity) {}
+    @Override public void writeMessage(String message, Severity severity, Throwable t) {}
+  }
+}
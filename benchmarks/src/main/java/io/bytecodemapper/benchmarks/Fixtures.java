@@ -0,0 +1,119 @@
+package io.bytecodemapper.benchmarks;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Benchmark fixtures: class files from a jar or a directory tree (testData/classes/...,
+ * data/weeks/osrs-*.jar), relative paths resolved against the working directory (the repo
+ * root under gradlew :benchmarks:jmh). Entries are visited in name order, so a given fixture
+ * and cap always yield the same sample. A missing or empty fixture fails the setup, and the
+ * jmh task runs with -foe, so such a run stops instead of reporting nothing for it. The
+ * deobfuscator's patch*-clean.jar are empty placeholders until CleanRuneLitePatch is run on
+ * RuneLite's patch3/patch4.jar.
+ */
+public final class Fixtures {
+  private Fixtures() {}
+
+  /** Up to {@code maxClasses} classes (0 = all); fails if the fixture holds none. */
+  public static List<ClassNode> classes(String path, int maxClasses) throws IOException {
+    List<ClassNode> out = new ArrayList<ClassNode>();
+    File f = new File(path);
+    if (!f.exists()) throw new IllegalStateException("fixture not found: " + f.getAbsolutePath());
+    if (f.isDirectory()) {
+      List<File> files = new ArrayList<File>();
+      collectClassFiles(f, files);
+      for (File cf : files) {
+        if (maxClasses > 0 && out.size() >= maxClasses) break;
+        InputStream in = new FileInputStream(cf);
+        try {
+          out.add(read(in));
+        } finally {
+          in.close();
+        }
+      }
+    } else {
+      ZipFile zf = new ZipFile(f);
+      try {
+        List<String> names = new ArrayList<String>();
+        Enumeration<? extends ZipEntry> en = zf.entries();
+        while (en.hasMoreElements()) {
+          ZipEntry e = en.nextElement();
+          if (!e.isDirectory() && e.getName().endsWith(".class")) names.add(e.getName());
+        }
+        Collections.sort(names);
+        for (String name : names) {
+          if (maxClasses > 0 && out.size() >= maxClasses) break;
+          InputStream in = zf.getInputStream(zf.getEntry(name));
+          try {
+            out.add(read(in));
+          } finally {
+            in.close();
+          }
+        }
+      } finally {
+        zf.close();
+      }
+    }
+    if (out.isEmpty()) throw new IllegalStateException("fixture has no class files (placeholder?): " + f.getAbsolutePath());
+    return out;
+  }
+
+  /** Methods with a body, in class then declaration order; fails if there are none. */
+  public static List<MethodNode> methods(List<ClassNode> classes) {
+    List<MethodNode> out = new ArrayList<MethodNode>();
+    for (ClassNode cn : classes) {
+      for (MethodNode mn : cn.methods) {
+        if (mn.instructions.size() > 0) out.add(mn);
+      }
+    }
+    if (out.isEmpty()) throw new IllegalStateException("fixture has no method bodies");
+    return out;
+  }
+
+  /**
+   * Swallow stdout for the rest of the fork: DF and friends print a line per call, which would
+   * bury the runner output. The println cost itself stays in the measurement.
+   */
+  public static void discardStdout() {
+    System.setOut(new PrintStream(new OutputStream() {
+      @Override
+      public void write(int b) {}
+
+      @Override
+      public void write(byte[] b, int off, int len) {}
+    }));
+  }
+
+  private static ClassNode read(InputStream in) throws IOException {
+    ClassNode cn = new ClassNode();
+    new ClassReader(in).accept(cn, ClassReader.SKIP_FRAMES);
+    return cn;
+  }
+
+  private static void collectClassFiles(File dir, List<File> out) {
+    File[] children = dir.listFiles();
+    if (children == null) return;
+    List<File> sorted = new ArrayList<File>();
+    Collections.addAll(sorted, children);
+    Collections.sort(sorted);
+    for (File c : sorted) {
+      if (c.isDirectory()) collectClassFiles(c, out);
+      else if (c.getName().endsWith(".class")) out.add(c);
+    }
+  }
+}
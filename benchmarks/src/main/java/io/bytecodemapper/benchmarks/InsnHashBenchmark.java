@@ -0,0 +1,121 @@
+package io.bytecodemapper.benchmarks;
+
+import io.bytecodemapper.core.hash.InsnHasher;
+import io.bytecodemapper.core.hash.StableHash128;
+import org.objectweb.asm.tree.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Method-body hashing as done before every cache lookup: the previous StringBuilder + UTF-8 +
+ * SHA-256 + hex path versus the streaming {@link InsnHasher}. One op = all sampled methods.
+ *
+ * Run: gradlew :benchmarks:jmh -Pjmh.args="InsnHashBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InsnHashBenchmark {
+
+  @Param({"data/weeks/osrs-170.jar"})
+  public String fixture;
+
+  @Param({"2000"})
+  public int maxMethods;
+
+  private List<MethodNode> methods;
+  private StableHash128 reuse;
+
+  @Setup
+  public void load() throws Exception {
+    List<MethodNode> all = Fixtures.methods(Fixtures.classes(fixture, 0));
+    methods = new ArrayList<MethodNode>(all.subList(0, Math.min(maxMethods, all.size())));
+    reuse = new StableHash128();
+  }
+
+  @Benchmark
+  public void legacySha256Hex(Blackhole bh) throws Exception {
+    for (int i = 0; i < methods.size(); i++) bh.consume(legacyHash(methods.get(i)));
+  }
+
+  @Benchmark
+  public void streaming128Hex(Blackhole bh) {
+    for (int i = 0; i < methods.size(); i++) bh.consume(InsnHasher.hash(methods.get(i), reuse).toHex());
+  }
+
+  @Benchmark
+  public void streaming64(Blackhole bh) {
+    for (int i = 0; i < methods.size(); i++) bh.consume(InsnHasher.hash(methods.get(i), reuse).lo());
+  }
+
+  /** Verbatim copy of the previous Orchestrator.stableInsnHash, kept as the baseline. */
+  static String legacyHash(MethodNode mn) throws Exception {
+    StringBuilder sb = new StringBuilder(256);
+    AbstractInsnNode[] insns = mn.instructions.toArray();
+    IdentityHashMap<LabelNode, Integer> labels = new IdentityHashMap<LabelNode, Integer>();
+    for (AbstractInsnNode insn : insns) {
+      if (insn instanceof LabelNode) labels.put((LabelNode) insn, Integer.valueOf(labels.size()));
+    }
+    for (AbstractInsnNode insn : insns) {
+      int op = insn.getOpcode();
+      if (insn instanceof LabelNode) { sb.append('L').append(labels.get(insn)).append('|'); continue; }
+      if (op < 0) continue;
+      sb.append(op).append(':');
+      if (insn instanceof IntInsnNode) {
+        sb.append(((IntInsnNode) insn).operand);
+      } else if (insn instanceof VarInsnNode) {
+        sb.append(((VarInsnNode) insn).var);
+      } else if (insn instanceof TypeInsnNode) {
+        sb.append(((TypeInsnNode) insn).desc);
+      } else if (insn instanceof FieldInsnNode) {
+        FieldInsnNode fi = (FieldInsnNode) insn;
+        sb.append(fi.owner).append('#').append(fi.name).append(':').append(fi.desc);
+      } else if (insn instanceof MethodInsnNode) {
+        MethodInsnNode mi = (MethodInsnNode) insn;
+        sb.append(mi.owner).append('#').append(mi.name).append(mi.desc);
+      } else if (insn instanceof LdcInsnNode) {
+        Object c = ((LdcInsnNode) insn).cst;
+        sb.append(c != null ? c.getClass().getSimpleName() : "null").append(':').append(String.valueOf(c));
+      } else if (insn instanceof IincInsnNode) {
+        IincInsnNode ii = (IincInsnNode) insn;
+        sb.append(ii.var).append(',').append(ii.incr);
+      } else if (insn instanceof TableSwitchInsnNode) {
+        TableSwitchInsnNode ts = (TableSwitchInsnNode) insn;
+        sb.append(ts.min).append(',').append(ts.max).append(',').append(labels.get(ts.dflt));
+        for (Object l : ts.labels) sb.append(',').append(labels.get(l));
+      } else if (insn instanceof LookupSwitchInsnNode) {
+        LookupSwitchInsnNode ls = (LookupSwitchInsnNode) insn;
+        List<?> keys = ls.keys; sb.append(keys != null ? keys.size() : 0).append(',').append(labels.get(ls.dflt));
+        if (keys != null) for (int i = 0; i < keys.size(); i++) sb.append(',').append(keys.get(i)).append('>').append(labels.get(ls.labels.get(i)));
+      } else if (insn instanceof JumpInsnNode) {
+        sb.append(labels.get(((JumpInsnNode) insn).label));
+      } else if (insn instanceof InvokeDynamicInsnNode) {
+        InvokeDynamicInsnNode indy = (InvokeDynamicInsnNode) insn;
+        sb.append(indy.name).append(indy.desc);
+      } else if (insn instanceof MultiANewArrayInsnNode) {
+        MultiANewArrayInsnNode ma = (MultiANewArrayInsnNode) insn;
+        sb.append(ma.desc).append(',').append(ma.dims);
+      }
+      sb.append('|');
+    }
+    if (mn.tryCatchBlocks != null) {
+      for (TryCatchBlockNode tcb : mn.tryCatchBlocks) {
+        sb.append('T').append(labels.get(tcb.start)).append(',').append(labels.get(tcb.end))
+          .append(',').append(labels.get(tcb.handler)).append(',').append(tcb.type).append('|');
+      }
+    }
+    java.security.MessageDigest md = java.security.MessageDigest.getInstance("SHA-256");
+    byte[] d = md.digest(sb.toString().getBytes("UTF-8"));
+    StringBuilder hex = new StringBuilder(64);
+    for (byte b : d) hex.append(String.format("%02x", b));
+    return hex.toString();
+  }
+}
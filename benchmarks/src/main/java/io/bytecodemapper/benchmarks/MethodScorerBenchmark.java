@@ -0,0 +1,90 @@
+package io.bytecodemapper.benchmarks;
+
+import io.bytecodemapper.cli.method.MethodFeatureExtractor;
+import io.bytecodemapper.cli.method.MethodFeatures;
+import io.bytecodemapper.cli.method.MethodScorer;
+import io.bytecodemapper.signals.idf.IdfStore;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MethodScorer.scoreOne as the method matcher calls it: every method of a class scored against
+ * the other methods of that class (one old method against a mapped new owner). Bags are scored
+ * with per-query IDF (3-arg overload), on run corpora built once, and with corpus IDF.
+ * One op = every query of the sample.
+ *
+ * Run: gradlew :benchmarks:jmh -Pjmh.args="MethodScorerBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodScorerBenchmark {
+
+  @Param({"testData/classes/pkg", "testData/obfuscated.jar", "data/weeks/osrs-170.jar"})
+  public String fixture;
+
+  @Param({"200"})
+  public int maxClasses;
+
+  private List<MethodFeatures> sources;
+  private List<List<MethodFeatures>> candidates;
+  private IdfStore idf;
+  private MethodScorer.BagCorpora corpora;
+  private MethodScorer.BagCorpora corpusIdf;
+
+  @Setup
+  public void load() throws Exception {
+    Fixtures.discardStdout();
+    sources = new ArrayList<MethodFeatures>();
+    candidates = new ArrayList<List<MethodFeatures>>();
+    List<MethodFeatures> all = new ArrayList<MethodFeatures>();
+    MethodFeatureExtractor extractor = new MethodFeatureExtractor();
+    for (ClassNode cn : Fixtures.classes(fixture, maxClasses)) {
+      List<MethodFeatures> owner = new ArrayList<MethodFeatures>();
+      for (MethodNode mn : cn.methods) {
+        if (mn.instructions.size() == 0) continue;
+        try {
+          owner.add(extractor.extractForNew(cn, mn));
+        } catch (RuntimeException e) {
+          // leave methods the extractor rejects out of the sample
+        }
+      }
+      all.addAll(owner);
+      if (owner.size() < 2) continue;
+      for (int i = 0; i < owner.size(); i++) {
+        List<MethodFeatures> cands = new ArrayList<MethodFeatures>(owner);
+        cands.remove(i);
+        sources.add(owner.get(i));
+        candidates.add(cands);
+      }
+    }
+    if (sources.isEmpty()) throw new IllegalStateException("fixture has no class with two scorable methods: " + fixture);
+    idf = IdfStore.createDefault();
+    corpora = MethodScorer.BagCorpora.build(all, false);
+    corpusIdf = MethodScorer.BagCorpora.build(all, true);
+  }
+
+  @Benchmark
+  public void scoreOnePerQuery(Blackhole bh) {
+    for (int i = 0; i < sources.size(); i++) bh.consume(MethodScorer.scoreOne(sources.get(i), candidates.get(i), idf));
+  }
+
+  @Benchmark
+  public void scoreOneRunCorpora(Blackhole bh) {
+    for (int i = 0; i < sources.size(); i++) bh.consume(MethodScorer.scoreOne(sources.get(i), candidates.get(i), idf, corpora));
+  }
+
+  @Benchmark
+  public void scoreOneCorpusIdf(Blackhole bh) {
+    for (int i = 0; i < sources.size(); i++) bh.consume(MethodScorer.scoreOne(sources.get(i), candidates.get(i), idf, corpusIdf));
+  }
+}
@@ -0,0 +1,73 @@
+package io.bytecodemapper.benchmarks;
+
+import io.bytecodemapper.core.normalize.Normalizer;
+import io.bytecodemapper.signals.normalized.NormalizedMethod;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NormalizedMethod on normalized bodies, as extraction runs it: construction (opcode bag,
+ * strings, invoked signatures, fingerprint) and construction plus {@code extract()} (the
+ * NormalizedFeatures behind nsf64 and the stack/call histograms). One op = every method.
+ *
+ * Run: gradlew :benchmarks:jmh -Pjmh.args="NormalizedMethodBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NormalizedMethodBenchmark {
+
+  @Param({"testData/classes/pkg", "testData/obfuscated.jar", "data/weeks/osrs-170.jar"})
+  public String fixture;
+
+  @Param({"200"})
+  public int maxClasses;
+
+  private List<String> owners;
+  private List<MethodNode> methods;
+
+  @Setup
+  public void load() throws Exception {
+    Fixtures.discardStdout();
+    owners = new ArrayList<String>();
+    methods = new ArrayList<MethodNode>();
+    for (ClassNode cn : Fixtures.classes(fixture, maxClasses)) {
+      for (MethodNode mn : cn.methods) {
+        if (mn.instructions.size() == 0) continue;
+        Normalizer.normalize(mn, Normalizer.Options.defaults());
+        try {
+          new NormalizedMethod(cn.name, mn, Collections.<Integer>emptySet()).extract();
+        } catch (RuntimeException e) {
+          continue; // extraction records no features for these either
+        }
+        owners.add(cn.name);
+        methods.add(mn);
+      }
+    }
+    if (methods.isEmpty()) throw new IllegalStateException("fixture has no method bodies: " + fixture);
+  }
+
+  @Benchmark
+  public void construct(Blackhole bh) {
+    for (int i = 0; i < methods.size(); i++) {
+      bh.consume(new NormalizedMethod(owners.get(i), methods.get(i), Collections.<Integer>emptySet()));
+    }
+  }
+
+  @Benchmark
+  public void constructAndExtract(Blackhole bh) {
+    for (int i = 0; i < methods.size(); i++) {
+      bh.consume(new NormalizedMethod(owners.get(i), methods.get(i), Collections.<Integer>emptySet()).extract());
+    }
+  }
+}
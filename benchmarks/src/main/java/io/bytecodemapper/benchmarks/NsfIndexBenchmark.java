@@ -0,0 +1,98 @@
+package io.bytecodemapper.benchmarks;
+
+import io.bytecodemapper.core.index.NsfIndex;
+import io.bytecodemapper.core.normalize.Normalizer;
+import io.bytecodemapper.signals.normalized.NormalizedMethod;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NsfIndex.near as the method matcher's NSF near tier runs it: one index per owner holding
+ * canonical and surrogate refs (Mode.BOTH), queried with every method's own nsf64 under a
+ * Hamming budget (1 by default, 2 for flattened methods). {@code nearAnyOwner} runs the same
+ * queries against one index over the whole sample. One op = every query of the sample.
+ *
+ * Run: gradlew :benchmarks:jmh -Pjmh.args="NsfIndexBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NsfIndexBenchmark {
+
+  @Param({"testData/classes/pkg", "testData/obfuscated.jar", "data/weeks/osrs-170.jar"})
+  public String fixture;
+
+  @Param({"200"})
+  public int maxClasses;
+
+  @Param({"1", "2"})
+  public int hammingBudget;
+
+  private List<NsfIndex> indexes;
+  private NsfIndex global;
+  private List<String> owners;
+  private List<String> descs;
+  private List<Long> fingerprints;
+
+  @Setup
+  public void load() throws Exception {
+    Fixtures.discardStdout();
+    indexes = new ArrayList<NsfIndex>();
+    global = new NsfIndex();
+    owners = new ArrayList<String>();
+    descs = new ArrayList<String>();
+    fingerprints = new ArrayList<Long>();
+    for (ClassNode cn : Fixtures.classes(fixture, maxClasses)) {
+      NsfIndex idx = new NsfIndex();
+      for (MethodNode mn : cn.methods) {
+        if (mn.instructions.size() == 0) continue;
+        long fp;
+        try {
+          Normalizer.normalize(mn, Normalizer.Options.defaults());
+          fp = new NormalizedMethod(cn.name, mn, Collections.<Integer>emptySet()).extract().nsf64;
+        } catch (RuntimeException e) {
+          continue; // no nsf64; the matcher skips the NSF tiers for these
+        }
+        idx.add(cn.name, mn.desc, mn.name, fp, NsfIndex.Mode.BOTH);
+        global.add(cn.name, mn.desc, mn.name, fp, NsfIndex.Mode.BOTH);
+        indexes.add(idx);
+        owners.add(cn.name);
+        descs.add(mn.desc);
+        fingerprints.add(Long.valueOf(fp));
+      }
+    }
+    if (owners.isEmpty()) throw new IllegalStateException("fixture has no method bodies: " + fixture);
+    global.nearAnyOwner("", 0L, 0); // build the cross-owner view outside the measurement
+  }
+
+  @Benchmark
+  public void near(Blackhole bh) {
+    for (int i = 0; i < owners.size(); i++) {
+      bh.consume(indexes.get(i).near(owners.get(i), descs.get(i), fingerprints.get(i).longValue(), hammingBudget));
+    }
+  }
+
+  @Benchmark
+  public void nearAnyOwner(Blackhole bh) {
+    for (int i = 0; i < owners.size(); i++) {
+      bh.consume(global.nearAnyOwner(descs.get(i), fingerprints.get(i).longValue(), hammingBudget));
+    }
+  }
+
+  @Benchmark
+  public void exact(Blackhole bh) {
+    for (int i = 0; i < owners.size(); i++) {
+      bh.consume(indexes.get(i).exact(owners.get(i), descs.get(i), fingerprints.get(i).longValue()));
+    }
+  }
+}
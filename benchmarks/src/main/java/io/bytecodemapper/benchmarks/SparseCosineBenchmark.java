@@ -0,0 +1,142 @@
+package io.bytecodemapper.benchmarks;
+
+import io.bytecodemapper.signals.calls.CallBagExtractor;
+import io.bytecodemapper.signals.common.Cosine;
+import io.bytecodemapper.signals.common.SparseVector;
+import io.bytecodemapper.signals.opcode.OpcodeFeatures;
+import io.bytecodemapper.signals.strings.StringBagExtractor;
+import io.bytecodemapper.signals.tfidf.TfIdfCorpus;
+import io.bytecodemapper.signals.tfidf.TfIdfModel;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bag and histogram cosines on gamepack methods: the dense vocabulary-sized path versus
+ * {@link SparseVector}. A query is one method of a class scored against the other methods of
+ * that class (as MethodScorer scores a class pair); one op = all queries of the sample.
+ *
+ * Run: gradlew :benchmarks:jmh -Pjmh.args="SparseCosineBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SparseCosineBenchmark {
+
+  @Param({"data/weeks/osrs-170.jar"})
+  public String fixture;
+
+  @Param({"calls", "strings"})
+  public String bag;
+
+  @Param({"300"})
+  public int maxClasses;
+
+  /** Per query: [0] = source doc, [1..] = candidate docs. */
+  private List<List<List<String>>> queries;
+  private List<List<SparseVector>> queryCounts;
+  private List<List<SparseVector>> queryUnit;
+  private List<int[]> histograms;
+  private List<SparseVector> sparseHistograms;
+
+  @Setup
+  public void load() throws Exception {
+    queries = new ArrayList<List<List<String>>>();
+    histograms = new ArrayList<int[]>();
+    List<List<String>> allDocs = new ArrayList<List<String>>();
+    for (ClassNode cn : Fixtures.classes(fixture, 0)) {
+      if (queries.size() >= maxClasses) break;
+      List<List<String>> docs = new ArrayList<List<String>>();
+      for (MethodNode mn : cn.methods) {
+        if (mn.instructions.size() == 0) continue;
+        docs.add("calls".equals(bag) ? CallBagExtractor.extract(cn.name, mn) : StringBagExtractor.extract(mn));
+        histograms.add(OpcodeFeatures.opcodeHistogram(mn));
+      }
+      if (docs.size() < 2) continue;
+      queries.add(docs);
+      allDocs.addAll(docs);
+    }
+    TfIdfCorpus corpus = TfIdfCorpus.build(allDocs);
+    queryCounts = new ArrayList<List<SparseVector>>(queries.size());
+    queryUnit = new ArrayList<List<SparseVector>>(queries.size());
+    for (List<List<String>> q : queries) {
+      List<SparseVector> counts = new ArrayList<SparseVector>(q.size());
+      List<SparseVector> unit = new ArrayList<SparseVector>(q.size());
+      for (List<String> d : q) {
+        SparseVector c = corpus.termCounts(d);
+        counts.add(c);
+        unit.add(corpus.weigh(c));
+      }
+      queryCounts.add(counts);
+      queryUnit.add(unit);
+    }
+    sparseHistograms = new ArrayList<SparseVector>(histograms.size());
+    for (int[] h : histograms) sparseHistograms.add(SparseVector.ofCounts(h));
+  }
+
+  /** Previous path: per-query model, dense vectors sized to the query vocabulary. */
+  @Benchmark
+  public void densePerQueryModel(Blackhole bh) {
+    for (List<List<String>> q : queries) {
+      TfIdfModel model = TfIdfModel.build(q);
+      double[] src = model.vectorize(q.get(0));
+      for (int i = 1; i < q.size(); i++) bh.consume(Cosine.cosine(src, model.vectorize(q.get(i))));
+    }
+  }
+
+  /** Per-query model with sparse vectors (CallBagTfidf/StringTfidf.cosineSimilarity). */
+  @Benchmark
+  public void sparsePerQueryModel(Blackhole bh) {
+    for (List<List<String>> q : queries) {
+      TfIdfModel model = TfIdfModel.build(q);
+      SparseVector src = model.vectorizeSparse(q.get(0));
+      for (int i = 1; i < q.size(); i++) bh.consume(Cosine.cosine(src, model.vectorizeSparse(q.get(i))));
+    }
+  }
+
+  /** Run corpus term counts built once; IDF over the query (MethodScorer default). */
+  @Benchmark
+  public void sparseCorpusQueryIdf(Blackhole bh) {
+    for (List<SparseVector> q : queryCounts) {
+      bh.consume(TfIdfCorpus.queryCosines(q.get(0), q.subList(1, q.size())));
+    }
+  }
+
+  /** Run corpus IDF with pre-normalized vectors: cosine is a dot product. */
+  @Benchmark
+  public void sparseCorpusIdf(Blackhole bh) {
+    for (List<SparseVector> q : queryUnit) {
+      SparseVector src = q.get(0);
+      for (int i = 1; i < q.size(); i++) bh.consume(src.dot(q.get(i)));
+    }
+  }
+
+  /** Opcode histograms, previous path: both sides copied into dense double[200]. */
+  @Benchmark
+  public void histogramDense(Blackhole bh) {
+    for (int i = 1; i < histograms.size(); i++) {
+      int[] a = histograms.get(i - 1), b = histograms.get(i);
+      double[] da = new double[a.length];
+      double[] db = new double[b.length];
+      for (int k = 0; k < a.length; k++) da[k] = a[k];
+      for (int k = 0; k < b.length; k++) db[k] = b[k];
+      bh.consume(Cosine.cosine(da, db));
+    }
+  }
+
+  /** Opcode histograms as prebuilt sparse vectors. */
+  @Benchmark
+  public void histogramSparse(Blackhole bh) {
+    for (int i = 1; i < sparseHistograms.size(); i++) {
+      bh.consume(Cosine.cosine(sparseHistograms.get(i - 1), sparseHistograms.get(i)));
+    }
+  }
+}
@@ -30,9 +30,15 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import net.runelite.asm.ClassFile;
 import net.runelite.asm.ClassGroup;
@@ -63,6 +69,14 @@ public class Execution
 	private final Map<Object, Integer> accesses = new HashMap<>();
 	public boolean staticStep; // whether to step through static methods
 	public boolean noExceptions;
+	/**
+	 * Worker threads for {@link #run()}. With more than one, methods are
+	 * explored in rounds on a fork-join pool; see {@link #runParallel}.
+	 */
+	public int threads = Integer.getInteger("deob.execution.threads", 1);
+	// partitions waiting to be explored, and the one being explored, while the serial run() is in progress
+	private Map<Method, MethodPartition> pending;
+	private MethodPartition current;
 
 	public Execution(ClassGroup group)
 	{
@@ -158,6 +172,26 @@ public class Execution
 
 	public void addFrame(Frame frame)
 	{
+		if (frame.partition != null)
+		{
+			// duplicated from a frame being explored on a worker
+			frame.partition.add(frame);
+			return;
+		}
+
+		if (pending != null)
+		{
+			if (current != null && current.method == frame.getMethod())
+			{
+				current.add(frame);
+			}
+			else
+			{
+				partition(pending, frame);
+			}
+			return;
+		}
+
 		// this is to keep frames with same methodcontext together to reduce memory
 		if (frames.isEmpty() || frames.get(0).getMethod() == frame.getMethod())
 		{
@@ -181,6 +215,12 @@ public class Execution
 			return null;
 		}
 
+		MethodPartition partition = from.getFrame().partition;
+		if (partition != null)
+		{
+			return to.isNative() ? null : partition.invoke(this, invokes, from, to);
+		}
+
 		if (hasInvoked(from, to))
 		{
 			return null;
@@ -220,6 +260,242 @@ public class Execution
 	{
 		assert !paused;
 
+		if (step || staticStep)
+		{
+			// the step executors insert and remove frames themselves
+			runFrames();
+			return;
+		}
+
+		Map<Method, MethodPartition> partitions = new LinkedHashMap<>();
+		frames.forEach(f -> partition(partitions, f));
+		framesOther.forEach(f -> partition(partitions, f));
+		frames.clear();
+		framesOther.clear();
+
+		// the counters are shared by all executions, so only exact when this is the only one running
+		long stackCopies = Stack.copies.sum(), stackNodes = Stack.nodes.sum(),
+			variablesCopies = Variables.copies.sum(), variablesArrays = Variables.arrays.sum();
+
+		if (threads > 1)
+		{
+			runParallel(partitions);
+		}
+		else
+		{
+			runSerial(partitions);
+		}
+
+		logger.debug("Copied stacks {} times ({} nodes allocated) and variables {} times ({} arrays allocated)",
+			Stack.copies.sum() - stackCopies, Stack.nodes.sum() - stackNodes,
+			Variables.copies.sum() - variablesCopies, Variables.arrays.sum() - variablesArrays);
+	}
+
+	private static void partition(Map<Method, MethodPartition> partitions, Frame frame)
+	{
+		partitions.computeIfAbsent(frame.getMethod(), MethodPartition::new).add(frame);
+	}
+
+	/**
+	 * Explores partitions one at a time, in the order their first frame was
+	 * added, which is the order the frame lists were processed in.
+	 */
+	private void runSerial(Map<Method, MethodPartition> partitions)
+	{
+		pending = partitions;
+		int fcount = 0;
+		try
+		{
+			while (!pending.isEmpty())
+			{
+				Iterator<MethodPartition> it = pending.values().iterator();
+				current = it.next();
+				it.remove();
+
+				fcount += explore(current, false);
+			}
+		}
+		finally
+		{
+			pending = null;
+			current = null;
+		}
+
+		logger.debug("Processed {} frames", fcount);
+	}
+
+	/**
+	 * Explores the partitions of each round concurrently, one task per method.
+	 * Workers only touch their own partition; executed instructions, visitor
+	 * events and invokes are buffered there. After the round, each partition
+	 * in order claims the methods it invoked that are still unclaimed (their
+	 * frames form the next round), then replays its events to the visitors
+	 * on this thread. Recursive calls are explored in the round they are made
+	 * and win over calls from other partitions. The result is the same for any
+	 * number of threads, but invoked methods are claimed round by round rather
+	 * than in the serial frame order.
+	 */
+	private void runParallel(Map<Method, MethodPartition> partitions)
+	{
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		int fcount = 0, rounds = 0;
+		try
+		{
+			while (!partitions.isEmpty())
+			{
+				List<MethodPartition> round = new ArrayList<>(partitions.values());
+				partitions = new LinkedHashMap<>();
+
+				List<Callable<Integer>> tasks = new ArrayList<>(round.size());
+				for (MethodPartition p : round)
+				{
+					p.frames.forEach(f -> f.partition = p);
+					tasks.add(() -> explore(p, true));
+				}
+				for (Future<Integer> f : pool.invokeAll(tasks))
+				{
+					fcount += await(f);
+				}
+
+				for (MethodPartition p : round)
+				{
+					if (p.invoked.contains(p.method))
+					{
+						invokes.add(p.method);
+					}
+				}
+				for (MethodPartition p : round)
+				{
+					merge(p, partitions);
+				}
+				++rounds;
+			}
+		}
+		finally
+		{
+			pool.shutdownNow();
+		}
+
+		logger.debug("Processed {} frames in {} rounds", fcount, rounds);
+	}
+
+	private void merge(MethodPartition p, Map<Method, MethodPartition> next)
+	{
+		executed.addAll(p.executed);
+
+		for (int i = 0; i < p.invokeTo.size(); ++i)
+		{
+			Method to = p.invokeTo.get(i);
+			if (invokes.add(to))
+			{
+				Frame f = new Frame(this, to);
+				f.initialize(p.invokeFrom.get(i));
+				partition(next, f);
+			}
+		}
+
+		for (Object event : p.events)
+		{
+			if (event instanceof InstructionContext)
+			{
+				accept((InstructionContext) event);
+			}
+			else if (event instanceof Frame)
+			{
+				accept((Frame) event);
+			}
+			else
+			{
+				accept((MethodContext) event);
+			}
+		}
+	}
+
+	private static int await(Future<Integer> f)
+	{
+		try
+		{
+			return f.get();
+		}
+		catch (InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(ex);
+		}
+		catch (ExecutionException ex)
+		{
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException)
+			{
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error)
+			{
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+	}
+
+	/**
+	 * Runs the frames of one partition to completion, including frames
+	 * branched off and recursive calls into the same method, which are
+	 * appended to it as they are added. Visitor events are buffered in the
+	 * partition when running on a worker.
+	 */
+	private int explore(MethodPartition p, boolean buffered)
+	{
+		int fcount = 0;
+		Frame frame = null;
+		while (!p.frames.isEmpty())
+		{
+			frame = p.frames.peekFirst();
+
+			++fcount;
+			frame.execute();
+
+			assert !frame.isExecuting();
+
+			if (buffered)
+			{
+				if (!frameVisitors.isEmpty())
+				{
+					p.events.add(frame);
+				}
+			}
+			else
+			{
+				accept(frame);
+			}
+
+			p.frames.pollFirst();
+			frame.partition = null;
+
+			// Return to caller
+			popStack(frame);
+		}
+
+		assert frame.getMethod() == frame.getMethodCtx().getMethod();
+
+		if (buffered)
+		{
+			if (!methodContextVisitors.isEmpty())
+			{
+				p.events.add(frame.getMethodCtx());
+			}
+		}
+		else
+		{
+			accept(frame.getMethodCtx());
+		}
+		return fcount;
+	}
+
+	/**
+	 * Processes the frame lists directly, for the step executors.
+	 */
+	private void runFrames()
+	{
 		int fcount = 0;
 		while (!frames.isEmpty())
 		{
@@ -277,6 +553,16 @@ public class Execution
 
 	public void accept(InstructionContext ic)
 	{
+		MethodPartition partition = ic.getFrame().partition;
+		if (partition != null)
+		{
+			if (!visitors.isEmpty())
+			{
+				partition.events.add(ic);
+			}
+			return;
+		}
+
 		visitors.forEach(v -> v.visit(ic));
 	}
 
@@ -62,6 +62,7 @@ public class Frame
 	public Frame returnTo; // is this the same as caller?
 	public Frame otherStatic;
 	private int order;
+	MethodPartition partition; // set while explored on a worker
 
 	public Frame(Execution execution, Method method)
 	{
@@ -179,6 +180,7 @@ public class Frame
 		}
 		this.otherStatic = other.otherStatic;
 		this.order = other.order;
+		this.partition = other.partition;
 	}
 
 	public Frame dup()
@@ -271,7 +273,7 @@ public class Frame
 			assert ictx.getInstruction() == oldCur;
 			ctx.contexts.put(oldCur, ictx);
 
-			execution.executed.add(oldCur);
+			(partition != null ? partition.executed : execution.executed).add(oldCur);
 
 			execution.accept(ictx);
 
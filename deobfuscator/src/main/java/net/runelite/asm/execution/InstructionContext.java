@@ -156,21 +156,7 @@ public class InstructionContext
 			return false;
 		
 		// check if stack at time of execution is equal
-		Stack ours = new Stack(this.getStack()), // copy stacks since we destroy them
-			theirs = new Stack(ic.getStack());
-		
-		if (ours.getSize() != theirs.getSize()) // is this possible?
-			return false;
-		
-		while (ours.getSize() > 0)
-		{
-			StackContext s1 = ours.pop(), s2 = theirs.pop();
-			
-			if (s1.getPushed().getInstruction() != s2.getPushed().getInstruction())
-				return false;
-		}
-		
-		return true;
+		return stack.isPushedBySame(ic.stack);
 	}
 
 	@Override
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016-2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.asm.execution;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import net.runelite.asm.Method;
+import net.runelite.asm.attributes.code.Instruction;
+
+/**
+ * The frames of one method, explored together by {@link Execution#run()}.
+ * When explored on a worker thread, frames record what they would otherwise
+ * write to the shared execution here, and the execution merges it afterwards
+ * in partition order.
+ */
+class MethodPartition
+{
+	final Method method;
+	final ArrayDeque<Frame> frames = new ArrayDeque<>();
+
+	// buffered while on a worker
+	final Set<Instruction> executed = new HashSet<>();
+	final List<Object> events = new ArrayList<>(); // instruction contexts, frames and method contexts, in visit order
+	final Set<Method> invoked = new HashSet<>(); // methods this partition has claimed
+	final List<InstructionContext> invokeFrom = new ArrayList<>();
+	final List<Method> invokeTo = new ArrayList<>();
+
+	MethodPartition(Method method)
+	{
+		this.method = method;
+	}
+
+	void add(Frame frame)
+	{
+		assert frame.getMethod() == method;
+		frames.add(frame);
+	}
+
+	/**
+	 * Invoke from a frame on a worker. Methods claimed by earlier rounds are
+	 * skipped. Recursion into this partition's method is explored here right
+	 * away, any other call is recorded and resolved when the round is merged.
+	 */
+	Frame invoke(Execution execution, Set<Method> claimed, InstructionContext from, Method to)
+	{
+		if (claimed.contains(to) || !invoked.add(to))
+		{
+			return null;
+		}
+
+		if (to != method)
+		{
+			invokeFrom.add(from);
+			invokeTo.add(to);
+			return null;
+		}
+
+		Frame f = new Frame(execution, to);
+		f.initialize(from);
+		f.partition = this;
+		add(f);
+		return f;
+	}
+}
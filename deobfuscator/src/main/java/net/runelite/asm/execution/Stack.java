@@ -25,25 +25,54 @@
 
 package net.runelite.asm.execution;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 import net.runelite.asm.Method;
 import net.runelite.asm.Type;
 
+/**
+ * An operand stack. Entries are kept in immutable nodes, so copying a stack,
+ * which is done for every instruction context and frame, shares them and
+ * costs no more than the copy itself.
+ */
 public class Stack
 {
+	// allocation counters, logged by Execution#run
+	static final LongAdder copies = new LongAdder();
+	static final LongAdder nodes = new LongAdder();
+
+	private static class Node
+	{
+		private final StackContext value;
+		private final Node next;
+
+		private Node(StackContext value, Node next)
+		{
+			this.value = value;
+			this.next = next;
+		}
+	}
+
+	private final int capacity;
 	private int size;
-	private final StackContext[] stack;
+	private Node top; // top first
+	// entries popped off and not yet pushed over, lowest first. getStack() includes them
+	private Node popped;
 
 	public Stack(int sz)
 	{
-		stack = new StackContext[sz * 2]; // XXX FIXME
+		capacity = sz * 2; // XXX FIXME
 	}
 
 	public Stack(Stack other)
 	{
+		this.capacity = other.capacity;
 		this.size = other.size;
-		this.stack = other.stack.clone();
+		this.top = other.top;
+		this.popped = other.popped;
+		copies.increment();
 	}
 
 	private void printStack(StackContext ctx, int level)
@@ -57,19 +86,22 @@ public class Stack
 
 	public void push(StackContext i)
 	{
-		if (size == stack.length)
+		if (size == capacity)
 		{
 			Method m = i.getPushed().getInstruction().getInstructions().getCode().getMethod();
 			System.err.println("stack overflow in " + m.getClassFile().getName() + " method " + m.getName());
-			for (int c = 0; c < stack.length; ++c)
-				printStack(stack[c], 0);
+			for (StackContext c : getStack())
+				printStack(c, 0);
 			throw new RuntimeException("Stack overflow");
 		}
 
 		assert !i.getType().equals(Type.VOID);
 
-		stack[size] = i;
+		top = new Node(i, top);
+		if (popped != null)
+			popped = popped.next;
 		++size;
+		nodes.increment();
 	}
 
 	public StackContext pop()
@@ -77,7 +109,12 @@ public class Stack
 		if (size <= 0)
 			throw new RuntimeException("Stack underflow");
 
-		return stack[--size];
+		StackContext ctx = top.value;
+		top = top.next;
+		popped = new Node(ctx, popped);
+		--size;
+		nodes.increment();
+		return ctx;
 	}
 
 	public int getSize()
@@ -85,8 +122,36 @@ public class Stack
 		return size;
 	}
 
+	/**
+	 * The entries from the bottom up, followed by those popped off which have
+	 * not been pushed over since.
+	 */
 	public List<StackContext> getStack()
 	{
-		return Arrays.asList(stack);
+		List<StackContext> list = new ArrayList<>();
+		for (Node n = top; n != null; n = n.next)
+			list.add(n.value);
+		Collections.reverse(list);
+		for (Node n = popped; n != null; n = n.next)
+			list.add(n.value);
+		return list;
+	}
+
+	/**
+	 * Whether each entry of both stacks was pushed by the same instruction.
+	 */
+	boolean isPushedBySame(Stack other)
+	{
+		if (size != other.size)
+			return false;
+
+		// once the nodes are shared, so is the rest of the stack
+		for (Node n1 = top, n2 = other.top; n1 != n2; n1 = n1.next, n2 = n2.next)
+		{
+			if (n1.value.getPushed().getInstruction() != n2.value.getPushed().getInstruction())
+				return false;
+		}
+
+		return true;
 	}
 }
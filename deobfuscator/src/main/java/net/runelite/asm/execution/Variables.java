@@ -25,22 +25,42 @@
 
 package net.runelite.asm.execution;
 
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local variables. Copies share the array until one of them is written to.
+ */
 public class Variables
 {
-	private final VariableContext[] variables;
+	// allocation counters, logged by Execution#run
+	static final LongAdder copies = new LongAdder();
+	static final LongAdder arrays = new LongAdder();
+
+	private VariableContext[] variables;
+	private boolean shared; // whether variables may be shared with a copy
 
 	public Variables(int sz)
 	{
 		variables = new VariableContext[sz];
+		arrays.increment();
 	}
 	
 	public Variables(Variables other)
 	{
-		this.variables = other.variables.clone();
+		this.variables = other.variables;
+		this.shared = other.shared = true;
+		copies.increment();
 	}
 
 	public void set(int index, VariableContext value)
 	{
+		if (shared)
+		{
+			variables = variables.clone();
+			shared = false;
+			arrays.increment();
+		}
+
 		variables[index] = value;
 	}
 
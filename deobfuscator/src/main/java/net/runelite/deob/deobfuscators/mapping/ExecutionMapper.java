@@ -25,7 +25,12 @@
 
 package net.runelite.deob.deobfuscators.mapping;
 
+import com.google.common.collect.Iterables;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 import net.runelite.asm.Method;
 
 public class ExecutionMapper
@@ -34,11 +39,23 @@ public class ExecutionMapper
 	
 	private Method method1;
 	private Collection<Method> methods2;
+	private ForkJoinPool pool;
 
 	public ExecutionMapper(Method method1, Collection<Method> methods2)
+	{
+		this(method1, methods2, null);
+	}
+
+	/**
+	 * Candidates are mapped concurrently on the given pool, if not null. Each
+	 * mapping runs its own pair of executions, so they are independent, and
+	 * the highest is picked in candidate order as when run serially.
+	 */
+	public ExecutionMapper(Method method1, Collection<Method> methods2, ForkJoinPool pool)
 	{
 		this.method1 = method1;
 		this.methods2 = methods2;
+		this.pool = pool;
 	}
 
 	public ParallelExecutorMapping run()
@@ -46,10 +63,8 @@ public class ExecutionMapper
 		ParallelExecutorMapping highest = null;
 		boolean multiple = false;
 
-		for (Method m : methods2)
+		for (ParallelExecutorMapping mapping : mapAll())
 		{
-			ParallelExecutorMapping mapping = MappingExecutorUtil.map(method1, m);
-
 			if (highest == null || mapping.same > highest.same)
 			{
 				highest = mapping;
@@ -66,4 +81,20 @@ public class ExecutionMapper
 
 		return highest;
 	}
+
+	private Iterable<ParallelExecutorMapping> mapAll()
+	{
+		if (pool == null || methods2.size() < 2)
+		{
+			// lazily, so only the highest is kept
+			return Iterables.transform(methods2, m -> MappingExecutorUtil.map(method1, m));
+		}
+
+		// copy so the stream is ordered whatever the collection is
+		List<Method> candidates = new ArrayList<>(methods2);
+		return pool.submit(() -> candidates.parallelStream()
+			.map(m -> MappingExecutorUtil.map(method1, m))
+			.collect(Collectors.toList())
+		).join();
+	}
 }
@@ -24,9 +24,10 @@
  */
 package net.runelite.deob.deobfuscators.mapping;
 
+import com.google.common.collect.Multimap;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 import net.runelite.asm.ClassFile;
 import net.runelite.asm.ClassGroup;
@@ -40,6 +41,12 @@ public class Mapper
 
 	private final ClassGroup source, target;
 	private ParallelExecutorMapping mapping;
+	/**
+	 * Worker threads for mapping methods by execution. With more than one,
+	 * candidates are mapped concurrently; the mapping is the same.
+	 */
+	public int threads = Integer.getInteger("deob.mapper.threads", 1);
+	private ForkJoinPool pool;
 
 	public Mapper(ClassGroup source, ClassGroup target)
 	{
@@ -53,6 +60,23 @@ public class Mapper
 	}
 
 	public void run()
+	{
+		pool = threads > 1 ? new ForkJoinPool(threads) : null;
+		try
+		{
+			mapping = map();
+		}
+		finally
+		{
+			if (pool != null)
+			{
+				pool.shutdown();
+				pool = null;
+			}
+		}
+	}
+
+	private ParallelExecutorMapping map()
 	{
 		ParallelExecutorMapping finalm = new ParallelExecutorMapping(source, target);
 
@@ -72,7 +96,7 @@ public class Mapper
 		
 		finalm.reduce();
 
-		mapping = finalm;
+		return finalm;
 	}
 
 	private ParallelExecutorMapping mapMethods()
@@ -82,13 +106,8 @@ public class Mapper
 
 		List<ParallelExecutorMapping> pmes = new ArrayList<>();
 
-		for (Method m : msm.getMap().keySet())
+		for (ParallelExecutorMapping mapping : executionMap(msm.getMap()))
 		{
-			Collection<Method> methods = msm.getMap().get(m);
-
-			ExecutionMapper em = new ExecutionMapper(m, methods);
-
-			ParallelExecutorMapping mapping = em.run();
 			if (mapping == null)
 			{
 				continue;
@@ -117,13 +136,8 @@ public class Mapper
 
 		List<ParallelExecutorMapping> pmes = new ArrayList<>();
 
-		for (Method m : smsm.getMap().keySet())
+		for (ParallelExecutorMapping mapping : executionMap(smsm.getMap()))
 		{
-			Collection<Method> methods = smsm.getMap().get(m);
-
-			ExecutionMapper em = new ExecutionMapper(m, methods);
-
-			ParallelExecutorMapping mapping = em.run();
 			if (mapping == null)
 			{
 				continue;
@@ -147,6 +161,27 @@ public class Mapper
 		return finalm;
 	}
 
+	/**
+	 * Run the execution mapper for each method and its candidates. The
+	 * methods are independent, so with a pool they are mapped concurrently
+	 * too. The results are in key order, null where nothing was mapped.
+	 */
+	private List<ParallelExecutorMapping> executionMap(Multimap<Method, Method> candidates)
+	{
+		List<Method> methods = new ArrayList<>(candidates.keySet());
+		if (pool == null)
+		{
+			return methods.stream()
+				.map(m -> new ExecutionMapper(m, candidates.get(m)).run())
+				.collect(Collectors.toList());
+		}
+
+		return pool.submit(() -> methods.parallelStream()
+			.map(m -> new ExecutionMapper(m, candidates.get(m), pool).run())
+			.collect(Collectors.toList())
+		).join();
+	}
+
 	private void mapMemberMethods(ParallelExecutorMapping mapping)
 	{
 		// pass #2 at method mapping, can use class file mappings learned
@@ -191,7 +226,7 @@ public class Mapper
 					.collect(Collectors.toList());
 
 				// Run over execution mapper
-				ExecutionMapper em = new ExecutionMapper(method, possible);
+				ExecutionMapper em = new ExecutionMapper(method, possible, pool);
 				ParallelExecutorMapping map = em.run();
 				if (map == null)
 				{
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2016-2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.asm.execution;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import net.runelite.asm.ClassFile;
+import net.runelite.asm.ClassGroup;
+import net.runelite.asm.ClassUtil;
+import net.runelite.asm.Method;
+import net.runelite.asm.attributes.code.Instruction;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelExecutionTest
+{
+	@Test
+	public void testThreadCountIndependent() throws IOException
+	{
+		Run two = run(2), four = run(4);
+
+		Assert.assertFalse(two.events.isEmpty());
+		Assert.assertEquals(two.events, four.events);
+		Assert.assertEquals(two.executed, four.executed);
+	}
+
+	@Test
+	public void testSameAsSerial() throws IOException
+	{
+		Run serial = run(1), parallel = run(2);
+
+		// the schedule differs, but each method is explored from the same call
+		Assert.assertEquals(serial.executed, parallel.executed);
+		Assert.assertEquals(sorted(serial.instructions), sorted(parallel.instructions));
+	}
+
+	private static Run run(int threads) throws IOException
+	{
+		InputStream in = ParallelExecutionTest.class.getResourceAsStream("tests/Calls.class");
+		Assert.assertNotNull(in);
+
+		ClassGroup group = new ClassGroup();
+		group.addClass(ClassUtil.loadClass(in));
+		group.initialize();
+
+		Run r = new Run();
+		Execution e = new Execution(group);
+		e.threads = threads;
+		e.addExecutionVisitor(ic ->
+		{
+			String s = describe(ic.getInstruction());
+			r.instructions.add(s);
+			r.events.add(s);
+		});
+		e.addMethodContextVisitor(mc -> r.events.add("ctx " + mc.getMethod()));
+		for (ClassFile cf : group.getClasses())
+		{
+			e.addMethods(cf.getMethods());
+		}
+		e.run();
+
+		for (ClassFile cf : group.getClasses())
+		{
+			for (Method m : cf.getMethods())
+			{
+				if (m.getCode() == null)
+				{
+					continue;
+				}
+				for (Instruction i : m.getCode().getInstructions())
+				{
+					if (e.executed.contains(i))
+					{
+						r.executed.add(describe(i));
+					}
+				}
+			}
+		}
+		return r;
+	}
+
+	private static String describe(Instruction i)
+	{
+		Method m = i.getInstructions().getCode().getMethod();
+		return m + "@" + i.getInstructions().getInstructions().indexOf(i);
+	}
+
+	private static List<String> sorted(List<String> l)
+	{
+		List<String> s = new ArrayList<>(l);
+		Collections.sort(s);
+		return s;
+	}
+
+	private static class Run
+	{
+		final List<String> events = new ArrayList<>();
+		final List<String> instructions = new ArrayList<>();
+		final List<String> executed = new ArrayList<>();
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2016-2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.asm.execution;
+
+import java.util.Arrays;
+import net.runelite.asm.Type;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+public class StackTest
+{
+	@Test
+	public void testCopy()
+	{
+		StackContext a = new StackContext(null, Type.INT, Value.UNKNOWN),
+			b = new StackContext(null, Type.INT, Value.UNKNOWN),
+			c = new StackContext(null, Type.INT, Value.UNKNOWN);
+
+		Stack stack = new Stack(2);
+		stack.push(a);
+		stack.push(b);
+
+		Stack copy = new Stack(stack);
+		assertSame(b, stack.pop());
+		stack.push(c);
+
+		assertEquals(2, copy.getSize());
+		assertEquals(Arrays.asList(a, b), copy.getStack());
+		assertEquals(Arrays.asList(a, c), stack.getStack());
+
+		assertSame(b, copy.pop());
+		assertSame(a, copy.pop());
+		assertEquals(0, copy.getSize());
+		assertEquals(2, stack.getSize());
+	}
+
+	@Test
+	public void testGetStackIncludesPopped()
+	{
+		StackContext a = new StackContext(null, Type.INT, Value.UNKNOWN),
+			b = new StackContext(null, Type.INT, Value.UNKNOWN),
+			c = new StackContext(null, Type.INT, Value.UNKNOWN),
+			d = new StackContext(null, Type.INT, Value.UNKNOWN);
+
+		Stack stack = new Stack(2);
+		stack.push(a);
+		stack.push(b);
+		stack.push(c);
+		stack.pop();
+		stack.pop();
+
+		// popped entries remain until pushed over
+		assertEquals(1, stack.getSize());
+		assertEquals(Arrays.asList(a, b, c), stack.getStack());
+
+		stack.push(d);
+		assertEquals(Arrays.asList(a, d, c), stack.getStack());
+	}
+}
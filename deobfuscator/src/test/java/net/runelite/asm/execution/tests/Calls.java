@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.asm.execution.tests;
+
+public class Calls
+{
+	public static int field1;
+	public static int field2;
+
+	private int value;
+
+	public static int fib(int n)
+	{
+		if (n < 2)
+		{
+			return n;
+		}
+		return fib(n - 1) + fib(n - 2);
+	}
+
+	public static void method1()
+	{
+		if (field1 > 0)
+		{
+			field2 = fib(field1);
+		}
+		else
+		{
+			field2 = shared(field1) * 3;
+		}
+		new Calls().set(field2);
+	}
+
+	public static void method2()
+	{
+		for (int i = 0; i < field1; ++i)
+		{
+			field2 += shared(i);
+		}
+	}
+
+	private static int shared(int i)
+	{
+		try
+		{
+			return 100 / i;
+		}
+		catch (ArithmeticException ex)
+		{
+			return fib(i);
+		}
+	}
+
+	private void set(int v)
+	{
+		switch (v)
+		{
+			case 0:
+				value = 1;
+				break;
+			case 1:
+				value = field1;
+				break;
+			default:
+				value = get() + v;
+				break;
+		}
+	}
+
+	private int get()
+	{
+		return value > 0 ? value : -value;
+	}
+}
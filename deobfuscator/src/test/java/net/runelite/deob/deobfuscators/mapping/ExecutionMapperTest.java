@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.deob.deobfuscators.mapping;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import net.runelite.asm.ClassFile;
+import net.runelite.asm.ClassGroup;
+import net.runelite.asm.ClassUtil;
+import net.runelite.asm.Method;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExecutionMapperTest
+{
+	@Test
+	public void testPoolSameAsSerial() throws IOException
+	{
+		ClassFile cf1 = load(), cf2 = load();
+		List<Method> candidates = cf2.getMethods().stream()
+			.filter(m -> m.isStatic() && m.getCode() != null)
+			.collect(Collectors.toList());
+		Assert.assertTrue(candidates.size() > 1);
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try
+		{
+			for (Method m : cf1.getMethods())
+			{
+				if (!m.isStatic() || m.getCode() == null)
+				{
+					continue;
+				}
+
+				ParallelExecutorMapping serial = new ExecutionMapper(m, candidates).run();
+				ParallelExecutorMapping parallel = new ExecutionMapper(m, candidates, pool).run();
+
+				Assert.assertEquals(serial == null, parallel == null);
+				if (serial != null)
+				{
+					Assert.assertEquals(serial.m2, parallel.m2);
+					Assert.assertEquals(serial.same, parallel.same);
+				}
+			}
+
+			ParallelExecutorMapping mapping = new ExecutionMapper(cf1.findMethod("method1"), candidates, pool).run();
+			Assert.assertNotNull(mapping);
+			Assert.assertEquals(cf2.findMethod("method1"), mapping.m2);
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	private static ClassFile load() throws IOException
+	{
+		InputStream in = ExecutionMapperTest.class.getResourceAsStream("/net/runelite/asm/execution/tests/Calls.class");
+		Assert.assertNotNull(in);
+
+		ClassGroup group = new ClassGroup();
+		ClassFile cf = ClassUtil.loadClass(in);
+		group.addClass(cf);
+		group.initialize();
+		return cf;
+	}
+}
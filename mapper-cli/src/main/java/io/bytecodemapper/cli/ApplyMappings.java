@@ -12,6 +12,7 @@ public final class ApplyMappings {
         RemapService.RemapperKind kind = RemapService.RemapperKind.TINY; // default: TinyRemapper
         boolean verify = false;
         boolean deterministic = true; // enforce deterministic jar order
+        int threads = 1; // ASM remap workers
 
         for (int i=0; i<args.length; i++) {
             String a = args[i];
@@ -26,10 +27,12 @@ public final class ApplyMappings {
                 kind = "asm".equalsIgnoreCase(v) ? RemapService.RemapperKind.ASM : RemapService.RemapperKind.TINY;
             } else if ("--verifyRemap".equals(a)) verify = true;
             else if ("--deterministic".equals(a)) deterministic = true;
+            else if ("--remap-threads".equals(a) && i+1<args.length) threads = threadsOr(args[++i], threads);
+            else if (a.startsWith("--remap-threads=")) threads = threadsOr(a.substring("--remap-threads=".length()), threads);
         }
 
     if (inJar == null || mappings == null || outJar == null) {
-            System.err.println("Usage: applyMappings --inJar <in.jar> --mappings <map.tiny> --out <out.jar> [--format=tiny2|enigma] [--remapper=tiny|asm] [--verifyRemap] [--deterministic]");
+            System.err.println("Usage: applyMappings --inJar <in.jar> --mappings <map.tiny> --out <out.jar> [--format=tiny2|enigma] [--remapper=tiny|asm] [--verifyRemap] [--deterministic] [--remap-threads N|auto]");
             System.exit(2);
             return;
         }
@@ -45,10 +48,15 @@ public final class ApplyMappings {
     if (outJar.getParentFile() != null) outJar.getParentFile().mkdirs();
     // >>> AUTOGEN: BYTECODEMAPPER CLI ApplyMappings PATH RESOLUTION END
 
-    RemapService.VerifyStats vs = RemapService.applyMappings(inJar, mappings, outJar, fmt, kind, verify, deterministic);
+    RemapService.VerifyStats vs = RemapService.applyMappings(inJar, mappings, outJar, fmt, kind, verify, deterministic, threads);
         if (verify) System.out.println("[applyMappings] " + vs);
     }
 
+    private static int threadsOr(String v, int dflt) {
+        Integer n = MapOldNew.parseThreads(v);
+        return n != null ? n.intValue() : dflt;
+    }
+
     private ApplyMappings(){}
 }
 // >>> AUTOGEN: BYTECODEMAPPER CLI ApplyMappings END
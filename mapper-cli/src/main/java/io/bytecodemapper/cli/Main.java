@@ -97,12 +97,16 @@ public final class Main {
     "           [--debug-stats] [--debug-normalized [path]] [--debug-sample <N>] [--maxMethods <N>]\n" +
     "           [--wCalls <0..1>] [--wMicro <0..1>] [--wNorm <0..1>] [--wStrings <0..1>] [--wFields <0..1>] [--alphaMicro <0..1>]\n" +
     "           [--dump-normalized-features[=<dir>]] [--nsf-tier-order \"exact,near,wl,wlrelaxed\"] [--use-nsf64=canonical|surrogate|both]\n" +
-    "           [--wlRelaxedL1 <int>] [--wlSizeBand <0..1>] [--nsf-near <int>] [--stack-cos <0..1>]"
+    "           [--wlRelaxedL1 <int>] [--wlSizeBand <0..1>] [--nsf-near <int>] [--stack-cos <0..1>]\n" +
+    "           [--extract-threads <N|auto>] [--match-threads <N|auto>] [--corpus-idf]\n" +
+    "           [--incremental <previous.tiny>] [--skip-debug] [--cache-max-mb <N>]"
     );
-    System.out.println("  applyMappings --inJar <in.jar> --mappings <mappings.tiny> --out <out.jar> [--format=tiny2|enigma] [--remapper=tiny|asm] [--verifyRemap] [--deterministic]");
+    System.out.println("  applyMappings --inJar <in.jar> --mappings <mappings.tiny> --out <out.jar> [--format=tiny2|enigma] [--remapper=tiny|asm] [--verifyRemap] [--deterministic] [--remap-threads N|auto]");
     // >>> AUTOGEN: BYTECODEMAPPER CLI Main BENCH USAGE BEGIN
     // Bench using explicit manifest of pairs
     System.out.println("  bench --manifest <pairs.json> [--outDir <dir>] [--metricsOut <metrics.json>] [--deterministic]");
+    // Bench over a directory of weekly jars (consecutive pairs)
+    System.out.println("  bench --in <weeksDir> --out <bench.json> [--ablate <csv>] [--cacheDir <dir>] [--idf <path>] [--threads <N|auto>]");
     // >>> AUTOGEN: BYTECODEMAPPER CLI Main BENCH USAGE END
         System.out.println("  tinyStats --in <mappings.tiny> [--list N]");
         System.out.println("  printIdf --out <path> [--from <existing.properties>] [--lambda 0.9]");
@@ -137,6 +137,18 @@ final class MapOldNew {
     // Phase 4 flattening-aware flags
     Integer nsfNearBudgetWhenFlattened = null; // default 2
     Double stackCosineThreshold = null;        // default 0.60
+    // Parallel per-method extraction (1 = serial)
+    Integer extractThreads = null;
+    // Parallel old-owner method matching (1 = serial)
+    Integer matchThreads = null;
+    // Incremental mode: previous run's Tiny v2 output
+    String incremental = null;
+    // Drop debug info while parsing both jars
+    boolean skipDebug = false;
+    // Shared feature store size cap in MiB
+    Long cacheMaxMb = null;
+    // Run-wide call/string TF-IDF corpus instead of per candidate set
+    boolean corpusIdf = false;
         // >>> AUTOGEN: BYTECODEMAPPER CLI MapOldNew METHOD TAU FLAGS BEGIN
         double tauAcceptMethods = 0.60;
         double marginMethods = 0.05;
@@ -235,6 +247,26 @@ final class MapOldNew {
                 try { stackCosineThreshold = Double.valueOf(Double.parseDouble(args[++i])); } catch (NumberFormatException ignore) {}
             } else if (a.startsWith("--stack-cos=")) {
                 try { stackCosineThreshold = Double.valueOf(Double.parseDouble(a.substring("--stack-cos=".length()))); } catch (NumberFormatException ignore) {}
+            } else if ("--extract-threads".equals(a) && i+1<args.length) {
+                extractThreads = parseThreads(args[++i]);
+            } else if (a.startsWith("--extract-threads=")) {
+                extractThreads = parseThreads(a.substring("--extract-threads=".length()));
+            } else if ("--match-threads".equals(a) && i+1<args.length) {
+                matchThreads = parseThreads(args[++i]);
+            } else if (a.startsWith("--match-threads=")) {
+                matchThreads = parseThreads(a.substring("--match-threads=".length()));
+            } else if ("--incremental".equals(a) && i+1<args.length) {
+                incremental = args[++i];
+            } else if (a.startsWith("--incremental=")) {
+                incremental = a.substring("--incremental=".length());
+            } else if ("--cache-max-mb".equals(a) && i+1<args.length) {
+                try { cacheMaxMb = Long.valueOf(Long.parseLong(args[++i])); } catch (NumberFormatException ignore) {}
+            } else if (a.startsWith("--cache-max-mb=")) {
+                try { cacheMaxMb = Long.valueOf(Long.parseLong(a.substring("--cache-max-mb=".length()))); } catch (NumberFormatException ignore) {}
+            } else if ("--skip-debug".equals(a)) {
+                skipDebug = true;
+            } else if ("--corpus-idf".equals(a)) {
+                corpusIdf = true;
             }
         }
         // Apply method matching thresholds (global static for this run)
@@ -336,6 +368,12 @@ final class MapOldNew {
     if (wlSizeBand != null) o.wlSizeBand = wlSizeBand.doubleValue();
     if (nsfNearBudgetWhenFlattened != null) o.nsfNearBudgetWhenFlattened = nsfNearBudgetWhenFlattened.intValue();
     if (stackCosineThreshold != null) o.stackCosineThreshold = stackCosineThreshold.doubleValue();
+    if (extractThreads != null) o.extractThreads = extractThreads.intValue();
+    if (matchThreads != null) o.matchThreads = matchThreads.intValue();
+    if (incremental != null) o.previousMappings = io.bytecodemapper.cli.util.CliPaths.resolveInput(incremental);
+    o.skipDebug = skipDebug;
+    if (cacheMaxMb != null) o.cacheMaxBytes = cacheMaxMb.longValue() << 20;
+    o.corpusIdf = corpusIdf;
 
     Orchestrator orch = new Orchestrator();
     Orchestrator.Result r = orch.run(oldPath, newPath, o);
@@ -409,6 +447,13 @@ final class MapOldNew {
     }
     // >>> AUTOGEN: BYTECODEMAPPER CLI MapOldNew PROGRAMMATIC END
 
+    // Thread-count flag value: positive integer, or "auto" for one worker per available core
+    static Integer parseThreads(String v) {
+        if (v == null) return null;
+        if ("auto".equalsIgnoreCase(v.trim())) return Integer.valueOf(Runtime.getRuntime().availableProcessors());
+        try { return Integer.valueOf(Math.max(1, Integer.parseInt(v.trim()))); } catch (NumberFormatException ignore) { return null; }
+    }
+
     // Deterministic filtered method list (skip abstract/native)
     private static List<MethodNode> sortMethodsFiltered(ClassNode cn) {
         List<MethodNode> ms = new ArrayList<MethodNode>(cn.methods);
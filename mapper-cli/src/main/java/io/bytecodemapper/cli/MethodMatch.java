@@ -146,9 +146,10 @@ final class MethodMatch {
                 // Candidate sets and base scores
                 Map<MethodRef, io.bytecodemapper.cli.method.CallGraphRefiner.CandidateSet> candidateSets = new LinkedHashMap<MethodRef, io.bytecodemapper.cli.method.CallGraphRefiner.CandidateSet>();
                 java.util.List<MethodFeatures> targetList = new java.util.ArrayList<MethodFeatures>(newFeats.values());
+                io.bytecodemapper.core.index.HammingIndex targetWl = io.bytecodemapper.cli.method.CandidateGenerator.wlIndex(targetList);
 
                 for (MethodFeatures src : oldFeats.values()) {
-                    java.util.List<MethodFeatures> cands = io.bytecodemapper.cli.method.CandidateGenerator.topKByWl(src, targetList, io.bytecodemapper.cli.method.CandidateGenerator.DEFAULT_TOPK);
+                    java.util.List<MethodFeatures> cands = io.bytecodemapper.cli.method.CandidateGenerator.topKByWl(src, targetList, targetWl, io.bytecodemapper.cli.method.CandidateGenerator.DEFAULT_TOPK);
 
                     // Build models (calls/strings) once per src for determinism
                     java.util.List<java.util.List<String>> callDocs = new java.util.ArrayList<java.util.List<String>>(cands.size()+1);
@@ -15,10 +15,20 @@ public final class RefineRunner {
       java.util.List<NormalizedMethod> oldMs,
       java.util.List<NormalizedMethod> newMs,
       java.util.Map<String, java.util.Map<String, Double>> S0) {
+    return maybeRefine(enabled, oldMs, newMs, S0, 1);
+  }
+
+  /** As above, refining rows on up to {@code threads} workers (<=1 = serial); output does not depend on it. */
+  public static SortedMap<String, SortedMap<String, Double>> maybeRefine(
+      boolean enabled,
+      java.util.List<NormalizedMethod> oldMs,
+      java.util.List<NormalizedMethod> newMs,
+      java.util.Map<String, java.util.Map<String, Double>> S0,
+      int threads) {
     if (!enabled) return sortedCopy(S0);
     CallGraphBuilder.Graph oldG = CallGraphBuilder.fromMethods(oldMs, "old#");
     CallGraphBuilder.Graph newG = CallGraphBuilder.fromMethods(newMs, "new#");
-    return IsoRankRefiner.refine(oldG, newG, S0);
+    return IsoRankRefiner.refine(oldG, newG, S0, threads);
   }
 
   private static SortedMap<String, SortedMap<String, Double>> sortedCopy(Map<String, Map<String, Double>> m) {
@@ -1,6 +1,7 @@
 // >>> AUTOGEN: BYTECODEMAPPER CLI BenchCommand BEGIN
 package io.bytecodemapper.cli.bench;
 
+import io.bytecodemapper.cli.cache.MethodFeatureCache;
 import io.bytecodemapper.cli.util.CliPaths;
 import io.bytecodemapper.cli.orch.Orchestrator;
 import io.bytecodemapper.cli.orch.OrchestratorOptions;
@@ -47,24 +48,64 @@ public final class BenchCommand {
             // Apply ablations (zero out signals in scoring)
             applyAblations(base, ablate);
 
-            List<BenchMetrics> results = new ArrayList<BenchMetrics>(pairs.size());
-            Orchestrator orch = new Orchestrator();
+            int threads = parseThreads(args.get("--threads"));
+
+            final Orchestrator orch = new Orchestrator();
+            final OrchestratorOptions opt = base;
+            Orchestrator.configureScoring(opt);
+            Path idfPath = Orchestrator.idfPath(opt);
+            final io.bytecodemapper.signals.idf.IdfStore idfStore = io.bytecodemapper.signals.idf.IdfStore.createDefault();
+            idfStore.load(idfPath);
 
             long benchStart = System.nanoTime();
-            long maxUsedBytes = 0L;
 
-            // Per-pair run
+            // Each week is read and extracted once, on this thread, and dropped when the last pair
+            // using it has finished. Pairs match on private copies, up to `threads` at a time.
+            Map<Path,Integer> refs = new HashMap<Path,Integer>();
+            for (BenchPairs.BenchPair p : pairs) {
+                retain(refs, p.oldJar);
+                retain(refs, p.newJar);
+            }
+            Map<Path, Orchestrator.PreparedJar> loaded = new HashMap<Path, Orchestrator.PreparedJar>();
+            // One feature store for the whole run: closing it per week would let an over-cap store
+            // drop every other week's entries
+            final MethodFeatureCache featureStore = Orchestrator.openFeatureStore(opt);
+            java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(threads);
+            List<java.util.concurrent.Future<PairRun>> futures = new ArrayList<java.util.concurrent.Future<PairRun>>(pairs.size());
+            List<PairRun> runs = new ArrayList<PairRun>(pairs.size());
+            try {
+                for (int i = 0; i < pairs.size(); i++) {
+                    // bounded in flight: finish the oldest pair (and release its jars) before loading more
+                    if (i - runs.size() >= threads) collect(futures.get(runs.size()), runs, refs, loaded);
+                    BenchPairs.BenchPair p = pairs.get(i);
+                    final Orchestrator.PreparedJar oldJ = acquire(orch, loaded, p.oldJar, opt, featureStore);
+                    final Orchestrator.PreparedJar newJ = acquire(orch, loaded, p.newJar, opt, featureStore);
+                    final BenchPairs.BenchPair pair = p;
+                    futures.add(pool.submit(new java.util.concurrent.Callable<PairRun>() {
+                        public PairRun call() {
+                            long t0 = System.nanoTime();
+                            Orchestrator.BenchPairResult r = orch.mapPreparedForBench(oldJ.forPair(), newJ.forPair(), idfStore, opt);
+                            long t1 = System.nanoTime();
+                            // track memory after run for peak; before value is unnecessary here
+                            return new PairRun(pair, r, t1 - t0, usedBytes());
+                        }
+                    }));
+                }
+                while (runs.size() < futures.size()) collect(futures.get(runs.size()), runs, refs, loaded);
+            } finally {
+                pool.shutdownNow();
+                try { featureStore.close(); } catch (Exception ignored) {}
+            }
+            idfStore.save(idfPath);
+
+            // Metrics in pair order, from the coverage sets every pair has stored by now
+            List<BenchMetrics> results = new ArrayList<BenchMetrics>(pairs.size());
+            long maxUsedBytes = 0L;
             for (int i = 0; i < pairs.size(); i++) {
                 BenchPairs.BenchPair p = pairs.get(i);
-
-                long t0 = System.nanoTime();
-                // track memory after run for peak; before value is unnecessary here
-
-                Orchestrator.BenchPairResult r = orch.mapPairForBench(p.oldJar, p.newJar, base);
-
-                long t1 = System.nanoTime();
-                long memAfter = usedBytes();
-                if (memAfter > maxUsedBytes) maxUsedBytes = memAfter;
+                PairRun run = runs.get(i);
+                Orchestrator.BenchPairResult r = run.result;
+                if (run.usedBytes > maxUsedBytes) maxUsedBytes = run.usedBytes;
 
                 BenchMetrics m = new BenchMetrics();
                 m.tag = p.tag;
@@ -73,8 +114,8 @@ public final class BenchCommand {
                 m.acceptedMethods = r.acceptedMethods;
                 m.abstainedMethods = r.abstainedMethods;
                 m.acceptedClasses = r.acceptedClasses;
-                m.elapsedMs = (t1 - t0) / 1_000_000.0;
-                m.usedMB = memAfter / (1024.0 * 1024.0);
+                m.elapsedMs = run.elapsedNanos / 1_000_000.0;
+                m.usedMB = run.usedBytes / (1024.0 * 1024.0);
 
                 // Churn vs previous pair (Jaccard on methods in shared middle jar)
                 if (i > 0) {
@@ -123,6 +164,62 @@ public final class BenchCommand {
         }
     }
 
+    /** One finished pair; metrics are derived after all pairs ran. */
+    private static final class PairRun {
+        final BenchPairs.BenchPair pair;
+        final Orchestrator.BenchPairResult result;
+        final long elapsedNanos;
+        final long usedBytes;
+        PairRun(BenchPairs.BenchPair pair, Orchestrator.BenchPairResult result, long elapsedNanos, long usedBytes) {
+            this.pair = pair; this.result = result; this.elapsedNanos = elapsedNanos; this.usedBytes = usedBytes;
+        }
+    }
+
+    private static void retain(Map<Path,Integer> refs, Path jar) {
+        Integer c = refs.get(jar);
+        refs.put(jar, c == null ? 1 : (c + 1));
+    }
+
+    private static Orchestrator.PreparedJar acquire(Orchestrator orch, Map<Path, Orchestrator.PreparedJar> loaded,
+                                                    Path jar, OrchestratorOptions opt,
+                                                    MethodFeatureCache featureStore) throws Exception {
+        Orchestrator.PreparedJar pj = loaded.get(jar);
+        if (pj == null) {
+            pj = orch.prepareJar(jar, opt, featureStore);
+            loaded.put(jar, pj);
+        }
+        return pj;
+    }
+
+    private static void release(Map<Path,Integer> refs, Map<Path, Orchestrator.PreparedJar> loaded, Path jar) {
+        int c = refs.get(jar) - 1;
+        refs.put(jar, c);
+        if (c == 0) loaded.remove(jar);
+    }
+
+    private static void collect(java.util.concurrent.Future<PairRun> f, List<PairRun> runs,
+                                Map<Path,Integer> refs, Map<Path, Orchestrator.PreparedJar> loaded) throws Exception {
+        PairRun run;
+        try {
+            run = f.get();
+        } catch (java.util.concurrent.ExecutionException e) {
+            Throwable c = e.getCause();
+            if (c instanceof Exception) throw (Exception) c;
+            if (c instanceof Error) throw (Error) c;
+            throw e;
+        }
+        release(refs, loaded, run.pair.oldJar);
+        release(refs, loaded, run.pair.newJar);
+        runs.add(run);
+    }
+
+    // --threads value: positive integer, or "auto" for one worker per available core (default 1)
+    private static int parseThreads(String v) {
+        if (v == null) return 1;
+        if ("auto".equalsIgnoreCase(v.trim())) return Math.max(1, Runtime.getRuntime().availableProcessors());
+        try { return Math.max(1, Integer.parseInt(v.trim())); } catch (NumberFormatException ignore) { return 1; }
+    }
+
     private static Set<String> parseAblate(String csv) {
         if (csv == null || csv.trim().isEmpty()) return Collections.<String>emptySet();
         Set<String> s = new HashSet<String>();
@@ -2,92 +2,376 @@
 package io.bytecodemapper.cli.cache;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
 
+/**
+ * Method feature cache in a versioned, append-only binary format.
+ *
+ * <pre>
+ * file    := MAGIC record*
+ * record  := int bodyLen, body[bodyLen], int crc32(body)
+ * body    := int keyLen, key (UTF-8)
+ *            long wlSignature, long microBits,                  -- fixed-width block
+ *            int histCount, int stringCount, int callCount,
+ *            int descLen, int fpLen, int bodyHashLen           -- -1 encodes null
+ *            histCount * (int opcode, int count)              -- histogram section
+ *            desc, fp, bodyHash bytes, then (int len, bytes) per string and per call
+ * </pre>
+ *
+ * Opening maps the file read-only and scans record headers once to build a key -> offset
+ * index; entries are decoded lazily on {@link #get(String)}. New entries are appended on
+ * {@link #flush()}, so a warm run that computes nothing new does not rewrite the file.
+ * A torn tail (bad length or CRC) is treated as a miss and overwritten by the next append.
+ * All numbers are big-endian.
+ *
+ * <p>{@link #close()} compacts the file (live records copied in file order to a temp file that
+ * replaces it) when superseded records exceed {@link #DEAD_FRACTION} of it. Past
+ * {@code maxBytes} it keeps only the entries this instance read or wrote, so a store that sees
+ * new weeks every run stays bounded. A run over several jars therefore keeps one instance open
+ * for all of them. Deleting the file is always safe; the next run starts cold.
+ */
 public final class MethodFeatureCache implements Closeable {
     private final Path cacheFile;
-    private final LinkedHashMap<String, MethodFeatureCacheEntry> map;
-    private static final String MAGIC = "BMAP:MFC:1\n"; // simple header to version cache format
+    static final String MAGIC = "BMAP:MFC:3\n"; // header versions the cache format; mismatch = cold start
+    /** Cache name of the content-addressed store shared across jars (keys carry no jar identity). */
+    public static final String SHARED_KEY = "shared-content";
+    private static final byte[] MAGIC_BYTES = MAGIC.getBytes(StandardCharsets.UTF_8);
+    private static final int FIXED_BYTES = 8 + 8 + 6 * 4;
+    /** Share of superseded record bytes above which close() rewrites the live records. */
+    static final double DEAD_FRACTION = 0.25;
+    /** Default size cap; files over Integer.MAX_VALUE cannot be mapped and would start cold. */
+    public static final long DEFAULT_MAX_BYTES = 1L << 30;
 
-    private MethodFeatureCache(Path cacheFile, LinkedHashMap<String, MethodFeatureCacheEntry> map) {
+    private final MappedByteBuffer mapped;               // null when nothing valid was on disk
+    private final Map<String, Integer> offsets;          // key -> offset of record's bodyLen field
+    private final LinkedHashMap<String, MethodFeatureCacheEntry> pending = new LinkedHashMap<String, MethodFeatureCacheEntry>();
+    private final Map<String, MethodFeatureCacheEntry> appended = new HashMap<String, MethodFeatureCacheEntry>();
+    private final Map<String, Integer> appendedBytes = new HashMap<String, Integer>(); // key -> record size
+    private final Set<String> touched = java.util.Collections.newSetFromMap(new java.util.concurrent.ConcurrentHashMap<String, Boolean>());
+    private final long maxBytes;
+    private long writePos;                               // end of the last valid record (0 = header not written)
+    private long deadBytes;                              // superseded records between the header and writePos
+
+    private MethodFeatureCache(Path cacheFile, MappedByteBuffer mapped, Map<String, Integer> offsets, long writePos,
+                               long deadBytes, long maxBytes) {
         this.cacheFile = cacheFile;
-        this.map = map;
+        this.mapped = mapped;
+        this.offsets = offsets;
+        this.writePos = writePos;
+        this.deadBytes = deadBytes;
+        this.maxBytes = maxBytes;
     }
 
+    /** Opens {@code <cacheDir>/<jarKey>.methods.bin}; use {@link #SHARED_KEY} for the cross-jar store. */
     public static MethodFeatureCache open(Path cacheDir, String jarKey) throws IOException {
+        return open(cacheDir, jarKey, DEFAULT_MAX_BYTES);
+    }
+
+    /** As {@link #open(Path, String)}, capping the file at {@code maxBytes} on close (see class doc). */
+    public static MethodFeatureCache open(Path cacheDir, String jarKey, long maxBytes) throws IOException {
         if (cacheDir == null) cacheDir = new File("mapper-cli/build/cache").toPath();
+        if (maxBytes <= 0 || maxBytes > Integer.MAX_VALUE) maxBytes = Integer.MAX_VALUE;
         Files.createDirectories(cacheDir);
-        Path file = cacheDir.resolve(jarKey + ".methods.ser");
-        LinkedHashMap<String, MethodFeatureCacheEntry> m = new LinkedHashMap<String, MethodFeatureCacheEntry>();
-        if (Files.exists(file)) {
-            // Guard against legacy or corrupt caches: if too large, skip reading to avoid OOM in tests/CI
-            try {
-                long size = Files.size(file);
-                // ~64 MiB cap: current test-sized caches are << this; weekly datasets may exceed
-                final long MAX_BYTES = 64L * 1024L * 1024L;
-                if (size > MAX_BYTES) {
-                    // Treat as empty; a fresh run will repopulate a small subset deterministically
-                    return new MethodFeatureCache(file, m);
-                }
-            } catch (Throwable ignored) {
-                // If size probe fails, continue with cautious read below
+        Path file = cacheDir.resolve(jarKey + ".methods.bin");
+        Map<String, Integer> offsets = new HashMap<String, Integer>();
+        if (!Files.exists(file)) return new MethodFeatureCache(file, null, offsets, 0L, 0L, maxBytes);
+
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = ch.size();
+            // Header check (version); mismatching or oversized files are rebuilt from scratch
+            if (size < MAGIC_BYTES.length || size > Integer.MAX_VALUE) {
+                return new MethodFeatureCache(file, null, offsets, 0L, 0L, maxBytes);
             }
-            java.io.InputStream is = Files.newInputStream(file);
-            try {
-                // Read and verify magic header; if absent/mismatch, ignore legacy file content
-                byte[] head = new byte[MAGIC.length()];
-                int r = is.read(head);
-                boolean ok = r == MAGIC.length() && new String(head, java.nio.charset.StandardCharsets.UTF_8).equals(MAGIC);
-                if (ok) {
-                    ObjectInputStream ois = new ObjectInputStream(is);
-                    try {
-                        Object obj = ois.readObject();
-                        if (obj instanceof LinkedHashMap) {
-                            @SuppressWarnings("unchecked")
-                            LinkedHashMap<String, MethodFeatureCacheEntry> mm = (LinkedHashMap<String, MethodFeatureCacheEntry>) obj;
-                            m.putAll(mm);
-                        }
-                    } catch (ClassNotFoundException ignored) {
-                    } finally {
-                        ois.close();
-                    }
-                } else {
-                    // legacy/no-header: skip reading to avoid potential OOM from corrupted content
-                }
-            } finally {
-                try { is.close(); } catch (IOException ignored) {}
+            ByteBuffer head = ByteBuffer.allocate(MAGIC_BYTES.length);
+            while (head.hasRemaining() && ch.read(head, head.position()) > 0) { /* fill */ }
+            if (head.hasRemaining() || !java.util.Arrays.equals(head.array(), MAGIC_BYTES)) {
+                return new MethodFeatureCache(file, null, offsets, 0L, 0L, maxBytes);
             }
+            MappedByteBuffer mb = ch.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+            mb.order(ByteOrder.BIG_ENDIAN);
+            int pos = scan(mb, (int) size, offsets);
+            long live = 0L;
+            for (Integer off : offsets.values()) live += recordBytes(mb, off.intValue());
+            return new MethodFeatureCache(file, mb, offsets, pos, pos - MAGIC_BYTES.length - live, maxBytes);
+        } finally {
+            // The mapping stays valid after the channel is closed
+            ch.close();
         }
-        return new MethodFeatureCache(file, m);
     }
 
+    /**
+     * Read-only lookup; safe for concurrent readers as long as no put() runs at the same time.
+     * Entries on disk are decoded (and CRC-checked) on each call; a corrupt record reads as a miss.
+     */
     public MethodFeatureCacheEntry get(String key) {
-        return map.get(key);
+        MethodFeatureCacheEntry e = pending.get(key);
+        if (e != null) return e;
+        e = appended.get(key);
+        if (e != null) return e;
+        Integer off = offsets.get(key);
+        if (off == null || mapped == null) return null;
+        touched.add(key);
+        try {
+            return decode(mapped.duplicate(), off.intValue());
+        } catch (RuntimeException corrupt) {
+            return null;
+        }
     }
 
     public void put(String key, MethodFeatureCacheEntry val) {
-        map.put(key, val);
+        pending.put(key, val);
+    }
+
+    /** Number of distinct keys (on disk plus not yet flushed). */
+    public int size() {
+        int n = offsets.size();
+        for (String k : pending.keySet()) if (!offsets.containsKey(k) && !appended.containsKey(k)) n++;
+        for (String k : appended.keySet()) if (!offsets.containsKey(k)) n++;
+        return n;
     }
 
     public void flush() throws IOException {
-        // Deterministic write: LinkedHashMap iteration order = insertion order; entries were added deterministically.
-        java.io.OutputStream os = Files.newOutputStream(cacheFile);
+        if (pending.isEmpty() && writePos > 0) return;
+        // Deterministic append: pending is a LinkedHashMap and entries were added deterministically.
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        if (writePos == 0) bos.write(MAGIC_BYTES);
+        for (Map.Entry<String, MethodFeatureCacheEntry> en : pending.entrySet()) {
+            String k = en.getKey();
+            int before = bos.size();
+            encode(bos, k, en.getValue());
+            // A key written again supersedes its latest record (from this session, else from disk)
+            Integer prev = appendedBytes.put(k, Integer.valueOf(bos.size() - before));
+            if (prev != null) deadBytes += prev.intValue();
+            else if (offsets.containsKey(k)) deadBytes += recordBytes(mapped, offsets.get(k).intValue());
+        }
+        FileChannel ch = FileChannel.open(cacheFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            if (writePos == 0) {
+                ch.truncate(0L);
+            } else if (ch.size() > writePos) {
+                // Drop a torn tail; some platforms refuse to shrink a mapped file, the CRC covers that case
+                try { ch.truncate(writePos); } catch (IOException ignored) {}
+            }
+            ByteBuffer buf = ByteBuffer.wrap(bos.toByteArray());
+            long p = writePos;
+            while (buf.hasRemaining()) p += ch.write(buf, p);
+            writePos = p;
+        } finally {
+            ch.close();
+        }
+        appended.putAll(pending);
+        pending.clear();
+    }
+
+    /** Flushes, then compacts the file when it has too many dead records or exceeds the size cap. */
+    @Override public void close() throws IOException {
+        flush();
+        long records = writePos - MAGIC_BYTES.length;
+        boolean overCap = writePos > maxBytes;
+        if (records > 0 && (overCap || deadBytes > DEAD_FRACTION * records)) compact(overCap);
+    }
+
+    /**
+     * Rewrites the latest record of each key in file order, limited to the keys this instance
+     * used when {@code usedOnly}. Records are copied as stored, CRC included. Best effort: if the
+     * file cannot be replaced (e.g. it is still mapped on Windows) it is left as is.
+     */
+    private void compact(boolean usedOnly) throws IOException {
+        Path tmp = cacheFile.resolveSibling(cacheFile.getFileName().toString() + ".tmp");
+        FileChannel ch = FileChannel.open(cacheFile, StandardOpenOption.READ);
         try {
-            // Write header then object stream
-            os.write(MAGIC.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-            ObjectOutputStream oos = new ObjectOutputStream(os);
+            MappedByteBuffer mb = ch.map(FileChannel.MapMode.READ_ONLY, 0L, writePos);
+            mb.order(ByteOrder.BIG_ENDIAN);
+            Map<String, Integer> latest = new HashMap<String, Integer>();
+            int end = scan(mb, (int) writePos, latest);
+            OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp));
             try {
-                oos.writeObject(map);
+                out.write(MAGIC_BYTES);
+                byte[] buf = new byte[4096];
+                int pos = MAGIC_BYTES.length;
+                while (pos < end) {
+                    int len = recordBytes(mb, pos);
+                    String key = utf8(mb, pos + 8, mb.getInt(pos + 4));
+                    boolean keep = latest.get(key).intValue() == pos
+                            && (!usedOnly || touched.contains(key) || appendedBytes.containsKey(key));
+                    if (keep) {
+                        ByteBuffer rec = mb.duplicate();
+                        rec.position(pos).limit(pos + len);
+                        while (rec.hasRemaining()) {
+                            int n = Math.min(buf.length, rec.remaining());
+                            rec.get(buf, 0, n);
+                            out.write(buf, 0, n);
+                        }
+                    }
+                    pos += len;
+                }
             } finally {
-                oos.close();
+                out.close();
             }
         } finally {
-            try { os.close(); } catch (IOException ignored) {}
+            ch.close();
         }
+        try {
+            Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Index scan from the header: only record lengths and keys are touched, bodies stay on disk
+     * until get(). Later records win. Returns the end of the last valid record.
+     */
+    private static int scan(ByteBuffer mb, int limit, Map<String, Integer> offsets) {
+        int pos = MAGIC_BYTES.length;
+        while (pos + 4 <= limit) {
+            int bodyLen = mb.getInt(pos);
+            if (bodyLen < 4 + FIXED_BYTES || (long) pos + 4L + bodyLen + 4L > limit) break;
+            int keyLen = mb.getInt(pos + 4);
+            if (keyLen < 0 || keyLen > bodyLen - 4 - FIXED_BYTES) break;
+            offsets.put(utf8(mb, pos + 8, keyLen), Integer.valueOf(pos));
+            pos += 4 + bodyLen + 4;
+        }
+        return pos;
+    }
+
+    /** Size of the record at {@code off}: length prefix, body and CRC. */
+    private static int recordBytes(ByteBuffer mb, int off) {
+        return 4 + mb.getInt(off) + 4;
     }
 
-    @Override public void close() throws IOException { flush(); }
+    // ---- record codec ----
+
+    private static void encode(ByteArrayOutputStream out, String key, MethodFeatureCacheEntry e) throws IOException {
+        byte[] k = bytes(key);
+        byte[] desc = bytes(e.normalizedDescriptor);
+        byte[] fp = bytes(e.normFingerprint);
+        byte[] body = bytes(e.normalizedBodyHash);
+        List<byte[]> strings = bytesOf(e.strings);
+        List<byte[]> calls = bytesOf(e.invokedSignatures);
+
+        ByteArrayOutputStream rec = new ByteArrayOutputStream(128);
+        DataOutputStream d = new DataOutputStream(rec);
+        d.writeInt(k.length); d.write(k);
+        d.writeLong(e.wlSignature);
+        d.writeLong(microWord(e.microBits));
+        d.writeInt(e.normOpcodeHistogram != null ? e.normOpcodeHistogram.size() : -1);
+        d.writeInt(strings != null ? strings.size() : -1);
+        d.writeInt(calls != null ? calls.size() : -1);
+        d.writeInt(desc != null ? desc.length : -1);
+        d.writeInt(fp != null ? fp.length : -1);
+        d.writeInt(body != null ? body.length : -1);
+        if (e.normOpcodeHistogram != null) {
+            for (Map.Entry<Integer, Integer> h : e.normOpcodeHistogram.entrySet()) {
+                d.writeInt(h.getKey().intValue());
+                d.writeInt(h.getValue().intValue());
+            }
+        }
+        if (desc != null) d.write(desc);
+        if (fp != null) d.write(fp);
+        if (body != null) d.write(body);
+        if (strings != null) for (byte[] s : strings) { d.writeInt(s.length); d.write(s); }
+        if (calls != null) for (byte[] s : calls) { d.writeInt(s.length); d.write(s); }
+        d.flush();
+
+        byte[] b = rec.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(b, 0, b.length);
+        DataOutputStream o = new DataOutputStream(out);
+        o.writeInt(b.length);
+        o.write(b);
+        o.writeInt((int) crc.getValue());
+        o.flush();
+    }
+
+    private static MethodFeatureCacheEntry decode(ByteBuffer bb, int off) {
+        int bodyLen = bb.getInt(off);
+        int start = off + 4;
+        CRC32 crc = new CRC32();
+        ByteBuffer slice = bb.duplicate();
+        slice.position(start).limit(start + bodyLen);
+        crc.update(slice);
+        if ((int) crc.getValue() != bb.getInt(start + bodyLen)) throw new IllegalStateException("cache record CRC mismatch");
+
+        int p = start;
+        int keyLen = bb.getInt(p); p += 4 + keyLen;
+        long wl = bb.getLong(p); p += 8;
+        long micro = bb.getLong(p); p += 8;
+        int histCount = bb.getInt(p); p += 4;
+        int stringCount = bb.getInt(p); p += 4;
+        int callCount = bb.getInt(p); p += 4;
+        int descLen = bb.getInt(p); p += 4;
+        int fpLen = bb.getInt(p); p += 4;
+        int bodyHashLen = bb.getInt(p); p += 4;
+
+        LinkedHashMap<Integer, Integer> hist = null;
+        if (histCount >= 0) {
+            hist = new LinkedHashMap<Integer, Integer>();
+            for (int i = 0; i < histCount; i++) {
+                hist.put(Integer.valueOf(bb.getInt(p)), Integer.valueOf(bb.getInt(p + 4)));
+                p += 8;
+            }
+        }
+        String desc = descLen >= 0 ? utf8(bb, p, descLen) : null; p += Math.max(0, descLen);
+        String fp = fpLen >= 0 ? utf8(bb, p, fpLen) : null; p += Math.max(0, fpLen);
+        String bodyHash = bodyHashLen >= 0 ? utf8(bb, p, bodyHashLen) : null; p += Math.max(0, bodyHashLen);
+        LinkedHashSet<String> strings = null;
+        if (stringCount >= 0) {
+            strings = new LinkedHashSet<String>();
+            for (int i = 0; i < stringCount; i++) { int n = bb.getInt(p); strings.add(utf8(bb, p + 4, n)); p += 4 + n; }
+        }
+        LinkedHashSet<String> calls = null;
+        if (callCount >= 0) {
+            calls = new LinkedHashSet<String>();
+            for (int i = 0; i < callCount; i++) { int n = bb.getInt(p); calls.add(utf8(bb, p + 4, n)); p += 4 + n; }
+        }
+        if (p != start + bodyLen) throw new IllegalStateException("cache record length mismatch");
+        return new MethodFeatureCacheEntry(wl, BitSet.valueOf(new long[]{micro}), hist, strings, calls, desc, fp, bodyHash);
+    }
+
+    /** Micropatterns are 17 bits; the record reserves one fixed 64-bit word for them. */
+    private static long microWord(BitSet bits) {
+        if (bits == null) return 0L;
+        if (bits.length() > 64) throw new IllegalArgumentException("micro bits exceed the 64-bit cache slot: " + bits.length());
+        long[] w = bits.toLongArray();
+        return w.length == 0 ? 0L : w[0];
+    }
+
+    private static byte[] bytes(String s) {
+        return s != null ? s.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static List<byte[]> bytesOf(Set<String> set) {
+        if (set == null) return null;
+        List<byte[]> out = new ArrayList<byte[]>(set.size());
+        for (String s : set) out.add(bytes(s));
+        return out;
+    }
+
+    private static String utf8(ByteBuffer bb, int pos, int len) {
+        byte[] b = new byte[len];
+        ByteBuffer d = bb.duplicate();
+        d.position(pos);
+        d.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
 }
 // <<< AUTOGEN: BYTECODEMAPPER CLI Cache MethodFeatureCache END
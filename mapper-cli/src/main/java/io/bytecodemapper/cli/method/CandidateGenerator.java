@@ -1,6 +1,9 @@
 // >>> AUTOGEN: BYTECODEMAPPER CLI CandidateGenerator BEGIN
 package io.bytecodemapper.cli.method;
 
+import io.bytecodemapper.core.index.HammingIndex;
+import it.unimi.dsi.fastutil.ints.IntComparator;
+
 import java.util.*;
 
 public final class CandidateGenerator {
@@ -10,42 +13,39 @@ public final class CandidateGenerator {
     public static List<MethodFeatures> topKByWl(MethodFeatures src,
                                                 List<MethodFeatures> targets,
                                                 int k) {
-        ArrayList<Scored> all = new ArrayList<Scored>(targets.size());
-        for (MethodFeatures t : targets) {
-            int hd = hamming64(src.wlSignature ^ t.wlSignature);
-            all.add(new Scored(t, hd));
-        }
-        Collections.sort(all, new Comparator<Scored>() {
-            public int compare(Scored a, Scored b) {
-                int c = Integer.compare(a.hamming, b.hamming);
-                if (c != 0) return c;
+        return topKByWl(src, targets, wlIndex(targets), k);
+    }
+
+    /** WL-signature index over {@code targets}, reusable across every source scored against them. */
+    public static HammingIndex wlIndex(List<MethodFeatures> targets) {
+        HammingIndex idx = new HammingIndex();
+        for (MethodFeatures t : targets) idx.add(t.wlSignature);
+        return idx;
+    }
+
+    /**
+     * The k targets nearest to {@code src} by WL-signature Hamming distance, ties by name+desc then
+     * list order; {@code index} must be {@link #wlIndex} of {@code targets}.
+     */
+    public static List<MethodFeatures> topKByWl(MethodFeatures src,
+                                                final List<MethodFeatures> targets,
+                                                HammingIndex index,
+                                                int k) {
+        int[] ids = index.topK(src.wlSignature, k, new IntComparator() {
+            @Override
+            public int compare(int a, int b) {
                 // stable tie-break: by name+desc asc
-                String sa = a.m.ref.name + a.m.ref.desc;
-                String sb = b.m.ref.name + b.m.ref.desc;
+                MethodFeatures ma = targets.get(a), mb = targets.get(b);
+                String sa = ma.ref.name + ma.ref.desc;
+                String sb = mb.ref.name + mb.ref.desc;
                 return sa.compareTo(sb);
             }
         });
-        int n = Math.min(k, all.size());
-        ArrayList<MethodFeatures> out = new ArrayList<MethodFeatures>(n);
-        for (int i=0;i<n;i++) out.add(all.get(i).m);
+        ArrayList<MethodFeatures> out = new ArrayList<MethodFeatures>(ids.length);
+        for (int id : ids) out.add(targets.get(id));
         return out;
     }
 
-    private static int hamming64(long x) {
-        x = x - ((x >>> 1) & 0x5555555555555555L);
-        x = (x & 0x3333333333333333L) + ((x >>> 2) & 0x3333333333333333L);
-        x = (x + (x >>> 4)) & 0x0f0f0f0f0f0f0f0fL;
-        x = x + (x >>> 8);
-        x = x + (x >>> 16);
-        x = x + (x >>> 32);
-        return (int)(x & 0x7f);
-    }
-
-    private static final class Scored {
-        final MethodFeatures m; final int hamming;
-        Scored(MethodFeatures m, int h) { this.m=m; this.hamming=h; }
-    }
-
     private CandidateGenerator(){}
 }
 // <<< AUTOGEN: BYTECODEMAPPER CLI CandidateGenerator END
@@ -1,9 +1,8 @@
 // >>> AUTOGEN: BYTECODEMAPPER CLI MethodScorer BEGIN
 package io.bytecodemapper.cli.method;
 
-import io.bytecodemapper.signals.calls.CallBagTfidf;
-import io.bytecodemapper.signals.strings.StringTfidf;
-import io.bytecodemapper.signals.tfidf.TfIdfModel;
+import io.bytecodemapper.signals.common.SparseVector;
+import io.bytecodemapper.signals.tfidf.TfIdfCorpus;
 import io.bytecodemapper.signals.micro.MicroScoringService;
 import io.bytecodemapper.signals.idf.IdfStore;
 
@@ -44,19 +43,16 @@ public final class MethodScorer {
      */
     public static double[] scoreVector(MethodFeatures src, List<MethodFeatures> cands, IdfStore microIdf) {
         if (cands.isEmpty()) return new double[0];
+        return scoreVector(src, cands, microIdf, BagCorpora.ofQuery(src, cands));
+    }
 
-        // Build TF-IDF models per source set for determinism
-        // calls
-        List<List<String>> callDocs = new ArrayList<List<String>>(cands.size()+1);
-        callDocs.add(src.callBagNormalized);
-        for (MethodFeatures m : cands) callDocs.add(m.callBagNormalized);
-        TfIdfModel callsModel = CallBagTfidf.buildModel(callDocs);
+    /** As {@link #scoreVector(MethodFeatures, List, IdfStore)}, on run-level call/string corpora. */
+    public static double[] scoreVector(MethodFeatures src, List<MethodFeatures> cands, IdfStore microIdf, BagCorpora corpora) {
+        if (cands.isEmpty()) return new double[0];
 
-        // strings
-        List<List<String>> strDocs = new ArrayList<List<String>>(cands.size()+1);
-        strDocs.add(src.stringBag);
-        for (MethodFeatures m : cands) strDocs.add(m.stringBag);
-        TfIdfModel strModel = StringTfidf.buildModel(strDocs);
+        // TF-IDF cosines over corpus term ids (IDF per source set unless corpus IDF is enabled)
+        double[] callCos = corpora.cosines(src, cands, false);
+        double[] strCos = corpora.cosines(src, cands, true);
 
         // micro
         MicroScoringService microSvc = new MicroScoringService().setIdf(microIdf.computeIdf());
@@ -64,7 +60,7 @@ public final class MethodScorer {
         double[] out = new double[cands.size()];
         for (int i=0;i<cands.size();i++) {
             MethodFeatures t = cands.get(i);
-            double sCalls = CallBagTfidf.cosineSimilarity(callsModel, src.callBagNormalized, t.callBagNormalized);
+            double sCalls = callCos[i];
             double sMicro = microSvc.similarity(src.microBits, t.microBits, ALPHA_MP);
             // >>> AUTOGEN: BYTECODEMAPPER CLI MethodScorer NORM COMPOSITION BEGIN
             double sNorm = io.bytecodemapper.signals.normalized.NormalizedAdapters.cosineDense(src.normOpcodeHistogram, t.normOpcodeHistogram);
@@ -72,7 +68,7 @@ public final class MethodScorer {
             if (LEGACY_OPCODE_ENABLED) {
                 sOpcLegacy = io.bytecodemapper.signals.opcode.OpcodeFeatures.cosineHistogram(src.opcodeHistogram, t.opcodeHistogram);
             }
-            double sStr   = StringTfidf.cosineSimilarity(strModel, src.stringBag, t.stringBag);
+            double sStr   = strCos[i];
             double sFields= 0.0; // stub
             // New terms: stack histogram cosine (fixed 5 keys) and numeric-literal MinHash similarity (64)
             java.util.Map<String, Integer> shA = safeStackHist(src);
@@ -104,34 +100,32 @@ public final class MethodScorer {
     /** Score source method against candidate targets from the same class pair. */
     public static Result scoreOne(MethodFeatures src, List<MethodFeatures> cands, IdfStore microIdf) {
         if (cands.isEmpty()) return Result.abstain("no candidates");
+        return scoreOne(src, cands, microIdf, BagCorpora.ofQuery(src, cands));
+    }
 
-        // Build TF-IDF models per source set for determinism
-        // calls
-        List<List<String>> callDocs = new ArrayList<List<String>>(cands.size()+1);
-        callDocs.add(src.callBagNormalized);
-        for (MethodFeatures m : cands) callDocs.add(m.callBagNormalized);
-        TfIdfModel callsModel = CallBagTfidf.buildModel(callDocs);
+    /** As {@link #scoreOne(MethodFeatures, List, IdfStore)}, on run-level call/string corpora. */
+    public static Result scoreOne(MethodFeatures src, List<MethodFeatures> cands, IdfStore microIdf, BagCorpora corpora) {
+        if (cands.isEmpty()) return Result.abstain("no candidates");
 
-        // strings
-        List<List<String>> strDocs = new ArrayList<List<String>>(cands.size()+1);
-        strDocs.add(src.stringBag);
-        for (MethodFeatures m : cands) strDocs.add(m.stringBag);
-        TfIdfModel strModel = StringTfidf.buildModel(strDocs);
+        // TF-IDF cosines over corpus term ids (IDF per source set unless corpus IDF is enabled)
+        double[] callCos = corpora.cosines(src, cands, false);
+        double[] strCos = corpora.cosines(src, cands, true);
 
         // micro
         MicroScoringService microSvc = new MicroScoringService().setIdf(microIdf.computeIdf());
 
         // score each
         double best = -1, second = -1; MethodFeatures bestM = null; double bestCalls=0,bestMicro=0,bestOpc=0,bestStr=0;
-        for (MethodFeatures t : cands) {
-            double sCalls = CallBagTfidf.cosineSimilarity(callsModel, src.callBagNormalized, t.callBagNormalized);
+        for (int i=0;i<cands.size();i++) {
+            MethodFeatures t = cands.get(i);
+            double sCalls = callCos[i];
             double sMicro = microSvc.similarity(src.microBits, t.microBits, ALPHA_MP);
             double sNorm = io.bytecodemapper.signals.normalized.NormalizedAdapters.cosineDense(src.normOpcodeHistogram, t.normOpcodeHistogram);
             double sOpcLegacy = 0.0;
             if (LEGACY_OPCODE_ENABLED) {
                 sOpcLegacy = io.bytecodemapper.signals.opcode.OpcodeFeatures.cosineHistogram(src.opcodeHistogram, t.opcodeHistogram);
             }
-            double sStr   = StringTfidf.cosineSimilarity(strModel, src.stringBag, t.stringBag);
+            double sStr   = strCos[i];
             double sFields= 0.0; // stub
         // New terms
         java.util.Map<String, Integer> shA = safeStackHist(src);
@@ -176,6 +170,68 @@ public final class MethodScorer {
         return Result.accept(bestM, best, second, bestCalls, bestMicro, bestOpc, bestStr);
     }
 
+    /**
+     * Call-bag and string-bag TF-IDF corpora of one run, built once per jar pair. Each method's bags
+     * become sparse term-count vectors on first use (memoized per MethodFeatures instance). By default
+     * IDF is still taken over {source + candidates}, so scores equal the former per-query models;
+     * with corpusIdf the run-wide IDF is used and vectors are pre-normalized (cosine = dot product).
+     */
+    public static final class BagCorpora {
+        public final TfIdfCorpus calls;
+        public final TfIdfCorpus strings;
+        public final boolean corpusIdf;
+        private final IdentityHashMap<MethodFeatures, SparseVector[]> vectors = new IdentityHashMap<MethodFeatures, SparseVector[]>();
+
+        public BagCorpora(TfIdfCorpus calls, TfIdfCorpus strings, boolean corpusIdf) {
+            this.calls = calls;
+            this.strings = strings;
+            this.corpusIdf = corpusIdf;
+        }
+
+        /** Corpora over the bags of all given methods (typically every method of both jars). */
+        public static BagCorpora build(Collection<MethodFeatures> methods, boolean corpusIdf) {
+            List<List<String>> callDocs = new ArrayList<List<String>>(methods.size());
+            List<List<String>> strDocs = new ArrayList<List<String>>(methods.size());
+            for (MethodFeatures m : methods) {
+                callDocs.add(m.callBagNormalized);
+                strDocs.add(m.stringBag);
+            }
+            return new BagCorpora(TfIdfCorpus.build(callDocs), TfIdfCorpus.build(strDocs), corpusIdf);
+        }
+
+        static BagCorpora ofQuery(MethodFeatures src, List<MethodFeatures> cands) {
+            List<MethodFeatures> all = new ArrayList<MethodFeatures>(cands.size()+1);
+            all.add(src);
+            all.addAll(cands);
+            return build(all, false);
+        }
+
+        /** [calls, strings] vectors of a method: term counts, or unit corpus TF-IDF with corpusIdf. */
+        synchronized SparseVector[] vectors(MethodFeatures m) {
+            SparseVector[] v = vectors.get(m);
+            if (v == null) {
+                SparseVector c = calls.termCounts(m.callBagNormalized);
+                SparseVector s = strings.termCounts(m.stringBag);
+                v = corpusIdf ? new SparseVector[]{calls.weigh(c), strings.weigh(s)} : new SparseVector[]{c, s};
+                vectors.put(m, v);
+            }
+            return v;
+        }
+
+        double[] cosines(MethodFeatures src, List<MethodFeatures> cands, boolean stringBags) {
+            int which = stringBags ? 1 : 0;
+            SparseVector q = vectors(src)[which];
+            if (corpusIdf) {
+                double[] out = new double[cands.size()];
+                for (int i=0;i<out.length;i++) out[i] = q.dot(vectors(cands.get(i))[which]);
+                return out;
+            }
+            List<SparseVector> cv = new ArrayList<SparseVector>(cands.size());
+            for (MethodFeatures t : cands) cv.add(vectors(t)[which]);
+            return TfIdfCorpus.queryCosines(q, cv);
+        }
+    }
+
     public static final class Result {
         public final boolean accepted;
         public final MethodFeatures best;  // may be null if abstain
@@ -205,7 +261,8 @@ public final class MethodScorer {
 
     // Optional small refactor: null-safe fetchers to keep loops compact and resilient
     // Test-only attachment registry to allow unit tests to inject normalized features without public API changes.
-    private static final java.util.WeakHashMap<MethodFeatures, Object> __TEST_NF = new java.util.WeakHashMap<MethodFeatures, Object>();
+    private static final java.util.Map<MethodFeatures, Object> __TEST_NF =
+            java.util.Collections.synchronizedMap(new java.util.WeakHashMap<MethodFeatures, Object>());
     static void __testAttachNormalized(MethodFeatures m, java.util.Map<String,Integer> sh, int[] lits) {
         class NF { final java.util.Map<String,Integer> stack; final int[] sk; NF(java.util.Map<String,Integer> s, int[] k){ this.stack=s; this.sk=k; } }
         Object o = new NF(sh, lits);
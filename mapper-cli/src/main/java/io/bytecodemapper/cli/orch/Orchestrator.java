@@ -4,6 +4,7 @@ package io.bytecodemapper.cli.orch;
 import io.bytecodemapper.cli.util.CliPaths;
 import io.bytecodemapper.cli.cache.MethodFeatureCache;
 import io.bytecodemapper.cli.cache.MethodFeatureCacheEntry;
+import io.bytecodemapper.core.match.FlatteningIndex;
 import io.bytecodemapper.core.match.MethodMatcher;
 import io.bytecodemapper.core.match.MethodMatcher.MethodMatchResult;
 import io.bytecodemapper.core.cfg.ReducedCFG;
@@ -12,6 +13,8 @@ import io.bytecodemapper.core.df.DF;
 import io.bytecodemapper.core.wl.WLRefinement;
 import io.bytecodemapper.core.fingerprint.ClasspathScanner;
 import io.bytecodemapper.signals.micro.MicroPatternExtractor;
+import io.bytecodemapper.signals.normalized.NormalizedFeatureStore;
+import io.bytecodemapper.signals.normalized.NormalizedFeatures;
 import io.bytecodemapper.signals.normalized.NormalizedMethod;
 import io.bytecodemapper.signals.idf.IdfStore;
 import org.objectweb.asm.tree.ClassNode;
@@ -34,9 +37,9 @@ public final class Orchestrator {
         }
     }
 
-    // store middle-jar coverage per pair for churn/oscillation (by tag)
-    private final java.util.Map<String, java.util.Set<String>> newSideMethodIdsByPair = new java.util.HashMap<String, java.util.Set<String>>();
-    private final java.util.Map<String, java.util.Set<String>> oldSideMethodIdsByPair = new java.util.HashMap<String, java.util.Set<String>>();
+    // store middle-jar coverage per pair for churn/oscillation (by tag); pairs may finish concurrently
+    private final java.util.Map<String, java.util.Set<String>> newSideMethodIdsByPair = java.util.Collections.synchronizedMap(new java.util.HashMap<String, java.util.Set<String>>());
+    private final java.util.Map<String, java.util.Set<String>> oldSideMethodIdsByPair = java.util.Collections.synchronizedMap(new java.util.HashMap<String, java.util.Set<String>>());
 
     public java.util.Set<String> getNewSideMethodIds(String pairTag){
         java.util.Set<String> s = newSideMethodIdsByPair.get(pairTag);
@@ -47,12 +50,41 @@ public final class Orchestrator {
         return (s==null)? java.util.Collections.<String>emptySet() : s;
     }
 
+    public static String benchTag(java.nio.file.Path oldJar, java.nio.file.Path newJar) {
+        return (oldJar.getFileName()!=null?oldJar.getFileName().toString():"old") + "→" + (newJar.getFileName()!=null?newJar.getFileName().toString():"new");
+    }
+
     /** Run a single pair mapping for bench and record middle-jar coverage sets. */
     public BenchPairResult mapPairForBench(java.nio.file.Path oldJar, java.nio.file.Path newJar, OrchestratorOptions opt) throws Exception {
-        final String tag = (oldJar.getFileName()!=null?oldJar.getFileName().toString():"old") + "→" + (newJar.getFileName()!=null?newJar.getFileName().toString():"new");
+        if (opt == null) throw new IllegalArgumentException("options");
+        configureScoring(opt);
+        Path idfPath = idfPath(opt);
+        IdfStore idf = IdfStore.createDefault();
+        idf.load(idfPath);
+        PreparedJar oldP;
+        PreparedJar newP;
+        MethodFeatureCache featureStore = openFeatureStore(opt);
+        try {
+            oldP = prepareJar(oldJar, opt, featureStore);
+            newP = prepareJar(newJar, opt, featureStore);
+        } finally {
+            try { featureStore.close(); } catch (Exception ignored) {}
+        }
+        BenchPairResult r = mapPreparedForBench(oldP, newP, idf, opt);
+        idf.save(idfPath);
+        return r;
+    }
+
+    /**
+     * Bench pair over already prepared jars, each used as is (pass {@link PreparedJar#forPair()}
+     * views when other pairs share them). Safe to call concurrently once {@link #configureScoring}
+     * ran, as long as {@code idf} is not written meanwhile.
+     */
+    public BenchPairResult mapPreparedForBench(PreparedJar oldJ, PreparedJar newJ, IdfStore idf, OrchestratorOptions opt) {
+        final String tag = benchTag(oldJ.jar, newJ.jar);
 
-        // Run the standard pipeline and adapt stats from current Result structure
-        Result r = run(oldJar, newJar, opt);
+        // Run the standard matching phases and adapt stats from current Result structure
+        Result r = match(oldJ, newJ, null, idf, opt);
 
         // Build the sets in a stable representation: owner#name(desc) with jar-side prefix to avoid collision.
         java.util.Set<String> newSide = new java.util.TreeSet<String>();
@@ -84,8 +116,9 @@ public final class Orchestrator {
                     acceptedPerOwner.put(me.ownerFrom, c == null ? 1 : (c + 1));
                 }
             }
-            // Load classes to count total eligible methods per mapped owner
-            java.util.Map<String, org.objectweb.asm.tree.ClassNode> oldClasses = readJarDeterministic(oldJar);
+            // Count total eligible methods per mapped owner from the prepared classes (no re-read;
+            // extraction rewrites bodies but keeps the method list and access flags)
+            java.util.Map<String, org.objectweb.asm.tree.ClassNode> oldClasses = oldJ.classes;
             for (String oldOwner : r.classMap.keySet()) {
                 org.objectweb.asm.tree.ClassNode cn = oldClasses.get(oldOwner);
                 if (cn == null || cn.methods == null) continue;
@@ -176,12 +209,114 @@ public final class Orchestrator {
 
     public Result run(Path oldJar, Path newJar, OrchestratorOptions opt) throws Exception {
         if (opt == null) throw new IllegalArgumentException("options");
-        // Deterministic mode: avoid parallel ops, keep stable sort order everywhere.
-        if (opt.deterministic) {
-            System.setProperty("java.util.concurrent.ForkJoinPool.common.parallelism", "1");
+        configureScoring(opt);
+
+        // Load classes deterministically
+        Map<String, ClassNode> oldClasses = readJarDeterministic(oldJar, opt);
+        Map<String, ClassNode> newClasses = readJarDeterministic(newJar, opt);
+
+        // IDF store (persisted across runs)
+        Path idfPath = idfPath(opt);
+        IdfStore idf = IdfStore.createDefault();
+        idf.load(idfPath);
+
+        // --- Phase 0: per-method feature extraction (normalize -> CFG -> wl/micro/normalized) with persistent cache ---
+        final String irFp = writeCacheMeta(opt, oldJar, newJar);
+        // One content-addressed store shared by both jars (and across runs): unchanged bodies are
+        // extracted once no matter which jar, path or (obfuscated) owner name they come from.
+        MethodFeatureCache featureStore = openFeatureStore(opt);
+        PreparedJar oldP;
+        PreparedJar newP;
+        try {
+            oldP = prepare(oldJar, oldClasses, opt, featureStore, irFp);
+            newP = prepare(newJar, newClasses, opt, featureStore, irFp);
+        } finally {
+            // Flush (append) deterministically
+            try { featureStore.close(); } catch (Exception ignored) {}
+        }
+        if (opt.debugStats) {
+            System.out.println("[Orch] Extracted features: oldClasses=" + oldP.features.size() + " newClasses=" + newP.features.size());
+        }
+
+        // Incremental mode: the previous run's mappings seed unchanged methods (see match)
+        io.bytecodemapper.io.tiny.TinyV2Mappings previous = null;
+        if (opt.previousMappings != null) {
+            previous = io.bytecodemapper.io.tiny.TinyV2Mappings.read(opt.previousMappings);
         }
+        Result r = match(oldP, newP, previous, idf, opt);
+
+        // Persist IDF (no update logic yet, just ensure file exists)
+        idf.save(idfPath);
+        return r;
+    }
 
-        // Configure scoring weights/toggles globally (if MethodScorer used downstream)
+    /** Read and extract one jar on its own (bench: each week is prepared once and shared by its pairs). */
+    public PreparedJar prepareJar(Path jar, OrchestratorOptions opt) throws Exception {
+        if (opt == null) throw new IllegalArgumentException("options");
+        MethodFeatureCache featureStore = openFeatureStore(opt);
+        try {
+            return prepareJar(jar, opt, featureStore);
+        } finally {
+            try { featureStore.close(); } catch (Exception ignored) {}
+        }
+    }
+
+    /**
+     * As above, through a store the caller keeps open across several jars and closes once. Closing
+     * an over-cap store keeps only the entries that instance used, so a run over many weeks must
+     * not reopen it per week.
+     */
+    public PreparedJar prepareJar(Path jar, OrchestratorOptions opt, MethodFeatureCache featureStore) throws Exception {
+        if (opt == null) throw new IllegalArgumentException("options");
+        Map<String, ClassNode> classes = readJarDeterministic(jar, opt);
+        final String irFp = writeCacheMeta(opt, jar);
+        PreparedJar p = prepare(jar, classes, opt, featureStore, irFp);
+        featureStore.flush(); // append this jar's new entries now, as a per-jar close used to
+        return p;
+    }
+
+    /** The content-addressed store shared across jars, capped at {@code opt.cacheMaxBytes}. */
+    public static MethodFeatureCache openFeatureStore(OrchestratorOptions opt) throws java.io.IOException {
+        return MethodFeatureCache.open(opt.cacheDir, MethodFeatureCache.SHARED_KEY, opt.cacheMaxBytes);
+    }
+
+    /**
+     * One jar after Phase 0: classes (bodies normalized in place by extraction), cache-entry-shaped
+     * features and the per-jar NSF/flattening indexes. The matcher also normalizes bodies and
+     * records flattening verdicts on demand, so concurrent pairs each match on {@link #forPair()}.
+     */
+    public static final class PreparedJar {
+        public final Path jar;
+        final Map<String, ClassNode> classes;
+        final java.util.Map<String, java.util.Map<String, MethodFeatureCacheEntry>> features;
+        final NormalizedFeatureStore norm;
+        final FlatteningIndex flat;
+
+        PreparedJar(Path jar, Map<String, ClassNode> classes,
+                    java.util.Map<String, java.util.Map<String, MethodFeatureCacheEntry>> features,
+                    NormalizedFeatureStore norm, FlatteningIndex flat) {
+            this.jar = jar; this.classes = classes; this.features = features; this.norm = norm; this.flat = flat;
+        }
+
+        /**
+         * Private view for one pair: copies of the classes and flattening index. The features are
+         * shared read-only; the NSF store is shared too, but it is not read-only: the matcher adds
+         * methods extraction skipped, so it is a concurrent map. Synchronized because copying
+         * resets the source's labels.
+         */
+        public synchronized PreparedJar forPair() {
+            Map<String, ClassNode> copy = new TreeMap<String, ClassNode>();
+            for (Map.Entry<String, ClassNode> e : classes.entrySet()) {
+                ClassNode cn = new ClassNode();
+                e.getValue().accept(cn);
+                copy.put(e.getKey(), cn);
+            }
+            return new PreparedJar(jar, copy, features, norm, flat.copy());
+        }
+    }
+
+    /** Configure scoring weights/toggles globally (if MethodScorer used downstream). */
+    public static void configureScoring(OrchestratorOptions opt) {
         try {
             io.bytecodemapper.cli.method.MethodScorer.configureWeights(
                 opt.weightCalls, opt.weightMicropatterns, opt.weightOpcode, opt.weightStrings, opt.weightFields, opt.useNormalizedHistogram);
@@ -190,58 +325,40 @@ public final class Orchestrator {
         } catch (Throwable ignore) {
             // scorer may not be invoked in current placeholder pipeline; keep forward compatibility silently
         }
+    }
 
-        // Load classes deterministically
-        Map<String, ClassNode> oldClasses = readJarDeterministic(oldJar);
-        Map<String, ClassNode> newClasses = readJarDeterministic(newJar);
-
-        // IDF store (persisted across runs)
-        Path idfPath = opt.idfPath != null ? opt.idfPath : CliPaths.resolveOutput("build/idf.properties");
-        IdfStore idf = IdfStore.load(idfPath.toFile());
+    public static Path idfPath(OrchestratorOptions opt) {
+        return opt.idfPath != null ? opt.idfPath : CliPaths.resolveOutput("build/idf.properties");
+    }
 
-        // --- Phase 0: per-method feature extraction (normalize -> CFG -> wl/micro/normalized) with persistent cache ---
-        String oldKey = jarKey(oldJar);
-        String newKey = jarKey(newJar);
-        // Compute IR fingerprint (Normalizer + ReducedCFG) and persist per-jar cache metadata
+    /** Compute the IR fingerprint (Normalizer + ReducedCFG) and persist per-jar cache metadata. */
+    private static String writeCacheMeta(OrchestratorOptions opt, Path... jars) throws Exception {
+        String[] keys = new String[jars.length];
+        for (int i = 0; i < jars.length; i++) keys[i] = jarKey(jars[i]);
         io.bytecodemapper.core.normalize.Normalizer.Options nopt = io.bytecodemapper.core.normalize.Normalizer.Options.defaults();
         io.bytecodemapper.core.cfg.ReducedCFG.Options copt = io.bytecodemapper.core.cfg.ReducedCFG.Options.defaults();
         final String irFp = io.bytecodemapper.core.ir.IRFingerprint.compose(nopt, copt);
         final String irVersion = io.bytecodemapper.core.normalize.NormalizerFingerprint.NORMALIZER_VERSION + "+" +
                 io.bytecodemapper.core.cfg.ReducedCfgFingerprint.CFG_VERSION;
         try {
-            io.bytecodemapper.cli.cache.CacheMeta.write(opt.cacheDir, oldKey, irVersion, irFp);
-            io.bytecodemapper.cli.cache.CacheMeta.write(opt.cacheDir, newKey, irVersion, irFp);
+            for (String key : keys) io.bytecodemapper.cli.cache.CacheMeta.write(opt.cacheDir, key, irVersion, irFp);
         } catch (Exception metaEx) {
             if (opt.debugStats) System.out.println("[Orch] Cache meta write failed: " + metaEx.getMessage());
         }
-        MethodFeatureCache oldCache = MethodFeatureCache.open(opt.cacheDir, oldKey);
-        MethodFeatureCache newCache = MethodFeatureCache.open(opt.cacheDir, newKey);
-        Map<String, Map<String, MethodFeature>> oldFeatures = null;
-        Map<String, Map<String, MethodFeature>> newFeatures = null;
-        try {
-            oldFeatures = extractFeatures(oldClasses, opt, oldCache, irFp);
-            newFeatures = extractFeatures(newClasses, opt, newCache, irFp);
-        } finally {
-            // Flush caches deterministically
-            try { oldCache.close(); } catch (Exception ignored) {}
-            try { newCache.close(); } catch (Exception ignored) {}
-        }
-        if (opt.debugStats) {
-            System.out.println("[Orch] Extracted features: oldClasses=" + oldFeatures.size() + " newClasses=" + newFeatures.size());
-        }
+        return irFp;
+    }
 
-        // --- Phase 1/2/3/4: basic matching — identity class map + signature equality for methods ---
-        java.util.Map<String,String> classMap = new java.util.LinkedHashMap<String,String>();
-        {
-            java.util.List<String> olds = new java.util.ArrayList<String>(oldClasses.keySet());
-            java.util.Collections.sort(olds);
-            for (String o : olds) if (newClasses.containsKey(o)) classMap.put(o, o);
-        }
+    private PreparedJar prepare(Path jar, Map<String, ClassNode> classes, OrchestratorOptions opt,
+                                MethodFeatureCache featureStore, String irFp) throws Exception {
+        // Per-run NormalizedFeatures (nsf64, stack/call histograms) reused by the matcher's NSF tiers and gates
+        NormalizedFeatureStore norm = new NormalizedFeatureStore();
+        // Per-run flattening verdicts so the matcher's flattening gate is a lookup, not a CFG rebuild
+        FlatteningIndex flat = new FlatteningIndex();
+        Map<String, Map<String, MethodFeature>> features = extractFeatures(classes, opt, featureStore, irFp, norm, flat);
 
         // Convert features to cache-entry-shaped maps (keys are what matcher needs)
-        java.util.Map<String, java.util.Map<String, MethodFeatureCacheEntry>> oldFeat = new java.util.LinkedHashMap<String, java.util.Map<String, MethodFeatureCacheEntry>>();
-        java.util.Map<String, java.util.Map<String, MethodFeatureCacheEntry>> newFeat = new java.util.LinkedHashMap<String, java.util.Map<String, MethodFeatureCacheEntry>>();
-        for (java.util.Map.Entry<String, java.util.Map<String, MethodFeature>> e : oldFeatures.entrySet()) {
+        java.util.Map<String, java.util.Map<String, MethodFeatureCacheEntry>> feat = new java.util.LinkedHashMap<String, java.util.Map<String, MethodFeatureCacheEntry>>();
+        for (java.util.Map.Entry<String, java.util.Map<String, MethodFeature>> e : features.entrySet()) {
             java.util.Map<String, MethodFeatureCacheEntry> m = new java.util.LinkedHashMap<String, MethodFeatureCacheEntry>();
             for (java.util.Map.Entry<String, MethodFeature> mf : e.getValue().entrySet()) {
                 MethodFeature f = mf.getValue();
@@ -249,17 +366,41 @@ public final class Orchestrator {
                         f.wlSig, f.micro, f.opcodeHistogram, f.stringConstants, f.invokedSignatures,
                         f.normalizedDescriptor, f.fingerprint, f.normalizedBodyHash));
             }
-            oldFeat.put(e.getKey(), m);
+            feat.put(e.getKey(), m);
         }
-        for (java.util.Map.Entry<String, java.util.Map<String, MethodFeature>> e : newFeatures.entrySet()) {
-            java.util.Map<String, MethodFeatureCacheEntry> m = new java.util.LinkedHashMap<String, MethodFeatureCacheEntry>();
-            for (java.util.Map.Entry<String, MethodFeature> mf : e.getValue().entrySet()) {
-                MethodFeature f = mf.getValue();
-                m.put(mf.getKey(), new MethodFeatureCacheEntry(
-                        f.wlSig, f.micro, f.opcodeHistogram, f.stringConstants, f.invokedSignatures,
-                        f.normalizedDescriptor, f.fingerprint, f.normalizedBodyHash));
-            }
-            newFeat.put(e.getKey(), m);
+        return new PreparedJar(jar, classes, feat, norm, flat);
+    }
+
+    /**
+     * Old-side method keys for incremental mode. The previous run mapped N-1 -> N, so its NEW side is this
+     * run's old jar: each of its method entries is re-keyed to the new owner, new name and descriptor remapped
+     * through its class map. Owners that this run's class map drops get no anchors.
+     */
+    static Set<String> incrementalAnchors(io.bytecodemapper.io.tiny.TinyV2Mappings previous, Map<String,String> classMap) {
+        org.objectweb.asm.commons.SimpleRemapper prevClasses = new org.objectweb.asm.commons.SimpleRemapper(previous.classMap);
+        Set<String> anchors = new HashSet<String>();
+        for (Map.Entry<String,String> e : previous.methodMap.entrySet()) {
+            String key = e.getKey();
+            int hash = key.indexOf('#');
+            int paren = key.indexOf('(', hash);
+            String owner = prevClasses.mapType(key.substring(0, hash));
+            if (!classMap.containsKey(owner)) continue;
+            anchors.add(owner + "#" + e.getValue() + prevClasses.mapMethodDesc(key.substring(paren)));
+        }
+        return anchors;
+    }
+
+    private Result match(PreparedJar oldP, PreparedJar newP, io.bytecodemapper.io.tiny.TinyV2Mappings previous,
+                         IdfStore idf, OrchestratorOptions opt) {
+        Map<String, ClassNode> oldClasses = oldP.classes;
+        Map<String, ClassNode> newClasses = newP.classes;
+
+        // --- Phase 1/2/3/4: basic matching — identity class map + signature equality for methods ---
+        java.util.Map<String,String> classMap = new java.util.LinkedHashMap<String,String>();
+        {
+            java.util.List<String> olds = new java.util.ArrayList<String>(oldClasses.keySet());
+            java.util.Collections.sort(olds);
+            for (String o : olds) if (newClasses.containsKey(o)) classMap.put(o, o);
         }
 
         java.util.List<MethodPair> methodPairs = new java.util.ArrayList<MethodPair>();
@@ -277,7 +418,13 @@ public final class Orchestrator {
             mopts.wlSizeBand = opt.wlSizeBand;
             mopts.nsfNearBudgetWhenFlattened = opt.nsfNearBudgetWhenFlattened;
             mopts.stackCosineThreshold = opt.stackCosineThreshold;
-            MethodMatchResult mm = MethodMatcher.matchMethods(oldClasses, newClasses, classMap, oldFeat, newFeat, idf, mopts, opt.deterministic, opt.debugStats);
+            mopts.corpusIdf = opt.corpusIdf;
+            mopts.threads = opt.matchThreads;
+            if (previous != null) {
+                // The matcher further requires a unique unchanged body on both sides
+                mopts.anchors = incrementalAnchors(previous, classMap);
+            }
+            MethodMatchResult mm = MethodMatcher.matchMethods(oldClasses, newClasses, classMap, oldP.features, newP.features, oldP.norm, newP.norm, oldP.flat, newP.flat, idf, mopts, opt.deterministic, opt.debugStats);
             for (MethodMatcher.Pair p : mm.accepted) methodPairs.add(new MethodPair(p.oldOwner, p.oldName, p.desc, p.newName));
             // Aggregate stats deterministically
             exactMedian = percentile(mm.exactCounts, 50);
@@ -292,6 +439,10 @@ public final class Orchestrator {
             flatteningDetected = mm.flatteningDetected;
             nearBeforeGates = mm.nearBeforeGates;
             nearAfterGates = mm.nearAfterGates;
+            if (previous != null && opt.debugStats) {
+                System.out.println("[Orch] Incremental: reused=" + mm.anchored + " of previous=" + previous.methodMap.size()
+                        + " matched=" + (mm.accepted.size() - mm.anchored) + " abstained=" + mm.abstained.size());
+            }
     }
         java.util.List<FieldPair> fieldPairs = new java.util.ArrayList<FieldPair>();
 
@@ -322,9 +473,6 @@ public final class Orchestrator {
     java.util.List<io.bytecodemapper.io.tiny.TinyV2Writer.FieldEntry> tinyFields = new java.util.ArrayList<io.bytecodemapper.io.tiny.TinyV2Writer.FieldEntry>();
     for (FieldPair p : fieldPairs) tinyFields.add(new io.bytecodemapper.io.tiny.TinyV2Writer.FieldEntry(p.oldOwner, p.oldName, p.desc, p.newName));
 
-    // Persist IDF (no update logic yet, just ensure file exists)
-    idf.save(idfPath.toFile());
-
     return new Result(tinyClasses, tinyMethods, tinyFields,
         oldClasses.size(), newClasses.size(), countMethods(oldClasses), countMethods(newClasses),
         exactMedian, exactP95, nearMedian, nearP95,
@@ -442,16 +590,22 @@ public final class Orchestrator {
     }
 
     private Map<String, Map<String, MethodFeature>> extractFeatures(
-        Map<String, ClassNode> classes, OrchestratorOptions opt, MethodFeatureCache cache, String irFp) throws Exception {
+        Map<String, ClassNode> classes, OrchestratorOptions opt, MethodFeatureCache cache, String irFp,
+        NormalizedFeatureStore normStore, FlatteningIndex flatIndex) throws Exception {
         Map<String, Map<String, MethodFeature>> out = new TreeMap<String, Map<String, MethodFeature>>();
         List<String> owners = new ArrayList<String>(classes.keySet());
         Collections.sort(owners);
         final int cap = opt != null ? Math.max(0, opt.maxMethods) : 0;
+        // Plan: deterministic (owner, name, desc) order with the maxMethods cap applied up-front,
+        // so serial and parallel extraction see exactly the same work list.
+        List<ExtractTask> tasks = new ArrayList<ExtractTask>();
+        List<String> completeOwners = new ArrayList<String>(); // every concrete method planned (not cut by the cap)
         int processed = 0;
         for (String owner : owners) {
             if (cap > 0 && processed >= cap) break;
             ClassNode cn = classes.get(owner);
-            Map<String, MethodFeature> m = new TreeMap<String, MethodFeature>();
+            out.put(owner, new TreeMap<String, MethodFeature>());
+            boolean complete = true;
             if (cn.methods != null) {
                 // deterministic method order: by (name, desc)
                 List<MethodNode> methods = new ArrayList<MethodNode>(cn.methods);
@@ -462,30 +616,90 @@ public final class Orchestrator {
                     }
                 });
                 for (MethodNode mn : methods) {
-                    if (cap > 0 && processed >= cap) break;
+                    if (cap > 0 && processed >= cap) { complete = false; break; }
                     if ((mn.access & (org.objectweb.asm.Opcodes.ACC_ABSTRACT | org.objectweb.asm.Opcodes.ACC_NATIVE)) != 0) {
                         continue;
                     }
-            // Compute normalized body hash first for cache key
+                    tasks.add(new ExtractTask(owner, mn));
+                    processed++;
+                }
+            }
+            if (complete) completeOwners.add(owner);
+        }
+
+        // Compute: each task only reads the cache and mutates its own MethodNode (Normalizer runs in place)
+        final int threads = opt != null ? opt.extractThreads : 1;
+        if (threads > 1 && tasks.size() > 1) {
+            java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(threads);
+            try {
+                pool.invoke(new ExtractRange(tasks, 0, tasks.size(), cache, irFp));
+            } catch (ExtractFailure ef) {
+                throw ef.failure;
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            for (ExtractTask t : tasks) t.run(cache, irFp);
+        }
+
+        // Merge: cache writes and result inserts happen in task order, so the cache file is
+        // byte-identical to a serial run regardless of thread count.
+        int misses = 0;
+        for (ExtractTask t : tasks) {
+            if (t.fresh != null) misses++;
+            if (t.fresh != null && cache != null) cache.put(t.cacheKey, t.fresh);
+            if (normStore != null) normStore.put(t.owner, t.mn.name, t.mn.desc, t.normFeatures);
+            if (flatIndex != null) flatIndex.record(t.owner, t.mn.name, t.mn.desc, t.flattened);
+            out.get(t.owner).put(t.mn.name + t.mn.desc, t.feat);
+        }
+        // Abstract/native methods have no body and are never flattened, so skipping them keeps an owner complete
+        if (flatIndex != null) for (String owner : completeOwners) flatIndex.markComplete(owner);
+        if (opt != null && opt.debugStats && cache != null) {
+            System.out.println("[Orch] Feature store: methods=" + tasks.size() + " extracted=" + misses + " reused=" + (tasks.size() - misses));
+        }
+        return out;
+    }
+
+    /** One method's extraction unit; results are written back into the task and merged serially. */
+    static final class ExtractTask {
+        final String owner;
+        final MethodNode mn;
+        String cacheKey;
+        MethodFeature feat;
+        MethodFeatureCacheEntry fresh; // non-null on cache miss; put into the cache during merge
+        NormalizedFeatures normFeatures; // null if NSF extraction failed; matcher then treats nsf64 as absent
+        boolean flattened; // FlatteningIndex verdict for the matcher's flattening gate
+
+        ExtractTask(String owner, MethodNode mn) { this.owner = owner; this.mn = mn; }
+
+        void run(MethodFeatureCache cache, String irFp) throws Exception {
+            // Compute normalized body hash first for the content-addressed cache key
             String normHash = stableInsnHash(mn);
-            String cacheKey = owner + "::" + mn.name + mn.desc + "::" + normHash + "::" + (irFp != null ? irFp : "");
+            cacheKey = contentKey(owner, mn, normHash, irFp);
             MethodFeatureCacheEntry ce = cache != null ? cache.get(cacheKey) : null;
-            MethodFeature feat;
             if (ce != null) {
-            // Rehydrate from cache
-            feat = new MethodFeature(
-                ce.wlSignature,
-                ce.microBits,
-                ce.normOpcodeHistogram,
-                ce.strings,
-                ce.invokedSignatures,
-                ce.normalizedDescriptor,
-                ce.normFingerprint,
-                ce.normalizedBodyHash
-            );
-            } else {
+                // Rehydrate from cache
+                feat = new MethodFeature(
+                    ce.wlSignature,
+                    ce.microBits,
+                    ce.normOpcodeHistogram,
+                    ce.strings,
+                    ce.invokedSignatures,
+                    ce.normalizedDescriptor,
+                    ce.normFingerprint,
+                    ce.normalizedBodyHash
+                );
+                // Not persisted in the cache entry. Build the CFG first: it normalizes mn in place, so
+                // nsf64 below hashes the same body as on a miss (one build also replaces per-candidate
+                // rebuilds in the matcher).
+                ReducedCFG cfg = ReducedCFG.build(mn);
+                flattened = FlatteningIndex.isLikelyFlattened(mn, cfg);
+                normFeatures = normalizedFeatures(owner, mn, null);
+                return;
+            }
             // Normalize inside ReducedCFG.build (already integrated) for analysis alignment
             ReducedCFG cfg = ReducedCFG.build(mn);
+            flattened = FlatteningIndex.isLikelyFlattened(mn, cfg);
             Dominators dom = Dominators.compute(cfg);
             java.util.Map<Integer,int[]> df = DF.compute(cfg, dom);
             java.util.Map<Integer,int[]> tdf = DF.iterateToFixpoint(df);
@@ -496,6 +710,7 @@ public final class Orchestrator {
 
             // NormalizedMethod features (generalized histogram & fingerprint)
             NormalizedMethod norm = new NormalizedMethod(owner, mn, java.util.Collections.<Integer>emptySet());
+            normFeatures = normalizedFeatures(owner, mn, norm);
 
             feat = new MethodFeature(
                 wlSig.hash,
@@ -508,7 +723,7 @@ public final class Orchestrator {
                 normHash
             );
             if (cache != null) {
-                MethodFeatureCacheEntry ne = new MethodFeatureCacheEntry(
+                fresh = new MethodFeatureCacheEntry(
                     wlSig.hash,
                     micro,
                     norm.opcodeHistogram,
@@ -518,21 +733,58 @@ public final class Orchestrator {
                     norm.fingerprint,
                     normHash
                 );
-                cache.put(cacheKey, ne);
             }
-            }
-            m.put(mn.name + mn.desc, feat);
-            processed++;
+        }
+    }
+
+    /** NSF features for the matcher; mirrors its tolerance (any failure = no canonical nsf64). */
+    private static NormalizedFeatures normalizedFeatures(String owner, MethodNode mn, NormalizedMethod norm) {
+        try {
+            if (norm == null) norm = new NormalizedMethod(owner, mn, java.util.Collections.<Integer>emptySet());
+            return norm.extract();
+        } catch (Throwable ignore) {
+            return null;
+        }
+    }
+
+    /** Fork-join splitter over a contiguous slice of the task list (work-stealing across cores). */
+    private static final class ExtractRange extends java.util.concurrent.RecursiveAction {
+        private static final int LEAF = 16; // methods per leaf; small enough to balance skewed classes
+        private final List<ExtractTask> tasks;
+        private final int from, to;
+        private final MethodFeatureCache cache;
+        private final String irFp;
+
+        ExtractRange(List<ExtractTask> tasks, int from, int to, MethodFeatureCache cache, String irFp) {
+            this.tasks = tasks; this.from = from; this.to = to; this.cache = cache; this.irFp = irFp;
+        }
+
+        @Override protected void compute() {
+            if (to - from <= LEAF) {
+                for (int i = from; i < to; i++) {
+                    try {
+                        tasks.get(i).run(cache, irFp);
+                    } catch (Exception e) {
+                        throw new ExtractFailure(e);
+                    }
                 }
+                return;
             }
-            out.put(owner, m);
+            int mid = (from + to) >>> 1;
+            invokeAll(new ExtractRange(tasks, from, mid, cache, irFp), new ExtractRange(tasks, mid, to, cache, irFp));
         }
-        return out;
     }
 
-    private static Map<String, ClassNode> readJarDeterministic(Path jar) throws Exception {
+    /** Carries a checked extraction failure out of the fork-join pool. */
+    private static final class ExtractFailure extends RuntimeException {
+        final Exception failure;
+        ExtractFailure(Exception failure) { super(failure); this.failure = failure; }
+    }
+
+    // Parsing shares the extraction worker count; entries still arrive in sorted order
+    private static Map<String, ClassNode> readJarDeterministic(Path jar, OrchestratorOptions opt) throws Exception {
         final java.util.Map<String, ClassNode> map = new java.util.TreeMap<String, ClassNode>();
-    ClasspathScanner scanner = new ClasspathScanner();
+    ClasspathScanner scanner = new ClasspathScanner().threads(opt.extractThreads).skipDebug(opt.skipDebug);
     scanner.scan(jar.toFile(), new io.bytecodemapper.core.fingerprint.ClasspathScanner.Sink() {
             public void accept(ClassNode cn) { map.put(cn.name, cn); }
         });
@@ -555,44 +807,31 @@ public final class Orchestrator {
         return name.replace('.', '_') + "-" + sb.toString();
     }
 
-    private static String stableInsnHash(MethodNode mn) throws Exception {
-        StringBuilder sb = new StringBuilder(256);
-        for (org.objectweb.asm.tree.AbstractInsnNode insn : mn.instructions.toArray()) {
-            int op = insn.getOpcode();
-            if (op < 0) continue;
-            sb.append(op).append(':');
-            if (insn instanceof org.objectweb.asm.tree.IntInsnNode) {
-                sb.append(((org.objectweb.asm.tree.IntInsnNode) insn).operand);
-            } else if (insn instanceof org.objectweb.asm.tree.VarInsnNode) {
-                sb.append(((org.objectweb.asm.tree.VarInsnNode) insn).var);
-            } else if (insn instanceof org.objectweb.asm.tree.TypeInsnNode) {
-                sb.append(((org.objectweb.asm.tree.TypeInsnNode) insn).desc);
-            } else if (insn instanceof org.objectweb.asm.tree.FieldInsnNode) {
-                org.objectweb.asm.tree.FieldInsnNode fi = (org.objectweb.asm.tree.FieldInsnNode) insn;
-                sb.append(fi.owner).append('#').append(fi.name).append(':').append(fi.desc);
-            } else if (insn instanceof org.objectweb.asm.tree.MethodInsnNode) {
-                org.objectweb.asm.tree.MethodInsnNode mi = (org.objectweb.asm.tree.MethodInsnNode) insn;
-                sb.append(mi.owner).append('#').append(mi.name).append(mi.desc);
-            } else if (insn instanceof org.objectweb.asm.tree.LdcInsnNode) {
-                Object c = ((org.objectweb.asm.tree.LdcInsnNode) insn).cst;
-                sb.append(String.valueOf(c));
-            } else if (insn instanceof org.objectweb.asm.tree.IincInsnNode) {
-                org.objectweb.asm.tree.IincInsnNode ii = (org.objectweb.asm.tree.IincInsnNode) insn;
-                sb.append(ii.var).append(',').append(ii.incr);
-            } else if (insn instanceof org.objectweb.asm.tree.TableSwitchInsnNode) {
-                org.objectweb.asm.tree.TableSwitchInsnNode ts = (org.objectweb.asm.tree.TableSwitchInsnNode) insn;
-                sb.append(ts.min).append(',').append(ts.max);
-            } else if (insn instanceof org.objectweb.asm.tree.LookupSwitchInsnNode) {
-                org.objectweb.asm.tree.LookupSwitchInsnNode ls = (org.objectweb.asm.tree.LookupSwitchInsnNode) insn;
-                java.util.List<?> keys = ls.keys; sb.append(keys!=null?keys.size():0);
-            }
-            sb.append('|');
+    /**
+     * Content key for the shared feature store. Features are a function of the body (pinned by
+     * {@link #stableInsnHash}), the descriptor and static-ness (parameter slots), how calls relate to
+     * the method's own owner/name/desc (Recursive/SameName micropatterns) and the IR options.
+     * The owner and method names themselves are deliberately left out so renamed classes still hit.
+     */
+    static String contentKey(String owner, MethodNode mn, String normHash, String irFp) {
+        int selfMask = 0;
+        for (org.objectweb.asm.tree.AbstractInsnNode insn = mn.instructions.getFirst(); insn != null; insn = insn.getNext()) {
+            if (!(insn instanceof org.objectweb.asm.tree.MethodInsnNode)) continue;
+            org.objectweb.asm.tree.MethodInsnNode mi = (org.objectweb.asm.tree.MethodInsnNode) insn;
+            int rel = (mi.owner.equals(owner) ? 1 : 0) | (mi.name.equals(mn.name) ? 2 : 0) | (mi.desc.equals(mn.desc) ? 4 : 0);
+            selfMask |= 1 << rel;
         }
-        java.security.MessageDigest md = java.security.MessageDigest.getInstance("SHA-256");
-        byte[] d = md.digest(sb.toString().getBytes("UTF-8"));
-        StringBuilder hex = new StringBuilder(64);
-        for (byte b : d) hex.append(String.format("%02x", b));
-        return hex.toString();
+        boolean isStatic = (mn.access & org.objectweb.asm.Opcodes.ACC_STATIC) != 0;
+        return normHash + "::" + (isStatic ? "S" : "I") + mn.desc + "::" + Integer.toHexString(selfMask) + "::" + (irFp != null ? irFp : "");
+    }
+
+    /**
+     * Streaming 128-bit body hash (InsnHasher over StableHash128): opcodes, operands, branch/switch
+     * targets and try/catch ranges, so that equal hashes imply equal CFGs for content addressing.
+     * Kept as hex: it is persisted as normalizedBodyHash and as the head of the cache key.
+     */
+    static String stableInsnHash(MethodNode mn) {
+        return io.bytecodemapper.core.hash.InsnHasher.hash(mn, new io.bytecodemapper.core.hash.StableHash128()).toHex();
     }
 }
 // <<< AUTOGEN: BYTECODEMAPPER CLI Orchestrator END
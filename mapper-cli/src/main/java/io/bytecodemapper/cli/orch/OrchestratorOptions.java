@@ -20,6 +20,18 @@ public final class OrchestratorOptions {
     // Phase 4: flattening-aware widening + gates
     public int nsfNearBudgetWhenFlattened = 2; // widen near-tier Hamming budget when flattening
     public double stackCosineThreshold = 0.60; // stack-hist cosine threshold gate
+    // Phase 0: per-method extraction workers (<=1 = serial); results merge in (owner, name, desc) order
+    public int extractThreads = 1;
+    // Method matching workers over old owners (<=1 = serial); buffers merge in old-owner order
+    public int matchThreads = 1;
+    // Incremental mode: previous week's (N-1 -> N) Tiny v2; methods it matched are reused where the body is unchanged
+    public Path previousMappings = null;
+    // Parse jars with ClassReader.SKIP_DEBUG (no line numbers/locals); body hashes, and so cache keys, differ
+    public boolean skipDebug = false;
+    // Shared feature store size cap; past it, closing the store keeps only the entries this run used
+    public long cacheMaxBytes = io.bytecodemapper.cli.cache.MethodFeatureCache.DEFAULT_MAX_BYTES;
+    // Method scoring: call/string TF-IDF over the whole jar pair instead of per candidate set
+    public boolean corpusIdf = false;
 
     // >>> AUTOGEN: BYTECODEMAPPER CLI OrchestratorOptions ABLATE BEGIN
     // Weights already exist; add ablation/toggles if missing.
@@ -77,6 +89,9 @@ public final class OrchestratorOptions {
     // Phase 4 defaults
     o.nsfNearBudgetWhenFlattened = 2;
     o.stackCosineThreshold = 0.60;
+    // Serial extraction by default
+    o.extractThreads = 1;
+    o.matchThreads = 1;
     return o;
     }
 }
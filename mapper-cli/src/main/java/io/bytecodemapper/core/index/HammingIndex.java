@@ -0,0 +1,162 @@
+// >>> AUTOGEN: BYTECODEMAPPER HAMMING INDEX BEGIN
+package io.bytecodemapper.core.index;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntComparator;
+import it.unimi.dsi.fastutil.ints.IntHeapPriorityQueue;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Radius and top-K search over 64-bit fingerprints (NSF, WL signatures). Entries are int ids in
+ * insertion order; callers keep their payloads in a parallel list.
+ *
+ * Small indexes are scanned. Past {@link #LINEAR_MAX} entries the index switches to multi-index
+ * hashing: the fingerprint is split into four 16-bit chunks with one posting table each. An entry
+ * within distance r of the query has some chunk within r/4 bits of the query's chunk, so probing
+ * those chunk variants finds every candidate; candidates are then checked on the full 64 bits.
+ * Radii whose probes would outnumber the entries still scan. Results never depend on which path ran.
+ */
+public final class HammingIndex {
+    /** Entry count up to which queries scan instead of probing chunk tables. */
+    static final int LINEAR_MAX = 64;
+    private static final int CHUNKS = 4;
+    private static final int CHUNK_BITS = 16;
+    /** Chunk variants probed per table for 0, 1 and 2 flipped bits; wider radii scan. */
+    private static final int[] VARIANTS = { 1, 17, 137 };
+
+    private long[] fps = new long[16];
+    private int size;
+    private Int2ObjectOpenHashMap<IntArrayList>[] tables; // null until size > LINEAR_MAX
+
+    /** Adds a fingerprint and returns its id (0, 1, 2, ... in insertion order). */
+    public int add(long fp) {
+        if (size == fps.length) fps = Arrays.copyOf(fps, size * 2);
+        int id = size++;
+        fps[id] = fp;
+        if (tables != null) post(id, fp);
+        else if (size > LINEAR_MAX) buildTables();
+        return id;
+    }
+
+    public int size() { return size; }
+
+    public long fingerprint(int id) { return fps[id]; }
+
+    /** Ids of all entries within {@code radius} bits of {@code q}, ascending. */
+    public int[] within(long q, int radius) {
+        if (radius < 0 || size == 0) return new int[0];
+        if (!probeCheaper(radius)) return scan(q, radius);
+        BitSet hits = new BitSet(size);
+        int flips = radius / CHUNKS;
+        for (int c = 0; c < CHUNKS; c++) {
+            probe(c, chunk(q, c), flips, 0, q, radius, hits);
+        }
+        int[] out = new int[hits.cardinality()];
+        int n = 0;
+        for (int id = hits.nextSetBit(0); id >= 0; id = hits.nextSetBit(id + 1)) out[n++] = id;
+        return out;
+    }
+
+    /**
+     * Up to {@code k} ids closest to {@code q}, ordered by distance, then {@code tieBreak} (may be
+     * null), then id. Uses radius search while it finds k entries, else a bounded-heap scan.
+     */
+    public int[] topK(long q, int k, IntComparator tieBreak) {
+        if (k <= 0 || size == 0) return new int[0];
+        final IntComparator order = order(q, tieBreak);
+        if (k < size) {
+            // every entry within r is found, so once there are k of them they hold the top k
+            for (int r = 0; probeCheaper(r); r++) {
+                int[] hits = within(q, r);
+                if (hits.length >= k) return select(hits, hits.length, k, order);
+            }
+        }
+        int[] all = new int[size];
+        for (int i = 0; i < size; i++) all[i] = i;
+        return select(all, size, k, order);
+    }
+
+    private boolean probeCheaper(int radius) {
+        int flips = radius / CHUNKS;
+        return tables != null && flips < VARIANTS.length && CHUNKS * VARIANTS[flips] < size;
+    }
+
+    private IntComparator order(final long q, final IntComparator tieBreak) {
+        return new IntComparator() {
+            @Override
+            public int compare(int a, int b) {
+                int c = Integer.compare(Long.bitCount(fps[a] ^ q), Long.bitCount(fps[b] ^ q));
+                if (c != 0) return c;
+                if (tieBreak != null) {
+                    c = tieBreak.compare(a, b);
+                    if (c != 0) return c;
+                }
+                return Integer.compare(a, b);
+            }
+        };
+    }
+
+    // Bounded max-heap: the root is the worst of the k kept so far.
+    private static int[] select(int[] ids, int n, int k, final IntComparator order) {
+        int keep = Math.min(k, n);
+        IntHeapPriorityQueue heap = new IntHeapPriorityQueue(keep, new IntComparator() {
+            @Override
+            public int compare(int a, int b) { return order.compare(b, a); }
+        });
+        for (int i = 0; i < n; i++) {
+            int id = ids[i];
+            if (heap.size() < keep) heap.enqueue(id);
+            else if (order.compare(id, heap.firstInt()) < 0) { heap.dequeueInt(); heap.enqueue(id); }
+        }
+        int[] out = new int[heap.size()];
+        for (int i = out.length - 1; i >= 0; i--) out[i] = heap.dequeueInt();
+        return out;
+    }
+
+    private int[] scan(long q, int radius) {
+        IntArrayList out = new IntArrayList();
+        for (int i = 0; i < size; i++) {
+            if (Long.bitCount(fps[i] ^ q) <= radius) out.add(i);
+        }
+        return out.toIntArray();
+    }
+
+    // Visit every value within `flips` bits of `value` (flipping bits at or above `from`).
+    private void probe(int c, int value, int flips, int from, long q, int radius, BitSet hits) {
+        IntArrayList posting = tables[c].get(value);
+        if (posting != null) {
+            for (int i = 0; i < posting.size(); i++) {
+                int id = posting.getInt(i);
+                if (!hits.get(id) && Long.bitCount(fps[id] ^ q) <= radius) hits.set(id);
+            }
+        }
+        if (flips == 0) return;
+        for (int b = from; b < CHUNK_BITS; b++) {
+            probe(c, value ^ (1 << b), flips - 1, b + 1, q, radius, hits);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void buildTables() {
+        tables = new Int2ObjectOpenHashMap[CHUNKS];
+        for (int c = 0; c < CHUNKS; c++) tables[c] = new Int2ObjectOpenHashMap<IntArrayList>();
+        for (int i = 0; i < size; i++) post(i, fps[i]);
+    }
+
+    private void post(int id, long fp) {
+        for (int c = 0; c < CHUNKS; c++) {
+            int v = chunk(fp, c);
+            IntArrayList posting = tables[c].get(v);
+            if (posting == null) { posting = new IntArrayList(2); tables[c].put(v, posting); }
+            posting.add(id);
+        }
+    }
+
+    private static int chunk(long fp, int c) {
+        return (int) (fp >>> (c * CHUNK_BITS)) & 0xFFFF;
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER HAMMING INDEX END
@@ -1,6 +1,12 @@
 // >>> AUTOGEN: BYTECODEMAPPER NSF INDEX BEGIN
 package io.bytecodemapper.core.index;
 
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.ints.IntComparator;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
 import java.util.*;
 
 public final class NsfIndex {
@@ -9,87 +15,148 @@ public final class NsfIndex {
         public final String owner, name, desc; public final long nsf64; public final String bucket;
         public NewRef(String owner, String name, String desc, long nsf64, String bucket){ this.owner=owner; this.name=name; this.desc=desc; this.nsf64=nsf64; this.bucket=bucket; }
     }
-    private final Map<String,ArrayList<NewRef>> byKey = new LinkedHashMap<String,ArrayList<NewRef>>();
-    private static String key(String owner, String desc){ return owner + "\u0000" + desc; }
+    // One bucket per (owner, desc); refs are deduped on add, so a ref seen in both the canonical and
+    // surrogate bucket is stored once, as its canonical form, at the slot of its first occurrence.
+    private static final class Bucket {
+        final ArrayList<NewRef> refs = new ArrayList<NewRef>();
+        final IntArrayList names = new IntArrayList();
+        final HammingIndex fps = new HammingIndex();
+        // Position of each ref in (owner, desc, name) order; rebuilt after adds. Built lazily but
+        // published whole, so concurrent queries after the last add are safe.
+        volatile int[] rank;
+
+        void add(NewRef r, int nameId) {
+            for (int id : fps.within(r.nsf64, 0)) {
+                if (names.getInt(id) == nameId) {
+                    if ("nsf64".equals(r.bucket)) refs.set(id, r);
+                    return;
+                }
+            }
+            append(r, nameId);
+        }
+
+        void append(NewRef r, int nameId) {
+            fps.add(r.nsf64);
+            refs.add(r);
+            names.add(nameId);
+            rank = null;
+        }
+
+        ArrayList<NewRef> within(long nsf64, int hammingBudget) {
+            int[] ids = fps.within(nsf64, hammingBudget);
+            int[] r = rank;
+            if (r == null) rank = r = rank(refs);
+            final int[] rk = r;
+            IntArrays.quickSort(ids, new IntComparator() {
+                @Override
+                public int compare(int a, int b) { return Integer.compare(rk[a], rk[b]); }
+            });
+            ArrayList<NewRef> out = new ArrayList<NewRef>(ids.length);
+            for (int id : ids) out.add(refs.get(id));
+            return out;
+        }
+
+        // Stable, so refs equal on (owner, desc, name) keep insertion order
+        private static int[] rank(final ArrayList<NewRef> refs) {
+            int[] order = new int[refs.size()];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            IntArrays.mergeSort(order, new IntComparator() {
+                @Override
+                public int compare(int a, int b) { return ORDER.compare(refs.get(a), refs.get(b)); }
+            });
+            int[] rank = new int[order.length];
+            for (int i = 0; i < order.length; i++) rank[order[i]] = i;
+            return rank;
+        }
+    }
+
+    private static final Comparator<NewRef> ORDER = new Comparator<NewRef>() {
+        public int compare(NewRef a, NewRef b){
+            int c = a.owner.compareTo(b.owner); if (c!=0) return c;
+            c = a.desc.compareTo(b.desc); if (c!=0) return c;
+            return a.name.compareTo(b.name);
+        }};
+
+    private final SymbolTable symbols;
+    // Buckets keyed by packed (owner id, desc id)
+    private final Long2ObjectOpenHashMap<Bucket> byKey = new Long2ObjectOpenHashMap<Bucket>();
+    // Cross-owner view keyed by desc id, built on first use and dropped on add
+    private volatile Int2ObjectOpenHashMap<Bucket> byDesc;
+
+    public NsfIndex() { this(new SymbolTable()); }
+
+    /** Index interning into {@code symbols}, typically the new jar's table shared with the matcher. */
+    public NsfIndex(SymbolTable symbols) { this.symbols = symbols; }
 
     // Add with mode: CANONICAL, SURROGATE, BOTH
     public void add(String owner, String desc, String name, long nsf64, Mode mode) {
-        String k = key(owner, desc);
-        ArrayList<NewRef> bucket = byKey.get(k);
-        if (bucket == null) { bucket = new ArrayList<NewRef>(); byKey.put(k, bucket); }
+        long k = SymbolTable.pack(symbols.intern(owner), symbols.intern(desc));
+        int nameId = symbols.intern(name);
+        Bucket bucket = byKey.get(k);
+        if (bucket == null) { bucket = new Bucket(); byKey.put(k, bucket); }
+        byDesc = null;
         if (mode == Mode.BOTH) {
             if (nsf64 != 0L) {
-                bucket.add(new NewRef(owner, name, desc, nsf64, "nsf64"));
-                bucket.add(new NewRef(owner, name, desc, nsf64, "nsf_surrogate"));
+                bucket.add(new NewRef(owner, name, desc, nsf64, "nsf64"), nameId);
+                bucket.add(new NewRef(owner, name, desc, nsf64, "nsf_surrogate"), nameId);
             } else {
-                bucket.add(new NewRef(owner, name, desc, nsf64, "nsf_surrogate"));
+                bucket.add(new NewRef(owner, name, desc, nsf64, "nsf_surrogate"), nameId);
             }
         } else if (mode == Mode.CANONICAL) {
-            bucket.add(new NewRef(owner, name, desc, nsf64, "nsf64"));
+            bucket.add(new NewRef(owner, name, desc, nsf64, "nsf64"), nameId);
         } else {
-            bucket.add(new NewRef(owner, name, desc, nsf64, "nsf_surrogate"));
+            bucket.add(new NewRef(owner, name, desc, nsf64, "nsf_surrogate"), nameId);
         }
     }
 
     // Deterministic dedup: favor canonical bucket if ref appears in both
     public java.util.List<NewRef> exact(String owner, String desc, long nsf64) {
-        ArrayList<NewRef> b = byKey.get(key(owner, desc)); if (b==null) return Collections.emptyList();
-        // Union, dedup by (owner,name,desc,nsf64), favor canonical
-        LinkedHashMap<String,NewRef> dedup = new LinkedHashMap<>();
-        for (NewRef r : b) {
-            if (r.nsf64 == nsf64) {
-                String refKey = r.owner + "\u0000" + r.name + "\u0000" + r.desc + "\u0000" + r.nsf64;
-                if (!dedup.containsKey(refKey) || "nsf64".equals(r.bucket)) {
-                    dedup.put(refKey, r);
-                }
-            }
-        }
-        ArrayList<NewRef> out = new ArrayList<>(dedup.values());
-        sort(out); return out;
+        Bucket b = bucket(owner, desc); if (b==null) return Collections.emptyList();
+        return b.within(nsf64, 0);
     }
 
     public java.util.List<NewRef> near(String owner, String desc, long nsf64, int hammingBudget) {
-        ArrayList<NewRef> b = byKey.get(key(owner, desc)); if (b==null) return Collections.emptyList();
-        LinkedHashMap<String,NewRef> dedup = new LinkedHashMap<>();
-        for (NewRef r : b) {
-            int pop = Long.bitCount(r.nsf64 ^ nsf64);
-            if (pop <= hammingBudget) {
-                String refKey = r.owner + "\u0000" + r.name + "\u0000" + r.desc + "\u0000" + r.nsf64;
-                if (!dedup.containsKey(refKey) || "nsf64".equals(r.bucket)) {
-                    dedup.put(refKey, r);
+        Bucket b = bucket(owner, desc); if (b==null) return Collections.emptyList();
+        return cap(b.within(nsf64, hammingBudget));
+    }
+
+    /**
+     * Near lookup over every owner with this desc, for old methods whose owner mapping is
+     * uncertain. Same ordering and cap as {@link #near}.
+     */
+    public java.util.List<NewRef> nearAnyOwner(String desc, long nsf64, int hammingBudget) {
+        Int2ObjectOpenHashMap<Bucket> view = byDesc;
+        if (view == null) {
+            view = new Int2ObjectOpenHashMap<Bucket>();
+            for (Bucket kb : byKey.values()) {
+                for (int i = 0; i < kb.refs.size(); i++) {
+                    NewRef r = kb.refs.get(i);
+                    int descId = symbols.id(r.desc);
+                    Bucket db = view.get(descId);
+                    if (db == null) { db = new Bucket(); view.put(descId, db); }
+                    db.append(r, kb.names.getInt(i)); // already deduped in its owner bucket
                 }
             }
+            byDesc = view;
         }
-        ArrayList<NewRef> out = new ArrayList<>(dedup.values());
-        sort(out);
-        int MAX = Math.min(512, out.size());
-        return new ArrayList<>(out.subList(0, MAX));
+        int descId = symbols.id(desc);
+        Bucket b = descId < 0 ? null : view.get(descId); if (b==null) return Collections.emptyList();
+        return cap(b.within(nsf64, hammingBudget));
+    }
+
+    private Bucket bucket(String owner, String desc) {
+        int o = symbols.id(owner), d = symbols.id(desc);
+        return (o < 0 || d < 0) ? null : byKey.get(SymbolTable.pack(o, d));
     }
 
-    private static void sort(ArrayList<NewRef> xs){
-        Collections.sort(xs, new Comparator<NewRef>() {
-            public int compare(NewRef a, NewRef b){
-                int c = a.owner.compareTo(b.owner); if (c!=0) return c;
-                c = a.desc.compareTo(b.desc); if (c!=0) return c;
-                return a.name.compareTo(b.name);
-            }});
+    private static java.util.List<NewRef> cap(ArrayList<NewRef> out) {
+        int MAX = Math.min(512, out.size());
+        return MAX == out.size() ? out : new ArrayList<>(out.subList(0, MAX));
     }
 
     // Package-private accessor for deterministic diagnostics/tests
     java.util.List<NewRef> getByFp(String owner, String desc, long nsf64) {
-        ArrayList<NewRef> b = byKey.get(key(owner, desc)); if (b==null) return Collections.emptyList();
-        LinkedHashMap<String,NewRef> dedup = new LinkedHashMap<>();
-        for (NewRef r : b) {
-            if (r.nsf64 == nsf64) {
-                String refKey = r.owner + "\u0000" + r.name + "\u0000" + r.desc + "\u0000" + r.nsf64;
-                if (!dedup.containsKey(refKey) || "nsf64".equals(r.bucket)) {
-                    dedup.put(refKey, r);
-                }
-            }
-        }
-        ArrayList<NewRef> out = new ArrayList<>(dedup.values());
-        sort(out);
-        return out;
+        return exact(owner, desc, nsf64);
     }
 }
 // >>> AUTOGEN: BYTECODEMAPPER NSF INDEX END
@@ -0,0 +1,66 @@
+// >>> AUTOGEN: BYTECODEMAPPER SYMBOL TABLE BEGIN
+package io.bytecodemapper.core.index;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.util.ArrayList;
+
+/**
+ * Dense int ids for the owners, names and descriptors of one jar, plus dense ids for
+ * (owner, desc) pairs. Indexes key on {@link #pack} of these ids instead of concatenated strings.
+ * Ids are assigned in first-intern order; lookups of unknown symbols return -1.
+ */
+public final class SymbolTable {
+    private final Object2IntOpenHashMap<String> ids = new Object2IntOpenHashMap<String>();
+    private final ArrayList<String> symbols = new ArrayList<String>();
+    private final Long2IntOpenHashMap pairs = new Long2IntOpenHashMap();
+
+    public SymbolTable() {
+        ids.defaultReturnValue(-1);
+        pairs.defaultReturnValue(-1);
+    }
+
+    public int intern(String s) {
+        int id = ids.getInt(s);
+        if (id < 0) {
+            id = symbols.size();
+            symbols.add(s);
+            ids.put(s, id);
+        }
+        return id;
+    }
+
+    /** Id of an interned symbol, or -1. */
+    public int id(String s) { return ids.getInt(s); }
+
+    public String symbol(int id) { return symbols.get(id); }
+
+    public int size() { return symbols.size(); }
+
+    public int internPair(int a, int b) {
+        long k = pack(a, b);
+        int id = pairs.get(k);
+        if (id < 0) {
+            id = pairs.size();
+            pairs.put(k, id);
+        }
+        return id;
+    }
+
+    /** Id of an interned pair, or -1 (also when either id is -1). */
+    public int pair(int a, int b) {
+        if (a < 0 || b < 0) return -1;
+        return pairs.get(pack(a, b));
+    }
+
+    /** Id of the (owner, desc) pair for these strings, or -1 if never interned. */
+    public int pair(String owner, String desc) {
+        return pair(id(owner), id(desc));
+    }
+
+    public static long pack(int hi, int lo) {
+        return ((long) hi << 32) | (lo & 0xFFFFFFFFL);
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER SYMBOL TABLE END
@@ -0,0 +1,132 @@
+// >>> AUTOGEN: BYTECODEMAPPER CORE FlatteningIndex BEGIN
+package io.bytecodemapper.core.match;
+
+import io.bytecodemapper.core.cfg.ReducedCFG;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.LookupSwitchInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TableSwitchInsnNode;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-run flattening verdicts: one bit per (owner, name, desc) and an "any flattened"
+ * bit per (owner, desc). Filled during feature extraction from the ReducedCFG that is
+ * built there anyway, so the matcher's flattening gate is a set lookup instead of a
+ * CFG rebuild for every method of the mapped new owner.
+ *
+ * Owners are only answered from the index once {@link #markComplete(String)} says every
+ * concrete method was recorded (the maxMethods cap can cut an owner short); otherwise
+ * the matcher scans the owner once and completes it.
+ *
+ * Safe for concurrent use; {@link #completeOwner} assumes one writer per owner, which the
+ * matcher guarantees by confining each owner to one worker.
+ */
+public final class FlatteningIndex {
+    private final Set<String> flattenedMethods = ConcurrentHashMap.newKeySet();
+    private final Set<String> recordedMethods = ConcurrentHashMap.newKeySet();
+    private final Set<String> anyFlattenedOwnerDesc = ConcurrentHashMap.newKeySet();
+    private final Set<String> completeOwners = ConcurrentHashMap.newKeySet();
+
+    public void record(String owner, String name, String desc, boolean flattened) {
+        String k = methodKey(owner, name, desc);
+        recordedMethods.add(k);
+        if (flattened) {
+            flattenedMethods.add(k);
+            anyFlattenedOwnerDesc.add(ownerDescKey(owner, desc));
+        }
+    }
+
+    /** Independent copy, e.g. one per matching run over the same extracted jar. */
+    public FlatteningIndex copy() {
+        FlatteningIndex c = new FlatteningIndex();
+        c.flattenedMethods.addAll(flattenedMethods);
+        c.recordedMethods.addAll(recordedMethods);
+        c.anyFlattenedOwnerDesc.addAll(anyFlattenedOwnerDesc);
+        c.completeOwners.addAll(completeOwners);
+        return c;
+    }
+
+    /** Declare that every concrete method of {@code owner} has been recorded. */
+    public void markComplete(String owner) { completeOwners.add(owner); }
+
+    public boolean isComplete(String owner) { return completeOwners.contains(owner); }
+
+    public boolean isRecorded(String owner, String name, String desc) {
+        return recordedMethods.contains(methodKey(owner, name, desc));
+    }
+
+    public boolean isFlattened(String owner, String name, String desc) {
+        return flattenedMethods.contains(methodKey(owner, name, desc));
+    }
+
+    /** True if any recorded method of {@code owner} with {@code desc} looks flattened. */
+    public boolean anyFlattened(String owner, String desc) {
+        return anyFlattenedOwnerDesc.contains(ownerDescKey(owner, desc));
+    }
+
+    /**
+     * Record every not-yet-recorded method of {@code cn} (building its CFG) and mark the
+     * owner complete. Used for owners the extraction phase did not fully cover.
+     */
+    public void completeOwner(String owner, ClassNode cn) {
+        if (isComplete(owner)) return;
+        if (cn != null && cn.methods != null) {
+            for (Object o : cn.methods) {
+                MethodNode mn = (MethodNode) o;
+                if (isRecorded(owner, mn.name, mn.desc)) continue;
+                record(owner, mn.name, mn.desc, isLikelyFlattened(mn));
+            }
+        }
+        markComplete(owner);
+    }
+
+    /** Heuristic flattening detector: looks for a central dispatcher (switch) with many successors. */
+    public static boolean isLikelyFlattened(MethodNode mn) {
+        if (mn == null || mn.instructions == null) return false;
+        try {
+            return isLikelyFlattened(mn, ReducedCFG.build(mn));
+        } catch (Throwable ignore) {
+            // stay conservative on analysis failure
+            return false;
+        }
+    }
+
+    /** Same heuristic over an already-built CFG of {@code mn} (block indices refer to mn's instructions). */
+    public static boolean isLikelyFlattened(MethodNode mn, ReducedCFG cfg) {
+        if (mn == null || mn.instructions == null || cfg == null) return false;
+        try {
+            // Quick thresholds tuned conservatively for Java-8 obfuscators
+            final int MIN_BLOCKS = 8;
+            final int MIN_SUCC = 6; // many-way dispatcher
+            int blockCount = cfg.allBlockIds().length;
+            if (blockCount < MIN_BLOCKS) return false;
+
+            // Find a block ending in a switch with many successors or any block with high out-degree
+            AbstractInsnNode[] insns = mn.instructions.toArray();
+            for (ReducedCFG.Block b : cfg.blocks()) {
+                int[] succs = b.succs();
+                if (succs != null && succs.length >= MIN_SUCC) return true;
+                // Switch check (less strict succ count)
+                AbstractInsnNode last = (b.endIdx >= 0 && b.endIdx < insns.length) ? insns[b.endIdx] : null;
+                if (last instanceof TableSwitchInsnNode || last instanceof LookupSwitchInsnNode) {
+                    if (succs != null && succs.length >= 4) return true;
+                }
+            }
+        } catch (Throwable ignore) {
+            // stay conservative on analysis failure
+        }
+        return false;
+    }
+
+    private static String methodKey(String owner, String name, String desc) {
+        return owner + "#" + name + desc;
+    }
+
+    private static String ownerDescKey(String owner, String desc) {
+        return owner + "\u0000" + desc;
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER CORE FlatteningIndex END
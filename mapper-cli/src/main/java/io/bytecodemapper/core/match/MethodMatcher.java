@@ -7,11 +7,17 @@ import io.bytecodemapper.cli.method.MethodRef;
 import io.bytecodemapper.cli.method.MethodScorer;
 import io.bytecodemapper.core.hash.StableHash64;
 import io.bytecodemapper.core.index.NsfIndex;
+import io.bytecodemapper.core.index.SymbolTable;
 import io.bytecodemapper.signals.idf.IdfStore;
 import io.bytecodemapper.signals.normalized.NormalizedAdapters;
+import io.bytecodemapper.signals.normalized.NormalizedFeatureStore;
 import io.bytecodemapper.signals.normalized.NormalizedMethod;
 import io.bytecodemapper.signals.normalized.NormalizedFeatures;
 import io.bytecodemapper.signals.micro.MicroPatternExtractor;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.MethodNode;
 
@@ -65,6 +71,8 @@ public final class MethodMatcher {
     public int flatteningDetected = 0;        // number of old methods where flattening was detected (either side)
     public int nearBeforeGates = 0;           // aggregate near-candidate count before gates
     public int nearAfterGates = 0;            // aggregate near-candidate count after gates
+    // Incremental mode: accepted pairs reused from the previous run without running the tiers
+    public int anchored = 0;
     // CODEGEN-END: wl-relaxed-counters-fields
     }
 
@@ -93,6 +101,16 @@ public final class MethodMatcher {
     /** Stack-hist cosine threshold for later gating (wired by Phase 4, default 0.60). */
     public double stackCosineThreshold = 0.60;   // default 0.60
     // CODEGEN-END: flattening-near-widen options
+    /** Weight call/string bags with run-wide corpus IDF instead of IDF over {source + candidates} (default false). */
+    public boolean corpusIdf = false;
+    /** Workers for the old-owner matching loop (<=1 = serial); results do not depend on the count. */
+    public int threads = 1;
+    /**
+     * Incremental mode: old "owner#name(desc)" keys the previous run (N-1 -> N) matched, in this run's
+     * old namespace (null = off). Such a method skips the tiers only when exactly one method of the same
+     * descriptor on each side has its normalizedBodyHash; otherwise it is matched as usual.
+     */
+    public java.util.Set<String> anchors = null;
     }
     // CODEGEN-END: wl-relaxed-defaults-in-options
 
@@ -112,24 +130,54 @@ public final class MethodMatcher {
             MethodMatcherOptions options,
             boolean deterministic,
             boolean debugStats) {
+        return matchMethods(oldClasses, newClasses, classMap, oldFeat, newFeat, null, null, null, null, idf, options, deterministic, debugStats);
+    }
+
+    /**
+     * Same as above, reusing NormalizedFeatures and flattening verdicts precomputed during
+     * extraction. Methods missing from a store/index (or null ones) are computed on first use
+     * and memoized for the rest of the run.
+     */
+    public static MethodMatchResult matchMethods(
+            Map<String, ClassNode> oldClasses,
+            Map<String, ClassNode> newClasses,
+            Map<String,String> classMap,
+            Map<String, Map<String, MethodFeatureCacheEntry>> oldFeat,
+            Map<String, Map<String, MethodFeatureCacheEntry>> newFeat,
+            NormalizedFeatureStore oldNorm,
+            NormalizedFeatureStore newNorm,
+            FlatteningIndex oldFlat,
+            FlatteningIndex newFlat,
+            IdfStore idf,
+            MethodMatcherOptions options,
+            boolean deterministic,
+            boolean debugStats) {
         MethodMatchResult out = new MethodMatchResult();
         if (options == null) options = new MethodMatcherOptions();
+        if (oldNorm == null) oldNorm = new NormalizedFeatureStore();
+        if (newNorm == null) newNorm = new NormalizedFeatureStore();
+        if (oldFlat == null) oldFlat = new FlatteningIndex();
+        if (newFlat == null) newFlat = new FlatteningIndex();
+
+        // Owners, names and descs of the new jar as dense ids: the indexes and the per-method
+        // candidate dedup below key on packed ids instead of concatenated strings
+        final SymbolTable newSyms = newSideSymbols(newFeat);
 
         // 1) Build NEW-side index by (desc, wl)
-        Map<Key, List<NewRef>> wlIndex = buildNewSideWlIndex(newFeat);
+        WlIndex wlIndex = buildNewSideWlIndex(newFeat, newSyms);
 
         // >>> AUTOGEN: BYTECODEMAPPER MATCH NSF TIERS BEGIN
-        // Build NEW-side nsf index per newOwner using canonical nsf64 with optional surrogate fallback.
-        final java.util.Map<String, NsfIndex> nsfIndexByNewOwner = new java.util.LinkedHashMap<String, NsfIndex>();
-        // Provenance map keyed by owner\0desc\0name\0fp -> "nsf64" or "nsf_surrogate"
-        final java.util.Map<String, String> nsfProvByKeyFp = new java.util.LinkedHashMap<String, String>();
+        // Build NEW-side nsf index (bucketed by newOwner+desc) using canonical nsf64 with optional surrogate fallback.
+        final NsfIndex nsfIndex = new NsfIndex(newSyms);
+        // Provenance per new method key -> "nsf64" or "nsf_surrogate", valid for the fp it was indexed under
+        final Long2ObjectOpenHashMap<String> nsfProv = new Long2ObjectOpenHashMap<String>();
+        final Long2LongOpenHashMap nsfProvFp = new Long2LongOpenHashMap();
         {
             java.util.ArrayList<String> newOwners = new java.util.ArrayList<String>(newFeat.keySet());
             java.util.Collections.sort(newOwners);
             for (String newOwner : newOwners) {
                 java.util.Map<String, MethodFeatureCacheEntry> nm = newFeat.get(newOwner);
                 if (nm == null) continue;
-                NsfIndex idx = new NsfIndex();
                 java.util.ArrayList<String> sigs = new java.util.ArrayList<String>(nm.keySet());
                 java.util.Collections.sort(sigs);
                 ClassNode cn = newClasses.get(newOwner);
@@ -138,17 +186,12 @@ public final class MethodMatcher {
                     if (e == null) continue;
                     String name = sig.substring(0, sig.indexOf('('));
                     String desc = sig.substring(sig.indexOf('('));
+                    long mk = methodKey(newSyms, newOwner, desc, name);
                     long canonical = 0L;
-                    // Compute canonical nsf64 from NormalizedMethod if available
+                    // Canonical nsf64 from the per-run NormalizedFeatures store
                     if (cn != null) {
-                        org.objectweb.asm.tree.MethodNode mn = findMethod(cn, name, desc);
-                        if (mn != null) {
-                            try {
-                                NormalizedMethod norm = new NormalizedMethod(newOwner, mn, java.util.Collections.<Integer>emptySet());
-                                NormalizedFeatures nf = norm.extract();
-                                canonical = nf != null ? nf.nsf64 : 0L;
-                            } catch (Throwable ignore) { canonical = 0L; }
-                        }
+                        NormalizedFeatures nf = normalized(newNorm, cn, newOwner, name, desc);
+                        canonical = nf != null ? nf.nsf64 : 0L;
                     }
                     // Surrogate fingerprint for fallback/indexing depending on mode
                     String fp = (e.normFingerprint != null ? e.normFingerprint : (e.normalizedBodyHash != null ? e.normalizedBodyHash : (e.normalizedDescriptor != null ? e.normalizedDescriptor : sig)));
@@ -157,360 +200,533 @@ public final class MethodMatcher {
                     io.bytecodemapper.cli.flags.UseNsf64Mode mode = NSF_MODE;
                     if (mode == io.bytecodemapper.cli.flags.UseNsf64Mode.CANONICAL) {
                         long use = (canonical != 0L ? canonical : surrogate);
-                        idx.add(newOwner, desc, name, use, io.bytecodemapper.core.index.NsfIndex.Mode.CANONICAL);
-                        nsfProvByKeyFp.put(nsfKey(newOwner, desc, name, use), (canonical != 0L ? "nsf64" : "nsf_surrogate"));
+                        nsfIndex.add(newOwner, desc, name, use, io.bytecodemapper.core.index.NsfIndex.Mode.CANONICAL);
+                        nsfProv.put(mk, (canonical != 0L ? "nsf64" : "nsf_surrogate")); nsfProvFp.put(mk, use);
                     } else if (mode == io.bytecodemapper.cli.flags.UseNsf64Mode.SURROGATE) {
-                        idx.add(newOwner, desc, name, surrogate, io.bytecodemapper.core.index.NsfIndex.Mode.SURROGATE);
-                        nsfProvByKeyFp.put(nsfKey(newOwner, desc, name, surrogate), "nsf_surrogate");
+                        nsfIndex.add(newOwner, desc, name, surrogate, io.bytecodemapper.core.index.NsfIndex.Mode.SURROGATE);
+                        nsfProv.put(mk, "nsf_surrogate"); nsfProvFp.put(mk, surrogate);
                     } else { // BOTH
-                        idx.add(newOwner, desc, name, canonical, io.bytecodemapper.core.index.NsfIndex.Mode.BOTH);
-                        nsfProvByKeyFp.put(nsfKey(newOwner, desc, name, canonical), canonical != 0L ? "nsf64" : "nsf_surrogate");
+                        nsfIndex.add(newOwner, desc, name, canonical, io.bytecodemapper.core.index.NsfIndex.Mode.BOTH);
+                        nsfProv.put(mk, canonical != 0L ? "nsf64" : "nsf_surrogate"); nsfProvFp.put(mk, canonical);
                     }
                 }
-                nsfIndexByNewOwner.put(newOwner, idx);
             }
         }
         // <<< AUTOGEN: BYTECODEMAPPER MATCH NSF TIERS END
 
-        // 2) Iterate OLD owners deterministically
+        // 1b) Scoring features for every method of both jars and the run-level call/string
+        // TF-IDF corpora over their bags; built once here instead of per old method
+        final Map<String, MethodFeatures> oldFeatures = featuresByKey(oldFeat, classMap, true);
+        final Map<String, MethodFeatures> newFeatures = featuresByKey(newFeat, classMap, false);
+        final MethodScorer.BagCorpora corpora;
+        {
+            ArrayList<MethodFeatures> all = new ArrayList<MethodFeatures>(oldFeatures.size() + newFeatures.size());
+            all.addAll(oldFeatures.values());
+            all.addAll(newFeatures.values());
+            corpora = MethodScorer.BagCorpora.build(all, options.corpusIdf);
+        }
+        final Long2ObjectOpenHashMap<MethodFeatures> newFeaturesById = new Long2ObjectOpenHashMap<MethodFeatures>(newFeatures.size());
+        for (MethodFeatures f : newFeatures.values()) {
+            newFeaturesById.put(methodKey(newSyms, f.ref.owner, f.ref.desc, f.ref.name), f);
+        }
+
+        // 2) Match OLD owners. Old owners sharing a new owner form one group: matching fills new-side
+        // state lazily per owner (normalized features, flattening verdicts, in-place CFG building),
+        // so a group never runs on two threads. Each owner matches into its own buffer and buffers
+        // are merged in sorted owner order, so the result is the same for any thread count.
+        final MatchContext ctx = new MatchContext();
+        ctx.oldClasses = oldClasses; ctx.newClasses = newClasses;
+        ctx.oldFeat = oldFeat; ctx.newFeat = newFeat;
+        ctx.oldNorm = oldNorm; ctx.newNorm = newNorm;
+        ctx.oldFlat = oldFlat; ctx.newFlat = newFlat;
+        ctx.idf = idf; ctx.options = options;
+        ctx.deterministic = deterministic; ctx.debugStats = debugStats;
+        ctx.newSyms = newSyms; ctx.wlIndex = wlIndex;
+        ctx.nsfIndex = nsfIndex; ctx.nsfProv = nsfProv; ctx.nsfProvFp = nsfProvFp;
+        ctx.oldFeatures = oldFeatures; ctx.newFeaturesById = newFeaturesById; ctx.corpora = corpora;
+
         ArrayList<String> owners = new ArrayList<String>(classMap.keySet());
         Collections.sort(owners);
-    final int MAX_CANDIDATES = 120; // safety cap to keep TF-IDF models bounded
+        ArrayList<OwnerMatch> units = new ArrayList<OwnerMatch>(owners.size());
+        LinkedHashMap<String, List<OwnerMatch>> byNewOwner = new LinkedHashMap<String, List<OwnerMatch>>();
         for (String oldOwner : owners) {
             String newOwner = classMap.get(oldOwner);
-            Map<String, MethodFeatureCacheEntry> om = oldFeat.get(oldOwner);
-            Map<String, MethodFeatureCacheEntry> nm = newFeat.get(newOwner);
-            if (om == null || nm == null) continue;
+            if (oldFeat.get(oldOwner) == null || newFeat.get(newOwner) == null) continue;
+            OwnerMatch u = new OwnerMatch(oldOwner, newOwner);
+            units.add(u);
+            List<OwnerMatch> group = byNewOwner.get(newOwner);
+            if (group == null) { group = new ArrayList<OwnerMatch>(); byNewOwner.put(newOwner, group); }
+            group.add(u);
+        }
+        List<List<OwnerMatch>> groups = new ArrayList<List<OwnerMatch>>(byNewOwner.values());
+        if (options.threads > 1 && groups.size() > 1) {
+            java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(options.threads);
+            try {
+                pool.invoke(new MatchRange(ctx, groups, 0, groups.size()));
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            for (List<OwnerMatch> group : groups) {
+                for (OwnerMatch u : group) matchOwner(ctx, u);
+            }
+        }
+        for (OwnerMatch u : units) {
+            if (u.log.length() > 0) System.out.print(u.log);
+            u.mergeInto(out);
+        }
 
-            ArrayList<String> sigs = new ArrayList<String>(om.keySet());
-            Collections.sort(sigs);
-            for (String sig : sigs) {
-                String oldName = sig.substring(0, sig.indexOf('('));
-                String desc    = sig.substring(sig.indexOf('('));
-                MethodFeatureCacheEntry ofe = om.get(sig);
-                if (ofe == null) continue;
-                long oldWl = ofe.wlSignature;
-
-                // Primary candidates: collect according to tier order (nsf + wl)
-                java.util.ArrayList<NewRef> candsExact = new java.util.ArrayList<NewRef>();
-                java.util.ArrayList<NewRef> candsNear  = new java.util.ArrayList<NewRef>();
-                java.util.ArrayList<NewRef> candsWl    = new java.util.ArrayList<NewRef>();
-                java.util.ArrayList<NewRef> candsRelax = new java.util.ArrayList<NewRef>();
-                // Precompute old canonical nsf64 (from NormalizedMethod) and surrogate fallback
-                long oldCanonical = 0L;
-                NormalizedFeatures oldNormFeatures = null; // for flattening gates
-                boolean oldFlattened = false; // CODEGEN: flattening-near-widen (old side)
-                {
-                    ClassNode ocn = oldClasses.get(oldOwner);
-                    if (ocn != null) {
-                        org.objectweb.asm.tree.MethodNode omn = findMethod(ocn, oldName, desc);
-                        if (omn != null) {
-                            try {
-                                NormalizedMethod norm = new NormalizedMethod(oldOwner, omn, java.util.Collections.<Integer>emptySet());
-                                NormalizedFeatures nf = norm.extract();
-                                oldNormFeatures = nf;
-                                oldCanonical = nf != null ? nf.nsf64 : 0L;
-                                // CODEGEN-BEGIN: flattening-near-widen old-detect
-                                oldFlattened = isLikelyFlattened(omn);
-                                // CODEGEN-END: flattening-near-widen old-detect
-                            } catch (Throwable ignore) { oldCanonical = 0L; }
-                        }
-                    }
+        // Deterministic ordering for outputs
+        Collections.sort(out.abstained, new Comparator<Abstention>() {
+            public int compare(Abstention a, Abstention b) {
+                int c = a.oldOwner.compareTo(b.oldOwner); if (c!=0) return c;
+                c = a.desc.compareTo(b.desc); if (c!=0) return c;
+                return a.oldName.compareTo(b.oldName);
+            }
+        });
+        Collections.sort(out.accepted, new Comparator<Pair>() {
+            public int compare(Pair a, Pair b) {
+                int c = a.oldOwner.compareTo(b.oldOwner); if (c!=0) return c;
+                c = a.desc.compareTo(b.desc); if (c!=0) return c;
+                return a.oldName.compareTo(b.oldName);
+            }
+        });
+        return out;
+    }
+
+    /** Matches every method of one old owner into {@code unit}'s buffers. */
+    private static void matchOwner(MatchContext ctx, OwnerMatch unit) {
+        final Map<String, ClassNode> oldClasses = ctx.oldClasses, newClasses = ctx.newClasses;
+        final Map<String, Map<String, MethodFeatureCacheEntry>> newFeat = ctx.newFeat;
+        final NormalizedFeatureStore oldNorm = ctx.oldNorm, newNorm = ctx.newNorm;
+        final FlatteningIndex oldFlat = ctx.oldFlat, newFlat = ctx.newFlat;
+        final IdfStore idf = ctx.idf;
+        final MethodMatcherOptions options = ctx.options;
+        final boolean deterministic = ctx.deterministic, debugStats = ctx.debugStats;
+        final SymbolTable newSyms = ctx.newSyms;
+        final WlIndex wlIndex = ctx.wlIndex;
+        final NsfIndex nsfIndex = ctx.nsfIndex;
+        final Long2ObjectOpenHashMap<String> nsfProv = ctx.nsfProv;
+        final Long2LongOpenHashMap nsfProvFp = ctx.nsfProvFp;
+        final Map<String, MethodFeatures> oldFeatures = ctx.oldFeatures;
+        final Long2ObjectOpenHashMap<MethodFeatures> newFeaturesById = ctx.newFeaturesById;
+        final MethodScorer.BagCorpora corpora = ctx.corpora;
+        final String oldOwner = unit.oldOwner, newOwner = unit.newOwner;
+        final MethodMatchResult out = unit.out;
+        final StringBuilder log = unit.log;
+        Map<String, MethodFeatureCacheEntry> om = ctx.oldFeat.get(oldOwner);
+        Map<String, MethodFeatureCacheEntry> nm = newFeat.get(newOwner);
+
+        ArrayList<String> sigs = new ArrayList<String>(om.keySet());
+        Collections.sort(sigs);
+        for (String sig : sigs) {
+            String oldName = sig.substring(0, sig.indexOf('('));
+            String desc    = sig.substring(sig.indexOf('('));
+            MethodFeatureCacheEntry ofe = om.get(sig);
+            if (ofe == null) continue;
+            if (options.anchors != null && options.anchors.contains(oldOwner + "#" + sig)) {
+                String reused = uniqueSameBody(ofe, nm, desc);
+                if (reused != null && oldName.equals(uniqueSameBody(ofe, om, desc))) {
+                    out.accepted.add(new Pair(oldOwner, oldName, reused, desc));
+                    out.anchored++;
+                    continue;
                 }
-                String oldFp = (ofe.normFingerprint != null ? ofe.normFingerprint : (ofe.normalizedBodyHash != null ? ofe.normalizedBodyHash : (ofe.normalizedDescriptor != null ? ofe.normalizedDescriptor : sig)));
-                long oldSurrogate = StableHash64.hashUtf8(oldFp);
-
-                NsfIndex nsfIdx = nsfIndexByNewOwner.get(newOwner);
-                // Track provenance for candidates (first occurrence wins)
-                final java.util.LinkedHashMap<String,String> candProv = new java.util.LinkedHashMap<String,String>();
-                // CODEGEN-BEGIN: flattening-near-order
-                // CODEGEN-BEGIN: flattening-near-widen compute-near-budget
-                // Detect flattening on either side (old or any new with same owner+desc)
-                boolean anyNewFlattened = newSideAnyFlattenedForOwnerDesc(newClasses, newOwner, desc);
-                boolean flattened = oldFlattened || anyNewFlattened;
-                if (flattened) out.flatteningDetected++;
-                final int nearBudget = flattened ? Math.max(1, options.nsfNearBudgetWhenFlattened) : 1;
-                if (flattened && debugStats) {
-                    System.out.println("[match] flattening detected for " + oldOwner + "#" + oldName + desc +
-                            " → nearBudget=" + nearBudget);
+            }
+            long oldWl = ofe.wlSignature;
+
+            // Primary candidates: collect according to tier order (nsf + wl)
+            java.util.ArrayList<NewRef> candsExact = new java.util.ArrayList<NewRef>();
+            java.util.ArrayList<NewRef> candsNear  = new java.util.ArrayList<NewRef>();
+            java.util.ArrayList<NewRef> candsWl    = new java.util.ArrayList<NewRef>();
+            java.util.ArrayList<NewRef> candsRelax = new java.util.ArrayList<NewRef>();
+            // Precompute old canonical nsf64 (from NormalizedMethod) and surrogate fallback
+            long oldCanonical = 0L;
+            NormalizedFeatures oldNormFeatures = null; // for flattening gates
+            boolean oldFlattened = false; // CODEGEN: flattening-near-widen (old side)
+            {
+                ClassNode ocn = oldClasses.get(oldOwner);
+                if (ocn != null) {
+                    org.objectweb.asm.tree.MethodNode omn = findMethod(ocn, oldName, desc);
+                    if (omn != null) {
+                        NormalizedFeatures nf = normalized(oldNorm, ocn, oldOwner, oldName, desc);
+                        oldNormFeatures = nf;
+                        oldCanonical = nf != null ? nf.nsf64 : 0L;
+                        // CODEGEN-BEGIN: flattening-near-widen old-detect
+                        oldFlattened = nf != null && isFlattened(oldFlat, oldOwner, omn);
+                        // CODEGEN-END: flattening-near-widen old-detect
+                    }
                 }
-                // CODEGEN-END: flattening-near-widen compute-near-budget
-                // CODEGEN-END: flattening-near-order
-                boolean hadHigherTierCandidates = false; // set at the moment we evaluate wlrelaxed tier
-                for (String tier : NSFTierOrder.split(",")) {
-                    String t = tier.trim().toLowerCase(java.util.Locale.ROOT);
-                    if ("exact".equals(t)) {
-                        if (nsfIdx != null) {
-                            java.util.List<Long> fps = queryFps(oldCanonical, oldSurrogate, NSF_MODE);
-                            for (Long qfp : fps) {
-                                java.util.List<NsfIndex.NewRef> xs = nsfIdx.exact(newOwner, desc, qfp.longValue());
-                                for (NsfIndex.NewRef r : xs) {
-                                    candsExact.add(new NewRef(r.owner, r.name, r.desc, 0));
-                                    String k = r.owner + "\u0000" + r.desc + "\u0000" + r.name;
-                                    if (!candProv.containsKey(k)) {
-                                        String pv = nsfProvByKeyFp.get(nsfKey(r.owner, r.desc, r.name, qfp.longValue()));
-                                        candProv.put(k, pv != null ? pv : (qfp.longValue() == oldCanonical && oldCanonical != 0L ? "nsf64" : "nsf_surrogate"));
-                                    }
-                                }
-                            }
-                        }
-                    } else if ("near".equals(t)) {
-                        if (nsfIdx != null) {
-                            // CODEGEN-BEGIN: flattening-near-widen apply-budget
-                            int hamBudget = nearBudget; // widen when flattening is detected
-                            // CODEGEN-END: flattening-near-widen apply-budget
-                            java.util.List<Long> fps = queryFps(oldCanonical, oldSurrogate, NSF_MODE);
-                            for (Long qfp : fps) {
-                                java.util.List<NsfIndex.NewRef> xs = nsfIdx.near(newOwner, desc, qfp.longValue(), hamBudget);
-                                for (NsfIndex.NewRef r : xs) {
-                                    candsNear.add(new NewRef(r.owner, r.name, r.desc, 0));
-                                    String k = r.owner + "\u0000" + r.desc + "\u0000" + r.name;
-                                    if (!candProv.containsKey(k)) {
-                                        String pv = nsfProvByKeyFp.get(nsfKey(r.owner, r.desc, r.name, qfp.longValue()));
-                                        candProv.put(k, pv != null ? pv : (qfp.longValue() == oldCanonical && oldCanonical != 0L ? "nsf64" : "nsf_surrogate"));
-                                    }
-                                }
-                            }
-                            // CODEGEN-BEGIN: flattening-gates apply
-                            // Apply call-degree band and stack-hist cosine gates and emit telemetry
-                            // ONLY when flattening is detected AND widened near (hamBudget > 1) is in effect.
-                            if (flattened && hamBudget > 1 && !candsNear.isEmpty()) {
-                                // telemetry: count before applying gates (widened near only)
-                                out.nearBeforeGates += candsNear.size();
-                                candsNear = applyFlatteningGatesIfNeeded(
-                                        true,
-                                        oldNormFeatures,
-                                        candsNear,
-                                        options.stackCosineThreshold,
-                                        newClasses,
-                                        newOwner,
-                                        desc
-                                );
-                                out.nearAfterGates += candsNear.size();
-                            }
-                            // CODEGEN-END: flattening-gates apply
-                        }
-                    } else if ("wl".equals(t)) {
-                        java.util.List<NewRef> xs = wlIndex.getOrDefault(new Key(desc, oldWl), java.util.Collections.<NewRef>emptyList());
-                        candsWl.addAll(xs);
-                        // provenance for WL exact tier
-                        for (NewRef r : xs) {
-                            String k = r.owner + "\u0000" + desc + "\u0000" + r.name;
-                            if (!candProv.containsKey(k)) candProv.put(k, "wl");
-                        }
-                    } else if ("wlrelaxed".equals(t)) {
-                        // CODEGEN-BEGIN: wl-relaxed-use-options
-                        final int l1Tau = options.wlRelaxedL1;
-                        final double band = options.wlSizeBand;
-                        // CODEGEN-END: wl-relaxed-use-options
-                        java.util.List<NewRef> xs = relaxedCandidates(oldClasses, newClasses, oldOwner, oldName, desc, newFeat, newOwner, deterministic, l1Tau, band);
-                        // CODEGEN-BEGIN: wl-relaxed-counters-increment
-                        hadHigherTierCandidates = (!candsExact.isEmpty() || !candsNear.isEmpty() || !candsWl.isEmpty());
-                        if (!xs.isEmpty()) {
-                            out.wlRelaxedGatePasses++;
-                            out.wlRelaxedCandidates += xs.size();
+            }
+            String oldFp = (ofe.normFingerprint != null ? ofe.normFingerprint : (ofe.normalizedBodyHash != null ? ofe.normalizedBodyHash : (ofe.normalizedDescriptor != null ? ofe.normalizedDescriptor : sig)));
+            long oldSurrogate = StableHash64.hashUtf8(oldFp);
+
+            // Track provenance for candidates by new method key (first occurrence wins)
+            final Long2ObjectOpenHashMap<String> candProv = new Long2ObjectOpenHashMap<String>();
+            final int descId = newSyms.id(desc);
+            final long[] qfps = queryFps(oldCanonical, oldSurrogate, NSF_MODE);
+            // CODEGEN-BEGIN: flattening-near-order
+            // CODEGEN-BEGIN: flattening-near-widen compute-near-budget
+            // Detect flattening on either side (old or any new with same owner+desc)
+            boolean anyNewFlattened = newSideAnyFlattenedForOwnerDesc(newFlat, newClasses, newOwner, desc);
+            boolean flattened = oldFlattened || anyNewFlattened;
+            if (flattened) out.flatteningDetected++;
+            final int nearBudget = flattened ? Math.max(1, options.nsfNearBudgetWhenFlattened) : 1;
+            if (flattened && debugStats) {
+                log.append("[match] flattening detected for " + oldOwner + "#" + oldName + desc +
+                        " → nearBudget=" + nearBudget).append('\n');
+            }
+            // CODEGEN-END: flattening-near-widen compute-near-budget
+            // CODEGEN-END: flattening-near-order
+            boolean hadHigherTierCandidates = false; // set at the moment we evaluate wlrelaxed tier
+            for (String tier : NSFTierOrder.split(",")) {
+                String t = tier.trim().toLowerCase(java.util.Locale.ROOT);
+                if ("exact".equals(t)) {
+                    for (long qfp : qfps) {
+                        java.util.List<NsfIndex.NewRef> xs = nsfIndex.exact(newOwner, desc, qfp);
+                        for (NsfIndex.NewRef r : xs) {
+                            NewRef c = new NewRef(r.owner, r.name, methodKey(newSyms, r.owner, r.desc, r.name));
+                            candsExact.add(c);
+                            if (!candProv.containsKey(c.key)) candProv.put(c.key, nsfProvenance(nsfProv, nsfProvFp, c.key, qfp, oldCanonical));
                         }
-                        // CODEGEN-END: wl-relaxed-counters-increment
-                        candsRelax.addAll(xs);
-                        // provenance for WL-relaxed tier
-                        for (NewRef r : xs) {
-                            String k = r.owner + "\u0000" + desc + "\u0000" + r.name;
-                            if (!candProv.containsKey(k)) candProv.put(k, "wl_relaxed");
+                    }
+                } else if ("near".equals(t)) {
+                    // CODEGEN-BEGIN: flattening-near-widen apply-budget
+                    int hamBudget = nearBudget; // widen when flattening is detected
+                    // CODEGEN-END: flattening-near-widen apply-budget
+                    for (long qfp : qfps) {
+                        java.util.List<NsfIndex.NewRef> xs = nsfIndex.near(newOwner, desc, qfp, hamBudget);
+                        for (NsfIndex.NewRef r : xs) {
+                            NewRef c = new NewRef(r.owner, r.name, methodKey(newSyms, r.owner, r.desc, r.name));
+                            candsNear.add(c);
+                            if (!candProv.containsKey(c.key)) candProv.put(c.key, nsfProvenance(nsfProv, nsfProvFp, c.key, qfp, oldCanonical));
                         }
                     }
-                }
-                // Deduplicate deterministically by (owner,desc,name) preserving tier order
-                int candsExactCount = 0, candsNearCount = 0;
-                java.util.LinkedHashMap<String, NewRef> uniq = new java.util.LinkedHashMap<String, NewRef>();
-                for (NewRef r : candsExact) {
-                    String k = r.owner + "\u0000" + desc + "\u0000" + r.name;
-                    if (!uniq.containsKey(k)) { uniq.put(k, r); candsExactCount++; }
-                }
-                for (NewRef r : candsNear) {
-                    String k = r.owner + "\u0000" + desc + "\u0000" + r.name;
-                    if (!uniq.containsKey(k)) { uniq.put(k, r); candsNearCount++; }
-                }
-                for (NewRef r : candsWl) {
-                    String k = r.owner + "\u0000" + desc + "\u0000" + r.name;
-                    if (!uniq.containsKey(k)) { uniq.put(k, r); }
-                }
-                for (NewRef r : candsRelax) {
-                    String k = r.owner + "\u0000" + desc + "\u0000" + r.name;
-                    if (!uniq.containsKey(k)) { uniq.put(k, r); }
-                }
-                java.util.ArrayList<NewRef> cands = new java.util.ArrayList<NewRef>(uniq.values());
-                // Record candidate counts for this method (post-dedup, pre-score)
-                out.exactCounts.add(java.lang.Integer.valueOf(candsExactCount));
-                out.nearCounts.add(java.lang.Integer.valueOf(candsNearCount));
-                // Capture provenance for deduped candidate order
-                final java.util.LinkedHashMap<String,String> candsProvenance = new java.util.LinkedHashMap<String,String>();
-                for (NewRef r : cands) {
-                    String k = r.owner + "\u0000" + desc + "\u0000" + r.name;
-                    String pv = candProv.get(k);
-                    if (pv != null) candsProvenance.put(k, pv);
-                }
-
-                // Keep back-compat safety: if nothing from tiers, fall back to WL exact, then relaxed
-                if (cands.isEmpty()) {
-                    // fallback to WL exact
-                    java.util.List<NewRef> xsExact = wlIndex.getOrDefault(new Key(desc, oldWl), java.util.Collections.<NewRef>emptyList());
-                    cands = new java.util.ArrayList<NewRef>(xsExact);
-                    for (NewRef r : xsExact) {
-                        String k = r.owner + "\u0000" + desc + "\u0000" + r.name;
-                        if (!candProv.containsKey(k)) candProv.put(k, "wl");
+                    // CODEGEN-BEGIN: flattening-gates apply
+                    // Apply call-degree band and stack-hist cosine gates and emit telemetry
+                    // ONLY when flattening is detected AND widened near (hamBudget > 1) is in effect.
+                    if (flattened && hamBudget > 1 && !candsNear.isEmpty()) {
+                        // telemetry: count before applying gates (widened near only)
+                        out.nearBeforeGates += candsNear.size();
+                        candsNear = applyFlatteningGatesIfNeeded(
+                                true,
+                                oldNormFeatures,
+                                candsNear,
+                                options.stackCosineThreshold,
+                                newClasses,
+                                newNorm,
+                                newOwner,
+                                desc
+                        );
+                        out.nearAfterGates += candsNear.size();
                     }
-                }
-                if (cands.isEmpty()) {
+                    // CODEGEN-END: flattening-gates apply
+                } else if ("wl".equals(t)) {
+                    java.util.List<NewRef> xs = wlIndex.get(descId, oldWl);
+                    candsWl.addAll(xs);
+                    // provenance for WL exact tier
+                    for (NewRef r : xs) {
+                        if (!candProv.containsKey(r.key)) candProv.put(r.key, "wl");
+                    }
+                } else if ("wlrelaxed".equals(t)) {
+                    // CODEGEN-BEGIN: wl-relaxed-use-options
                     final int l1Tau = options.wlRelaxedL1;
                     final double band = options.wlSizeBand;
-                    java.util.List<NewRef> xs = relaxedCandidates(oldClasses, newClasses, oldOwner, oldName, desc, newFeat, newOwner, deterministic, l1Tau, band);
-                    // Record counters for fallback gate as well
+                    // CODEGEN-END: wl-relaxed-use-options
+                    java.util.List<NewRef> xs = relaxedCandidates(oldClasses, newClasses, oldOwner, oldName, desc, newFeat, newOwner, deterministic, l1Tau, band, newSyms);
+                    // CODEGEN-BEGIN: wl-relaxed-counters-increment
+                    hadHigherTierCandidates = (!candsExact.isEmpty() || !candsNear.isEmpty() || !candsWl.isEmpty());
                     if (!xs.isEmpty()) {
                         out.wlRelaxedGatePasses++;
                         out.wlRelaxedCandidates += xs.size();
                     }
-                    cands = new java.util.ArrayList<NewRef>(xs);
+                    // CODEGEN-END: wl-relaxed-counters-increment
+                    candsRelax.addAll(xs);
+                    // provenance for WL-relaxed tier
                     for (NewRef r : xs) {
-                        String k = r.owner + "\u0000" + desc + "\u0000" + r.name;
-                        if (!candProv.containsKey(k)) candProv.put(k, "wl_relaxed");
+                        if (!candProv.containsKey(r.key)) candProv.put(r.key, "wl_relaxed");
                     }
-                    // No higher-tier candidates existed in this fallback path
-                    hadHigherTierCandidates = false;
                 }
+            }
+            // Deduplicate deterministically by (owner,desc,name) preserving tier order
+            int candsExactCount = 0, candsNearCount = 0;
+            LongOpenHashSet uniq = new LongOpenHashSet();
+            java.util.ArrayList<NewRef> cands = new java.util.ArrayList<NewRef>();
+            for (NewRef r : candsExact) {
+                if (uniq.add(r.key)) { cands.add(r); candsExactCount++; }
+            }
+            for (NewRef r : candsNear) {
+                if (uniq.add(r.key)) { cands.add(r); candsNearCount++; }
+            }
+            for (NewRef r : candsWl) {
+                if (uniq.add(r.key)) { cands.add(r); }
+            }
+            for (NewRef r : candsRelax) {
+                if (uniq.add(r.key)) { cands.add(r); }
+            }
+            // Record candidate counts for this method (post-dedup, pre-score)
+            out.exactCounts.add(java.lang.Integer.valueOf(candsExactCount));
+            out.nearCounts.add(java.lang.Integer.valueOf(candsNearCount));
+            // Capture provenance for deduped candidate order
+            final Long2ObjectOpenHashMap<String> candsProvenance = new Long2ObjectOpenHashMap<String>();
+            for (NewRef r : cands) {
+                String pv = candProv.get(r.key);
+                if (pv != null) candsProvenance.put(r.key, pv);
+            }
 
-                // Deterministic cap to prevent excessive memory on large classes/signature collisions
-                if (cands.size() > MAX_CANDIDATES) {
-                    ArrayList<NewRef> trimmed = new ArrayList<NewRef>(cands);
-                    Collections.sort(trimmed, new Comparator<NewRef>() {
-                        public int compare(NewRef a, NewRef b) {
-                            int c = a.owner.compareTo(b.owner); if (c!=0) return c;
-                            return a.name.compareTo(b.name);
-                        }
-                    });
-                    cands = new java.util.ArrayList<NewRef>(trimmed.subList(0, MAX_CANDIDATES));
+            // Keep back-compat safety: if nothing from tiers, fall back to WL exact, then relaxed
+            if (cands.isEmpty()) {
+                // fallback to WL exact
+                java.util.List<NewRef> xsExact = wlIndex.get(descId, oldWl);
+                cands = new java.util.ArrayList<NewRef>(xsExact);
+                for (NewRef r : xsExact) {
+                    if (!candProv.containsKey(r.key)) candProv.put(r.key, "wl");
                 }
-
-                // Build MethodFeatures for scoring
-                MethodFeatures src = toFeaturesFromCache(oldOwner, oldName, desc, ofe, classMap, true);
-                ArrayList<MethodFeatures> candFeat = new ArrayList<MethodFeatures>(cands.size());
-                for (NewRef nr : cands) {
-                    MethodFeatureCacheEntry nfe = newFeat.get(nr.owner).get(nr.name + desc);
-                    if (nfe != null) candFeat.add(toFeaturesFromCache(nr.owner, nr.name, desc, nfe, classMap, false));
+            }
+            if (cands.isEmpty()) {
+                final int l1Tau = options.wlRelaxedL1;
+                final double band = options.wlSizeBand;
+                java.util.List<NewRef> xs = relaxedCandidates(oldClasses, newClasses, oldOwner, oldName, desc, newFeat, newOwner, deterministic, l1Tau, band, newSyms);
+                // Record counters for fallback gate as well
+                if (!xs.isEmpty()) {
+                    out.wlRelaxedGatePasses++;
+                    out.wlRelaxedCandidates += xs.size();
+                }
+                cands = new java.util.ArrayList<NewRef>(xs);
+                for (NewRef r : xs) {
+                    if (!candProv.containsKey(r.key)) candProv.put(r.key, "wl_relaxed");
                 }
+                // No higher-tier candidates existed in this fallback path
+                hadHigherTierCandidates = false;
+            }
 
-                // Score and decide
-                MethodScorer.Result r = MethodScorer.scoreOne(src, candFeat, idf);
-    if (r.accepted && r.best != null) {
-                    out.accepted.add(new Pair(oldOwner, oldName, r.best.ref.name, desc));
-                    if (debugStats) {
-            String bestKey = r.best.ref.owner + "\u0000" + r.best.ref.desc + "\u0000" + r.best.ref.name;
-            String fpMode = candsProvenance.get(bestKey);
-            System.out.println("[match] ok " + oldOwner + "#" + oldName + desc
-                                + " -> " + r.best.ref.owner + "#" + r.best.ref.name
-                                + " total=" + String.format(java.util.Locale.ROOT, "%.4f", r.scoreBest)
-                                + " margin=" + String.format(java.util.Locale.ROOT, "%.4f", (r.scoreBest - Math.max(0, r.scoreSecond)))
-                                + " calls=" + String.format(java.util.Locale.ROOT, "%.4f", r.sCalls)
-                                + " micro=" + String.format(java.util.Locale.ROOT, "%.4f", r.sMicro)
-                                + " hist=" + String.format(java.util.Locale.ROOT, "%.4f", r.sOpcode)
-                + " str=" + String.format(java.util.Locale.ROOT, "%.4f", r.sStrings)
-                + (fpMode!=null? " fp_mode=" + fpMode : "")
-                        );
+            // Deterministic cap to prevent excessive memory on large classes/signature collisions
+            if (cands.size() > MAX_CANDIDATES) {
+                ArrayList<NewRef> trimmed = new ArrayList<NewRef>(cands);
+                Collections.sort(trimmed, new Comparator<NewRef>() {
+                    public int compare(NewRef a, NewRef b) {
+                        int c = a.owner.compareTo(b.owner); if (c!=0) return c;
+                        return a.name.compareTo(b.name);
                     }
-                    // telemetry: WL-relaxed winning candidate
-                    String bestKey2 = r.best.ref.owner + "\u0000" + r.best.ref.desc + "\u0000" + r.best.ref.name;
-                    String pv2 = candsProvenance.get(bestKey2);
-                    if (pv2 != null && "wl_relaxed".equals(pv2)) {
-                        out.wlRelaxedHits++;
-                        // CODEGEN-BEGIN: wl-relaxed-accepted
-                        if (!hadHigherTierCandidates) {
-                            out.wlRelaxedAccepted++;
-                        }
-                        // CODEGEN-END: wl-relaxed-accepted
-                    }
-                } else {
-                    // Abstain: compute candidate scores for diagnostics/output
-                    double[] scores = MethodScorer.scoreVector(src, candFeat, idf);
-                    double best = 0.0, second = 0.0;
-                    for (double s : scores) {
-                        if (s > best) { second = best; best = s; }
-                        else if (s > second) { second = s; }
+                });
+                cands = new java.util.ArrayList<NewRef>(trimmed.subList(0, MAX_CANDIDATES));
+            }
+
+            // Build MethodFeatures for scoring
+            MethodFeatures src = oldFeatures.get(oldOwner + "\u0000" + sig);
+            ArrayList<MethodFeatures> candFeat = new ArrayList<MethodFeatures>(cands.size());
+            for (NewRef nr : cands) {
+                MethodFeatures nf = newFeaturesById.get(nr.key);
+                if (nf != null) candFeat.add(nf);
+            }
+
+            // Score and decide
+            MethodScorer.Result r = MethodScorer.scoreOne(src, candFeat, idf, corpora);
+    if (r.accepted && r.best != null) {
+                out.accepted.add(new Pair(oldOwner, oldName, r.best.ref.name, desc));
+                if (debugStats) {
+        long bestKey = methodKey(newSyms, r.best.ref.owner, r.best.ref.desc, r.best.ref.name);
+        String fpMode = candsProvenance.get(bestKey);
+        log.append("[match] ok " + oldOwner + "#" + oldName + desc
+                            + " -> " + r.best.ref.owner + "#" + r.best.ref.name
+                            + " total=" + String.format(java.util.Locale.ROOT, "%.4f", r.scoreBest)
+                            + " margin=" + String.format(java.util.Locale.ROOT, "%.4f", (r.scoreBest - Math.max(0, r.scoreSecond)))
+                            + " calls=" + String.format(java.util.Locale.ROOT, "%.4f", r.sCalls)
+                            + " micro=" + String.format(java.util.Locale.ROOT, "%.4f", r.sMicro)
+                            + " hist=" + String.format(java.util.Locale.ROOT, "%.4f", r.sOpcode)
+            + " str=" + String.format(java.util.Locale.ROOT, "%.4f", r.sStrings)
+            + (fpMode!=null? " fp_mode=" + fpMode : "")
+                    ).append('\n');
+                }
+                // telemetry: WL-relaxed winning candidate
+                long bestKey2 = methodKey(newSyms, r.best.ref.owner, r.best.ref.desc, r.best.ref.name);
+                String pv2 = candsProvenance.get(bestKey2);
+                if (pv2 != null && "wl_relaxed".equals(pv2)) {
+                    out.wlRelaxedHits++;
+                    // CODEGEN-BEGIN: wl-relaxed-accepted
+                    if (!hadHigherTierCandidates) {
+                        out.wlRelaxedAccepted++;
                     }
-                    ArrayList<CandidateScore> cs = new ArrayList<CandidateScore>(candFeat.size());
-                    for (int i=0;i<candFeat.size();i++) {
-                        MethodFeatures t = candFeat.get(i);
-                        double s = (i < scores.length ? scores[i] : 0.0);
-                        double margin = s - (Math.abs(s - best) < 1e-12 ? second : best); // per-candidate margin
-                        cs.add(new CandidateScore(t.ref.owner, t.ref.name, t.ref.desc, s, margin));
+                    // CODEGEN-END: wl-relaxed-accepted
+                }
+            } else {
+                // Abstain: compute candidate scores for diagnostics/output
+                double[] scores = MethodScorer.scoreVector(src, candFeat, idf, corpora);
+                double best = 0.0, second = 0.0;
+                for (double s : scores) {
+                    if (s > best) { second = best; best = s; }
+                    else if (s > second) { second = s; }
+                }
+                ArrayList<CandidateScore> cs = new ArrayList<CandidateScore>(candFeat.size());
+                for (int i=0;i<candFeat.size();i++) {
+                    MethodFeatures t = candFeat.get(i);
+                    double s = (i < scores.length ? scores[i] : 0.0);
+                    double margin = s - (Math.abs(s - best) < 1e-12 ? second : best); // per-candidate margin
+                    cs.add(new CandidateScore(t.ref.owner, t.ref.name, t.ref.desc, s, margin));
+                }
+                // Deterministic candidate order: sort by score desc, then owner/name
+                Collections.sort(cs, new Comparator<CandidateScore>() {
+                    public int compare(CandidateScore a, CandidateScore b) {
+                        int c = java.lang.Double.compare(b.total, a.total); if (c!=0) return c;
+                        c = a.newOwner.compareTo(b.newOwner); if (c!=0) return c;
+                        return a.newName.compareTo(b.newName);
                     }
-                    // Deterministic candidate order: sort by score desc, then owner/name
-                    Collections.sort(cs, new Comparator<CandidateScore>() {
-                        public int compare(CandidateScore a, CandidateScore b) {
-                            int c = java.lang.Double.compare(b.total, a.total); if (c!=0) return c;
-                            c = a.newOwner.compareTo(b.newOwner); if (c!=0) return c;
-                            return a.newName.compareTo(b.newName);
-                        }
-                    });
-                    out.abstained.add(new Abstention(oldOwner, oldName, desc, cs));
-                    if (debugStats) {
-                        String top = cs.isEmpty()? "-" : (cs.get(0).newOwner + "#" + cs.get(0).newName);
-                        String topMode = "-";
-                        if (!cs.isEmpty()) {
-                            String k = cs.get(0).newOwner + "\u0000" + desc + "\u0000" + cs.get(0).newName;
-                            String pv = candsProvenance.get(k);
-                            if (pv != null) topMode = pv;
-                        }
-                        System.out.println("[match] abstain " + oldOwner + "#" + oldName + desc
-                                + " reason=" + (r.abstainReason != null ? r.abstainReason : "unknown")
-                                + " best=" + String.format(java.util.Locale.ROOT, "%.4f", best)
-                                + " second=" + String.format(java.util.Locale.ROOT, "%.4f", second)
-                                + " top=" + top
-                                + " top_fp_mode=" + topMode
-                                + " cands=" + cs.size()
-                        );
+                });
+                out.abstained.add(new Abstention(oldOwner, oldName, desc, cs));
+                if (debugStats) {
+                    String top = cs.isEmpty()? "-" : (cs.get(0).newOwner + "#" + cs.get(0).newName);
+                    String topMode = "-";
+                    if (!cs.isEmpty()) {
+                        String pv = candsProvenance.get(methodKey(newSyms, cs.get(0).newOwner, desc, cs.get(0).newName));
+                        if (pv != null) topMode = pv;
                     }
+                    log.append("[match] abstain " + oldOwner + "#" + oldName + desc
+                            + " reason=" + (r.abstainReason != null ? r.abstainReason : "unknown")
+                            + " best=" + String.format(java.util.Locale.ROOT, "%.4f", best)
+                            + " second=" + String.format(java.util.Locale.ROOT, "%.4f", second)
+                            + " top=" + top
+                            + " top_fp_mode=" + topMode
+                            + " cands=" + cs.size()
+                    ).append('\n');
                 }
             }
         }
-
-        // Deterministic ordering for outputs
-        Collections.sort(out.abstained, new Comparator<Abstention>() {
-            public int compare(Abstention a, Abstention b) {
-                int c = a.oldOwner.compareTo(b.oldOwner); if (c!=0) return c;
-                c = a.desc.compareTo(b.desc); if (c!=0) return c;
-                return a.oldName.compareTo(b.oldName);
-            }
-        });
-        Collections.sort(out.accepted, new Comparator<Pair>() {
-            public int compare(Pair a, Pair b) {
-                int c = a.oldOwner.compareTo(b.oldOwner); if (c!=0) return c;
-                c = a.desc.compareTo(b.desc); if (c!=0) return c;
-                return a.oldName.compareTo(b.oldName);
-            }
-        });
-        return out;
     }
 
     private MethodMatcher() {}
 
     // ---- Internal helpers ----
 
-    private static final class Key {
-        final String desc; final long wl;
-        Key(String d, long w) { this.desc = d; this.wl = w; }
-        @Override public boolean equals(Object o) {
-            if (!(o instanceof Key)) return false;
-            Key k = (Key)o; return wl == k.wl && java.util.Objects.equals(desc, k.desc);
+    /** Run-wide inputs and new-side indexes shared by every owner; read-only once matching starts. */
+    private static final class MatchContext {
+        Map<String, ClassNode> oldClasses, newClasses;
+        Map<String, Map<String, MethodFeatureCacheEntry>> oldFeat, newFeat;
+        NormalizedFeatureStore oldNorm, newNorm;
+        FlatteningIndex oldFlat, newFlat;
+        IdfStore idf;
+        MethodMatcherOptions options;
+        boolean deterministic, debugStats;
+        SymbolTable newSyms;
+        WlIndex wlIndex;
+        NsfIndex nsfIndex;
+        Long2ObjectOpenHashMap<String> nsfProv;
+        Long2LongOpenHashMap nsfProvFp;
+        Map<String, MethodFeatures> oldFeatures;
+        Long2ObjectOpenHashMap<MethodFeatures> newFeaturesById;
+        MethodScorer.BagCorpora corpora;
+    }
+
+    /** One old owner's matching unit: results and debug lines are buffered here and merged serially. */
+    private static final class OwnerMatch {
+        final String oldOwner, newOwner;
+        final MethodMatchResult out = new MethodMatchResult();
+        final StringBuilder log = new StringBuilder();
+
+        OwnerMatch(String oldOwner, String newOwner) { this.oldOwner = oldOwner; this.newOwner = newOwner; }
+
+        void mergeInto(MethodMatchResult into) {
+            into.accepted.addAll(out.accepted);
+            into.abstained.addAll(out.abstained);
+            into.exactCounts.addAll(out.exactCounts);
+            into.nearCounts.addAll(out.nearCounts);
+            into.wlRelaxedHits += out.wlRelaxedHits;
+            into.wlRelaxedGatePasses += out.wlRelaxedGatePasses;
+            into.wlRelaxedCandidates += out.wlRelaxedCandidates;
+            into.wlRelaxedAccepted += out.wlRelaxedAccepted;
+            into.flatteningDetected += out.flatteningDetected;
+            into.nearBeforeGates += out.nearBeforeGates;
+            into.nearAfterGates += out.nearAfterGates;
+            into.anchored += out.anchored;
+        }
+    }
+
+    /** Fork-join split over owner groups; each group's owners are matched in order on one thread. */
+    private static final class MatchRange extends java.util.concurrent.RecursiveAction {
+        private final MatchContext ctx;
+        private final List<List<OwnerMatch>> groups;
+        private final int from, to;
+
+        MatchRange(MatchContext ctx, List<List<OwnerMatch>> groups, int from, int to) {
+            this.ctx = ctx; this.groups = groups; this.from = from; this.to = to;
         }
-        @Override public int hashCode() {
-            return 31 * java.util.Objects.hashCode(desc) + (int)(wl ^ (wl >>> 32));
+
+        @Override protected void compute() {
+            if (to - from <= 1) {
+                for (int i = from; i < to; i++) {
+                    for (OwnerMatch u : groups.get(i)) matchOwner(ctx, u);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new MatchRange(ctx, groups, from, mid), new MatchRange(ctx, groups, mid, to));
+        }
+    }
+
+    /** New-side methods by (desc id, WL signature); lists are shared, sorted by owner then name. */
+    private static final class WlIndex {
+        final Int2ObjectOpenHashMap<Long2ObjectOpenHashMap<List<NewRef>>> byDesc = new Int2ObjectOpenHashMap<Long2ObjectOpenHashMap<List<NewRef>>>();
+
+        List<NewRef> get(int descId, long wl) {
+            Long2ObjectOpenHashMap<List<NewRef>> m = byDesc.get(descId);
+            List<NewRef> xs = m != null ? m.get(wl) : null;
+            return xs != null ? xs : java.util.Collections.<NewRef>emptyList();
         }
     }
 
     private static final class NewRef {
         final String owner, name;
-    // Optional per-candidate metadata for diagnostics/telemetry
-    final java.util.Map<String,String> meta = new java.util.LinkedHashMap<String,String>();
-    NewRef(String o, String n, String d, long w) { owner=o; name=n; }
+        /** {@link #methodKey} of this new-side method. */
+        final long key;
+    // Optional per-candidate metadata for diagnostics/telemetry; allocated on first write
+    private java.util.Map<String,String> meta;
+    NewRef(String o, String n, long k) { owner=o; name=n; key=k; }
+    java.util.Map<String,String> meta() {
+        if (meta == null) meta = new java.util.LinkedHashMap<String,String>();
+        return meta;
+    }
+    }
+
+    /** Interns every new-side owner, name and desc, and each (owner, desc) pair. */
+    private static SymbolTable newSideSymbols(Map<String, Map<String, MethodFeatureCacheEntry>> newFeat) {
+        SymbolTable syms = new SymbolTable();
+        ArrayList<String> owners = new ArrayList<String>(newFeat.keySet());
+        Collections.sort(owners);
+        for (String owner : owners) {
+            Map<String, MethodFeatureCacheEntry> mm = newFeat.get(owner);
+            if (mm == null) continue;
+            int ownerId = syms.intern(owner);
+            ArrayList<String> sigs = new ArrayList<String>(mm.keySet());
+            Collections.sort(sigs);
+            for (String sig : sigs) {
+                int p = sig.indexOf('(');
+                syms.intern(sig.substring(0, p));
+                syms.internPair(ownerId, syms.intern(sig.substring(p)));
+            }
+        }
+        return syms;
+    }
+
+    /** Packed (owner+desc pair id, name id) of a new-side method; negative ids for unknown symbols. */
+    private static long methodKey(SymbolTable syms, String owner, String desc, String name) {
+        return SymbolTable.pack(syms.pair(owner, desc), syms.id(name));
+    }
+
+    /** True if both methods were extracted and their normalized bodies hash the same. */
+    private static boolean sameBody(MethodFeatureCacheEntry a, MethodFeatureCacheEntry b) {
+        return a != null && b != null && a.normalizedBodyHash != null && a.normalizedBodyHash.equals(b.normalizedBodyHash);
+    }
+
+    /** Name of the only method in {@code methods} with descriptor {@code desc} and the body of {@code fe}, else null. */
+    private static String uniqueSameBody(MethodFeatureCacheEntry fe, Map<String, MethodFeatureCacheEntry> methods, String desc) {
+        if (methods == null) return null;
+        String found = null;
+        for (Map.Entry<String, MethodFeatureCacheEntry> e : methods.entrySet()) {
+            String sig = e.getKey();
+            int p = sig.indexOf('(');
+            if (!sig.startsWith(desc, p) || sig.length() - p != desc.length() || !sameBody(fe, e.getValue())) continue;
+            if (found != null) return null;
+            found = sig.substring(0, p);
+        }
+        return found;
     }
 
     private static MethodNode findMethod(ClassNode cn, String name, String desc) {
@@ -522,75 +738,61 @@ public final class MethodMatcher {
         return null;
     }
 
-    private static String nsfKey(String owner, String desc, String name, long fp) {
-        return owner + "\u0000" + desc + "\u0000" + name + "\u0000" + Long.toString(fp);
-    }
-
-    // CODEGEN-BEGIN: flattening-near-widen helpers
-    /** Heuristic flattening detector: looks for a central dispatcher (switch) with many successors. */
-    private static boolean isLikelyFlattened(org.objectweb.asm.tree.MethodNode mn) {
-        if (mn == null || mn.instructions == null) return false;
+    /** Store lookup with on-demand fallback; a failed normalization yields null (no canonical nsf64). */
+    private static NormalizedFeatures normalized(NormalizedFeatureStore store, ClassNode cn,
+                                                 String owner, String name, String desc) {
+        NormalizedFeatures nf = store.get(owner, name, desc);
+        if (nf != null) return nf;
+        org.objectweb.asm.tree.MethodNode mn = findMethod(cn, name, desc);
+        if (mn == null) return null;
         try {
-            io.bytecodemapper.core.cfg.ReducedCFG cfg = io.bytecodemapper.core.cfg.ReducedCFG.build(mn);
-            // Quick thresholds tuned conservatively for Java-8 obfuscators
-            final int MIN_BLOCKS = 8;
-            final int MIN_SUCC = 6; // many-way dispatcher
-            int blockCount = cfg.allBlockIds().length;
-            if (blockCount < MIN_BLOCKS) return false;
-
-            // Find a block ending in a switch with many successors or any block with high out-degree
-            for (io.bytecodemapper.core.cfg.ReducedCFG.Block b : cfg.blocks()) {
-                int[] succs = b.succs();
-                if (succs != null && succs.length >= MIN_SUCC) return true;
-                // Switch check (less strict succ count)
-                org.objectweb.asm.tree.AbstractInsnNode last = insnAt(mn, b.endIdx);
-                if (last instanceof org.objectweb.asm.tree.TableSwitchInsnNode || last instanceof org.objectweb.asm.tree.LookupSwitchInsnNode) {
-                    if (succs != null && succs.length >= 4) return true;
-                }
-            }
+            nf = new NormalizedMethod(owner, mn, java.util.Collections.<Integer>emptySet()).extract();
         } catch (Throwable ignore) {
-            // stay conservative on analysis failure
+            return null;
         }
-        return false;
+        store.put(owner, name, desc, nf);
+        return nf;
+    }
+
+    /** Indexed provenance when the hit was indexed under the query fp, else inferred from the query. */
+    private static String nsfProvenance(Long2ObjectOpenHashMap<String> prov, Long2LongOpenHashMap provFp,
+                                        long key, long qfp, long oldCanonical) {
+        String pv = prov.get(key);
+        if (pv != null && provFp.get(key) == qfp) return pv;
+        return qfp == oldCanonical && oldCanonical != 0L ? "nsf64" : "nsf_surrogate";
+    }
+
+    // CODEGEN-BEGIN: flattening-near-widen helpers
+    /** Per-method flattening verdict from the index; computed and recorded on a miss. */
+    private static boolean isFlattened(FlatteningIndex index, String owner, org.objectweb.asm.tree.MethodNode mn) {
+        if (index.isRecorded(owner, mn.name, mn.desc)) return index.isFlattened(owner, mn.name, mn.desc);
+        boolean f = FlatteningIndex.isLikelyFlattened(mn);
+        index.record(owner, mn.name, mn.desc, f);
+        return f;
     }
 
     /** Return true if any method on the new side with the same owner+desc appears flattened. */
-    private static boolean newSideAnyFlattenedForOwnerDesc(java.util.Map<String, org.objectweb.asm.tree.ClassNode> newClasses,
+    private static boolean newSideAnyFlattenedForOwnerDesc(FlatteningIndex index,
+                                                           java.util.Map<String, org.objectweb.asm.tree.ClassNode> newClasses,
                                                            String owner,
                                                            String desc) {
         if (newClasses == null) return false;
         org.objectweb.asm.tree.ClassNode cn = newClasses.get(owner);
         if (cn == null || cn.methods == null) return false;
-        for (Object o : cn.methods) {
-            org.objectweb.asm.tree.MethodNode mn = (org.objectweb.asm.tree.MethodNode) o;
-            if (desc.equals(mn.desc)) {
-                if (isLikelyFlattened(mn)) return true;
-            }
-        }
-        return false;
-    }
-
-    private static org.objectweb.asm.tree.AbstractInsnNode insnAt(org.objectweb.asm.tree.MethodNode mn, int idx) {
-        if (mn == null || mn.instructions == null) return null;
-        int i = 0;
-        for (org.objectweb.asm.tree.AbstractInsnNode p = mn.instructions.getFirst(); p != null; p = p.getNext()) {
-            if (i == idx) return p; i++;
-        }
-        return null;
+        // Owners not fully covered by extraction are scanned once, then answered from the index
+        index.completeOwner(owner, cn);
+        return index.anyFlattened(owner, desc);
     }
     // CODEGEN-END: flattening-near-widen helpers
 
-    private static java.util.List<Long> queryFps(long canonical, long surrogate, io.bytecodemapper.cli.flags.UseNsf64Mode mode) {
-        java.util.ArrayList<Long> list = new java.util.ArrayList<Long>();
+    private static long[] queryFps(long canonical, long surrogate, io.bytecodemapper.cli.flags.UseNsf64Mode mode) {
         if (mode == io.bytecodemapper.cli.flags.UseNsf64Mode.CANONICAL) {
-            if (canonical != 0L) list.add(Long.valueOf(canonical)); else list.add(Long.valueOf(surrogate));
+            return new long[]{ canonical != 0L ? canonical : surrogate };
         } else if (mode == io.bytecodemapper.cli.flags.UseNsf64Mode.SURROGATE) {
-            list.add(Long.valueOf(surrogate));
+            return new long[]{ surrogate };
         } else { // BOTH, canonical first
-            if (canonical != 0L) list.add(Long.valueOf(canonical));
-            list.add(Long.valueOf(surrogate));
+            return canonical != 0L ? new long[]{ canonical, surrogate } : new long[]{ surrogate };
         }
-        return list;
     }
 
     // CODEGEN-BEGIN: flattening-gates
@@ -636,6 +838,7 @@ public final class MethodMatcher {
                                                      java.util.ArrayList<NewRef> near,
                                                      double cosThresh,
                                                      java.util.Map<String, org.objectweb.asm.tree.ClassNode> newClasses,
+                                                     NormalizedFeatureStore newNorm,
                                                      String newOwner,
                                                      String desc) {
         if (!flattened || near == null || near.isEmpty()) return near;
@@ -646,22 +849,13 @@ public final class MethodMatcher {
         java.util.Map<String,Integer> ha = (oldNF==null?null:oldNF.getStackHist());
         for (int i=0;i<5;i++) oldVec[i] = (ha != null && ha.get(KEYS[i]) != null) ? ha.get(KEYS[i]).intValue() : 0;
 
-        // Cache per-candidate NormalizedFeatures deterministically by name
+        // Per-candidate NormalizedFeatures come from the per-run store (computed once per method)
         org.objectweb.asm.tree.ClassNode ncn = newClasses.get(newOwner);
         for (NewRef c : near) {
-            NormalizedFeatures nf = null;
-            if (ncn != null) {
-                org.objectweb.asm.tree.MethodNode nmn = findMethod(ncn, c.name, desc);
-                if (nmn != null) {
-                    try {
-                        NormalizedMethod nm = new NormalizedMethod(newOwner, nmn, java.util.Collections.<Integer>emptySet());
-                        nf = nm.extract();
-                    } catch (Throwable ignore) { nf = null; }
-                }
-            }
+            NormalizedFeatures nf = ncn != null ? normalized(newNorm, ncn, newOwner, c.name, desc) : null;
             // Fast-fail: check degree band first (integer math)
             boolean bandOK = degreeBandOK(oldNF, nf);
-            c.meta.put("gate_flattening_degreeBand", java.lang.Boolean.toString(bandOK));
+            c.meta().put("gate_flattening_degreeBand", java.lang.Boolean.toString(bandOK));
 
             boolean cosOK = false;
             if (bandOK) {
@@ -675,7 +869,7 @@ public final class MethodMatcher {
                 }
                 cosOK = (na != 0L && nb != 0L) && (dot / (Math.sqrt(na) * Math.sqrt(nb)) >= cosThresh);
             }
-            c.meta.put("gate_flattening_stackCosOK", java.lang.Boolean.toString(cosOK));
+            c.meta().put("gate_flattening_stackCosOK", java.lang.Boolean.toString(cosOK));
             if (bandOK && cosOK) out.add(c);
             // No reordering: preserve input order which is already deterministic
         }
@@ -683,9 +877,10 @@ public final class MethodMatcher {
     }
     // CODEGEN-END: flattening-gates
 
-    private static Map<Key, List<NewRef>> buildNewSideWlIndex(
-            Map<String, Map<String, MethodFeatureCacheEntry>> newFeat) {
-        Map<Key, List<NewRef>> idx = new java.util.HashMap<Key, List<NewRef>>();
+    private static WlIndex buildNewSideWlIndex(
+            Map<String, Map<String, MethodFeatureCacheEntry>> newFeat,
+            SymbolTable syms) {
+        WlIndex idx = new WlIndex();
         ArrayList<String> owners = new ArrayList<String>(newFeat.keySet());
         Collections.sort(owners);
         for (String owner : owners) {
@@ -699,20 +894,24 @@ public final class MethodMatcher {
                 MethodFeatureCacheEntry mfe = mm.get(sig);
                 if (mfe == null) continue;
                 long wl = mfe.wlSignature;
-                Key k = new Key(desc, wl);
-                List<NewRef> list = idx.get(k);
-                if (list == null) { list = new ArrayList<NewRef>(); idx.put(k, list); }
-                list.add(new NewRef(owner, name, desc, wl));
+                int descId = syms.id(desc);
+                Long2ObjectOpenHashMap<List<NewRef>> byWl = idx.byDesc.get(descId);
+                if (byWl == null) { byWl = new Long2ObjectOpenHashMap<List<NewRef>>(); idx.byDesc.put(descId, byWl); }
+                List<NewRef> list = byWl.get(wl);
+                if (list == null) { list = new ArrayList<NewRef>(); byWl.put(wl, list); }
+                list.add(new NewRef(owner, name, methodKey(syms, owner, desc, name)));
             }
         }
         // Sort lists deterministically
-        for (List<NewRef> lst : idx.values()) {
-            java.util.Collections.sort(lst, new java.util.Comparator<NewRef>() {
-                public int compare(NewRef a, NewRef b) {
-                    int c = a.owner.compareTo(b.owner); if (c!=0) return c;
-                    return a.name.compareTo(b.name);
-                }
-            });
+        for (Long2ObjectOpenHashMap<List<NewRef>> byWl : idx.byDesc.values()) {
+            for (List<NewRef> lst : byWl.values()) {
+                java.util.Collections.sort(lst, new java.util.Comparator<NewRef>() {
+                    public int compare(NewRef a, NewRef b) {
+                        int c = a.owner.compareTo(b.owner); if (c!=0) return c;
+                        return a.name.compareTo(b.name);
+                    }
+                });
+            }
         }
         return idx;
     }
@@ -740,7 +939,8 @@ public final class MethodMatcher {
             String newOwner,
             boolean deterministic,
             int l1Tau,
-            double sizeBand) {
+            double sizeBand,
+            SymbolTable newSyms) {
 
         java.util.Map<String, MethodFeatureCacheEntry> nm = newFeat.get(newOwner);
         if (nm == null) return java.util.Collections.emptyList();
@@ -783,7 +983,7 @@ public final class MethodMatcher {
             int dist = io.bytecodemapper.core.wl.WLBags.l1(oldBag, nb);
             boolean band = io.bytecodemapper.core.wl.WLBags.withinBand(oldBag, nb, sizeBand);
             if (dist <= l1Tau && band) {
-                pool.add(new NewRef(newOwner, name, desc, mfe.wlSignature));
+                pool.add(new NewRef(newOwner, name, methodKey(newSyms, newOwner, desc, name)));
             }
         }
 
@@ -861,6 +1061,29 @@ public final class MethodMatcher {
     // <<< AUTOGEN: BYTECODEMAPPER RELAXED_CANDIDATES_DISTANCE END
 
     // >>> AUTOGEN: BYTECODEMAPPER CLI MethodMatcher SCORING HELPERS BEGIN
+    /** Scoring features of every cached method, keyed by owner + "\u0000" + name + desc. */
+    private static Map<String, MethodFeatures> featuresByKey(
+            Map<String, Map<String, MethodFeatureCacheEntry>> feat,
+            Map<String,String> classMap,
+            boolean oldSide) {
+        LinkedHashMap<String, MethodFeatures> out = new LinkedHashMap<String, MethodFeatures>();
+        ArrayList<String> owners = new ArrayList<String>(feat.keySet());
+        Collections.sort(owners);
+        for (String owner : owners) {
+            Map<String, MethodFeatureCacheEntry> m = feat.get(owner);
+            if (m == null) continue;
+            ArrayList<String> sigs = new ArrayList<String>(m.keySet());
+            Collections.sort(sigs);
+            for (String sig : sigs) {
+                MethodFeatureCacheEntry e = m.get(sig);
+                if (e == null) continue;
+                int p = sig.indexOf('(');
+                out.put(owner + "\u0000" + sig, toFeaturesFromCache(owner, sig.substring(0, p), sig.substring(p), e, classMap, oldSide));
+            }
+        }
+        return out;
+    }
+
     private static MethodFeatures toFeaturesFromCache(
             String owner, String name, String desc,
             MethodFeatureCacheEntry e,
@@ -0,0 +1,75 @@
+// >>> AUTOGEN: BYTECODEMAPPER CLI TEST IncrementalMappingIT BEGIN
+package io.bytecodemapper.cli;
+
+import io.bytecodemapper.cli.util.CliPaths;
+import io.bytecodemapper.io.tiny.TinyV2Mappings;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class IncrementalMappingIT {
+
+    @Test(timeout = 300000)
+    public void weekChain_previousNewSideSeedsThisOldSide() throws Exception {
+        Path week0 = CliPaths.resolveInput("data/weeks/osrs-169.jar");
+        Path week1 = CliPaths.resolveInput("data/weeks/osrs-170.jar");
+        Path week2 = CliPaths.resolveInput("data/weeks/osrs-171.jar");
+        Path tmp = Files.createTempDirectory("incremental-it");
+
+        // Last week's N-1 -> N output seeds this week's N -> N+1 run
+        Path previous = tmp.resolve("169-170.tiny");
+        run(week0, week1, tmp, previous);
+        Path full = tmp.resolve("170-171-full.tiny");
+        run(week1, week2, tmp, full);
+        Path incremental = tmp.resolve("170-171-incremental.tiny");
+        String log = run(week1, week2, tmp, incremental, "--incremental", previous.toString(), "--debug-stats");
+
+        // Reused pairs have a unique unchanged body on both sides and everything else is re-matched,
+        // so seeding may add pairs the scorer abstained on but never changes one it accepted
+        Map<String,String> fullMethods = TinyV2Mappings.read(full).methodMap;
+        Map<String,String> incMethods = TinyV2Mappings.read(incremental).methodMap;
+        for (Map.Entry<String,String> e : fullMethods.entrySet()) {
+            assertEquals("incremental run changed " + e.getKey(), e.getValue(), incMethods.get(e.getKey()));
+        }
+        Matcher m = Pattern.compile("\\[Orch\\] Incremental: reused=(\\d+)").matcher(log);
+        assertTrue("missing incremental summary line", m.find());
+        assertTrue("no pairs reused", Integer.parseInt(m.group(1)) > 0);
+    }
+
+    private static String run(Path oldJar, Path newJar, Path dir, Path out, String... extra) throws Exception {
+        String[] base = {
+                "mapOldNew",
+                "--old", oldJar.toString(),
+                "--new", newJar.toString(),
+                "--out", out.toString(),
+                "--deterministic",
+                "--cacheDir", dir.resolve("cache").toString(),
+                "--idf", dir.resolve("idf.properties").toString(),
+                "--maxMethods", "2000"
+        };
+        String[] args = new String[base.length + extra.length];
+        System.arraycopy(base, 0, args, 0, base.length);
+        System.arraycopy(extra, 0, args, base.length, extra.length);
+        PrintStream old = System.out;
+        ByteArrayOutputStream bout = new ByteArrayOutputStream(1 << 16);
+        PrintStream ps = new PrintStream(bout, true, "UTF-8");
+        System.setOut(ps);
+        try {
+            Main.main(args);
+        } finally {
+            System.setOut(old);
+            ps.close();
+        }
+        assertTrue(Files.exists(out));
+        return new String(bout.toByteArray(), "UTF-8");
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER CLI TEST IncrementalMappingIT END
@@ -0,0 +1,69 @@
+// >>> AUTOGEN: BYTECODEMAPPER CLI TEST ParallelExtractionDeterminismIT BEGIN
+package io.bytecodemapper.cli;
+
+import io.bytecodemapper.cli.util.CliPaths;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ParallelExtractionDeterminismIT {
+
+    @Test(timeout = 120000)
+    public void serialAndParallelExtraction_produceIdenticalMappingsAndCaches() throws Exception {
+        Path oldJar = CliPaths.resolveInput("data/weeks/osrs-170.jar");
+        Path newJar = CliPaths.resolveInput("data/weeks/osrs-171.jar");
+        Path tmp = Files.createTempDirectory("parallel-extract-it");
+
+        Path serialTiny = run(oldJar, newJar, tmp.resolve("serial"), "1");
+        Path parallelTiny = run(oldJar, newJar, tmp.resolve("parallel"), "4");
+
+        assertArrayEquals("mappings differ between serial and parallel extraction",
+                Files.readAllBytes(serialTiny), Files.readAllBytes(parallelTiny));
+
+        // Feature caches must be byte-identical too (metadata .properties carry a timestamp; skip them)
+        File[] serialCache = cacheFiles(tmp.resolve("serial").resolve("cache"));
+        File[] parallelCache = cacheFiles(tmp.resolve("parallel").resolve("cache"));
+        assertTrue("no cache files written", serialCache.length > 0);
+        assertEquals(serialCache.length, parallelCache.length);
+        for (int i = 0; i < serialCache.length; i++) {
+            assertEquals(serialCache[i].getName(), parallelCache[i].getName());
+            assertArrayEquals("cache differs: " + serialCache[i].getName(),
+                    Files.readAllBytes(serialCache[i].toPath()), Files.readAllBytes(parallelCache[i].toPath()));
+        }
+    }
+
+    private static Path run(Path oldJar, Path newJar, Path dir, String threads) throws Exception {
+        Files.createDirectories(dir);
+        Path out = dir.resolve("out.tiny");
+        Main.main(new String[]{
+                "mapOldNew",
+                "--old", oldJar.toString(),
+                "--new", newJar.toString(),
+                "--out", out.toString(),
+                "--deterministic",
+                "--cacheDir", dir.resolve("cache").toString(),
+                "--idf", dir.resolve("idf.properties").toString(),
+                "--maxMethods", "300",
+                "--extract-threads", threads
+        });
+        assertTrue(Files.exists(out));
+        return out;
+    }
+
+    private static File[] cacheFiles(Path dir) {
+        File[] fs = dir.toFile().listFiles();
+        if (fs == null) return new File[0];
+        List<File> keep = new ArrayList<File>();
+        for (File f : fs) if (f.isFile() && !f.getName().endsWith(".properties")) keep.add(f);
+        Collections.sort(keep);
+        return keep.toArray(new File[0]);
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER CLI TEST ParallelExtractionDeterminismIT END
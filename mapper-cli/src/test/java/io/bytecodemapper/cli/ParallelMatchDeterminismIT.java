@@ -0,0 +1,49 @@
+// >>> AUTOGEN: BYTECODEMAPPER CLI TEST ParallelMatchDeterminismIT BEGIN
+package io.bytecodemapper.cli;
+
+import io.bytecodemapper.cli.util.CliPaths;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class ParallelMatchDeterminismIT {
+
+    @Test(timeout = 120000)
+    public void serialAndParallelMatching_produceIdenticalMappingsAndReports() throws Exception {
+        Path oldJar = CliPaths.resolveInput("data/weeks/osrs-170.jar");
+        Path newJar = CliPaths.resolveInput("data/weeks/osrs-171.jar");
+        Path tmp = Files.createTempDirectory("parallel-match-it");
+
+        Path serial = run(oldJar, newJar, tmp.resolve("serial"), "1");
+        Path parallel = run(oldJar, newJar, tmp.resolve("parallel"), "4");
+
+        assertArrayEquals("mappings differ between serial and parallel matching",
+                Files.readAllBytes(serial.resolve("out.tiny")), Files.readAllBytes(parallel.resolve("out.tiny")));
+        // Report carries the merged candidate-count percentiles and tier counters
+        assertArrayEquals("report differs between serial and parallel matching",
+                Files.readAllBytes(serial.resolve("report.json")), Files.readAllBytes(parallel.resolve("report.json")));
+    }
+
+    private static Path run(Path oldJar, Path newJar, Path dir, String threads) throws Exception {
+        Files.createDirectories(dir);
+        Main.main(new String[]{
+                "mapOldNew",
+                "--old", oldJar.toString(),
+                "--new", newJar.toString(),
+                "--out", dir.resolve("out.tiny").toString(),
+                "--report", dir.resolve("report.json").toString(),
+                "--deterministic",
+                "--cacheDir", dir.resolve("cache").toString(),
+                "--idf", dir.resolve("idf.properties").toString(),
+                "--maxMethods", "300",
+                "--match-threads", threads
+        });
+        assertTrue(Files.exists(dir.resolve("out.tiny")));
+        assertTrue(Files.exists(dir.resolve("report.json")));
+        return dir;
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER CLI TEST ParallelMatchDeterminismIT END
@@ -101,6 +101,32 @@ public class RefineRunnerTest {
     }
   }
 
+  @Test public void threaded_matchesSerial(){
+    NormalizedMethod o1 = NormalizedMethod.from("o/A", m("a", "o/B#b", "o/C#c"));
+    NormalizedMethod o2 = NormalizedMethod.from("o/B", m("b", "o/A#a", "o/C#c"));
+    NormalizedMethod o3 = NormalizedMethod.from("o/C", m("c", "o/A#a", "o/B#b"));
+    NormalizedMethod n1 = NormalizedMethod.from("n/A", m("a", "n/B#b", "n/C#c"));
+    NormalizedMethod n2 = NormalizedMethod.from("n/B", m("b", "n/A#a", "n/C#c"));
+    NormalizedMethod n3 = NormalizedMethod.from("n/C", m("c", "n/A#a", "n/B#b"));
+    List<NormalizedMethod> os = Arrays.asList(o1,o2,o3);
+    List<NormalizedMethod> ns = Arrays.asList(n1,n2,n3);
+    Map<String, Map<String, Double>> S0 = seedS0(os, ns);
+
+    java.io.PrintStream prev = System.out;
+    java.io.ByteArrayOutputStream serialOut = new java.io.ByteArrayOutputStream();
+    java.io.ByteArrayOutputStream threadedOut = new java.io.ByteArrayOutputStream();
+    try {
+      System.setOut(new java.io.PrintStream(serialOut, true));
+      SortedMap<String, SortedMap<String, Double>> serial = RefineRunner.maybeRefine(true, os, ns, S0, 1);
+      System.setOut(new java.io.PrintStream(threadedOut, true));
+      SortedMap<String, SortedMap<String, Double>> threaded = RefineRunner.maybeRefine(true, os, ns, S0, 4);
+      assertArrayEquals(RefineRunner.serialize(serial), RefineRunner.serialize(threaded));
+      assertArrayEquals(serialOut.toByteArray(), threadedOut.toByteArray());
+    } finally {
+      System.setOut(prev);
+    }
+  }
+
   @Test public void disabled_returnsSortedCopy_andNoLogs(){
     NormalizedMethod o1 = NormalizedMethod.from("o/A", m("a", "o/B#b", "o/C#c"));
     NormalizedMethod o2 = NormalizedMethod.from("o/B", m("b", "o/A#a", "o/C#c"));
@@ -0,0 +1,164 @@
+// >>> AUTOGEN: BYTECODEMAPPER CLI TEST MethodFeatureCacheTest BEGIN
+package io.bytecodemapper.cli.cache;
+
+import org.junit.Test;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+
+import static org.junit.Assert.*;
+
+public class MethodFeatureCacheTest {
+
+    private static MethodFeatureCacheEntry entry(long wl, String tag) {
+        BitSet micro = new BitSet();
+        micro.set(0); micro.set(16);
+        LinkedHashMap<Integer, Integer> hist = new LinkedHashMap<Integer, Integer>();
+        hist.put(Integer.valueOf(182), Integer.valueOf(3));
+        hist.put(Integer.valueOf(21), Integer.valueOf(7));
+        LinkedHashSet<String> strings = new LinkedHashSet<String>();
+        strings.add("zeta-" + tag); strings.add("alpha é");
+        LinkedHashSet<String> calls = new LinkedHashSet<String>();
+        calls.add("a.b(I)V");
+        return new MethodFeatureCacheEntry(wl, micro, hist, strings, calls, "(I)V", "fp-" + tag, "body-" + tag);
+    }
+
+    @Test
+    public void roundTripPreservesFieldsAndOrder() throws Exception {
+        Path dir = Files.createTempDirectory("mfc-rt");
+        MethodFeatureCache c = MethodFeatureCache.open(dir, "jar");
+        c.put("k1", entry(42L, "one"));
+        c.put("k2", new MethodFeatureCacheEntry(-1L, new BitSet(), null, null, null, null, null, null));
+        c.close();
+
+        MethodFeatureCache r = MethodFeatureCache.open(dir, "jar");
+        assertEquals(2, r.size());
+        MethodFeatureCacheEntry e = r.get("k1");
+        assertNotNull(e);
+        assertEquals(42L, e.wlSignature);
+        assertTrue(e.microBits.get(0) && e.microBits.get(16));
+        assertEquals(2, e.microBits.cardinality());
+        Iterator<Integer> hk = e.normOpcodeHistogram.keySet().iterator();
+        assertEquals(Integer.valueOf(182), hk.next());
+        assertEquals(Integer.valueOf(7), e.normOpcodeHistogram.get(Integer.valueOf(21)));
+        Iterator<String> si = e.strings.iterator();
+        assertEquals("zeta-one", si.next());
+        assertEquals("alpha é", si.next());
+        assertTrue(e.invokedSignatures.contains("a.b(I)V"));
+        assertEquals("(I)V", e.normalizedDescriptor);
+        assertEquals("fp-one", e.normFingerprint);
+        assertEquals("body-one", e.normalizedBodyHash);
+
+        MethodFeatureCacheEntry n = r.get("k2");
+        assertNotNull(n);
+        assertNull(n.normOpcodeHistogram);
+        assertNull(n.strings);
+        assertNull(n.normalizedBodyHash);
+        assertNull(r.get("missing"));
+        r.close();
+    }
+
+    @Test
+    public void warmRunAppendsWithoutRewriting() throws Exception {
+        Path dir = Files.createTempDirectory("mfc-append");
+        MethodFeatureCache c = MethodFeatureCache.open(dir, "jar");
+        c.put("k1", entry(1L, "one"));
+        c.close();
+        Path file = dir.resolve("jar.methods.bin");
+        byte[] first = Files.readAllBytes(file);
+
+        // Nothing new: file untouched
+        MethodFeatureCache.open(dir, "jar").close();
+        assertArrayEquals(first, Files.readAllBytes(file));
+
+        // New entry: previous bytes are a prefix of the appended file
+        MethodFeatureCache c2 = MethodFeatureCache.open(dir, "jar");
+        c2.put("k2", entry(2L, "two"));
+        c2.close();
+        byte[] second = Files.readAllBytes(file);
+        assertTrue(second.length > first.length);
+        for (int i = 0; i < first.length; i++) assertEquals(first[i], second[i]);
+
+        MethodFeatureCache r = MethodFeatureCache.open(dir, "jar");
+        assertEquals(1L, r.get("k1").wlSignature);
+        assertEquals(2L, r.get("k2").wlSignature);
+    }
+
+    @Test
+    public void tornTailAndForeignHeaderAreTreatedAsMisses() throws Exception {
+        Path dir = Files.createTempDirectory("mfc-torn");
+        MethodFeatureCache c = MethodFeatureCache.open(dir, "jar");
+        c.put("k1", entry(1L, "one"));
+        c.put("k2", entry(2L, "two"));
+        c.close();
+        Path file = dir.resolve("jar.methods.bin");
+        RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw");
+        try { raf.setLength(raf.length() - 3); } finally { raf.close(); }
+
+        MethodFeatureCache r = MethodFeatureCache.open(dir, "jar");
+        assertNotNull(r.get("k1"));
+        assertNull(r.get("k2"));
+        r.put("k2", entry(2L, "two"));
+        r.close();
+        MethodFeatureCache r2 = MethodFeatureCache.open(dir, "jar");
+        assertEquals(2L, r2.get("k2").wlSignature);
+
+        // Legacy/foreign header: ignored, then rewritten in the current format
+        Files.write(file, "BMAP:MFC:1\ngarbage".getBytes("UTF-8"));
+        MethodFeatureCache legacy = MethodFeatureCache.open(dir, "jar");
+        assertEquals(0, legacy.size());
+        legacy.put("k3", entry(3L, "three"));
+        legacy.close();
+        assertEquals(3L, MethodFeatureCache.open(dir, "jar").get("k3").wlSignature);
+    }
+
+    @Test
+    public void supersededRecordsAreCompactedOnClose() throws Exception {
+        Path dir = Files.createTempDirectory("mfc-compact");
+        MethodFeatureCache c = MethodFeatureCache.open(dir, "jar");
+        c.put("k1", entry(1L, "one"));
+        c.put("k2", entry(2L, "two"));
+        c.close();
+
+        // Rewriting k1 leaves a third of the file dead: close keeps the latest records in file order
+        MethodFeatureCache c2 = MethodFeatureCache.open(dir, "jar");
+        c2.put("k1", entry(10L, "one"));
+        c2.close();
+
+        Path fresh = Files.createTempDirectory("mfc-compact-fresh");
+        MethodFeatureCache f = MethodFeatureCache.open(fresh, "jar");
+        f.put("k2", entry(2L, "two"));
+        f.put("k1", entry(10L, "one"));
+        f.close();
+        assertArrayEquals(Files.readAllBytes(fresh.resolve("jar.methods.bin")), Files.readAllBytes(dir.resolve("jar.methods.bin")));
+        assertEquals(10L, MethodFeatureCache.open(dir, "jar").get("k1").wlSignature);
+    }
+
+    @Test
+    public void overCapKeepsOnlyEntriesUsedThisRun() throws Exception {
+        Path dir = Files.createTempDirectory("mfc-cap");
+        MethodFeatureCache c = MethodFeatureCache.open(dir, "jar");
+        c.put("k1", entry(1L, "one"));
+        c.put("k2", entry(2L, "two"));
+        c.put("k3", entry(3L, "three"));
+        c.close();
+
+        MethodFeatureCache capped = MethodFeatureCache.open(dir, "jar", 1L);
+        assertNotNull(capped.get("k2"));
+        capped.put("k4", entry(4L, "four"));
+        capped.close();
+
+        MethodFeatureCache r = MethodFeatureCache.open(dir, "jar");
+        assertEquals(2, r.size());
+        assertNull(r.get("k1"));
+        assertEquals(2L, r.get("k2").wlSignature);
+        assertNull(r.get("k3"));
+        assertEquals(4L, r.get("k4").wlSignature);
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER CLI TEST MethodFeatureCacheTest END
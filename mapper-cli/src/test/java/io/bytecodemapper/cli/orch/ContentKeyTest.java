@@ -0,0 +1,56 @@
+// >>> AUTOGEN: BYTECODEMAPPER CLI TEST ContentKeyTest BEGIN
+package io.bytecodemapper.cli.orch;
+
+import org.junit.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.*;
+
+import static org.junit.Assert.*;
+
+public class ContentKeyTest {
+    private static final String IR = "ir";
+
+    /** static int name(int x) { if (x == 0) goto target; return call(x); } */
+    private static MethodNode method(String name, String callOwner, String callName, boolean jumpToEnd) {
+        MethodNode mn = new MethodNode(Opcodes.ACC_STATIC, name, "(I)I", null, null);
+        LabelNode mid = new LabelNode();
+        LabelNode end = new LabelNode();
+        mn.instructions.add(new VarInsnNode(Opcodes.ILOAD, 0));
+        mn.instructions.add(new JumpInsnNode(Opcodes.IFEQ, jumpToEnd ? end : mid));
+        mn.instructions.add(mid);
+        mn.instructions.add(new VarInsnNode(Opcodes.ILOAD, 0));
+        mn.instructions.add(new MethodInsnNode(Opcodes.INVOKESTATIC, callOwner, callName, "(I)I", false));
+        mn.instructions.add(new InsnNode(Opcodes.IRETURN));
+        mn.instructions.add(end);
+        mn.instructions.add(new InsnNode(Opcodes.ICONST_0));
+        mn.instructions.add(new InsnNode(Opcodes.IRETURN));
+        return mn;
+    }
+
+    private static String key(String owner, MethodNode mn) throws Exception {
+        return Orchestrator.contentKey(owner, mn, Orchestrator.stableInsnHash(mn), IR);
+    }
+
+    @Test
+    public void renamedOwnerAndMethodShareKey() throws Exception {
+        assertEquals(key("a", method("m", "lib/X", "f", true)),
+                     key("zz", method("q", "lib/X", "f", true)));
+    }
+
+    @Test
+    public void selfCallRelationIsPartOfKey() throws Exception {
+        // Same instructions, but only in owner "lib/X" with name "f" is the call recursive
+        assertNotEquals(key("lib/X", method("f", "lib/X", "f", true)),
+                        key("other", method("f", "lib/X", "f", true)));
+    }
+
+    @Test
+    public void branchTargetsAndIrOptionsArePartOfKey() throws Exception {
+        assertNotEquals(key("a", method("m", "lib/X", "f", true)),
+                        key("a", method("m", "lib/X", "f", false)));
+        MethodNode mn = method("m", "lib/X", "f", true);
+        String h = Orchestrator.stableInsnHash(mn);
+        assertNotEquals(Orchestrator.contentKey("a", mn, h, "ir1"), Orchestrator.contentKey("a", mn, h, "ir2"));
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER CLI TEST ContentKeyTest END
@@ -0,0 +1,64 @@
+// >>> AUTOGEN: BYTECODEMAPPER CLI TEST ExtractTaskTest BEGIN
+package io.bytecodemapper.cli.orch;
+
+import io.bytecodemapper.cli.cache.MethodFeatureCache;
+import io.bytecodemapper.signals.normalized.NormalizedFeatures;
+import org.junit.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class ExtractTaskTest {
+    private static final String IR = "ir";
+
+    /** static int m(int x) { if (0 != 0) return 1; return x + 1; } -- the Normalizer strips the opaque branch */
+    private static MethodNode opaque() {
+        MethodNode mn = new MethodNode(Opcodes.ACC_STATIC, "m", "(I)I", null, null);
+        LabelNode dead = new LabelNode();
+        mn.instructions.add(new InsnNode(Opcodes.ICONST_0));
+        mn.instructions.add(new JumpInsnNode(Opcodes.IFNE, dead));
+        mn.instructions.add(new VarInsnNode(Opcodes.ILOAD, 0));
+        mn.instructions.add(new InsnNode(Opcodes.ICONST_1));
+        mn.instructions.add(new InsnNode(Opcodes.IADD));
+        mn.instructions.add(new InsnNode(Opcodes.IRETURN));
+        mn.instructions.add(dead);
+        mn.instructions.add(new InsnNode(Opcodes.ICONST_1));
+        mn.instructions.add(new InsnNode(Opcodes.IRETURN));
+        mn.maxStack = 2;
+        mn.maxLocals = 1;
+        return mn;
+    }
+
+    @Test
+    public void cacheHitMatchesMissForRewrittenBody() throws Exception {
+        Path dir = Files.createTempDirectory("extract-hit");
+        MethodFeatureCache cache = MethodFeatureCache.open(dir, "jar");
+        try {
+            Orchestrator.ExtractTask miss = new Orchestrator.ExtractTask("a/A", opaque());
+            miss.run(cache, IR);
+            assertNotNull(miss.fresh);
+            cache.put(miss.cacheKey, miss.fresh);
+
+            Orchestrator.ExtractTask hit = new Orchestrator.ExtractTask("a/A", opaque());
+            hit.run(cache, IR);
+            assertNull(hit.fresh);
+            assertEquals(miss.cacheKey, hit.cacheKey);
+
+            NormalizedFeatures m = miss.normFeatures, h = hit.normFeatures;
+            assertNotNull(m);
+            assertNotNull(h);
+            assertEquals(m.nsf64, h.nsf64);
+            assertEquals(m.opcodeBag, h.opcodeBag);
+            assertEquals(m.callKinds, h.callKinds);
+            assertEquals(m.stackDeltaHist, h.stackDeltaHist);
+            assertEquals(miss.flattened, hit.flattened);
+        } finally {
+            cache.close();
+        }
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER CLI TEST ExtractTaskTest END
@@ -0,0 +1,40 @@
+// >>> AUTOGEN: BYTECODEMAPPER CLI TEST IncrementalAnchorsTest BEGIN
+package io.bytecodemapper.cli.orch;
+
+import io.bytecodemapper.io.tiny.TinyV2Mappings;
+import io.bytecodemapper.io.tiny.TinyV2Writer;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class IncrementalAnchorsTest {
+
+    @Test
+    public void chainedWeek_anchorsKeyedOnPreviousNewSide() throws Exception {
+        // Week N-1 -> N renamed class a to b and c to d; the method entries are in N-1 names
+        Map<String,String> prevClasses = new LinkedHashMap<String,String>();
+        prevClasses.put("a", "b");
+        prevClasses.put("c", "d");
+        List<TinyV2Writer.MethodEntry> prevMethods = Arrays.asList(
+                new TinyV2Writer.MethodEntry("a", "m", "(La;I)La;", "n"),
+                new TinyV2Writer.MethodEntry("a", "k", "(Ljava/lang/String;)V", "k"),
+                new TinyV2Writer.MethodEntry("c", "x", "()V", "y"));
+        Path tiny = Files.createTempDirectory("incremental-anchors").resolve("prev.tiny");
+        TinyV2Writer.writeTiny2(tiny, prevClasses, prevMethods, Collections.<TinyV2Writer.FieldEntry>emptyList());
+        TinyV2Mappings previous = TinyV2Mappings.read(tiny);
+
+        // Week N -> N+1 keeps b but drops d; old-side keys are week N names
+        Map<String,String> classMap = new LinkedHashMap<String,String>();
+        classMap.put("b", "b");
+        classMap.put("a", "a");
+
+        Set<String> anchors = Orchestrator.incrementalAnchors(previous, classMap);
+        assertEquals(new HashSet<String>(Arrays.asList("b#n(Lb;I)Lb;", "b#k(Ljava/lang/String;)V")), anchors);
+        assertFalse("N-1 keys must not seed week N", anchors.contains("a#m(La;I)La;"));
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER CLI TEST IncrementalAnchorsTest END
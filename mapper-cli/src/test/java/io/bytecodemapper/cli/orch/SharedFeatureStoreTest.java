@@ -0,0 +1,78 @@
+// >>> AUTOGEN: BYTECODEMAPPER CLI TEST SharedFeatureStoreTest BEGIN
+package io.bytecodemapper.cli.orch;
+
+import io.bytecodemapper.cli.cache.MethodFeatureCache;
+import org.junit.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import static org.junit.Assert.*;
+
+public class SharedFeatureStoreTest {
+
+    /** One class whose static methods m0..m2 compute x (op) k; each opcode yields distinct bodies. */
+    private static Path jar(Path dir, String owner, int op) throws Exception {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, owner, null, "java/lang/Object", null);
+        for (int k = 0; k < 3; k++) {
+            MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "m" + k, "(I)I", null, null);
+            mv.visitCode();
+            mv.visitVarInsn(Opcodes.ILOAD, 0);
+            mv.visitIntInsn(Opcodes.BIPUSH, 10 + k);
+            mv.visitInsn(op);
+            mv.visitInsn(Opcodes.IRETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+        cw.visitEnd();
+        Path jar = dir.resolve(owner.replace('/', '_') + ".jar");
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(jar.toFile()));
+        try {
+            out.putNextEntry(new ZipEntry(owner + ".class"));
+            out.write(cw.toByteArray());
+            out.closeEntry();
+        } finally {
+            out.close();
+        }
+        return jar;
+    }
+
+    private static int prepareBoth(Path cacheDir, long maxBytes, Path a, Path b) throws Exception {
+        OrchestratorOptions opt = OrchestratorOptions.defaults(cacheDir, cacheDir.resolve("idf.properties"));
+        opt.cacheMaxBytes = maxBytes;
+        Orchestrator orch = new Orchestrator();
+        MethodFeatureCache store = Orchestrator.openFeatureStore(opt);
+        try {
+            orch.prepareJar(a, opt, store);
+            orch.prepareJar(b, opt, store);
+        } finally {
+            store.close();
+        }
+        MethodFeatureCache r = MethodFeatureCache.open(cacheDir, MethodFeatureCache.SHARED_KEY);
+        try {
+            return r.size();
+        } finally {
+            r.close();
+        }
+    }
+
+    @Test
+    public void oneStoreAcrossJarsKeepsEveryJarOverCap() throws Exception {
+        Path jars = Files.createTempDirectory("shared-store-jars");
+        Path a = jar(jars, "a/A", Opcodes.IADD);
+        Path b = jar(jars, "b/B", Opcodes.IMUL);
+
+        int uncapped = prepareBoth(Files.createTempDirectory("shared-store-free"), MethodFeatureCache.DEFAULT_MAX_BYTES, a, b);
+        assertTrue(uncapped >= 6);
+        // Over the cap, compaction keeps what the closing instance used: here both jars
+        assertEquals(uncapped, prepareBoth(Files.createTempDirectory("shared-store-cap"), 1L, a, b));
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER CLI TEST SharedFeatureStoreTest END
@@ -0,0 +1,93 @@
+// >>> AUTOGEN: BYTECODEMAPPER TEST HammingIndex BEGIN
+package io.bytecodemapper.core.index;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HammingIndexTest {
+
+    @Test public void withinMatchesScanOnBothPaths() {
+        for (int n : new int[]{ 10, HammingIndex.LINEAR_MAX + 1, 2000 }) {
+            Random rnd = new Random(42 + n);
+            long[] fps = clustered(rnd, n);
+            HammingIndex idx = new HammingIndex();
+            for (long fp : fps) idx.add(fp);
+            for (int q = 0; q < 50; q++) {
+                long query = fps[rnd.nextInt(n)] ^ (1L << rnd.nextInt(64)) ^ (1L << rnd.nextInt(64));
+                for (int r : new int[]{ 0, 1, 2, 3, 5, 9, 12, 64 }) {
+                    assertArrayEquals("n=" + n + " r=" + r, brute(fps, query, r), idx.within(query, r));
+                }
+            }
+        }
+    }
+
+    @Test public void topKOrdersByDistanceThenTieBreakThenId() {
+        for (int n : new int[]{ 10, 2000 }) {
+            Random rnd = new Random(7 + n);
+            final long[] fps = clustered(rnd, n);
+            HammingIndex idx = new HammingIndex();
+            for (long fp : fps) idx.add(fp);
+            for (int q = 0; q < 50; q++) {
+                final long query = fps[rnd.nextInt(n)] ^ (1L << rnd.nextInt(64));
+                for (int k : new int[]{ 1, 7, 40, n + 5 }) {
+                    List<Integer> all = new ArrayList<Integer>();
+                    for (int i = 0; i < n; i++) all.add(i);
+                    // tie-break on the low byte, then id
+                    Collections.sort(all, new Comparator<Integer>() {
+                        public int compare(Integer a, Integer b) {
+                            int c = Integer.compare(Long.bitCount(fps[a] ^ query), Long.bitCount(fps[b] ^ query));
+                            if (c != 0) return c;
+                            c = Long.compare(fps[a] & 0xFF, fps[b] & 0xFF);
+                            return c != 0 ? c : Integer.compare(a, b);
+                        }
+                    });
+                    int[] expected = new int[Math.min(k, n)];
+                    for (int i = 0; i < expected.length; i++) expected[i] = all.get(i);
+                    int[] got = idx.topK(query, k, new it.unimi.dsi.fastutil.ints.IntComparator() {
+                        public int compare(int a, int b) { return Long.compare(fps[a] & 0xFF, fps[b] & 0xFF); }
+                    });
+                    assertArrayEquals("n=" + n + " k=" + k, expected, got);
+                }
+            }
+        }
+    }
+
+    @Test public void emptyAndDegenerateQueries() {
+        HammingIndex idx = new HammingIndex();
+        assertEquals(0, idx.within(1L, 3).length);
+        assertEquals(0, idx.topK(1L, 3, null).length);
+        idx.add(1L);
+        assertEquals(0, idx.within(1L, -1).length);
+        assertEquals(0, idx.topK(1L, 0, null).length);
+        assertArrayEquals(new int[]{ 0 }, idx.topK(-1L, 3, null));
+    }
+
+    // Groups of near-duplicates around a few centres, so radius queries hit several entries
+    private static long[] clustered(Random rnd, int n) {
+        long[] centres = new long[Math.max(1, n / 20)];
+        for (int i = 0; i < centres.length; i++) centres[i] = rnd.nextLong();
+        long[] fps = new long[n];
+        for (int i = 0; i < n; i++) {
+            long fp = centres[rnd.nextInt(centres.length)];
+            int flips = rnd.nextInt(6);
+            for (int f = 0; f < flips; f++) fp ^= 1L << rnd.nextInt(64);
+            fps[i] = fp;
+        }
+        return fps;
+    }
+
+    private static int[] brute(long[] fps, long q, int r) {
+        IntArrayList out = new IntArrayList();
+        for (int i = 0; i < fps.length; i++) if (Long.bitCount(fps[i] ^ q) <= r) out.add(i);
+        return out.toIntArray();
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER TEST HammingIndex END
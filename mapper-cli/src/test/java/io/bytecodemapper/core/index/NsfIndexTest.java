@@ -37,6 +37,47 @@ public class NsfIndexTest {
         assertEquals(ja, jb);
     }
 
+    @Test public void bothModeStoresOneCanonicalRef() {
+        NsfIndex idx = new NsfIndex();
+        idx.add("A", "()V", "m", 0x1234L, NsfIndex.Mode.SURROGATE);
+        idx.add("A", "()V", "m", 0x1234L, NsfIndex.Mode.BOTH);
+        java.util.List<NsfIndex.NewRef> xs = idx.exact("A", "()V", 0x1234L);
+        assertEquals(1, xs.size());
+        assertEquals("nsf64", xs.get(0).bucket);
+    }
+
+    @Test public void nearAnyOwnerSpansOwnersWithSameDesc() {
+        NsfIndex idx = new NsfIndex();
+        long fp = 0xF0F0L;
+        idx.add("B", "(I)V", "b", fp ^ 0x2L, NsfIndex.Mode.CANONICAL);
+        idx.add("A", "(I)V", "a", fp, NsfIndex.Mode.CANONICAL);
+        idx.add("A", "()V", "c", fp, NsfIndex.Mode.CANONICAL);
+        idx.add("C", "(I)V", "far", ~fp, NsfIndex.Mode.CANONICAL);
+        assertEquals("A#a(I)V|B#b(I)V|", join(idx.nearAnyOwner("(I)V", fp, 1)));
+        // adds after a lookup are visible
+        idx.add("D", "(I)V", "d", fp, NsfIndex.Mode.CANONICAL);
+        assertEquals("A#a(I)V|B#b(I)V|D#d(I)V|", join(idx.nearAnyOwner("(I)V", fp, 1)));
+        assertEquals(1, idx.near("A", "(I)V", fp, 1).size());
+    }
+
+    @Test public void nearMatchesScanInLargeBucket() {
+        NsfIndex idx = new NsfIndex();
+        java.util.Random rnd = new java.util.Random(3);
+        long base = rnd.nextLong();
+        long[] fps = new long[300];
+        for (int i = 0; i < fps.length; i++) {
+            fps[i] = base ^ (1L << rnd.nextInt(64)) ^ (1L << rnd.nextInt(64));
+            idx.add("A", "()I", "m" + i, fps[i], NsfIndex.Mode.BOTH);
+        }
+        for (int budget = 0; budget <= 4; budget++) {
+            int expected = 0;
+            for (long fp : fps) if (Long.bitCount(fp ^ base) <= budget) expected++;
+            java.util.List<NsfIndex.NewRef> xs = idx.near("A", "()I", base, budget);
+            assertEquals(expected, xs.size());
+            for (NsfIndex.NewRef r : xs) assertEquals("nsf64", r.bucket);
+        }
+    }
+
     // Helper
     private static String join(java.util.List<NsfIndex.NewRef> xs){
         StringBuilder sb = new StringBuilder();
@@ -0,0 +1,38 @@
+// >>> AUTOGEN: BYTECODEMAPPER TEST SymbolTable BEGIN
+package io.bytecodemapper.core.index;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SymbolTableTest {
+
+    @Test public void internAssignsDenseIdsInFirstSeenOrder() {
+        SymbolTable t = new SymbolTable();
+        assertEquals(0, t.intern("a"));
+        assertEquals(1, t.intern("(I)V"));
+        assertEquals(0, t.intern(new String("a")));
+        assertEquals(2, t.size());
+        assertEquals("(I)V", t.symbol(1));
+        assertEquals(-1, t.id("missing"));
+    }
+
+    @Test public void pairsAreDenseAndOrderSensitive() {
+        SymbolTable t = new SymbolTable();
+        int a = t.intern("a"), d = t.intern("()V");
+        assertEquals(0, t.internPair(a, d));
+        assertEquals(1, t.internPair(d, a));
+        assertEquals(0, t.internPair(a, d));
+        assertEquals(0, t.pair("a", "()V"));
+        assertEquals(-1, t.pair("a", "missing"));
+        assertEquals(-1, t.pair(a, a));
+    }
+
+    @Test public void packKeepsBothHalves() {
+        long k = SymbolTable.pack(7, -1);
+        assertEquals(7, (int) (k >>> 32));
+        assertEquals(-1, (int) k);
+        assertNotEquals(SymbolTable.pack(1, 2), SymbolTable.pack(2, 1));
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER TEST SymbolTable END
@@ -0,0 +1,95 @@
+// >>> AUTOGEN: BYTECODEMAPPER TEST FlatteningIndexTest BEGIN
+package io.bytecodemapper.core.match;
+
+import org.junit.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.*;
+
+import static org.junit.Assert.*;
+
+public class FlatteningIndexTest {
+
+    /** int m(int) { switch (x) { case 0..5: return k; default: return -1; } } — 8 blocks, 7-way dispatch. */
+    private static MethodNode dispatcher(String name) {
+        MethodNode mn = new MethodNode(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, name, "(I)I", null, null);
+        LabelNode dflt = new LabelNode();
+        LabelNode[] cases = new LabelNode[6];
+        for (int i = 0; i < cases.length; i++) cases[i] = new LabelNode();
+        mn.instructions.add(new VarInsnNode(Opcodes.ILOAD, 0));
+        mn.instructions.add(new TableSwitchInsnNode(0, cases.length - 1, dflt, cases));
+        for (int i = 0; i < cases.length; i++) {
+            mn.instructions.add(cases[i]);
+            mn.instructions.add(new IntInsnNode(Opcodes.BIPUSH, 10 + i));
+            mn.instructions.add(new InsnNode(Opcodes.IRETURN));
+        }
+        mn.instructions.add(dflt);
+        mn.instructions.add(new InsnNode(Opcodes.ICONST_M1));
+        mn.instructions.add(new InsnNode(Opcodes.IRETURN));
+        mn.maxStack = 1; mn.maxLocals = 1;
+        return mn;
+    }
+
+    private static MethodNode straight(String name) {
+        MethodNode mn = new MethodNode(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, name, "(I)I", null, null);
+        mn.instructions.add(new VarInsnNode(Opcodes.ILOAD, 0));
+        mn.instructions.add(new InsnNode(Opcodes.IRETURN));
+        mn.maxStack = 1; mn.maxLocals = 1;
+        return mn;
+    }
+
+    @Test
+    public void heuristicFlagsDispatcherOnly() {
+        assertTrue(FlatteningIndex.isLikelyFlattened(dispatcher("d")));
+        assertFalse(FlatteningIndex.isLikelyFlattened(straight("s")));
+        assertFalse(FlatteningIndex.isLikelyFlattened((MethodNode) null));
+    }
+
+    @Test
+    public void recordedVerdictsAnswerPerOwnerDesc() {
+        FlatteningIndex idx = new FlatteningIndex();
+        idx.record("A", "d", "(I)I", true);
+        idx.record("A", "s", "(I)V", false);
+        idx.markComplete("A");
+        assertTrue(idx.isComplete("A"));
+        assertTrue(idx.isFlattened("A", "d", "(I)I"));
+        assertFalse(idx.isFlattened("A", "s", "(I)V"));
+        assertTrue(idx.anyFlattened("A", "(I)I"));
+        assertFalse(idx.anyFlattened("A", "(I)V"));
+        assertFalse(idx.anyFlattened("B", "(I)I"));
+    }
+
+    @Test
+    public void completeOwnerScansOnlyUnrecordedMethods() {
+        ClassNode cn = new ClassNode();
+        cn.name = "B";
+        cn.methods.add(straight("s"));
+        cn.methods.add(dispatcher("d"));
+        FlatteningIndex idx = new FlatteningIndex();
+        // Pre-recorded verdict wins over the heuristic (extraction already decided it)
+        idx.record("B", "d", "(I)I", false);
+        assertFalse(idx.isComplete("B"));
+        idx.completeOwner("B", cn);
+        assertTrue(idx.isComplete("B"));
+        assertTrue(idx.isRecorded("B", "s", "(I)I"));
+        assertFalse(idx.anyFlattened("B", "(I)I"));
+
+        FlatteningIndex fresh = new FlatteningIndex();
+        fresh.completeOwner("B", cn);
+        assertTrue(fresh.anyFlattened("B", "(I)I"));
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        FlatteningIndex idx = new FlatteningIndex();
+        idx.record("A", "d", "(I)I", true);
+        FlatteningIndex c = idx.copy();
+        c.record("A", "e", "(J)I", true);
+        c.markComplete("A");
+        assertTrue(c.isFlattened("A", "d", "(I)I"));
+        assertTrue(c.anyFlattened("A", "(J)I"));
+        assertFalse(idx.isRecorded("A", "e", "(J)I"));
+        assertFalse(idx.anyFlattened("A", "(J)I"));
+        assertFalse(idx.isComplete("A"));
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER TEST FlatteningIndexTest END
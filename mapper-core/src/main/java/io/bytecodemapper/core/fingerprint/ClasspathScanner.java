@@ -1,6 +1,7 @@
 // >>> AUTOGEN: BYTECODEMAPPER core ClasspathScanner BEGIN
 package io.bytecodemapper.core.fingerprint;
 
+import io.bytecodemapper.core.util.OrderedPrefetch;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.tree.ClassNode;
 
@@ -13,13 +14,38 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
-/** Minimal classpath scanner for .class entries in jars or directories. */
+/**
+ * Minimal classpath scanner for .class entries in jars or directories. Entries reach the sink on
+ * the calling thread in sorted path order, also when they are decompressed and parsed in parallel.
+ */
 public final class ClasspathScanner {
     public interface Sink { void accept(ClassNode cn); }
 
+    /** Parsed entries per worker allowed ahead of the sink; bounds memory on large jars. */
+    private static final int AHEAD_PER_THREAD = 4;
+
+    private int threads = 1;
+    private int parsingOptions = ClassReader.SKIP_FRAMES;
+
+    /** Decompress and parse entries on this many threads (<=1 = serial, the default). */
+    public ClasspathScanner threads(int n) {
+        this.threads = Math.max(1, n);
+        return this;
+    }
+
+    /**
+     * Also skip debug info (line numbers, local variable tables, source file). Bodies then carry
+     * fewer labels, so their instruction hashes differ from a scan that keeps debug info.
+     */
+    public ClasspathScanner skipDebug(boolean skip) {
+        this.parsingOptions = skip ? (ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES) : ClassReader.SKIP_FRAMES;
+        return this;
+    }
+
     public void scan(File root, Sink sink) throws IOException {
         if (root.isDirectory()) scanDir(root, sink);
         else if (isJar(root.getName())) scanJar(root, sink);
@@ -31,19 +57,23 @@ public final class ClasspathScanner {
         return n.endsWith(".jar") || n.endsWith(".zip");
     }
 
-    private static void readClass(File file, Sink sink) throws IOException {
-        InputStream in = new FileInputStream(file);
+    private void readClass(File file, Sink sink) throws IOException {
+        sink.accept(parse(new FileInputStream(file)));
+    }
+
+    /** Parses and closes {@code in}. */
+    private ClassNode parse(InputStream in) throws IOException {
         try {
             ClassReader cr = new ClassReader(in);
             ClassNode cn = new ClassNode();
-            cr.accept(cn, ClassReader.SKIP_FRAMES);
-            sink.accept(cn);
+            cr.accept(cn, parsingOptions);
+            return cn;
         } finally {
             in.close();
         }
     }
 
-    private static void scanDir(File dir, Sink sink) throws IOException {
+    private void scanDir(File dir, Sink sink) throws IOException {
         List<File> files = new ArrayList<File>();
         collect(dir, files);
         // Deterministic order: lexicographic by path
@@ -51,13 +81,17 @@ public final class ClasspathScanner {
             public int compare(File a, File b) { return a.getPath().compareTo(b.getPath()); }
         });
         // >>> AUTOGEN: BYTECODEMAPPER core ClasspathScanner DETERMINISTIC FILTERS BEGIN
-        for (File f : files) {
+        List<Callable<ClassNode>> reads = new ArrayList<Callable<ClassNode>>();
+        for (final File f : files) {
             String path = f.getPath().replace('\\', '/');
             if (!f.getName().endsWith(".class")) continue;                // class-only
             if (path.endsWith("/module-info.class")) continue;            // ignore JPMS descriptor
             if (path.contains("/META-INF/")) continue;                    // ignore META-INF (signatures, multi-release)
-            readClass(f, sink);
+            reads.add(new Callable<ClassNode>() {
+                public ClassNode call() throws IOException { return parse(new FileInputStream(f)); }
+            });
         }
+        deliver(reads, sink);
         // <<< AUTOGEN: BYTECODEMAPPER core ClasspathScanner DETERMINISTIC FILTERS END
     }
 
@@ -70,31 +104,40 @@ public final class ClasspathScanner {
         }
     }
 
-    private static void scanJar(File jar, Sink sink) throws IOException {
-        JarFile jf = new JarFile(jar);
+    private void scanJar(File jar, Sink sink) throws IOException {
+        final JarFile jf = new JarFile(jar);
         try {
             List<JarEntry> entries = new ArrayList<JarEntry>();
             for (Enumeration<JarEntry> e = jf.entries(); e.hasMoreElements();) entries.add(e.nextElement());
             Collections.sort(entries, new Comparator<JarEntry>() {
                 public int compare(JarEntry a, JarEntry b) { return a.getName().compareTo(b.getName()); }
             });
-            for (JarEntry je : entries) {
+            List<Callable<ClassNode>> reads = new ArrayList<Callable<ClassNode>>();
+            for (final JarEntry je : entries) {
                 if (je.isDirectory()) continue;
                 String name = je.getName();
                 if (!name.endsWith(".class")) continue;          // class-only
                 if (name.equals("module-info.class")) continue;   // ignore JPMS
                 if (name.startsWith("META-INF/")) continue;       // ignore signatures and multi-release content
-                InputStream in = jf.getInputStream(je);
-                try {
-                    ClassReader cr = new ClassReader(in);
-                    ClassNode cn = new ClassNode();
-                    cr.accept(cn, ClassReader.SKIP_FRAMES);
-                    sink.accept(cn);
-                } finally { in.close(); }
+                // JarFile hands out independent entry streams, so workers can inflate concurrently
+                reads.add(new Callable<ClassNode>() {
+                    public ClassNode call() throws IOException { return parse(jf.getInputStream(je)); }
+                });
             }
+            deliver(reads, sink);
         } finally {
             jf.close();
         }
     }
+
+    /**
+     * Runs {@code reads} and hands results to the sink in list order. In parallel mode at most
+     * {@link #AHEAD_PER_THREAD} entries per worker are parsed ahead of the one being delivered.
+     */
+    private void deliver(List<Callable<ClassNode>> reads, final Sink sink) throws IOException {
+        OrderedPrefetch.run(reads, threads, AHEAD_PER_THREAD, new OrderedPrefetch.Sink<ClassNode>() {
+            public void accept(ClassNode cn) { sink.accept(cn); }
+        });
+    }
 }
 // <<< AUTOGEN: BYTECODEMAPPER core ClasspathScanner END
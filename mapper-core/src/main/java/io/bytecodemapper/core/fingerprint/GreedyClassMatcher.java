@@ -1,6 +1,9 @@
 // >>> AUTOGEN: BYTECODEMAPPER core GreedyClassMatcher BEGIN
 package io.bytecodemapper.core.fingerprint;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
 import java.util.*;
 
 /** Deterministic greedy matcher for classes with threshold and margin. */
@@ -9,38 +12,73 @@ public final class GreedyClassMatcher {
     public static final double TAU_CLASS = 0.55; // acceptance threshold
     public static final double MIN_MARGIN = 0.02;
 
+    /**
+     * Highest score a pair without a shared WL signature can reach: its WL cosine is 0, and every
+     * other term is at most 1. While this stays below TAU_CLASS - MIN_MARGIN, such pairs can neither
+     * be accepted nor shrink the margin of an accepted one, so they need not be scored.
+     */
+    static final double NO_SHARED_SIG_MAX = ClassScoring.W_MICRO + ClassScoring.W_COUNTS + ClassScoring.W_TYPES;
+
     public static List<Pair> match(List<ClassFingerprint> oldC, List<ClassFingerprint> newC) {
-        // Precompute all scores
-        ArrayList<Edge> edges = new ArrayList<Edge>(oldC.size() * Math.max(1, newC.size()));
+        // Block on shared WL signatures (inverted index over the new side), then score the blocked pairs
+        final boolean blocking = NO_SHARED_SIG_MAX < TAU_CLASS - MIN_MARGIN;
+        Long2ObjectOpenHashMap<IntArrayList> postings = new Long2ObjectOpenHashMap<IntArrayList>();
+        if (blocking) {
+            for (int j=0;j<newC.size();j++) {
+                for (long k : newC.get(j).methodSigs().allKeysSorted()) {
+                    IntArrayList p = postings.get(k);
+                    if (p == null) { p = new IntArrayList(); postings.put(k, p); }
+                    p.add(j);
+                }
+            }
+        }
+        ArrayList<Edge> edges = new ArrayList<Edge>();
+        Ranked[] ranked = new Ranked[oldC.size()];
+        int[] seen = new int[newC.size()];
+        java.util.Arrays.fill(seen, -1);
+        IntArrayList cands = new IntArrayList();
         for (int i=0;i<oldC.size();i++) {
             ClassFingerprint A = oldC.get(i);
-            for (int j=0;j<newC.size();j++) {
-                ClassFingerprint B = newC.get(j);
+            cands.clear();
+            if (blocking) {
+                for (long k : A.methodSigs().allKeysSorted()) {
+                    IntArrayList p = postings.get(k);
+                    if (p == null) continue;
+                    for (int x = 0; x < p.size(); x++) {
+                        int j = p.getInt(x);
+                        if (seen[j] != i) { seen[j] = i; cands.add(j); }
+                    }
+                }
+            } else {
+                for (int j=0;j<newC.size();j++) cands.add(j);
+            }
+            Edge[] mine = new Edge[cands.size()];
+            for (int x = 0; x < mine.length; x++) {
+                ClassFingerprint B = newC.get(cands.getInt(x));
                 double s = ClassScoring.score(A, B);
-                edges.add(new Edge(A.internalName(), B.internalName(), s));
+                mine[x] = new Edge(A.internalName(), B.internalName(), cands.getInt(x), s);
+                edges.add(mine[x]);
             }
+            java.util.Arrays.sort(mine, ORDER);
+            ranked[i] = new Ranked(mine);
         }
         // Sort edges by score desc, then name tie-breaker for determinism
-        Collections.sort(edges, new Comparator<Edge>() {
-            public int compare(Edge a, Edge b) {
-                int c = Double.compare(b.score, a.score);
-                if (c != 0) return c;
-                return (a.oldName + "#" + a.newName).compareTo(b.oldName + "#" + b.newName);
-            }
-        });
+        Collections.sort(edges, ORDER);
         // Greedy selection with threshold and "not-yet-matched" sets
         java.util.HashSet<String> usedOld = new java.util.HashSet<String>();
-        java.util.HashSet<String> usedNew = new java.util.HashSet<String>();
+        boolean[] usedNew = new boolean[newC.size()];
+        Map<String, Ranked> byOld = new HashMap<String, Ranked>();
+        for (int i=0;i<oldC.size();i++) byOld.put(oldC.get(i).internalName(), ranked[i]);
         ArrayList<Pair> out = new ArrayList<Pair>();
 
         for (Edge e : edges) {
             if (e.score < TAU_CLASS) break; // remaining are worse due to sorting
-            if (usedOld.contains(e.oldName) || usedNew.contains(e.newName)) continue;
+            if (usedOld.contains(e.oldName) || usedNew[e.newIndex]) continue;
             // optional margin check: compute next-best for oldName vs any unused new
-            double second = secondBestFor(e.oldName, e.newName, edges, usedNew);
+            double second = byOld.get(e.oldName).secondBest(e.newIndex, usedNew);
             if (e.score - second < MIN_MARGIN) continue; // abstain if ambiguous
             usedOld.add(e.oldName);
-            usedNew.add(e.newName);
+            usedNew[e.newIndex] = true;
             out.add(new Pair(e.oldName, e.newName, e.score));
         }
         // Deterministic order by oldName in output
@@ -50,17 +88,32 @@ public final class GreedyClassMatcher {
         return out;
     }
 
-    private static double secondBestFor(String oldName, String chosenNew,
-                                        List<Edge> edges,
-                                        java.util.Set<String> usedNew) {
-        double best = -1.0;
-        for (Edge e : edges) {
-            if (!e.oldName.equals(oldName)) continue;
-            if (e.newName.equals(chosenNew)) continue;
-            if (usedNew.contains(e.newName)) continue;
-            best = Math.max(best, e.score);
+    private static final Comparator<Edge> ORDER = new Comparator<Edge>() {
+        public int compare(Edge a, Edge b) {
+            int c = Double.compare(b.score, a.score);
+            if (c != 0) return c;
+            return a.key.compareTo(b.key);
+        }
+    };
+
+    /**
+     * One old class's scored candidates, best first. New classes only ever become used, so the
+     * cursor skips them for good and a second-best lookup touches few entries past it.
+     */
+    private static final class Ranked {
+        private final Edge[] edges;
+        private int cursor;
+
+        Ranked(Edge[] edges) { this.edges = edges; }
+
+        double secondBest(int chosenNew, boolean[] usedNew) {
+            while (cursor < edges.length && usedNew[edges[cursor].newIndex]) cursor++;
+            for (int k = cursor; k < edges.length; k++) {
+                int j = edges[k].newIndex;
+                if (j != chosenNew && !usedNew[j]) return edges[k].score;
+            }
+            return 0.0;
         }
-        return best < 0 ? 0.0 : best;
     }
 
     public static final class Pair {
@@ -74,8 +127,8 @@ public final class GreedyClassMatcher {
     }
 
     private static final class Edge {
-        final String oldName, newName; final double score;
-        Edge(String o, String n, double s) { oldName=o; newName=n; score=s; }
+        final String oldName, newName, key; final int newIndex; final double score;
+        Edge(String o, String n, int j, double s) { oldName=o; newName=n; key=o + "#" + n; newIndex=j; score=s; }
     }
 
     private GreedyClassMatcher(){}
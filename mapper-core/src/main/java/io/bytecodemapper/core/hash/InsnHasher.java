@@ -0,0 +1,86 @@
+package io.bytecodemapper.core.hash;
+
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.*;
+
+/**
+ * Streaming method-body hash: opcodes and operands go straight into a {@link StableHash128}
+ * (no StringBuilder, UTF-8 encoding or digest). Covers everything the feature extractors can
+ * see in a body: operands, branch/switch targets (as instruction indices), switch keys,
+ * constant types and try/catch ranges, so equal hashes imply equal instruction lists and CFGs.
+ */
+public final class InsnHasher {
+  private static final int LABEL = -2;
+  private static final int TRY_CATCH = -3;
+
+  private InsnHasher() {}
+
+  /** 128-bit body hash into {@code h} (reset first). */
+  public static StableHash128 hash(MethodNode mn, StableHash128 h) {
+    h.reset();
+    if (mn == null || mn.instructions == null) return h;
+    InsnList insns = mn.instructions;
+    for (AbstractInsnNode insn = insns.getFirst(); insn != null; insn = insn.getNext()) {
+      if (insn instanceof LabelNode) { h.putInt(LABEL); continue; }
+      int op = insn.getOpcode();
+      if (op < 0) continue; // line numbers, frames
+      h.putInt(op);
+      if (insn instanceof IntInsnNode) {
+        h.putInt(((IntInsnNode) insn).operand);
+      } else if (insn instanceof VarInsnNode) {
+        h.putInt(((VarInsnNode) insn).var);
+      } else if (insn instanceof TypeInsnNode) {
+        h.putString(((TypeInsnNode) insn).desc);
+      } else if (insn instanceof FieldInsnNode) {
+        FieldInsnNode fi = (FieldInsnNode) insn;
+        h.putString(fi.owner).putString(fi.name).putString(fi.desc);
+      } else if (insn instanceof MethodInsnNode) {
+        MethodInsnNode mi = (MethodInsnNode) insn;
+        h.putString(mi.owner).putString(mi.name).putString(mi.desc);
+      } else if (insn instanceof InvokeDynamicInsnNode) {
+        InvokeDynamicInsnNode indy = (InvokeDynamicInsnNode) insn;
+        h.putString(indy.name).putString(indy.desc);
+      } else if (insn instanceof LdcInsnNode) {
+        putConstant(h, ((LdcInsnNode) insn).cst);
+      } else if (insn instanceof IincInsnNode) {
+        IincInsnNode ii = (IincInsnNode) insn;
+        h.putInt(ii.var).putInt(ii.incr);
+      } else if (insn instanceof JumpInsnNode) {
+        h.putInt(insns.indexOf(((JumpInsnNode) insn).label));
+      } else if (insn instanceof TableSwitchInsnNode) {
+        TableSwitchInsnNode ts = (TableSwitchInsnNode) insn;
+        h.putInt(ts.min).putInt(ts.max).putInt(insns.indexOf(ts.dflt));
+        for (int i = 0; i < ts.labels.size(); i++) h.putInt(insns.indexOf(ts.labels.get(i)));
+      } else if (insn instanceof LookupSwitchInsnNode) {
+        LookupSwitchInsnNode ls = (LookupSwitchInsnNode) insn;
+        int n = ls.keys != null ? ls.keys.size() : 0;
+        h.putInt(n).putInt(insns.indexOf(ls.dflt));
+        for (int i = 0; i < n; i++) h.putInt(ls.keys.get(i).intValue()).putInt(insns.indexOf(ls.labels.get(i)));
+      } else if (insn instanceof MultiANewArrayInsnNode) {
+        MultiANewArrayInsnNode ma = (MultiANewArrayInsnNode) insn;
+        h.putString(ma.desc).putInt(ma.dims);
+      }
+    }
+    if (mn.tryCatchBlocks != null) {
+      for (TryCatchBlockNode tcb : mn.tryCatchBlocks) {
+        h.putInt(TRY_CATCH).putInt(insns.indexOf(tcb.start)).putInt(insns.indexOf(tcb.end))
+         .putInt(insns.indexOf(tcb.handler)).putString(tcb.type);
+      }
+    }
+    return h;
+  }
+
+  private static void putConstant(StableHash128 h, Object c) {
+    if (c instanceof Integer) { h.putInt(1).putInt(((Integer) c).intValue()); }
+    else if (c instanceof Long) { h.putInt(2).putLong(((Long) c).longValue()); }
+    else if (c instanceof Float) { h.putInt(3).putInt(Float.floatToRawIntBits(((Float) c).floatValue())); }
+    else if (c instanceof Double) { h.putInt(4).putLong(Double.doubleToRawLongBits(((Double) c).doubleValue())); }
+    else if (c instanceof String) { h.putInt(5).putString((String) c); }
+    else if (c instanceof Type) { h.putInt(6).putString(((Type) c).getDescriptor()); }
+    else if (c instanceof Handle) {
+      Handle hd = (Handle) c;
+      h.putInt(7).putInt(hd.getTag()).putString(hd.getOwner()).putString(hd.getName()).putString(hd.getDesc());
+    } else { h.putInt(8).putString(String.valueOf(c)); }
+  }
+}
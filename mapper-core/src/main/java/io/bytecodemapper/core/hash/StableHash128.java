@@ -0,0 +1,86 @@
+package io.bytecodemapper.core.hash;
+
+/**
+ * Deterministic streaming 128-bit hash (MurmurHash3 x64_128 mixing, one 64-bit block per
+ * input word) with fixed seeds, for content keys. Values are fed as primitives, so hashing
+ * needs no intermediate strings or byte arrays. Stable across JVMs; no randomness.
+ *
+ * Not thread-safe; reuse an instance per thread via {@link #reset()}.
+ */
+public final class StableHash128 {
+  private static final long C1 = 0x87c37b91114253d5L;
+  private static final long C2 = 0x4cf5ad432745937fL;
+  private static final long SEED1 = 0x9e3779b97f4a7c15L;
+  private static final long SEED2 = 0xc2b2ae3d27d4eb4fL;
+
+  private long h1, h2, words;
+
+  public StableHash128() { reset(); }
+
+  public StableHash128 reset() {
+    h1 = SEED1; h2 = SEED2; words = 0L;
+    return this;
+  }
+
+  public StableHash128 putLong(long k) {
+    long k1 = k * C1; k1 = Long.rotateLeft(k1, 31); k1 *= C2;
+    h1 ^= k1; h1 = Long.rotateLeft(h1, 27); h1 += h2; h1 = h1 * 5 + 0x52dce729;
+    long k2 = k * C2; k2 = Long.rotateLeft(k2, 33); k2 *= C1;
+    h2 ^= k2; h2 = Long.rotateLeft(h2, 31); h2 += h1; h2 = h2 * 5 + 0x38495ab5;
+    words++;
+    return this;
+  }
+
+  public StableHash128 putInt(int v) { return putLong(v & 0xffffffffL); }
+
+  /** Length-prefixed UTF-16 code units, four per block; null and "" hash differently. */
+  public StableHash128 putString(String s) {
+    if (s == null) return putLong(-1L);
+    int n = s.length();
+    putLong(n);
+    int i = 0;
+    for (; i + 4 <= n; i += 4) {
+      putLong(((long) s.charAt(i) << 48) | ((long) s.charAt(i + 1) << 32) | ((long) s.charAt(i + 2) << 16) | s.charAt(i + 3));
+    }
+    if (i < n) {
+      long k = 0L;
+      for (; i < n; i++) k = (k << 16) | s.charAt(i);
+      putLong(k);
+    }
+    return this;
+  }
+
+  /** Low 64 bits of the finalized hash; does not disturb the running state. */
+  public long lo() { return finish(false); }
+
+  /** High 64 bits of the finalized hash; does not disturb the running state. */
+  public long hi() { return finish(true); }
+
+  /** 32 lowercase hex chars (hi then lo). */
+  public String toHex() {
+    return hex16(hi()) + hex16(lo());
+  }
+
+  private long finish(boolean high) {
+    long a = h1 ^ words, b = h2 ^ words;
+    a += b; b += a;
+    a = fmix64(a); b = fmix64(b);
+    a += b; b += a;
+    return high ? b : a;
+  }
+
+  private static long fmix64(long k) {
+    k ^= k >>> 33; k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33; k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+
+  private static String hex16(long v) {
+    String s = Long.toHexString(v);
+    if (s.length() == 16) return s;
+    StringBuilder sb = new StringBuilder(16);
+    for (int i = s.length(); i < 16; i++) sb.append('0');
+    return sb.append(s).toString();
+  }
+}
@@ -0,0 +1,72 @@
+// >>> AUTOGEN: BYTECODEMAPPER core OrderedPrefetch BEGIN
+package io.bytecodemapper.core.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a list of reads and hands each result to a sink on the calling thread, in list order. With
+ * more than one thread, later reads run ahead on a pool, at most {@code aheadPerThread} per worker,
+ * so memory stays bounded whatever the list size.
+ */
+public final class OrderedPrefetch {
+    public interface Sink<T> { void accept(T value) throws IOException; }
+
+    public static <T> void run(List<? extends Callable<T>> reads, int threads, int aheadPerThread, Sink<? super T> sink)
+            throws IOException {
+        if (threads <= 1 || reads.size() <= 1) {
+            for (Callable<T> r : reads) sink.accept(call(r));
+            return;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<T>> futures = new ArrayList<Future<T>>(reads.size());
+            int ahead = threads * Math.max(1, aheadPerThread);
+            for (int i = 0; i < reads.size(); i++) {
+                while (futures.size() < reads.size() && futures.size() - i < ahead) {
+                    futures.add(pool.submit(reads.get(futures.size())));
+                }
+                sink.accept(await(futures.get(i)));
+                futures.set(i, null); // delivered; let the sink own the result
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static <T> T call(Callable<T> r) throws IOException {
+        try {
+            return r.call();
+        } catch (IOException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static <T> T await(Future<T> f) throws IOException {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while reading ahead", e);
+        } catch (ExecutionException e) {
+            Throwable c = e.getCause();
+            if (c instanceof IOException) throw (IOException) c;
+            if (c instanceof RuntimeException) throw (RuntimeException) c;
+            if (c instanceof Error) throw (Error) c;
+            throw new IOException(c);
+        }
+    }
+
+    private OrderedPrefetch() {}
+}
+// <<< AUTOGEN: BYTECODEMAPPER core OrderedPrefetch END
@@ -0,0 +1,55 @@
+package io.bytecodemapper.core;
+
+import io.bytecodemapper.core.hash.InsnHasher;
+import io.bytecodemapper.core.hash.StableHash128;
+import org.junit.Assert;
+import org.junit.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.*;
+
+public class InsnHasherTest {
+  private static MethodNode body(boolean jumpToEnd, Object ldc) {
+    MethodNode mn = new MethodNode(Opcodes.ACC_STATIC, "m", "(I)Ljava/lang/Object;", null, null);
+    LabelNode mid = new LabelNode();
+    LabelNode end = new LabelNode();
+    mn.instructions.add(new VarInsnNode(Opcodes.ILOAD, 0));
+    mn.instructions.add(new JumpInsnNode(Opcodes.IFEQ, jumpToEnd ? end : mid));
+    mn.instructions.add(mid);
+    mn.instructions.add(new LdcInsnNode(ldc));
+    mn.instructions.add(new InsnNode(Opcodes.ARETURN));
+    mn.instructions.add(end);
+    mn.instructions.add(new MethodInsnNode(Opcodes.INVOKESTATIC, "a/B", "c", "()Ljava/lang/Object;", false));
+    mn.instructions.add(new InsnNode(Opcodes.ARETURN));
+    return mn;
+  }
+
+  @Test public void sameBody_sameHash_acrossInstances() {
+    String a = InsnHasher.hash(body(true, "x"), new StableHash128()).toHex();
+    String b = InsnHasher.hash(body(true, "x"), new StableHash128()).toHex();
+    Assert.assertEquals(32, a.length());
+    Assert.assertEquals(a, b);
+  }
+
+  @Test public void branchTargetAndConstantType_changeHash() {
+    String base = InsnHasher.hash(body(true, "1"), new StableHash128()).toHex();
+    Assert.assertNotEquals(base, InsnHasher.hash(body(false, "1"), new StableHash128()).toHex());
+    Assert.assertNotEquals(base, InsnHasher.hash(body(true, Integer.valueOf(1)), new StableHash128()).toHex());
+  }
+
+  @Test public void stringFraming_isUnambiguous() {
+    StableHash128 h = new StableHash128();
+    long ab = h.reset().putString("ab").putString("c").lo();
+    long a_bc = h.reset().putString("a").putString("bc").lo();
+    long nul = h.reset().putString(null).lo();
+    long empty = h.reset().putString("").lo();
+    Assert.assertNotEquals(ab, a_bc);
+    Assert.assertNotEquals(nul, empty);
+  }
+
+  @Test public void reset_restoresSeedState() {
+    StableHash128 h = new StableHash128();
+    String first = h.putInt(7).putLong(42L).toHex();
+    Assert.assertEquals(first, h.reset().putInt(7).putLong(42L).toHex());
+    Assert.assertNotEquals(first, h.reset().putLong(42L).putInt(7).toHex());
+  }
+}
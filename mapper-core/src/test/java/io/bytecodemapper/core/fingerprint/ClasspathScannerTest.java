@@ -0,0 +1,108 @@
+// >>> AUTOGEN: BYTECODEMAPPER TEST ClasspathScanner BEGIN
+package io.bytecodemapper.core.fingerprint;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.LineNumberNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import static org.junit.Assert.*;
+
+public class ClasspathScannerTest {
+    @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test public void parallelScanDeliversSortedEntriesLikeSerial() throws Exception {
+        List<String> names = new ArrayList<String>();
+        for (int i = 0; i < 40; i++) names.add("p/C" + i);
+        List<String> shuffled = new ArrayList<String>(names);
+        Collections.shuffle(shuffled, new java.util.Random(3));
+        File jar = jar(shuffled);
+
+        List<String> serial = scan(new ClasspathScanner(), jar);
+        List<String> parallel = scan(new ClasspathScanner().threads(4), jar);
+        Collections.sort(names);
+        assertEquals(names, serial);
+        assertEquals(serial, parallel);
+    }
+
+    @Test public void skipDebugDropsLineNumbers() throws Exception {
+        File jar = jar(Arrays.asList("a/A"));
+        assertTrue(hasLineNumbers(first(new ClasspathScanner(), jar)));
+        assertFalse(hasLineNumbers(first(new ClasspathScanner().skipDebug(true).threads(2), jar)));
+    }
+
+    private static List<String> scan(ClasspathScanner s, File jar) throws Exception {
+        final List<String> out = new ArrayList<String>();
+        s.scan(jar, new ClasspathScanner.Sink() {
+            public void accept(ClassNode cn) { out.add(cn.name); }
+        });
+        return out;
+    }
+
+    private static ClassNode first(ClasspathScanner s, File jar) throws Exception {
+        final List<ClassNode> out = new ArrayList<ClassNode>();
+        s.scan(jar, new ClasspathScanner.Sink() {
+            public void accept(ClassNode cn) { out.add(cn); }
+        });
+        return out.get(0);
+    }
+
+    private static boolean hasLineNumbers(ClassNode cn) {
+        for (MethodNode mn : cn.methods) {
+            for (AbstractInsnNode n = mn.instructions.getFirst(); n != null; n = n.getNext()) {
+                if (n instanceof LineNumberNode) return true;
+            }
+        }
+        return false;
+    }
+
+    private File jar(List<String> classNames) throws Exception {
+        File f = tmp.newFile("classes.jar");
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(f));
+        try {
+            out.putNextEntry(new ZipEntry("META-INF/ignored.class"));
+            out.write(classBytes("META-INF/ignored"));
+            out.closeEntry();
+            for (String name : classNames) {
+                out.putNextEntry(new ZipEntry(name + ".class"));
+                out.write(classBytes(name));
+                out.closeEntry();
+            }
+        } finally {
+            out.close();
+        }
+        return f;
+    }
+
+    private static byte[] classBytes(String name) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null);
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "m", "()V", null, null);
+        mv.visitCode();
+        Label l = new Label();
+        mv.visitLabel(l);
+        mv.visitLineNumber(7, l);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER TEST ClasspathScanner END
@@ -0,0 +1,112 @@
+// >>> AUTOGEN: BYTECODEMAPPER TEST GreedyClassMatcher BEGIN
+package io.bytecodemapper.core.fingerprint;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class GreedyClassMatcherTest {
+
+    @Test public void blockedMatchingAgreesWithAllPairsReference() {
+        Random r = new Random(11);
+        int accepted = 0;
+        for (int round = 0; round < 20; round++) {
+            List<ClassFingerprint> olds = new ArrayList<ClassFingerprint>();
+            List<ClassFingerprint> news = new ArrayList<ClassFingerprint>();
+            for (int i = 0; i < 30; i++) {
+                ClassFingerprint o = random("o/C" + i, r);
+                olds.add(o);
+                // Most new classes are perturbed copies, some are unrelated
+                news.add(r.nextInt(4) == 0 ? random("n/C" + i, r) : perturb("n/C" + i, o, r));
+            }
+            Collections.shuffle(news, r);
+            List<GreedyClassMatcher.Pair> got = GreedyClassMatcher.match(olds, news);
+            assertEquals(reference(olds, news), render(got));
+            accepted += got.size();
+        }
+        assertTrue("fixture accepted nothing", accepted > 0);
+    }
+
+    @Test public void ambiguousCandidatesAbstain() {
+        ClassFingerprint a = fp("a/A", 1L, 2L, 3L);
+        List<GreedyClassMatcher.Pair> out = GreedyClassMatcher.match(
+                Arrays.asList(a), Arrays.asList(fp("b/X", 1L, 2L, 3L), fp("b/Y", 1L, 2L, 3L)));
+        assertTrue(out.isEmpty());
+        out = GreedyClassMatcher.match(Arrays.asList(a), Arrays.asList(fp("b/X", 1L, 2L, 3L), fp("b/Z", 9L)));
+        assertEquals(1, out.size());
+        assertEquals("b/X", out.get(0).newName);
+    }
+
+    // The matcher as it was before blocking: score every pair, rescan all edges for the runner-up
+    private static List<String> reference(List<ClassFingerprint> oldC, List<ClassFingerprint> newC) {
+        List<double[]> edges = new ArrayList<double[]>();
+        for (int i = 0; i < oldC.size(); i++)
+            for (int j = 0; j < newC.size(); j++)
+                edges.add(new double[]{ClassScoring.score(oldC.get(i), newC.get(j)), i, j});
+        final List<ClassFingerprint> o = oldC, n = newC;
+        Collections.sort(edges, new Comparator<double[]>() {
+            public int compare(double[] a, double[] b) {
+                int c = Double.compare(b[0], a[0]);
+                if (c != 0) return c;
+                return key(o, n, a).compareTo(key(o, n, b));
+            }
+        });
+        Set<Integer> usedOld = new HashSet<Integer>(), usedNew = new HashSet<Integer>();
+        TreeMap<String, String> out = new TreeMap<String, String>();
+        for (double[] e : edges) {
+            if (e[0] < GreedyClassMatcher.TAU_CLASS) break;
+            int i = (int) e[1], j = (int) e[2];
+            if (usedOld.contains(i) || usedNew.contains(j)) continue;
+            double second = 0.0;
+            for (double[] f : edges) {
+                if ((int) f[1] == i && (int) f[2] != j && !usedNew.contains((int) f[2])) second = Math.max(second, f[0]);
+            }
+            if (e[0] - second < GreedyClassMatcher.MIN_MARGIN) continue;
+            usedOld.add(i); usedNew.add(j);
+            out.put(oldC.get(i).internalName(), newC.get(j).internalName());
+        }
+        List<String> lines = new ArrayList<String>();
+        for (Map.Entry<String, String> m : out.entrySet()) lines.add(m.getKey() + " -> " + m.getValue());
+        return lines;
+    }
+
+    private static String key(List<ClassFingerprint> o, List<ClassFingerprint> n, double[] e) {
+        return o.get((int) e[1]).internalName() + "#" + n.get((int) e[2]).internalName();
+    }
+
+    private static List<String> render(List<GreedyClassMatcher.Pair> pairs) {
+        List<String> lines = new ArrayList<String>();
+        for (GreedyClassMatcher.Pair p : pairs) lines.add(p.oldName + " -> " + p.newName);
+        return lines;
+    }
+
+    private static ClassFingerprint random(String name, Random r) {
+        MethodSigBag bag = new MethodSigBag();
+        int n = 1 + r.nextInt(6);
+        for (int i = 0; i < n; i++) bag.add(r.nextInt(60));
+        return new ClassFingerprint(name, micro(r), bag, n, r.nextInt(5), r.nextBoolean() ? "s/Base" : null, new String[0]);
+    }
+
+    private static ClassFingerprint perturb(String name, ClassFingerprint src, Random r) {
+        MethodSigBag bag = new MethodSigBag();
+        for (long k : src.methodSigs().allKeysSorted()) {
+            for (int c = src.methodSigs().get(k); c > 0; c--) bag.add(r.nextInt(5) == 0 ? r.nextInt(60) : k);
+        }
+        return new ClassFingerprint(name, micro(r), bag, src.methodCount(), src.fieldCount(), src.superName(), src.interfaces());
+    }
+
+    private static int[] micro(Random r) {
+        int[] h = new int[ClassFingerprint.MICRO_BITS];
+        for (int i = 0; i < h.length; i++) h[i] = r.nextInt(3);
+        return h;
+    }
+
+    private static ClassFingerprint fp(String name, long... sigs) {
+        MethodSigBag bag = new MethodSigBag();
+        for (long s : sigs) bag.add(s);
+        return new ClassFingerprint(name, new int[ClassFingerprint.MICRO_BITS], bag, sigs.length, 0, null, new String[0]);
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER TEST GreedyClassMatcher END
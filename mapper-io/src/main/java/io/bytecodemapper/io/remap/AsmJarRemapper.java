@@ -1,6 +1,7 @@
 // >>> AUTOGEN: BYTECODEMAPPER io AsmJarRemapper ORDER+MANIFEST BEGIN
 package io.bytecodemapper.io.remap;
 
+import io.bytecodemapper.core.util.OrderedPrefetch;
 import io.bytecodemapper.io.tiny.TinyV2Mappings;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassWriter;
@@ -12,25 +13,37 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
-import java.util.jar.JarInputStream;
+import java.util.concurrent.Callable;
 import java.util.jar.JarOutputStream;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 
 public final class AsmJarRemapper {
 
+    /** Number of entries per worker that may be read and remapped ahead of the one being written. */
+    private static final int AHEAD_PER_THREAD = 4;
+
     public static void remapJar(Path inJar, Path outJar, TinyV2Mappings t) throws IOException {
-        Files.createDirectories(outJar.getParent());
+        remapJar(inJar, outJar, t, 1);
+    }
 
-        // Read all entries; keep natural String order. We'll write MANIFEST first if present.
-        Map<String, byte[]> entries = new TreeMap<String, byte[]>(); // natural (case-sensitive) ordering
-        try (JarInputStream jin = new JarInputStream(Files.newInputStream(inJar))) {
-            for (ZipEntry e; (e = jin.getNextJarEntry()) != null; ) {
-                if (e.isDirectory()) continue;
-                entries.put(e.getName(), readAllBytes(jin));
-            }
-        }
+    /**
+     * Remaps {@code inJar} into {@code outJar} in a single write pass. Output names are planned up
+     * front from the name each class declares and the class map, so entries that would collide fail
+     * before anything is written. Entries are then read in that sorted order (MANIFEST first) and
+     * written once with zeroed timestamps. With {@code threads > 1} planning and remapping run on a
+     * worker pool; at most {@link #AHEAD_PER_THREAD} entries per worker are held in memory, whatever
+     * the jar size.
+     */
+    public static void remapJar(Path inJar, Path outJar, TinyV2Mappings t, int threads) throws IOException {
+        Files.createDirectories(outJar.getParent());
 
         // Reverse class map for owner fallback (deobf -> obf)
         final Map<String, String> classMapRev = new TreeMap<String, String>();
@@ -40,50 +53,92 @@ public final class AsmJarRemapper {
 
         final Remapper remapper = new MapBackedRemapper(t, classMapRev);
 
-        try (JarOutputStream jout = new JarOutputStream(Files.newOutputStream(outJar))) {
-            // 1) Write MANIFEST first if present
-            byte[] manifestBytes = entries.remove("META-INF/MANIFEST.MF");
-            if (manifestBytes != null) {
-                ZipEntry ze = new ZipEntry("META-INF/MANIFEST.MF");
-                ze.setTime(0L); // deterministic timestamp
-                jout.putNextEntry(ze);
-                jout.write(manifestBytes);
-                jout.closeEntry();
+        try (final ZipFile zip = new ZipFile(inJar.toFile())) {
+            // Plan: output name -> input entry, natural (case-sensitive) ordering. Only names are held here.
+            // Classes are planned under their remapped internal name, which is what the entry is written
+            // as even when the input path does not match the class it holds.
+            final TreeMap<String, ZipEntry> plan = new TreeMap<String, ZipEntry>();
+            final List<ZipEntry> classes = new ArrayList<ZipEntry>();
+            for (Enumeration<? extends ZipEntry> en = zip.entries(); en.hasMoreElements(); ) {
+                ZipEntry e = en.nextElement();
+                if (e.isDirectory()) continue;
+                if (e.getName().endsWith(".class")) classes.add(e);
+                else plan(plan, e.getName(), e);
+            }
+            List<Callable<Map.Entry<String, ZipEntry>>> names = new ArrayList<Callable<Map.Entry<String, ZipEntry>>>(classes.size());
+            for (ZipEntry e : classes) names.add(className(zip, e));
+            OrderedPrefetch.run(names, threads, AHEAD_PER_THREAD, new OrderedPrefetch.Sink<Map.Entry<String, ZipEntry>>() {
+                public void accept(Map.Entry<String, ZipEntry> c) throws IOException {
+                    plan(plan, remapper.map(c.getKey()) + ".class", c.getValue());
+                }
+            });
+
+            List<Callable<Entry>> reads = new ArrayList<Callable<Entry>>(plan.size());
+            ZipEntry manifest = plan.remove(MANIFEST);
+            if (manifest != null) reads.add(read(zip, manifest, MANIFEST, null));
+            for (Map.Entry<String, ZipEntry> pe : plan.entrySet()) {
+                boolean isClass = pe.getValue().getName().endsWith(".class");
+                reads.add(read(zip, pe.getValue(), pe.getKey(), isClass ? remapper : null));
+            }
+
+            try (final JarOutputStream jout = new JarOutputStream(Files.newOutputStream(outJar))) {
+                OrderedPrefetch.run(reads, threads, AHEAD_PER_THREAD, new OrderedPrefetch.Sink<Entry>() {
+                    public void accept(Entry e) throws IOException { put(jout, e); }
+                });
+                jout.finish();
+            }
+        }
+    }
+
+    private static void plan(Map<String, ZipEntry> plan, String name, ZipEntry e) throws ZipException {
+        ZipEntry prev = plan.put(name, e);
+        if (prev != null) throw new ZipException("duplicate entry: " + name + " (from " + prev.getName() + " and " + e.getName() + ")");
+    }
+
+    private static final String MANIFEST = "META-INF/MANIFEST.MF";
+
+    /** One output entry, read and (for classes) remapped off the writing thread. */
+    private static final class Entry {
+        final String name; final byte[] data;
+        Entry(String name, byte[] data) { this.name = name; this.data = data; }
+    }
+
+    /** Pairs {@code e} with the internal name of the class it holds, whatever the entry path says. */
+    private static Callable<Map.Entry<String, ZipEntry>> className(final ZipFile zip, final ZipEntry e) {
+        return new Callable<Map.Entry<String, ZipEntry>>() {
+            public Map.Entry<String, ZipEntry> call() throws IOException {
+                try (InputStream in = zip.getInputStream(e)) {
+                    return new AbstractMap.SimpleImmutableEntry<String, ZipEntry>(new ClassReader(in).getClassName(), e);
+                }
             }
+        };
+    }
 
-            // 2) Then write everything else in deterministic order
-            for (Map.Entry<String, byte[]> en : entries.entrySet()) {
-                String name = en.getKey();
-                byte[] data = en.getValue();
-
-                if (!name.endsWith(".class")) {
-                    ZipEntry ze = new ZipEntry(name);
-                    ze.setTime(0L); // deterministic timestamp
-                    jout.putNextEntry(ze);
-                    jout.write(data);
-                    jout.closeEntry();
-                    continue;
+    private static Callable<Entry> read(final ZipFile zip, final ZipEntry e, final String name, final Remapper remapper) {
+        return new Callable<Entry>() {
+            public Entry call() throws IOException {
+                byte[] data;
+                try (InputStream in = zip.getInputStream(e)) {
+                    data = readAllBytes(in);
                 }
+                if (remapper == null) return new Entry(name, data);
 
                 ClassReader cr = new ClassReader(data);
                 ClassWriter cw = new ClassWriter(0);
                 ClassRemapper rv = new ClassRemapper(cw, remapper);
                 cr.accept(rv, 0);
-                byte[] outBytes = cw.toByteArray();
-
-                // Rename entry to remapped internal name
-                ClassReader crOut = new ClassReader(outBytes);
-                String newInternalName = crOut.getClassName();
-                String newEntryName = newInternalName + ".class";
-
-                ZipEntry ze = new ZipEntry(newEntryName);
-                ze.setTime(0L); // deterministic timestamp
-                jout.putNextEntry(ze);
-                jout.write(outBytes);
-                jout.closeEntry();
+                // Planned under the remapped internal name, so the entry is named after the class it holds
+                return new Entry(name, cw.toByteArray());
             }
-            jout.finish();
-        }
+        };
+    }
+
+    private static void put(JarOutputStream jout, Entry e) throws IOException {
+        ZipEntry ze = new ZipEntry(e.name);
+        ze.setTime(0L); // deterministic timestamp
+        jout.putNextEntry(ze);
+        jout.write(e.data);
+        jout.closeEntry();
     }
 
     /** Remapper using tiny v2 maps (obf -> deobf), with reverse-owner fallback for fields/methods. */
@@ -32,11 +32,18 @@ public final class RemapService {
     public static VerifyStats applyMappings(File inJar, File mappingFile, File outJar,
                                             MappingFormat fmt, RemapperKind kind,
                                             boolean verify, boolean deterministic) throws IOException {
+        return applyMappings(inJar, mappingFile, outJar, fmt, kind, verify, deterministic, 1);
+    }
+
+    /** As above; {@code threads} workers remap classes on the ASM path (TinyRemapper manages its own). */
+    public static VerifyStats applyMappings(File inJar, File mappingFile, File outJar,
+                                            MappingFormat fmt, RemapperKind kind,
+                                            boolean verify, boolean deterministic, int threads) throws IOException {
         if (inJar == null || mappingFile == null || outJar == null) throw new NullPointerException();
         if (kind == RemapperKind.TINY) {
             return applyTinyRemapper(inJar.toPath(), mappingFile.toPath(), outJar.toPath(), fmt, verify, deterministic);
         } else {
-            return applyAsmFallback(inJar.toPath(), mappingFile.toPath(), outJar.toPath(), fmt, verify, deterministic);
+            return applyAsmFallback(inJar.toPath(), mappingFile.toPath(), outJar.toPath(), fmt, verify, threads);
         }
     }
 
@@ -98,15 +105,15 @@ public final class RemapService {
 
     // ---- ASM fallback path ----
     private static VerifyStats applyAsmFallback(Path inJar, Path mappings, Path outJar,
-                                                MappingFormat fmt, boolean verify, boolean deterministic) throws IOException {
+                                                MappingFormat fmt, boolean verify, int threads) throws IOException {
         if (fmt == MappingFormat.ENIGMA) {
             throw new IOException("ENIGMA format not supported in this build; use --format=tiny2");
         }
         TinyV2Mappings t = TinyV2Mappings.read(mappings);
 
         Files.createDirectories(outJar.getParent());
-        AsmJarRemapper.remapJar(inJar, outJar, t);
-        if (deterministic) repackSorted(outJar);
+        // Writes sorted entries with zeroed timestamps in one pass, so no repack is needed
+        AsmJarRemapper.remapJar(inJar, outJar, t, threads);
         if (verify) System.out.println("[applyMappings] ASM verify: " + countStatsFromTiny(t));
         return countStatsFromTiny(t);
     }
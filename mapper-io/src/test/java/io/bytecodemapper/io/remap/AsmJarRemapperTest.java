@@ -0,0 +1,154 @@
+// >>> AUTOGEN: BYTECODEMAPPER TEST AsmJarRemapper BEGIN
+package io.bytecodemapper.io.remap;
+
+import io.bytecodemapper.io.tiny.TinyV2Mappings;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.Assert.*;
+
+public class AsmJarRemapperTest {
+    @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test public void singlePassWritesSortedRemappedJarIndependentOfThreads() throws Exception {
+        File in = tmp.newFile("in.jar");
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(in));
+        try {
+            put(out, "res/z.txt", "z".getBytes("UTF-8"));
+            for (int i = 0; i < 30; i++) put(out, "c" + i + ".class", classBytes("c" + i, i == 0 ? "java/lang/Object" : "c0"));
+            put(out, "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\r\n\r\n".getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        File tiny = tmp.newFile("map.tiny");
+        Files.write(tiny.toPath(), "tiny\t2\t0\tobf\tdeobf\nc\tc0\ta/Base\nc\tc7\tx/Seven\n".getBytes("UTF-8"));
+        TinyV2Mappings t = TinyV2Mappings.read(tiny.toPath());
+
+        File serial = tmp.getRoot().toPath().resolve("serial/out.jar").toFile();
+        File parallel = tmp.getRoot().toPath().resolve("parallel/out.jar").toFile();
+        AsmJarRemapper.remapJar(in.toPath(), serial.toPath(), t, 1);
+        AsmJarRemapper.remapJar(in.toPath(), parallel.toPath(), t, 4);
+        assertArrayEquals(Files.readAllBytes(serial.toPath()), Files.readAllBytes(parallel.toPath()));
+
+        ZipFile z = new ZipFile(serial);
+        try {
+            List<String> names = new ArrayList<String>();
+            java.util.Set<Long> times = new java.util.HashSet<Long>();
+            for (Enumeration<? extends ZipEntry> en = z.entries(); en.hasMoreElements(); ) {
+                ZipEntry e = en.nextElement();
+                names.add(e.getName());
+                times.add(e.getTime());
+            }
+            assertEquals("timestamps are not all zeroed", 1, times.size());
+            assertEquals("META-INF/MANIFEST.MF", names.get(0));
+            List<String> rest = new ArrayList<String>(names.subList(1, names.size()));
+            List<String> sorted = new ArrayList<String>(rest);
+            java.util.Collections.sort(sorted);
+            assertEquals(sorted, rest);
+            assertTrue(names.containsAll(Arrays.asList("a/Base.class", "x/Seven.class", "res/z.txt")));
+            assertFalse(names.contains("c0.class"));
+            byte[] seven = readAll(z, "x/Seven.class");
+            assertEquals("a/Base", new ClassReader(seven).getSuperName());
+        } finally {
+            z.close();
+        }
+    }
+
+    @Test public void entryPathThatDisagreesWithClassIsPlannedUnderClassName() throws Exception {
+        File in = tmp.newFile("moved.jar");
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(in));
+        try {
+            put(out, "a/First.class", classBytes("c0", "java/lang/Object"));
+            put(out, "m/Middle.class", classBytes("m/Middle", "java/lang/Object"));
+            put(out, "z/Last.class", classBytes("c7", "c0"));
+        } finally {
+            out.close();
+        }
+        File tiny = tmp.newFile("moved.tiny");
+        Files.write(tiny.toPath(), "tiny\t2\t0\tobf\tdeobf\nc\tc0\tz/Base\nc\tc7\ta/Seven\n".getBytes("UTF-8"));
+        TinyV2Mappings t = TinyV2Mappings.read(tiny.toPath());
+
+        File outJar = tmp.getRoot().toPath().resolve("moved/out.jar").toFile();
+        AsmJarRemapper.remapJar(in.toPath(), outJar.toPath(), t, 2);
+        ZipFile z = new ZipFile(outJar);
+        try {
+            List<String> names = new ArrayList<String>();
+            for (Enumeration<? extends ZipEntry> en = z.entries(); en.hasMoreElements(); ) names.add(en.nextElement().getName());
+            assertEquals(Arrays.asList("a/Seven.class", "m/Middle.class", "z/Base.class"), names);
+        } finally {
+            z.close();
+        }
+    }
+
+    @Test public void entriesHoldingTheSameClassFailBeforeWriting() throws Exception {
+        File in = tmp.newFile("dup.jar");
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(in));
+        try {
+            put(out, "c0.class", classBytes("c0", "java/lang/Object"));
+            put(out, "copy/c0.class", classBytes("c0", "java/lang/Object"));
+        } finally {
+            out.close();
+        }
+        File tiny = tmp.newFile("dup.tiny");
+        Files.write(tiny.toPath(), "tiny\t2\t0\tobf\tdeobf\nc\tc0\ta/Base\n".getBytes("UTF-8"));
+        TinyV2Mappings t = TinyV2Mappings.read(tiny.toPath());
+
+        File outJar = tmp.getRoot().toPath().resolve("dup/out.jar").toFile();
+        try {
+            AsmJarRemapper.remapJar(in.toPath(), outJar.toPath(), t, 1);
+            fail("expected duplicate entry");
+        } catch (java.util.zip.ZipException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("a/Base.class"));
+        }
+        assertFalse(outJar.exists());
+    }
+
+    private static byte[] readAll(ZipFile z, String name) throws Exception {
+        java.io.InputStream in = z.getInputStream(z.getEntry(name));
+        try {
+            java.io.ByteArrayOutputStream bos = new java.io.ByteArrayOutputStream();
+            byte[] buf = new byte[4096];
+            for (int r; (r = in.read(buf)) != -1; ) bos.write(buf, 0, r);
+            return bos.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void put(JarOutputStream out, String name, byte[] data) throws Exception {
+        out.putNextEntry(new ZipEntry(name));
+        out.write(data);
+        out.closeEntry();
+    }
+
+    private static byte[] classBytes(String name, String superName) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, name, null, superName, null);
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, superName, "<init>", "()V", false);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER TEST AsmJarRemapper END
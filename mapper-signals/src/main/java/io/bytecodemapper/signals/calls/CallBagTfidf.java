@@ -14,9 +14,7 @@ public final class CallBagTfidf {
     }
 
     public static double cosineSimilarity(TfIdfModel model, List<String> a, List<String> b) {
-        double[] va = model.vectorize(a);
-        double[] vb = model.vectorize(b);
-        return Cosine.cosine(va, vb);
+        return Cosine.cosine(model.vectorizeSparse(a), model.vectorizeSparse(b));
     }
 }
 // <<< AUTOGEN: BYTECODEMAPPER CallBagTfidf END
@@ -17,5 +17,10 @@ public final class Cosine {
         if (na2 == 0.0 || nb2 == 0.0) return 0.0;
         return dot / (Math.sqrt(na2) * Math.sqrt(nb2));
     }
+
+    /** Sparse form; equal to the dense one over the same id space (same summation order). */
+    public static double cosine(SparseVector a, SparseVector b) {
+        return SparseVector.cosine(a, b);
+    }
 }
 // <<< AUTOGEN: BYTECODEMAPPER Cosine END
@@ -0,0 +1,118 @@
+// >>> AUTOGEN: BYTECODEMAPPER SparseVector BEGIN
+package io.bytecodemapper.signals.common;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Immutable sparse vector over integer term ids (Java 8):
+ * - ids strictly ascending, one weight per id (zero weights allowed).
+ * - Sum of squares is computed once; {@link #norm()} is its square root.
+ * - Dot products are a merge-join over ids, so they sum in ascending id order, exactly
+ *   like a dense loop over the same id space.
+ * Shared by the signal scorers (TF-IDF bags, opcode histograms and n-grams) in place of dense
+ * vocabulary-sized arrays; build once per document and reuse when comparing many pairs.
+ */
+public final class SparseVector {
+    public static final SparseVector EMPTY = new SparseVector(new int[0], new double[0]);
+
+    private final int[] ids;
+    private final double[] weights;
+    private final double sumSquares;
+
+    /** Wraps the arrays without copying; ids must be strictly ascending and weights the same length. */
+    public SparseVector(int[] ids, double[] weights) {
+        if (ids.length != weights.length) throw new IllegalArgumentException("ids/weights length mismatch");
+        this.ids = ids;
+        this.weights = weights;
+        double s = 0.0;
+        for (int i = 0; i < weights.length; i++) s += weights[i] * weights[i];
+        this.sumSquares = s;
+    }
+
+    /** Non-zero entries of a dense count histogram (index = id). */
+    public static SparseVector ofCounts(int[] dense) {
+        if (dense == null) return EMPTY;
+        int n = 0;
+        for (int i = 0; i < dense.length; i++) if (dense[i] != 0) n++;
+        if (n == 0) return EMPTY;
+        int[] ids = new int[n];
+        double[] w = new double[n];
+        int k = 0;
+        for (int i = 0; i < dense.length; i++) {
+            if (dense[i] != 0) { ids[k] = i; w[k++] = dense[i]; }
+        }
+        return new SparseVector(ids, w);
+    }
+
+    /** Non-zero entries of a sparse count histogram (boxed keys, any iteration order). */
+    public static SparseVector ofCounts(Map<Integer,Integer> counts) {
+        if (counts == null || counts.isEmpty()) return EMPTY;
+        int[] ids = new int[counts.size()];
+        int n = 0;
+        for (Map.Entry<Integer,Integer> e : counts.entrySet()) {
+            if (e.getValue() != null && e.getValue().intValue() != 0) ids[n++] = e.getKey().intValue();
+        }
+        ids = Arrays.copyOf(ids, n);
+        Arrays.sort(ids);
+        double[] w = new double[n];
+        for (int i = 0; i < n; i++) w[i] = counts.get(Integer.valueOf(ids[i])).intValue();
+        return new SparseVector(ids, w);
+    }
+
+    /** Non-zero entries of a primitive count map (e.g. opcode n-grams), sorted by key. */
+    public static SparseVector ofCounts(Int2IntMap counts) {
+        if (counts == null || counts.isEmpty()) return EMPTY;
+        int[] ids = new int[counts.size()];
+        int n = 0;
+        for (Int2IntMap.Entry e : counts.int2IntEntrySet()) {
+            if (e.getIntValue() != 0) ids[n++] = e.getIntKey();
+        }
+        ids = Arrays.copyOf(ids, n);
+        Arrays.sort(ids);
+        double[] w = new double[n];
+        for (int i = 0; i < n; i++) w[i] = counts.get(ids[i]);
+        return new SparseVector(ids, w);
+    }
+
+    public int size() { return ids.length; }
+    public int id(int i) { return ids[i]; }
+    public double weight(int i) { return weights[i]; }
+    public int[] ids() { return Arrays.copyOf(ids, ids.length); }
+    public double sumSquares() { return sumSquares; }
+    public double norm() { return Math.sqrt(sumSquares); }
+
+    /** Dot product over the shared ids. */
+    public double dot(SparseVector o) {
+        int[] ai = ids, bi = o.ids;
+        double[] aw = weights, bw = o.weights;
+        int i = 0, j = 0;
+        double dot = 0.0;
+        while (i < ai.length && j < bi.length) {
+            int x = ai[i], y = bi[j];
+            if (x == y) { dot += aw[i++] * bw[j++]; }
+            else if (x < y) i++;
+            else j++;
+        }
+        return dot;
+    }
+
+    /** Copy scaled to unit length; zero vectors are returned unchanged. */
+    public SparseVector normalized() {
+        if (sumSquares == 0.0) return this;
+        double n = norm();
+        double[] w = new double[weights.length];
+        for (int i = 0; i < w.length; i++) w[i] = weights[i] / n;
+        return new SparseVector(ids, w);
+    }
+
+    /** Cosine similarity; 0 when either vector has zero norm (same contract as {@link Cosine}). */
+    public static double cosine(SparseVector a, SparseVector b) {
+        if (a == null || b == null) return 0.0;
+        if (a.sumSquares == 0.0 || b.sumSquares == 0.0) return 0.0;
+        return a.dot(b) / (Math.sqrt(a.sumSquares) * Math.sqrt(b.sumSquares));
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER SparseVector END
@@ -12,6 +12,57 @@ public final class CallGraphBuilder {
     public final SortedMap<String, SortedSet<String>> out = new TreeMap<String, SortedSet<String>>();
   }
 
+  /**
+   * Compressed sparse row form of a {@link Graph} over interned node ids. Ids follow the sorted
+   * order of the node names, so ascending ids iterate exactly like the sorted string sets.
+   */
+  public static final class Csr {
+    public final String[] names;  // id -> node name (ascending)
+    public final int[] offsets;   // out-neighbours of id i: targets[offsets[i] .. offsets[i+1])
+    public final int[] targets;   // ascending within each node
+
+    Csr(String[] names, int[] offsets, int[] targets) {
+      this.names = names;
+      this.offsets = offsets;
+      this.targets = targets;
+    }
+
+    public int size() { return names.length; }
+
+    /** Interned id of a node name, or -1 if absent. */
+    public int id(String name) {
+      int i = Arrays.binarySearch(names, name);
+      return i >= 0 ? i : -1;
+    }
+
+    public int degree(int id) { return offsets[id + 1] - offsets[id]; }
+  }
+
+  /** CSR adjacency of g; extraNodes (e.g. score rows/columns without edges) get ids as isolated nodes. */
+  public static Csr toCsr(Graph g, Collection<String> extraNodes) {
+    SortedSet<String> all = new TreeSet<String>(g.out.keySet());
+    for (SortedSet<String> outs : g.out.values()) all.addAll(outs);
+    if (extraNodes != null) all.addAll(extraNodes);
+    String[] names = all.toArray(new String[0]);
+    Map<String,Integer> ids = new HashMap<String,Integer>(names.length * 2);
+    for (int i = 0; i < names.length; i++) ids.put(names[i], Integer.valueOf(i));
+    int[] offsets = new int[names.length + 1];
+    int edges = 0;
+    for (int i = 0; i < names.length; i++) {
+      SortedSet<String> outs = g.out.get(names[i]);
+      offsets[i] = edges;
+      if (outs != null) edges += outs.size();
+    }
+    offsets[names.length] = edges;
+    int[] targets = new int[edges];
+    int k = 0;
+    for (int i = 0; i < names.length; i++) {
+      SortedSet<String> outs = g.out.get(names[i]);
+      if (outs != null) for (String t : outs) targets[k++] = ids.get(t).intValue();
+    }
+    return new Csr(names, offsets, targets);
+  }
+
   /**
    * Build a graph from methods. Node ids default to fingerprint; edges include app→app calls
    * when a callee signature appears among the provided set. Since NormalizedMethod doesn't expose
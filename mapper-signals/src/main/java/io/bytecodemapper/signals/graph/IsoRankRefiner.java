@@ -1,82 +1,222 @@
 package io.bytecodemapper.signals.graph;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
-/** IsoRank-style refinement with caps/freeze and deterministic logs. */
+/**
+ * IsoRank-style refinement with caps/freeze and deterministic logs.
+ *
+ * Runs over interned ids: CSR adjacency ({@link CallGraphBuilder.Csr}) and one flat score
+ * array per candidate row. Each iteration reads only the previous one, so rows may be updated
+ * in parallel; FREEZE lines are still printed in (old, new) order and results do not depend on
+ * the thread count.
+ */
 public final class IsoRankRefiner {
   private IsoRankRefiner() {}
 
+  private static final double BETA = 0.7;
+  private static final int MAX_ITERS = 10;
+  private static final int ROWS_PER_TASK = 64;
+
+  /**
+   * Candidate score rows over interned ids: row r belongs to old node rows[r] (ascending) and
+   * holds scores values[r][k] for new nodes cols[r][k] (ascending).
+   */
+  public static final class Scores {
+    public final int[] rows;
+    public final int[][] cols;
+    public final double[][] values;
+
+    public Scores(int[] rows, int[][] cols, double[][] values) {
+      this.rows = rows;
+      this.cols = cols;
+      this.values = values;
+    }
+  }
+
   public static SortedMap<String, SortedMap<String, Double>> refine(
       CallGraphBuilder.Graph oldG,
       CallGraphBuilder.Graph newG,
       Map<String, Map<String, Double>> S0) {
-    final double BETA = 0.7;
-    SortedMap<String, SortedMap<String, Double>> cur = copy(S0);
-    for (int it = 1; it <= 10; it++) {
-      double maxDelta = 0.0;
-      SortedMap<String, SortedMap<String, Double>> next = new TreeMap<String, SortedMap<String, Double>>();
-      for (String u : new TreeSet<String>(cur.keySet())) {
-        SortedMap<String, Double> row = cur.get(u);
-        SortedMap<String, Double> nrow = new TreeMap<String, Double>();
-        SortedSet<String> ou = oldG.out.containsKey(u) ? oldG.out.get(u) : new TreeSet<String>();
-        for (String v : new TreeSet<String>(row.keySet())) {
-          SortedSet<String> nv = newG.out.containsKey(v) ? newG.out.get(v) : new TreeSet<String>();
-          double s0 = get(S0, u, v, 0.0);
-          boolean freeze = s0 >= 0.80; // prevent decrease
-          double nbr = neighborConsistency(u, v, ou, nv, cur);
-          double raw = (1.0 - BETA) * s0 + BETA * nbr;
-          double lo = s0 - 0.05, hi = s0 + 0.10;
-          double capped = Math.max(lo, Math.min(hi, raw));
-          double prev = row.get(v);
-          if (freeze && capped < prev - 1e-12) {
-            System.out.println("FREEZE " + u + "," + v);
-            capped = prev; // freeze decrease
-          }
-          nrow.put(v, capped);
-          maxDelta = Math.max(maxDelta, Math.abs(capped - prev));
-        }
-        next.put(u, nrow);
+    return refine(oldG, newG, S0, 1);
+  }
+
+  /** As above, updating rows on up to {@code threads} workers (<=1 = serial). */
+  public static SortedMap<String, SortedMap<String, Double>> refine(
+      CallGraphBuilder.Graph oldG,
+      CallGraphBuilder.Graph newG,
+      Map<String, Map<String, Double>> S0,
+      int threads) {
+    SortedSet<String> newNodes = new TreeSet<String>();
+    for (Map<String, Double> row : S0.values()) if (row != null) newNodes.addAll(row.keySet());
+    CallGraphBuilder.Csr o = CallGraphBuilder.toCsr(oldG, S0.keySet());
+    CallGraphBuilder.Csr n = CallGraphBuilder.toCsr(newG, newNodes);
+
+    // rows in sorted old-name order == ascending old id
+    List<String> us = new ArrayList<String>(new TreeSet<String>(S0.keySet()));
+    int[] rows = new int[us.size()];
+    int[][] cols = new int[us.size()][];
+    double[][] values = new double[us.size()][];
+    for (int r = 0; r < us.size(); r++) {
+      rows[r] = o.id(us.get(r));
+      SortedMap<String, Double> row = new TreeMap<String, Double>();
+      Map<String, Double> src = S0.get(us.get(r));
+      if (src != null) row.putAll(src);
+      cols[r] = new int[row.size()];
+      values[r] = new double[row.size()];
+      int k = 0;
+      for (Map.Entry<String, Double> e : row.entrySet()) {
+        cols[r][k] = n.id(e.getKey());
+        values[r][k++] = e.getValue().doubleValue();
       }
-      System.out.println(String.format(java.util.Locale.ROOT, "REFINE_ITER=%d delta=%.6f", it, maxDelta));
-      cur = next;
-      if (maxDelta < 1e-3) break;
     }
-    return cur;
+
+    Scores refined = refine(o, n, new Scores(rows, cols, values), threads);
+
+    SortedMap<String, SortedMap<String, Double>> out = new TreeMap<String, SortedMap<String, Double>>();
+    for (int r = 0; r < rows.length; r++) {
+      SortedMap<String, Double> row = new TreeMap<String, Double>();
+      for (int k = 0; k < cols[r].length; k++) row.put(n.names[cols[r][k]], Double.valueOf(refined.values[r][k]));
+      out.put(o.names[rows[r]], row);
+    }
+    return out;
   }
 
-  private static double neighborConsistency(String u, String v,
-      SortedSet<String> ou, SortedSet<String> nv,
-      SortedMap<String, SortedMap<String, Double>> S) {
-    if (ou.isEmpty() || nv.isEmpty()) return 0.0;
-    // Greedy deterministic pairing by max similarity per neighbor
-    double sum = 0.0; int cnt = 0;
-    for (String u2 : ou) {
-      double best = 0.0; String bestV = null;
-      for (String v2 : nv) {
-        double s = get(S, u2, v2, 0.0);
-        if (s > best || (s == best && (bestV == null || v2.compareTo(bestV) < 0))) {
-          best = s; bestV = v2;
+  /** Interned-id refinement; s0 is not modified. */
+  public static Scores refine(CallGraphBuilder.Csr oldG, CallGraphBuilder.Csr newG, Scores s0, int threads) {
+    int[] rowOf = new int[oldG.size()];
+    Arrays.fill(rowOf, -1);
+    for (int r = 0; r < s0.rows.length; r++) rowOf[s0.rows[r]] = r;
+
+    Iteration step = new Iteration(oldG, newG, s0, rowOf);
+    double[][] cur = new double[s0.rows.length][];
+    for (int r = 0; r < cur.length; r++) cur[r] = s0.values[r].clone();
+
+    ForkJoinPool pool = threads > 1 && cur.length > ROWS_PER_TASK ? new ForkJoinPool(threads) : null;
+    try {
+      for (int it = 1; it <= MAX_ITERS; it++) {
+        double[][] next = new double[cur.length][];
+        double[] rowDelta = new double[cur.length];
+        String[] freezeLogs = new String[cur.length];
+        if (pool != null) {
+          pool.invoke(new RowRange(step, cur, next, rowDelta, freezeLogs, 0, cur.length));
+        } else {
+          for (int r = 0; r < cur.length; r++) step.updateRow(r, cur, next, rowDelta, freezeLogs);
+        }
+        double maxDelta = 0.0;
+        for (int r = 0; r < cur.length; r++) {
+          if (freezeLogs[r] != null) System.out.print(freezeLogs[r]);
+          maxDelta = Math.max(maxDelta, rowDelta[r]);
         }
+        System.out.println(String.format(java.util.Locale.ROOT, "REFINE_ITER=%d delta=%.6f", it, maxDelta));
+        cur = next;
+        if (maxDelta < 1e-3) break;
       }
-      sum += best; cnt++;
+    } finally {
+      if (pool != null) pool.shutdown();
     }
-    return cnt == 0 ? 0.0 : (sum / cnt);
+    return new Scores(s0.rows, s0.cols, cur);
   }
 
-  private static SortedMap<String, SortedMap<String, Double>> copy(Map<String, Map<String, Double>> m) {
-    SortedMap<String, SortedMap<String, Double>> out = new TreeMap<String, SortedMap<String, Double>>();
-    for (String k : new TreeSet<String>(m.keySet())) {
-      SortedMap<String, Double> row = new TreeMap<String, Double>();
-      row.putAll(m.get(k));
-      out.put(k, row);
+  /** One refinement step; every row reads only the previous iteration's scores. */
+  private static final class Iteration {
+    final CallGraphBuilder.Csr oldG, newG;
+    final Scores s0;
+    final int[] rowOf; // old id -> row, -1 if none
+
+    Iteration(CallGraphBuilder.Csr oldG, CallGraphBuilder.Csr newG, Scores s0, int[] rowOf) {
+      this.oldG = oldG;
+      this.newG = newG;
+      this.s0 = s0;
+      this.rowOf = rowOf;
+    }
+
+    void updateRow(int r, double[][] cur, double[][] next, double[] rowDelta, String[] freezeLogs) {
+      int u = s0.rows[r];
+      int[] cols = s0.cols[r];
+      double[] base = s0.values[r];
+      double[] prevRow = cur[r];
+      double[] nrow = new double[cols.length];
+      double maxDelta = 0.0;
+      StringBuilder log = null;
+      for (int k = 0; k < cols.length; k++) {
+        double s0v = base[k];
+        boolean freeze = s0v >= 0.80; // prevent decrease
+        double nbr = neighborConsistency(u, cols[k], cur);
+        double raw = (1.0 - BETA) * s0v + BETA * nbr;
+        double lo = s0v - 0.05, hi = s0v + 0.10;
+        double capped = Math.max(lo, Math.min(hi, raw));
+        double prev = prevRow[k];
+        if (freeze && capped < prev - 1e-12) {
+          if (log == null) log = new StringBuilder();
+          log.append("FREEZE ").append(oldG.names[u]).append(',').append(newG.names[cols[k]]).append(System.lineSeparator());
+          capped = prev; // freeze decrease
+        }
+        nrow[k] = capped;
+        maxDelta = Math.max(maxDelta, Math.abs(capped - prev));
+      }
+      next[r] = nrow;
+      rowDelta[r] = maxDelta;
+      freezeLogs[r] = log != null ? log.toString() : null;
+    }
+
+    /** Mean over u's neighbours of the best score against any of v's neighbours (missing = 0). */
+    private double neighborConsistency(int u, int v, double[][] S) {
+      int ob = oldG.offsets[u], oe = oldG.offsets[u + 1];
+      int nb = newG.offsets[v], ne = newG.offsets[v + 1];
+      if (ob == oe || nb == ne) return 0.0;
+      double sum = 0.0; int cnt = 0;
+      for (int i = ob; i < oe; i++) {
+        double best = 0.0;
+        int r2 = rowOf[oldG.targets[i]];
+        if (r2 >= 0) {
+          // merge-join u2's candidate columns with v's neighbours
+          int[] cols = s0.cols[r2];
+          double[] vals = S[r2];
+          int a = 0, b = nb;
+          while (a < cols.length && b < ne) {
+            int x = cols[a], y = newG.targets[b];
+            if (x == y) {
+              double s = vals[a];
+              if (s > best) best = s;
+              a++; b++;
+            } else if (x < y) a++;
+            else b++;
+          }
+        }
+        sum += best; cnt++;
+      }
+      return cnt == 0 ? 0.0 : (sum / cnt);
     }
-    return out;
   }
 
-  private static double get(Map<String, ? extends Map<String, Double>> m, String a, String b, double d) {
-    Map<String, Double> r = m.get(a);
-    if (r == null) return d;
-    Double x = r.get(b);
-    return x == null ? d : x.doubleValue();
+  private static final class RowRange extends RecursiveAction {
+    private final Iteration step;
+    private final double[][] cur, next;
+    private final double[] rowDelta;
+    private final String[] freezeLogs;
+    private final int from, to;
+
+    RowRange(Iteration step, double[][] cur, double[][] next, double[] rowDelta, String[] freezeLogs, int from, int to) {
+      this.step = step;
+      this.cur = cur;
+      this.next = next;
+      this.rowDelta = rowDelta;
+      this.freezeLogs = freezeLogs;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= ROWS_PER_TASK) {
+        for (int r = from; r < to; r++) step.updateRow(r, cur, next, rowDelta, freezeLogs);
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new RowRange(step, cur, next, rowDelta, freezeLogs, from, mid),
+                new RowRange(step, cur, next, rowDelta, freezeLogs, mid, to));
+    }
   }
 }
@@ -10,11 +10,11 @@ public final class MicroScore {
     /** Jaccard over bits a ∩ b / a ∪ b. Returns 0.0 if both empty. */
     public static double jaccard(BitSet a, BitSet b) {
         if (a == null || b == null) return 0.0;
-        BitSet inter = (BitSet) a.clone(); inter.and(b);
-        BitSet union = (BitSet) a.clone(); union.or(b);
-        int u = union.cardinality();
+        int inter = 0;
+        for (int i = a.nextSetBit(0); i >= 0; i = a.nextSetBit(i+1)) if (b.get(i)) inter++;
+        int u = a.cardinality() + b.cardinality() - inter;
         if (u == 0) return 0.0;
-        return inter.cardinality() * 1.0 / u;
+        return inter * 1.0 / u;
     }
 
     /**
@@ -24,14 +24,10 @@ public final class MicroScore {
     public static double cosineWeighted(BitSet a, BitSet b, double[] idf) {
         if (a == null || b == null || idf == null) return 0.0;
         double dot = 0.0, nx2 = 0.0, ny2 = 0.0;
-        // intersection contributes idf^2 to dot
-        BitSet inter = (BitSet) a.clone(); inter.and(b);
-        for (int i = inter.nextSetBit(0); i >= 0; i = inter.nextSetBit(i+1)) {
-            double w = idfAt(idf, i);
-            dot += w * w;
-        }
+        // set bits are the sparse ids; intersection contributes idf^2 to dot
         for (int i = a.nextSetBit(0); i >= 0; i = a.nextSetBit(i+1)) {
             double w = idfAt(idf, i);
+            if (b.get(i)) dot += w * w;
             nx2 += w * w;
         }
         for (int i = b.nextSetBit(0); i >= 0; i = b.nextSetBit(i+1)) {
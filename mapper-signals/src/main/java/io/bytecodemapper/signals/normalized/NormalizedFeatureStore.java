@@ -0,0 +1,36 @@
+// >>> AUTOGEN: BYTECODEMAPPER NSF STORE BEGIN
+package io.bytecodemapper.signals.normalized;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-run store of {@link NormalizedFeatures} keyed by (owner, name, desc).
+ * Filled once during feature extraction so matching tiers (NSF exact/near,
+ * flattening gates) reuse nsf64 and the stack/call histograms instead of
+ * re-running NormalizedMethod for every lookup.
+ *
+ * Safe for concurrent use: the matcher fills in missing methods from several workers, and
+ * bench pairs running at the same time share one jar's store. Racing puts for a key carry
+ * equal features, since they come from copies of the same body.
+ */
+public final class NormalizedFeatureStore {
+    private final Map<String, NormalizedFeatures> byKey = new ConcurrentHashMap<String, NormalizedFeatures>();
+
+    public void put(String owner, String name, String desc, NormalizedFeatures nf) {
+        if (nf == null) return;
+        byKey.put(key(owner, name, desc), nf);
+    }
+
+    /** Returns the stored features or null if the method was not extracted. */
+    public NormalizedFeatures get(String owner, String name, String desc) {
+        return byKey.get(key(owner, name, desc));
+    }
+
+    public int size() { return byKey.size(); }
+
+    private static String key(String owner, String name, String desc) {
+        return owner + "#" + name + desc;
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER NSF STORE END
@@ -3,6 +3,7 @@ package io.bytecodemapper.signals.opcode;
 
 import it.unimi.dsi.fastutil.ints.*;
 import io.bytecodemapper.signals.common.Cosine;
+import io.bytecodemapper.signals.common.SparseVector;
 import org.objectweb.asm.tree.*;
 
 import java.util.ArrayList;
@@ -21,14 +22,9 @@ public final class OpcodeFeatures {
         return hist;
     }
 
-    /** Cosine similarity over opcode histograms (uses double conversion). */
+    /** Cosine similarity over opcode histograms (non-zero bins only, double precision). */
     public static double cosineHistogram(int[] a, int[] b) {
-        int n = Math.max(a.length, b.length);
-        double[] da = new double[n];
-        double[] db = new double[n];
-        for (int i=0;i<a.length;i++) da[i] = a[i];
-        for (int i=0;i<b.length;i++) db[i] = b[i];
-        return Cosine.cosine(da, db);
+        return Cosine.cosine(SparseVector.ofCounts(a), SparseVector.ofCounts(b));
     }
 
     /** n-gram of opcodes (n=2 or n=3). Uses a compact key: (op1<<16) ^ (op2<<8) ^ op3. */
@@ -55,26 +51,10 @@ public final class OpcodeFeatures {
         return map;
     }
 
-    /** Cosine similarity over sparse n-gram frequency maps. */
+    /** Cosine similarity over sparse n-gram frequency maps (merge-join in key order). */
     public static double cosineNGram(Int2IntOpenHashMap A, Int2IntOpenHashMap B) {
         if (A.isEmpty() || B.isEmpty()) return 0.0;
-        double dot = 0.0, na2 = 0.0, nb2 = 0.0;
-        // dot over intersection
-        IntIterator it = A.keySet().iterator();
-        while (it.hasNext()) {
-            int k = it.nextInt();
-            int av = A.get(k);
-            int bv = B.get(k);
-            if (bv != 0) dot += av * (double) bv;
-            na2 += av * (double) av;
-        }
-        IntIterator itB = B.values().iterator();
-        while (itB.hasNext()) {
-            int bv = itB.nextInt();
-            nb2 += bv * (double) bv;
-        }
-        if (na2 == 0.0 || nb2 == 0.0) return 0.0;
-        return dot / (Math.sqrt(na2) * Math.sqrt(nb2));
+        return Cosine.cosine(SparseVector.ofCounts(A), SparseVector.ofCounts(B));
     }
 }
 // <<< AUTOGEN: BYTECODEMAPPER OpcodeFeatures END
@@ -0,0 +1,143 @@
+// >>> AUTOGEN: BYTECODEMAPPER TfIdfCorpus BEGIN
+package io.bytecodemapper.signals.tfidf;
+
+import io.bytecodemapper.signals.common.SparseVector;
+
+import java.util.*;
+
+/**
+ * Run-level TF-IDF corpus (Java 8), built once over every document of a jar pair:
+ * - Stable integer term ids: lexicographic order of the unique terms, as in {@link TfIdfModel}.
+ * - Documents become sparse term-count vectors once; scoring works on ids only.
+ * - Corpus IDF: log((N + 1) / (df + 1)) + 1 over all documents, with pre-normalized vectors
+ *   so cosine is a plain sparse dot product.
+ * - Query IDF: {@link #queryCosines} reproduces {@link TfIdfModel} built over {query + candidates}
+ *   bit for bit (same ids order, same formula), without rebuilding a vocabulary.
+ */
+public final class TfIdfCorpus {
+    private final HashMap<String,Integer> ids; // term -> id (ids follow sorted term order)
+    private final int[] df;                    // corpus document frequency per id
+    private final int docCount;
+
+    private TfIdfCorpus(HashMap<String,Integer> ids, int[] df, int docCount) {
+        this.ids = ids;
+        this.df = df;
+        this.docCount = docCount;
+    }
+
+    /** Build from all documents of the run (each doc = list of tokens; null docs count as empty). */
+    public static TfIdfCorpus build(Collection<? extends List<String>> docs) {
+        SortedSet<String> terms = new TreeSet<String>();
+        for (List<String> d : docs) if (d != null) terms.addAll(d);
+        HashMap<String,Integer> ids = new HashMap<String,Integer>(terms.size() * 2);
+        int next = 0;
+        for (String t : terms) ids.put(t, Integer.valueOf(next++));
+        TfIdfCorpus c = new TfIdfCorpus(ids, new int[next], docs.size());
+        for (List<String> d : docs) {
+            SparseVector v = c.termCounts(d);
+            for (int i = 0; i < v.size(); i++) c.df[v.id(i)]++;
+        }
+        return c;
+    }
+
+    public int size() { return df.length; }
+    public int docCount() { return docCount; }
+
+    /** Term id, or -1 when the term was not part of the corpus. */
+    public int id(String term) {
+        Integer i = ids.get(term);
+        return i != null ? i.intValue() : -1;
+    }
+
+    /** Corpus IDF of a term id. */
+    public double idf(int id) {
+        double n = Math.max(1, docCount);
+        return Math.log((n + 1.0) / (df[id] + 1.0)) + 1.0;
+    }
+
+    /** Raw term frequencies of a doc by term id; terms outside the corpus are dropped. */
+    public SparseVector termCounts(List<String> doc) {
+        if (doc == null || doc.isEmpty()) return SparseVector.EMPTY;
+        int[] tmp = new int[doc.size()];
+        int n = 0;
+        for (String t : doc) {
+            Integer i = ids.get(t);
+            if (i != null) tmp[n++] = i.intValue();
+        }
+        if (n == 0) return SparseVector.EMPTY;
+        Arrays.sort(tmp, 0, n);
+        int u = 0;
+        for (int i = 0; i < n; i++) if (i == 0 || tmp[i] != tmp[i - 1]) u++;
+        int[] outIds = new int[u];
+        double[] counts = new double[u];
+        int k = -1;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || tmp[i] != tmp[i - 1]) outIds[++k] = tmp[i];
+            counts[k] += 1.0;
+        }
+        return new SparseVector(outIds, counts);
+    }
+
+    /** Corpus TF-IDF vector of term counts, scaled to unit length. */
+    public SparseVector weigh(SparseVector counts) {
+        if (counts.size() == 0) return counts;
+        int[] outIds = new int[counts.size()];
+        double[] w = new double[counts.size()];
+        for (int i = 0; i < w.length; i++) {
+            outIds[i] = counts.id(i);
+            w[i] = counts.weight(i) * idf(outIds[i]);
+        }
+        return new SparseVector(outIds, w).normalized();
+    }
+
+    /** Corpus TF-IDF vector of a doc, scaled to unit length. */
+    public SparseVector vectorize(List<String> doc) {
+        return weigh(termCounts(doc));
+    }
+
+    /**
+     * Cosine of the query against each candidate with IDF taken over {query + candidates} only,
+     * i.e. the scores of a {@link TfIdfModel} built over those documents.
+     */
+    public static double[] queryCosines(SparseVector query, List<SparseVector> cands) {
+        double[] out = new double[cands.size()];
+        if (cands.isEmpty()) return out;
+        // document frequencies: each doc holds an id at most once, so occurrences over all docs = df
+        int total = query.size();
+        for (SparseVector c : cands) total += c.size();
+        int[] all = new int[total];
+        int n = 0;
+        for (int i = 0; i < query.size(); i++) all[n++] = query.id(i);
+        for (SparseVector c : cands) for (int i = 0; i < c.size(); i++) all[n++] = c.id(i);
+        Arrays.sort(all);
+        int u = 0;
+        for (int i = 0; i < n; i++) if (i == 0 || all[i] != all[i - 1]) u++;
+        int[] uIds = new int[u];
+        double[] idf = new double[u];
+        int k = -1;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || all[i] != all[i - 1]) uIds[++k] = all[i];
+            idf[k] += 1.0;
+        }
+        double docs = Math.max(1, cands.size() + 1);
+        for (int i = 0; i < u; i++) idf[i] = Math.log((docs + 1.0) / (idf[i] + 1.0)) + 1.0;
+
+        SparseVector q = queryWeighted(query, uIds, idf);
+        for (int c = 0; c < out.length; c++) {
+            out[c] = SparseVector.cosine(q, queryWeighted(cands.get(c), uIds, idf));
+        }
+        return out;
+    }
+
+    private static SparseVector queryWeighted(SparseVector counts, int[] uIds, double[] idf) {
+        if (counts.size() == 0) return counts;
+        int[] outIds = new int[counts.size()];
+        double[] w = new double[counts.size()];
+        for (int i = 0; i < w.length; i++) {
+            outIds[i] = counts.id(i);
+            w[i] = counts.weight(i) * idf[Arrays.binarySearch(uIds, outIds[i])];
+        }
+        return new SparseVector(outIds, w);
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER TfIdfCorpus END
@@ -1,6 +1,8 @@
 // >>> AUTOGEN: BYTECODEMAPPER TfIdfModel BEGIN
 package io.bytecodemapper.signals.tfidf;
 
+import io.bytecodemapper.signals.common.SparseVector;
+
 import java.util.*;
 
 /**
@@ -8,7 +10,8 @@ import java.util.*;
  * - Deterministic vocabulary: lexicographically sorted unique terms across docs.
  * - IDF: log((N + 1) / (df + 1)) + 1  (no clamping; keep lightweight for non-micropattern features).
  * - TF: raw counts per doc.
- * - Vectorization: TF * IDF; cosine handled externally.
+ * - Vectorization: TF * IDF; cosine handled externally. {@link #vectorizeSparse} holds only the
+ *   doc's own terms (same values as the dense vector at those indices).
  */
 public final class TfIdfModel {
     private final LinkedHashMap<String,Integer> vocab; // term -> index (sorted lexicographically)
@@ -71,5 +74,30 @@ public final class TfIdfModel {
         }
         return v;
     }
+
+    /** Vectorize a doc into a sparse TF*IDF vector over vocabulary indices; unknown terms are dropped. */
+    public SparseVector vectorizeSparse(List<String> doc) {
+        if (doc == null || doc.isEmpty()) return SparseVector.EMPTY;
+        int[] tmp = new int[doc.size()];
+        int n = 0;
+        for (String t : doc) {
+            Integer i = vocab.get(t);
+            if (i != null) tmp[n++] = i.intValue();
+        }
+        if (n == 0) return SparseVector.EMPTY;
+        Arrays.sort(tmp, 0, n);
+        int u = 0;
+        for (int i = 0; i < n; i++) if (i == 0 || tmp[i] != tmp[i - 1]) u++;
+        int[] ids = new int[u];
+        int[] tf = new int[u];
+        int k = -1;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || tmp[i] != tmp[i - 1]) ids[++k] = tmp[i];
+            tf[k]++;
+        }
+        double[] w = new double[u];
+        for (int i = 0; i < u; i++) w[i] = tf[i] * idf[ids[i]];
+        return new SparseVector(ids, w);
+    }
 }
 // <<< AUTOGEN: BYTECODEMAPPER TfIdfModel END
@@ -0,0 +1,59 @@
+// >>> AUTOGEN: BYTECODEMAPPER TEST SparseVectorTest BEGIN
+package io.bytecodemapper.signals.common;
+
+import io.bytecodemapper.signals.tfidf.TfIdfModel;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class SparseVectorTest {
+
+    @Test
+    public void countFactoriesAgree() {
+        int[] dense = new int[200];
+        dense[3] = 2; dense[17] = 5; dense[199] = 1;
+        Map<Integer,Integer> boxed = new HashMap<Integer,Integer>();
+        boxed.put(199, 1); boxed.put(3, 2); boxed.put(17, 5); boxed.put(42, 0);
+        Int2IntOpenHashMap prim = new Int2IntOpenHashMap();
+        prim.put(17, 5); prim.put(199, 1); prim.put(3, 2);
+
+        SparseVector a = SparseVector.ofCounts(dense);
+        assertArrayEquals(new int[]{3, 17, 199}, a.ids());
+        assertArrayEquals(a.ids(), SparseVector.ofCounts(boxed).ids());
+        assertArrayEquals(a.ids(), SparseVector.ofCounts(prim).ids());
+        assertEquals(4.0 + 25.0 + 1.0, a.sumSquares(), 0.0);
+        assertEquals(a.sumSquares(), a.dot(SparseVector.ofCounts(prim)), 0.0);
+        assertEquals(0, SparseVector.ofCounts(new int[200]).size());
+    }
+
+    @Test
+    public void sparseCosineMatchesDenseBitForBit() {
+        List<String> a = Arrays.asList("q#a:()V", "q#b:()I", "q#b:()I", "r#c:()V");
+        List<String> b = Arrays.asList("r#c:()V", "q#b:()I", "s#d:()J");
+        List<String> c = Arrays.asList("t#e:()V");
+        TfIdfModel model = TfIdfModel.build(Arrays.asList(a, b, c));
+        for (List<String> x : Arrays.asList(a, b, c)) {
+            for (List<String> y : Arrays.asList(a, b, c)) {
+                double dense = Cosine.cosine(model.vectorize(x), model.vectorize(y));
+                double sparse = Cosine.cosine(model.vectorizeSparse(x), model.vectorizeSparse(y));
+                assertEquals(Double.doubleToLongBits(dense), Double.doubleToLongBits(sparse));
+            }
+        }
+        assertEquals(0.0, Cosine.cosine(model.vectorizeSparse(a), SparseVector.EMPTY), 0.0);
+        assertEquals(0, model.vectorizeSparse(Arrays.asList("unknown")).size());
+    }
+
+    @Test
+    public void normalizedHasUnitNorm() {
+        SparseVector v = SparseVector.ofCounts(new int[]{0, 3, 0, 4});
+        assertEquals(5.0, v.norm(), 0.0);
+        SparseVector u = v.normalized();
+        assertEquals(1.0, u.norm(), 1e-12);
+        assertEquals(0.6, u.weight(0), 1e-12);
+        assertSame(SparseVector.EMPTY, SparseVector.EMPTY.normalized());
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER TEST SparseVectorTest END
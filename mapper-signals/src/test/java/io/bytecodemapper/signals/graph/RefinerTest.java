@@ -87,6 +87,31 @@ public class RefinerTest {
     assertNotNull(topKey);
   }
 
+  @Test public void refine_parallel_rows_match_serial(){
+    // Deterministic pseudo-random graphs large enough to split rows across workers
+    Random rnd = new Random(42);
+    CallGraphBuilder.Graph Go = new CallGraphBuilder.Graph(), Gn = new CallGraphBuilder.Graph();
+    for (int i = 0; i < 400; i++) { Go.out.put("old#" + i, new TreeSet<String>()); Gn.out.put("new#" + i, new TreeSet<String>()); }
+    for (int i = 0; i < 400; i++) {
+      for (int j = 0; j < 4; j++) {
+        Go.out.get("old#" + i).add("old#" + rnd.nextInt(400));
+        Gn.out.get("new#" + i).add("new#" + rnd.nextInt(400));
+      }
+    }
+    Map<String, Map<String, Double>> S0 = new TreeMap<String, Map<String, Double>>();
+    for (int i = 0; i < 400; i++) for (int j = 0; j < 6; j++) put(S0, "old#" + i, "new#" + rnd.nextInt(400), rnd.nextDouble());
+
+    CallGraphBuilder.Csr csr = CallGraphBuilder.toCsr(Go, S0.keySet());
+    int u = csr.id("old#7");
+    assertEquals(Go.out.get("old#7").size(), csr.degree(u));
+    assertEquals(Go.out.get("old#7").first(), csr.names[csr.targets[csr.offsets[u]]]);
+
+    SortedMap<String, SortedMap<String, Double>> serial = IsoRankRefiner.refine(Go, Gn, S0);
+    SortedMap<String, SortedMap<String, Double>> parallel = IsoRankRefiner.refine(Go, Gn, S0, 4);
+    assertEquals(serial, parallel);
+    assertEquals(S0.keySet(), serial.keySet());
+  }
+
   private static void put(Map<String, Map<String, Double>> m, String a, String b, double v){
     Map<String, Double> r = m.get(a);
     if (r == null) { r = new TreeMap<String, Double>(); m.put(a, r); }
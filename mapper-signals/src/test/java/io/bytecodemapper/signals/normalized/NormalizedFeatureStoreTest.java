@@ -0,0 +1,32 @@
+// >>> AUTOGEN: BYTECODEMAPPER TEST NormalizedFeatureStoreTest BEGIN
+package io.bytecodemapper.signals.normalized;
+
+import org.junit.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class NormalizedFeatureStoreTest {
+
+    @Test
+    public void storesByOwnerNameDesc() {
+        MethodNode mn = new MethodNode(Opcodes.ACC_PUBLIC, "m", "()V", null, null);
+        mn.instructions.add(new InsnNode(Opcodes.RETURN));
+        NormalizedFeatures nf = new NormalizedMethod("a/A", mn, Collections.<Integer>emptySet()).extract();
+
+        NormalizedFeatureStore store = new NormalizedFeatureStore();
+        store.put("a/A", "m", "()V", nf);
+        store.put("a/A", "m", "()I", null); // failed extraction is not recorded
+
+        assertSame(nf, store.get("a/A", "m", "()V"));
+        assertEquals(nf.nsf64, store.get("a/A", "m", "()V").nsf64);
+        assertNull(store.get("a/A", "m", "()I"));
+        assertNull(store.get("a/B", "m", "()V"));
+        assertEquals(1, store.size());
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER TEST NormalizedFeatureStoreTest END
@@ -0,0 +1,75 @@
+// >>> AUTOGEN: BYTECODEMAPPER TEST TfIdfCorpusTest BEGIN
+package io.bytecodemapper.signals.tfidf;
+
+import io.bytecodemapper.signals.common.Cosine;
+import io.bytecodemapper.signals.common.SparseVector;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TfIdfCorpusTest {
+
+    private static List<String> doc(String... terms) { return Arrays.asList(terms); }
+
+    @Test
+    public void termIdsFollowSortedVocabulary() {
+        TfIdfCorpus c = TfIdfCorpus.build(Arrays.asList(doc("b", "c"), doc("a", "c", "c"), null));
+        assertEquals(3, c.size());
+        assertEquals(3, c.docCount());
+        assertEquals(0, c.id("a"));
+        assertEquals(1, c.id("b"));
+        assertEquals(2, c.id("c"));
+        assertEquals(-1, c.id("zzz"));
+
+        SparseVector v = c.termCounts(doc("c", "zzz", "a", "c"));
+        assertArrayEquals(new int[]{0, 2}, v.ids());
+        assertEquals(1.0, v.weight(0), 0.0);
+        assertEquals(2.0, v.weight(1), 0.0);
+    }
+
+    @Test
+    public void queryCosinesMatchPerQueryModelExactly() {
+        List<String> src = doc("x/A.f()V", "x/B.g()I", "x/B.g()I", "x/C.h()V");
+        List<List<String>> cands = Arrays.asList(
+                doc("x/B.g()I", "x/C.h()V", "x/A.f()V"),
+                doc("x/D.k()V"),
+                doc(),
+                doc("x/B.g()I", "x/B.g()I", "x/E.z()J", "x/C.h()V"));
+        // corpus holds more documents than the query; ids stay valid for the query subset
+        List<List<String>> all = new ArrayList<List<String>>();
+        all.add(src);
+        all.addAll(cands);
+        all.add(doc("x/F.q()V", "x/A.f()V"));
+        TfIdfCorpus corpus = TfIdfCorpus.build(all);
+
+        List<SparseVector> cv = new ArrayList<SparseVector>();
+        for (List<String> d : cands) cv.add(corpus.termCounts(d));
+        double[] got = TfIdfCorpus.queryCosines(corpus.termCounts(src), cv);
+
+        List<List<String>> query = new ArrayList<List<String>>();
+        query.add(src);
+        query.addAll(cands);
+        TfIdfModel model = TfIdfModel.build(query);
+        for (int i = 0; i < cands.size(); i++) {
+            double expected = Cosine.cosine(model.vectorize(src), model.vectorize(cands.get(i)));
+            assertEquals("cand " + i, Double.doubleToLongBits(expected), Double.doubleToLongBits(got[i]));
+        }
+        assertEquals(0.0, got[1], 0.0);
+        assertEquals(0.0, got[2], 0.0);
+    }
+
+    @Test
+    public void corpusVectorsAreUnitLength() {
+        TfIdfCorpus c = TfIdfCorpus.build(Arrays.asList(doc("a", "b"), doc("b", "c"), doc("a", "a", "d")));
+        SparseVector a = c.vectorize(doc("a", "a", "d"));
+        SparseVector b = c.vectorize(doc("a", "b"));
+        assertEquals(1.0, a.norm(), 1e-12);
+        assertEquals(1.0, a.dot(a), 1e-12);
+        assertEquals(SparseVector.cosine(a, b), a.dot(b), 1e-12);
+        assertEquals(0, c.vectorize(doc("unknown")).size());
+        assertEquals(0.0, a.dot(c.vectorize(doc())), 0.0);
+    }
+}
+// <<< AUTOGEN: BYTECODEMAPPER TEST TfIdfCorpusTest END
@@ -0,0 +1,59 @@
+// Copyright 2000-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.java.decompiler.main;
+
+/**
+ * Cooperative time limit for method processing (option 'mpm'). The long-running loops of the decompiler call
+ * {@link #checkCanceled()}, which throws {@link TimeExceedException} once the deadline of the method being
+ * processed on the current thread has passed or has been canceled. Threads without an active deadline pay a
+ * single thread-local read per check.
+ */
+public final class CancellationManager {
+  private static final ThreadLocal<Deadline> current = new ThreadLocal<>();
+
+  private CancellationManager() { }
+
+  public static void checkCanceled() throws TimeExceedException {
+    Deadline deadline = current.get();
+    if (deadline != null && deadline.isExpired()) {
+      throw new TimeExceedException();
+    }
+  }
+
+  public static Deadline getDeadline() {
+    return current.get();
+  }
+
+  public static void setDeadline(Deadline deadline) {
+    if (deadline == null) {
+      current.remove();
+    }
+    else {
+      current.set(deadline);
+    }
+  }
+
+  public static class Deadline {
+    private final long stopAt;
+    private volatile boolean canceled;
+
+    public Deadline(long timeoutMillis) {
+      stopAt = System.nanoTime() + timeoutMillis * 1_000_000L;
+    }
+
+    public void cancel() {
+      canceled = true;
+    }
+
+    public boolean isExpired() {
+      return canceled || System.nanoTime() - stopAt >= 0;
+    }
+  }
+
+  public static class TimeExceedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public TimeExceedException() {
+      super("Processing time limit exceeded", null, false, false);
+    }
+  }
+}
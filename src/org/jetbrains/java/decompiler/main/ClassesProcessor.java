@@ -34,7 +34,8 @@ public class ClassesProcessor implements CodeConstants {
   public static final int AVERAGE_CLASS_SIZE = 16 * 1024;
 
   private final StructContext context;
-  private final Map<String, ClassNode> mapRootClasses = new HashMap<>();
+  // lambda nodes are added while classes are written, possibly from several threads
+  private final Map<String, ClassNode> mapRootClasses = Collections.synchronizedMap(new HashMap<>());
 
   private static class Inner {
     private String simpleName;
@@ -368,6 +369,7 @@ public class ClassesProcessor implements CodeConstants {
     ClassWrapper wrapper = new ClassWrapper(node.classStruct);
     wrapper.init();
 
+    node.wrapperContext = DecompilerContext.getCurrentContext();
     node.wrapper = wrapper;
 
     for (ClassNode nd : node.nested) {
@@ -410,7 +412,8 @@ public class ClassesProcessor implements CodeConstants {
     public int access;
     public String simpleName;
     public final StructClass classStruct;
-    private ClassWrapper wrapper;
+    private volatile ClassWrapper wrapper;
+    private volatile DecompilerContext wrapperContext;
     public String enclosingMethod;
     public InvocationExprent superInvocation;
     public final Map<String, VarVersionPair> mapFieldsToVars = new HashMap<>();
@@ -478,7 +481,10 @@ public class ClassesProcessor implements CodeConstants {
       while (node.type == CLASS_LAMBDA) {
         node = node.parent;
       }
-      return node.wrapper;
+      // wrappers exist only while their root class is written; a class written in parallel by another
+      // context must look the same as one that has not been (or has already been) processed
+      ClassWrapper wrapper = node.wrapper;
+      return wrapper != null && node.wrapperContext == DecompilerContext.getCurrentContext() ? wrapper : null;
     }
 
     public static class LambdaInformation {
@@ -4,12 +4,14 @@ package org.jetbrains.java.decompiler.main;
 import org.jetbrains.java.decompiler.main.collectors.BytecodeSourceMapper;
 import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.main.collectors.ImportCollector;
+import org.jetbrains.java.decompiler.main.collectors.MethodTimingStats;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.modules.decompiler.vars.VarProcessor;
 import org.jetbrains.java.decompiler.modules.renamer.PoolInterceptor;
 import org.jetbrains.java.decompiler.struct.StructContext;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
@@ -24,6 +26,7 @@ public class DecompilerContext {
   private final StructContext structContext;
   private final ClassesProcessor classProcessor;
   private final PoolInterceptor poolInterceptor;
+  private final MethodTimingStats methodTimingStats;
   private ImportCollector importCollector;
   private VarProcessor varProcessor;
   private CounterContainer counterContainer;
@@ -34,6 +37,15 @@ public class DecompilerContext {
                            StructContext structContext,
                            ClassesProcessor classProcessor,
                            PoolInterceptor interceptor) {
+    this(properties, logger, structContext, classProcessor, interceptor, new MethodTimingStats());
+  }
+
+  private DecompilerContext(Map<String, Object> properties,
+                            IFernflowerLogger logger,
+                            StructContext structContext,
+                            ClassesProcessor classProcessor,
+                            PoolInterceptor interceptor,
+                            MethodTimingStats methodTimingStats) {
     Objects.requireNonNull(properties);
     Objects.requireNonNull(logger);
     Objects.requireNonNull(structContext);
@@ -44,6 +56,7 @@ public class DecompilerContext {
     this.structContext = structContext;
     this.classProcessor = classProcessor;
     this.poolInterceptor = interceptor;
+    this.methodTimingStats = methodTimingStats;
     this.counterContainer = new CounterContainer();
   }
 
@@ -61,6 +74,15 @@ public class DecompilerContext {
     currentContext.set(context);
   }
 
+  /**
+   * A context for decompiling classes on another thread: shares the structure, class processor, renaming
+   * state and timing stats of this context, but has its own copy of the properties and its own per-class
+   * and per-method state.
+   */
+  public DecompilerContext fork(IFernflowerLogger logger) {
+    return new DecompilerContext(new HashMap<>(properties), logger, structContext, classProcessor, poolInterceptor, methodTimingStats);
+  }
+
   public static void setProperty(String key, Object value) {
     getCurrentContext().properties.put(key, value);
   }
@@ -123,6 +145,10 @@ public class DecompilerContext {
     return getCurrentContext().counterContainer;
   }
 
+  public static MethodTimingStats getMethodTimingStats() {
+    return getCurrentContext().methodTimingStats;
+  }
+
   public static BytecodeSourceMapper getBytecodeSourceMapper() {
     return getCurrentContext().bytecodeSourceMapper;
   }
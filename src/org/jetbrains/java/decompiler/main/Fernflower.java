@@ -85,6 +85,10 @@ public class Fernflower implements IDecompiledData {
     classProcessor.loadClasses(helper);
 
     structContext.saveContext();
+
+    boolean timeLimited = !"0".equals(DecompilerContext.getProperty(IFernflowerPreferences.MAX_PROCESSING_METHOD).toString());
+    IFernflowerLogger.Severity severity = timeLimited ? IFernflowerLogger.Severity.INFO : IFernflowerLogger.Severity.TRACE;
+    DecompilerContext.getLogger().writeMessage(DecompilerContext.getMethodTimingStats().toString(), severity);
   }
 
   public void clearContext() {
@@ -0,0 +1,88 @@
+// Copyright 2000-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.java.decompiler.main.collectors;
+
+import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Records the log calls made while a class is decompiled on a worker thread, so that they can be
+ * replayed on the real logger in output order, as if the classes had been processed one by one.
+ */
+public class DeferredLogger extends IFernflowerLogger {
+  private final IFernflowerLogger target;
+  private final List<Consumer<IFernflowerLogger>> events = new ArrayList<>();
+
+  public DeferredLogger(IFernflowerLogger target) {
+    this.target = target;
+  }
+
+  @Override
+  public boolean accepts(Severity severity) {
+    return target.accepts(severity);
+  }
+
+  @Override
+  public void writeMessage(String message, Severity severity) {
+    record(logger -> logger.writeMessage(message, severity));
+  }
+
+  @Override
+  public void writeMessage(String message, Severity severity, Throwable t) {
+    record(logger -> logger.writeMessage(message, severity, t));
+  }
+
+  @Override
+  public void startReadingClass(String className) {
+    record(logger -> logger.startReadingClass(className));
+  }
+
+  @Override
+  public void endReadingClass() {
+    record(IFernflowerLogger::endReadingClass);
+  }
+
+  @Override
+  public void startClass(String className) {
+    record(logger -> logger.startClass(className));
+  }
+
+  @Override
+  public void endClass() {
+    record(IFernflowerLogger::endClass);
+  }
+
+  @Override
+  public void startMethod(String methodName) {
+    record(logger -> logger.startMethod(methodName));
+  }
+
+  @Override
+  public void endMethod() {
+    record(IFernflowerLogger::endMethod);
+  }
+
+  @Override
+  public void startWriteClass(String className) {
+    record(logger -> logger.startWriteClass(className));
+  }
+
+  @Override
+  public void endWriteClass() {
+    record(IFernflowerLogger::endWriteClass);
+  }
+
+  // with 'mpm' set, method bodies are processed on a helper thread that shares this logger
+  private synchronized void record(Consumer<IFernflowerLogger> event) {
+    events.add(event);
+  }
+
+  public synchronized void replay() {
+    for (Consumer<IFernflowerLogger> event : events) {
+      event.accept(target);
+    }
+    events.clear();
+  }
+}
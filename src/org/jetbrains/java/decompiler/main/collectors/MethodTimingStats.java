@@ -0,0 +1,51 @@
+// Copyright 2000-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.java.decompiler.main.collectors;
+
+/**
+ * Processing times of method bodies over a whole decompilation, shared by all threads of a run.
+ */
+public class MethodTimingStats {
+  private int methods;
+  private int timeouts;
+  private long totalNanos;
+  private long maxNanos;
+  private String slowestMethod;
+
+  public synchronized void record(String className, String methodName, String descriptor, long nanos, boolean timedOut) {
+    methods++;
+    totalNanos += nanos;
+    if (timedOut) {
+      timeouts++;
+    }
+    if (nanos > maxNanos || slowestMethod == null) {
+      maxNanos = nanos;
+      slowestMethod = className + "." + methodName + descriptor;
+    }
+  }
+
+  public synchronized int getMethodCount() {
+    return methods;
+  }
+
+  public synchronized int getTimeoutCount() {
+    return timeouts;
+  }
+
+  public synchronized long getTotalNanos() {
+    return totalNanos;
+  }
+
+  public synchronized long getMaxNanos() {
+    return maxNanos;
+  }
+
+  @Override
+  public synchronized String toString() {
+    if (methods == 0) {
+      return "No method bodies processed";
+    }
+    return "Processed " + methods + " method bodies in " + totalNanos / 1_000_000 + " ms" +
+           " (average " + totalNanos / methods / 1_000 + " us, slowest " + maxNanos / 1_000_000 + " ms in " + slowestMethod + ")" +
+           (timeouts > 0 ? ", " + timeouts + " exceeded the time limit" : "");
+  }
+}
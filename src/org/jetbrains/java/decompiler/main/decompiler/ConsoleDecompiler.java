@@ -7,6 +7,7 @@ import org.jetbrains.java.decompiler.main.extern.IBytecodeProvider;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
 import org.jetbrains.java.decompiler.main.extern.IResultSaver;
 import org.jetbrains.java.decompiler.util.InterpreterUtil;
+import org.jetbrains.java.decompiler.util.ZipFileCache;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
@@ -95,6 +96,7 @@ public class ConsoleDecompiler implements IBytecodeProvider, IResultSaver {
   private final Fernflower engine;
   private final Map<String, ZipOutputStream> mapArchiveStreams = new HashMap<>();
   private final Map<String, Set<String>> mapArchiveEntries = new HashMap<>();
+  private final ZipFileCache openArchives = new ZipFileCache();
 
   protected ConsoleDecompiler(File destination, Map<String, Object> options, IFernflowerLogger logger) {
     root = destination;
@@ -113,6 +115,19 @@ public class ConsoleDecompiler implements IBytecodeProvider, IResultSaver {
     try {
       engine.decompileContext();
     }
+    finally {
+      clearContext();
+    }
+  }
+
+  /** Releases the cached source archives, then the decompiler context. */
+  public void clearContext() {
+    try {
+      openArchives.close(); // while the context (and its logger) is still set
+    }
+    catch (IOException ex) {
+      DecompilerContext.getLogger().writeMessage("Cannot close source archives", IFernflowerLogger.Severity.WARN);
+    }
     finally {
       engine.clearContext();
     }
@@ -129,11 +144,7 @@ public class ConsoleDecompiler implements IBytecodeProvider, IResultSaver {
       return InterpreterUtil.getBytes(file);
     }
     else {
-      try (ZipFile archive = new ZipFile(file)) {
-        ZipEntry entry = archive.getEntry(internalPath);
-        if (entry == null) throw new IOException("Entry not found: " + internalPath);
-        return InterpreterUtil.getBytes(archive, entry);
-      }
+      return openArchives.getBytes(file, internalPath);
     }
   }
 
@@ -204,7 +215,8 @@ public class ConsoleDecompiler implements IBytecodeProvider, IResultSaver {
       return;
     }
 
-    try (ZipFile srcArchive = new ZipFile(new File(source))) {
+    try {
+      ZipFile srcArchive = openArchives.getArchive(new File(source));
       ZipEntry entry = srcArchive.getEntry(entryName);
       if (entry != null) {
         try (InputStream in = srcArchive.getInputStream(entry)) {
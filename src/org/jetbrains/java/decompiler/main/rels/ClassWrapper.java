@@ -55,6 +55,8 @@ public class ClassWrapper {
       RootStatement root = null;
 
       boolean isError = false;
+      boolean timeExceeded = false;
+      long startTime = System.nanoTime();
 
       try {
         if (mt.containsCode()) {
@@ -62,36 +64,17 @@ public class ClassWrapper {
             root = MethodProcessorRunnable.codeToJava(mt, md, varProc);
           }
           else {
-            MethodProcessorRunnable mtProc = new MethodProcessorRunnable(mt, md, varProc, DecompilerContext.getCurrentContext());
+            MethodProcessorRunnable mtProc = new MethodProcessorRunnable(mt, md, varProc, DecompilerContext.getCurrentContext(), maxSec * 1000L);
 
-            Thread mtThread = new Thread(mtProc, "Java decompiler");
-            long stopAt = System.currentTimeMillis() + maxSec * 1000L;
-
-            mtThread.start();
-
-            while (!mtProc.isFinished()) {
-              try {
-                synchronized (mtProc.lock) {
-                  mtProc.lock.wait(200);
-                }
-              }
-              catch (InterruptedException e) {
-                killThread(mtThread);
-                throw e;
-              }
-
-              if (System.currentTimeMillis() >= stopAt) {
-                String message = "Processing time limit exceeded for method " + mt.getName() + ", execution interrupted.";
-                DecompilerContext.getLogger().writeMessage(message, IFernflowerLogger.Severity.ERROR);
-                killThread(mtThread);
-                isError = true;
-                break;
-              }
-            }
-
-            if (!isError) {
+            if (mtProc.runWithTimeLimit()) {
               root = mtProc.getResult();
             }
+            else {
+              String message = "Processing time limit exceeded for method " + mt.getName() + ", execution interrupted.";
+              DecompilerContext.getLogger().writeMessage(message, IFernflowerLogger.Severity.ERROR);
+              isError = true;
+              timeExceeded = true;
+            }
           }
         }
         else {
@@ -128,6 +111,14 @@ public class ClassWrapper {
         isError = true;
       }
 
+      if (mt.containsCode()) {
+        long elapsed = System.nanoTime() - startTime;
+        DecompilerContext.getMethodTimingStats().record(classStruct.qualifiedName, mt.getName(), mt.getDescriptor(), elapsed, timeExceeded);
+        if (DecompilerContext.getLogger().accepts(IFernflowerLogger.Severity.TRACE)) {
+          DecompilerContext.getLogger().writeMessage("Processed in " + elapsed / 1_000_000 + " ms", IFernflowerLogger.Severity.TRACE);
+        }
+      }
+
       MethodWrapper methodWrapper = new MethodWrapper(root, varProc, mt, counter);
       methodWrapper.decompiledWithErrors = isError;
 
@@ -171,11 +162,6 @@ public class ClassWrapper {
     DecompilerContext.getLogger().endClass();
   }
 
-  @SuppressWarnings("deprecation")
-  private static void killThread(Thread thread) {
-    thread.stop();
-  }
-
   public MethodWrapper getMethodWrapper(String name, String descriptor) {
     return methods.getWithKey(InterpreterUtil.makeUniqueKey(name, descriptor));
   }
@@ -4,6 +4,7 @@ package org.jetbrains.java.decompiler.main.rels;
 import org.jetbrains.java.decompiler.code.CodeConstants;
 import org.jetbrains.java.decompiler.code.InstructionSequence;
 import org.jetbrains.java.decompiler.code.cfg.ControlFlowGraph;
+import org.jetbrains.java.decompiler.main.CancellationManager;
 import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
@@ -19,48 +20,61 @@ import org.jetbrains.java.decompiler.struct.gen.MethodDescriptor;
 
 import java.io.IOException;
 
+/**
+ * Processes a method body under the 'mpm' time limit. The body runs on the calling thread and stops
+ * cooperatively: the processing loops check {@link CancellationManager#checkCanceled()}, which throws once the
+ * deadline has passed, so a method that runs out of time unwinds by itself and nothing outlives the call.
+ */
 public class MethodProcessorRunnable implements Runnable {
-  public final Object lock = new Object();
-
   private final StructMethod method;
   private final MethodDescriptor methodDescriptor;
   private final VarProcessor varProc;
   private final DecompilerContext parentContext;
+  private final CancellationManager.Deadline deadline;
 
-  private volatile RootStatement root;
-  private volatile Throwable error;
-  private volatile boolean finished = false;
+  private RootStatement root;
+  private Throwable error;
+  private boolean timeExceeded;
 
   public MethodProcessorRunnable(StructMethod method,
                                  MethodDescriptor methodDescriptor,
                                  VarProcessor varProc,
-                                 DecompilerContext parentContext) {
+                                 DecompilerContext parentContext,
+                                 long timeoutMillis) {
     this.method = method;
     this.methodDescriptor = methodDescriptor;
     this.varProc = varProc;
     this.parentContext = parentContext;
+    this.deadline = new CancellationManager.Deadline(timeoutMillis);
   }
 
   @Override
   public void run() {
-    error = null;
-    root = null;
-
+    DecompilerContext previousContext = DecompilerContext.getCurrentContext();
+    CancellationManager.Deadline previousDeadline = CancellationManager.getDeadline();
     try {
       DecompilerContext.setCurrentContext(parentContext);
+      CancellationManager.setDeadline(deadline);
       root = codeToJava(method, methodDescriptor, varProc);
     }
+    catch (CancellationManager.TimeExceedException e) {
+      timeExceeded = true;
+    }
     catch (Throwable t) {
       error = t;
     }
     finally {
-      DecompilerContext.setCurrentContext(null);
+      CancellationManager.setDeadline(previousDeadline);
+      DecompilerContext.setCurrentContext(previousContext);
     }
+  }
 
-    finished = true;
-    synchronized (lock) {
-      lock.notifyAll();
-    }
+  /**
+   * Runs the body on this thread. Returns {@code false} when the time limit was exceeded.
+   */
+  public boolean runWithTimeLimit() {
+    run();
+    return !timeExceeded;
   }
 
   public static RootStatement codeToJava(StructMethod mt, MethodDescriptor md, VarProcessor varProc) throws IOException {
@@ -196,8 +210,4 @@ public class MethodProcessorRunnable implements Runnable {
     if (t != null) throw t;
     return root;
   }
-
-  public boolean isFinished() {
-    return finished;
-  }
 }
\ No newline at end of file
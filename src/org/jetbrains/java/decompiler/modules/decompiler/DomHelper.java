@@ -4,6 +4,7 @@ package org.jetbrains.java.decompiler.modules.decompiler;
 import org.jetbrains.java.decompiler.code.cfg.BasicBlock;
 import org.jetbrains.java.decompiler.code.cfg.ControlFlowGraph;
 import org.jetbrains.java.decompiler.code.cfg.ExceptionRangeCFG;
+import org.jetbrains.java.decompiler.main.CancellationManager;
 import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
 import org.jetbrains.java.decompiler.modules.decompiler.decompose.FastExtendedPostdominanceHelper;
@@ -121,6 +122,7 @@ public class DomHelper {
     }
 
     do {
+      CancellationManager.checkCanceled();
 
       for (Statement stat : lstStats) {
 
@@ -352,6 +354,7 @@ public class DomHelper {
           boolean forceall = i != 0;
 
           while (true) {
+            CancellationManager.checkCanceled();
 
             if (findSimpleStatements(general, mapExtPost)) {
               reducibility = 0;
@@ -582,6 +585,7 @@ public class DomHelper {
     boolean found, success = false;
 
     do {
+      CancellationManager.checkCanceled();
       found = false;
 
       List<Statement> lstStats = stat.getPostReversePostOrderList();
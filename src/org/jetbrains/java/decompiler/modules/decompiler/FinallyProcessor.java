@@ -8,6 +8,7 @@ import org.jetbrains.java.decompiler.code.SimpleInstructionSequence;
 import org.jetbrains.java.decompiler.code.cfg.BasicBlock;
 import org.jetbrains.java.decompiler.code.cfg.ControlFlowGraph;
 import org.jetbrains.java.decompiler.code.cfg.ExceptionRangeCFG;
+import org.jetbrains.java.decompiler.main.CancellationManager;
 import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
@@ -57,6 +58,7 @@ public class FinallyProcessor {
     stack.add(root);
 
     while (!stack.isEmpty()) {
+      CancellationManager.checkCanceled();
       Statement stat = stack.removeLast();
 
       Statement parent = stat.getParent();
@@ -156,6 +158,7 @@ public class FinallyProcessor {
     Set<DirectNode> setVisited = new HashSet<>();
 
     while (!stack.isEmpty()) {
+      CancellationManager.checkCanceled();
       DirectNode node = stack.removeFirst();
 
       if (setVisited.contains(node)) {
@@ -569,6 +572,7 @@ public class FinallyProcessor {
     stack.add(new BlockStackEntry(startCatch, startSample, new ArrayList<>()));
 
     while (!stack.isEmpty()) {
+      CancellationManager.checkCanceled();
 
       BlockStackEntry entry = stack.remove(0);
       BasicBlock blockCatch = entry.blockCatch;
@@ -2,6 +2,7 @@
 package org.jetbrains.java.decompiler.modules.decompiler;
 
 import org.jetbrains.java.decompiler.code.CodeConstants;
+import org.jetbrains.java.decompiler.main.CancellationManager;
 import org.jetbrains.java.decompiler.modules.decompiler.exps.*;
 import org.jetbrains.java.decompiler.modules.decompiler.sforms.*;
 import org.jetbrains.java.decompiler.modules.decompiler.stats.DoStatement;
@@ -26,6 +27,7 @@ public class StackVarsProcessor {
     SSAUConstructorSparseEx ssau = null;
 
     while (true) {
+      CancellationManager.checkCanceled();
       boolean found = false;
 
       SSAConstructorSparseEx ssa = new SSAConstructorSparseEx();
@@ -33,6 +35,7 @@ public class StackVarsProcessor {
 
       SimplifyExprentsHelper sehelper = new SimplifyExprentsHelper(ssau == null);
       while (sehelper.simplifyStackVarsStatement(root, setReorderedIfs, ssa, cl)) {
+        CancellationManager.checkCanceled();
         found = true;
       }
 
@@ -106,6 +109,7 @@ public class StackVarsProcessor {
     stackMaps.add(new HashMap<>());
 
     while (!stack.isEmpty()) {
+      CancellationManager.checkCanceled();
       DirectNode nd = stack.removeFirst();
       Map<VarVersionPair, Exprent> mapVarValues = stackMaps.removeFirst();
 
@@ -536,6 +540,7 @@ public class StackVarsProcessor {
     stack.add(varnode);
 
     while (!stack.isEmpty()) {
+      CancellationManager.checkCanceled();
       VarVersionNode nd = stack.remove(0);
       setVisited.add(nd);
 
@@ -2,6 +2,8 @@
 package org.jetbrains.java.decompiler.struct;
 
 import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.collectors.DeferredLogger;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.main.extern.IResultSaver;
 import org.jetbrains.java.decompiler.struct.lazy.LazyLoader;
@@ -9,8 +11,14 @@ import org.jetbrains.java.decompiler.struct.lazy.LazyLoader.Link;
 import org.jetbrains.java.decompiler.util.DataInputFullStream;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
 
@@ -79,6 +87,14 @@ public class ContextUnit {
   }
 
   public void save() {
+    save(null, 1);
+  }
+
+  /**
+   * Writes the unit out. With an executor, up to {@code threads} classes are decompiled ahead in parallel,
+   * each in its own forked context; results and their log messages are still handed over in entry order.
+   */
+  public void save(ExecutorService executor, int threads) {
     switch (type) {
       case TYPE_FOLDER:
         // create folder
@@ -90,20 +106,11 @@ public class ContextUnit {
         }
 
         // classes
-        for (int i = 0; i < classes.size(); i++) {
-          StructClass cl = classes.get(i);
-          String entryName = decompiledData.getClassEntryName(cl, classEntries.get(i));
-          if (entryName != null) {
-            String content = decompiledData.getClassContent(cl);
-            if (content != null) {
-              int[] mapping = null;
-              if (DecompilerContext.getOption(IFernflowerPreferences.BYTECODE_SOURCE_MAPPING)) {
-                mapping = DecompilerContext.getBytecodeSourceMapper().getOriginalLinesMapping();
-              }
-              resultSaver.saveClassFile(filename, cl.qualifiedName, entryName, content, mapping);
-            }
+        decompileClasses(executor, threads, result -> {
+          if (result.content != null) {
+            resultSaver.saveClassFile(filename, result.cl.qualifiedName, result.entryName, result.content, result.mapping);
           }
-        }
+        });
 
         break;
 
@@ -126,16 +133,92 @@ public class ContextUnit {
         }
 
         // classes
-        for (int i = 0; i < classes.size(); i++) {
-          StructClass cl = classes.get(i);
-          String entryName = decompiledData.getClassEntryName(cl, classEntries.get(i));
-          if (entryName != null) {
-            String content = decompiledData.getClassContent(cl);
-            resultSaver.saveClassEntry(archivePath, filename, cl.qualifiedName, entryName, content);
+        decompileClasses(executor, threads, result ->
+          resultSaver.saveClassEntry(archivePath, filename, result.cl.qualifiedName, result.entryName, result.content));
+
+        resultSaver.closeArchive(archivePath, filename);
+    }
+  }
+
+  private void decompileClasses(ExecutorService executor, int threads, Consumer<DecompiledClass> consumer) {
+    if (executor == null) {
+      for (int i = 0; i < classes.size(); i++) {
+        StructClass cl = classes.get(i);
+        String entryName = decompiledData.getClassEntryName(cl, classEntries.get(i));
+        if (entryName != null) {
+          consumer.accept(decompile(cl, entryName));
+        }
+      }
+      return;
+    }
+
+    DecompilerContext parent = DecompilerContext.getCurrentContext();
+    IFernflowerLogger parentLogger = DecompilerContext.getLogger();
+    Deque<Future<DecompiledClass>> pending = new ArrayDeque<>();
+    int window = threads * 4;  // bounds the number of finished sources held in memory
+
+    for (int i = 0; i < classes.size(); i++) {
+      StructClass cl = classes.get(i);
+      String entryName = decompiledData.getClassEntryName(cl, classEntries.get(i));
+      if (entryName != null) {
+        pending.add(executor.submit(() -> {
+          DeferredLogger logger = new DeferredLogger(parentLogger);
+          DecompilerContext.setCurrentContext(parent.fork(logger));
+          try {
+            DecompiledClass result = decompile(cl, entryName);
+            result.log = logger;
+            return result;
+          }
+          finally {
+            DecompilerContext.setCurrentContext(null);
           }
+        }));
+        if (pending.size() >= window) {
+          consumer.accept(complete(pending.removeFirst()));
         }
+      }
+    }
 
-        resultSaver.closeArchive(archivePath, filename);
+    while (!pending.isEmpty()) {
+      consumer.accept(complete(pending.removeFirst()));
+    }
+  }
+
+  private DecompiledClass decompile(StructClass cl, String entryName) {
+    DecompiledClass result = new DecompiledClass(cl, entryName);
+    result.content = decompiledData.getClassContent(cl);
+    if (result.content != null && DecompilerContext.getOption(IFernflowerPreferences.BYTECODE_SOURCE_MAPPING)) {
+      result.mapping = DecompilerContext.getBytecodeSourceMapper().getOriginalLinesMapping();
+    }
+    return result;
+  }
+
+  private static DecompiledClass complete(Future<DecompiledClass> future) {
+    DecompiledClass result;
+    try {
+      result = future.get();
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(ex);
+    }
+    catch (ExecutionException ex) {
+      throw new RuntimeException(ex.getCause());
+    }
+    result.log.replay();
+    return result;
+  }
+
+  private static class DecompiledClass {
+    private final StructClass cl;
+    private final String entryName;
+    private String content;
+    private int[] mapping;
+    private DeferredLogger log;
+
+    private DecompiledClass(StructClass cl, String entryName) {
+      this.cl = cl;
+      this.entryName = entryName;
     }
   }
 
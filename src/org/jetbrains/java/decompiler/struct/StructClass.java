@@ -122,12 +122,14 @@ public class StructClass extends StructMember {
   public void releaseResources() {
     if (loader != null) {
       pool = null;
+      loader.releaseClassBytes(qualifiedName);
     }
   }
 
   public ConstantPool getPool() {
+    ConstantPool pool = this.pool;
     if (pool == null && loader != null) {
-      pool = loader.loadPool(qualifiedName);
+      this.pool = pool = loader.loadPool(qualifiedName);
     }
     return pool;
   }
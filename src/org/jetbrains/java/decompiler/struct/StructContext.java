@@ -2,6 +2,7 @@
 package org.jetbrains.java.decompiler.struct;
 
 import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.main.extern.IResultSaver;
 import org.jetbrains.java.decompiler.struct.lazy.LazyLoader;
 import org.jetbrains.java.decompiler.util.DataInputFullStream;
@@ -12,6 +13,10 @@ import java.io.IOException;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -53,13 +58,40 @@ public class StructContext {
   }
 
   public void saveContext() {
-    for (ContextUnit unit : units.values()) {
-      if (unit.isOwn()) {
-        unit.save();
+    int threads = Integer.parseInt(DecompilerContext.getProperty(IFernflowerPreferences.THREADS).toString());
+    if (threads <= 0) {
+      threads = Runtime.getRuntime().availableProcessors();
+    }
+
+    ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads, new WorkerThreadFactory()) : null;
+    try {
+      for (ContextUnit unit : units.values()) {
+        if (unit.isOwn()) {
+          unit.save(executor, threads);
+        }
+      }
+    }
+    finally {
+      if (executor != null) {
+        executor.shutdownNow();
       }
     }
   }
 
+  private static class WorkerThreadFactory implements ThreadFactory {
+    // deeply nested code recurses far; give workers the room the main thread usually has
+    private static final long STACK_SIZE = 64L * 1024 * 1024;
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(null, r, "Java decompiler " + counter.incrementAndGet(), STACK_SIZE);
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
   public void addSpace(File file, boolean isOwn) {
     addSpace("", file, isOwn, 0);
   }
@@ -38,6 +38,7 @@ public class StructMethod extends StructMember {
   private int localVariables = 0;
   private int codeLength = 0;
   private int codeFullLength = 0;
+  private int codeOffset = -1;
   private InstructionSequence seq;
   private boolean expanded = false;
   private Map<String, StructGeneralAttribute> codeAttributes;
@@ -72,6 +73,8 @@ public class StructMethod extends StructMember {
       }
       else {
         containsCode = true;
+        // attribute_length, max_stack, max_locals and code_length precede the code bytes
+        codeOffset = in.getOffset() + 12;
         in.discard(6);
         localVariables = in.readUnsignedShort();
         codeLength = in.readInt();
@@ -97,6 +100,14 @@ public class StructMethod extends StructMember {
     }
   }
 
+  /**
+   * Offset of this method's code bytes within its class file, or -1 when the method has no code
+   * or was not read from a whole class file. Lets the loader slice the body instead of rescanning.
+   */
+  public int getCodeOffset() {
+    return codeOffset;
+  }
+
   public void releaseResources() {
     if (containsCode && expanded) {
       seq = null;
@@ -8,11 +8,13 @@ import org.jetbrains.java.decompiler.struct.consts.ConstantPool;
 import org.jetbrains.java.decompiler.util.DataInputFullStream;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 public class LazyLoader {
   private final Map<String, Link> mapClassLinks = new HashMap<>();
+  private final Map<String, byte[]> classBytes = new HashMap<>();
   private final IBytecodeProvider provider;
 
   public LazyLoader(IBytecodeProvider provider) {
@@ -25,6 +27,7 @@ public class LazyLoader {
 
   public void removeClassLink(String classname) {
     mapClassLinks.remove(classname);
+    releaseClassBytes(classname);
   }
 
   public Link getClassLink(String classname) {
@@ -32,8 +35,10 @@ public class LazyLoader {
   }
 
   public ConstantPool loadPool(String classname) {
-    try (DataInputFullStream in = getClassStream(classname)) {
-      if (in != null) {
+    try {
+      byte[] bytes = getClassBytes(classname, false);
+      if (bytes != null) {
+        DataInputFullStream in = new DataInputFullStream(bytes);
         in.discard(8);
         return new ConstantPool(in);
       }
@@ -48,8 +53,16 @@ public class LazyLoader {
   public byte[] loadBytecode(StructMethod mt, int codeFullLength) {
     String className = mt.getClassStruct().qualifiedName;
 
-    try (DataInputFullStream in = getClassStream(className)) {
-      if (in != null) {
+    try {
+      byte[] bytes = getClassBytes(className, true);
+      if (bytes != null) {
+        int offset = mt.getCodeOffset();
+        if (offset >= 0 && offset + codeFullLength <= bytes.length) {
+          // offset was recorded while the method was parsed, no need to walk the class file again
+          return Arrays.copyOfRange(bytes, offset, offset + codeFullLength);
+        }
+
+        DataInputFullStream in = new DataInputFullStream(bytes);
         in.discard(8);
 
         ConstantPool pool = mt.getClassStruct().getPool();
@@ -111,6 +124,30 @@ public class LazyLoader {
     }
   }
 
+  /**
+   * Class file bytes. Method bodies are read with {@code keep} set, so the first body load caches the class
+   * until {@link #releaseClassBytes} and the remaining bodies (and pool reloads) are sliced from that copy.
+   * Pool-only reads of library classes do not populate the cache.
+   */
+  private synchronized byte[] getClassBytes(String qualifiedClassName, boolean keep) throws IOException {
+    byte[] bytes = classBytes.get(qualifiedClassName);
+    if (bytes == null) {
+      Link link = mapClassLinks.get(qualifiedClassName);
+      if (link == null) {
+        return null;
+      }
+      bytes = provider.getBytecode(link.externalPath, link.internalPath);
+      if (keep) {
+        classBytes.put(qualifiedClassName, bytes);
+      }
+    }
+    return bytes;
+  }
+
+  public synchronized void releaseClassBytes(String qualifiedClassName) {
+    classBytes.remove(qualifiedClassName);
+  }
+
   public DataInputFullStream getClassStream(String externalPath, String internalPath) throws IOException {
     byte[] bytes = provider.getBytecode(externalPath, internalPath);
     return new DataInputFullStream(bytes);
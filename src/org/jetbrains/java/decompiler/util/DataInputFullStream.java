@@ -7,7 +7,7 @@ import java.io.IOException;
 
 public class DataInputFullStream extends DataInputStream {
   public DataInputFullStream(byte[] bytes) {
-    super(new ByteArrayInputStream(bytes));
+    super(new PositionedByteArrayInputStream(bytes));
   }
 
   public byte[] read(int n) throws IOException {
@@ -17,4 +17,21 @@ public class DataInputFullStream extends DataInputStream {
   public void discard(int n) throws IOException {
     InterpreterUtil.discardBytes(this, n);
   }
-}
\ No newline at end of file
+
+  /**
+   * Current read position, counted from the start of the underlying byte array.
+   */
+  public int getOffset() {
+    return ((PositionedByteArrayInputStream)in).getPosition();
+  }
+
+  private static class PositionedByteArrayInputStream extends ByteArrayInputStream {
+    PositionedByteArrayInputStream(byte[] bytes) {
+      super(bytes);
+    }
+
+    int getPosition() {
+      return pos;
+    }
+  }
+}
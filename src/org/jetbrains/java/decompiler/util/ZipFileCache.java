@@ -0,0 +1,55 @@
+// Copyright 2000-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.java.decompiler.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Keeps source and library archives open for the life of a decompilation, so class and
+ * method-body reads do not reopen the jar and re-read its central directory every time.
+ * Archives are opened on first use; {@link #close()} releases them in opening order.
+ * Reads may run concurrently (ZipFile supports concurrent entry streams).
+ */
+public class ZipFileCache implements Closeable {
+  private final Map<String, ZipFile> archives = new LinkedHashMap<>();
+
+  public byte[] getBytes(File file, String entryName) throws IOException {
+    ZipFile archive = getArchive(file);
+    ZipEntry entry = archive.getEntry(entryName);
+    if (entry == null) throw new IOException("Entry not found: " + entryName);
+    return InterpreterUtil.getBytes(archive, entry);
+  }
+
+  public synchronized ZipFile getArchive(File file) throws IOException {
+    String key = file.getAbsolutePath();
+    ZipFile archive = archives.get(key);
+    if (archive == null) {
+      archive = new ZipFile(file);
+      archives.put(key, archive);
+    }
+    return archive;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    IOException first = null;
+    List<ZipFile> open = new ArrayList<>(archives.values());
+    archives.clear();
+    for (ZipFile archive : open) {
+      try {
+        archive.close();
+      }
+      catch (IOException ex) {
+        if (first == null) first = ex;
+      }
+    }
+    if (first != null) throw first;
+  }
+}
@@ -2,6 +2,7 @@
 package org.jetbrains.java.decompiler;
 
 import org.jetbrains.java.decompiler.main.decompiler.ConsoleDecompiler;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.util.InterpreterUtil;
 import org.junit.After;
 import org.junit.Before;
@@ -56,6 +57,31 @@ public class BulkDecompilationTest {
     doTestJar("obfuscated");
   }
 
+  @Test
+  public void testParallelMatchesSequential() throws IOException {
+    File jar = new File(fixture.getTestDataDir(), "bulk.jar");
+    ConsoleDecompiler decompiler = fixture.getDecompiler();
+    decompiler.addSource(jar);
+    decompiler.decompileContext();
+    File sequential = new File(fixture.getTempDir(), "sequential");
+    unpack(new File(fixture.getTargetDir(), jar.getName()), sequential);
+
+    DecompilerTestFixture parallelFixture = new DecompilerTestFixture();
+    parallelFixture.setUp(IFernflowerPreferences.THREADS, "4");
+    try {
+      ConsoleDecompiler parallelDecompiler = parallelFixture.getDecompiler();
+      parallelDecompiler.addSource(jar);
+      parallelDecompiler.decompileContext();
+      File parallel = new File(parallelFixture.getTempDir(), "parallel");
+      unpack(new File(parallelFixture.getTargetDir(), jar.getName()), parallel);
+
+      assertFilesEqual(sequential, parallel);
+    }
+    finally {
+      parallelFixture.tearDown();
+    }
+  }
+
   private void doTestJar(String name) {
     ConsoleDecompiler decompiler = fixture.getDecompiler();
     String jarName = name + ".jar";
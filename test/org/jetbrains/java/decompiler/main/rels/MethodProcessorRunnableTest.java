@@ -0,0 +1,77 @@
+// Copyright 2000-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.java.decompiler.main.rels;
+
+import org.jetbrains.java.decompiler.main.CancellationManager;
+import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.Fernflower;
+import org.jetbrains.java.decompiler.main.decompiler.PrintStreamLogger;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+import org.jetbrains.java.decompiler.modules.decompiler.vars.VarProcessor;
+import org.jetbrains.java.decompiler.struct.StructClass;
+import org.jetbrains.java.decompiler.struct.StructMethod;
+import org.jetbrains.java.decompiler.struct.gen.MethodDescriptor;
+import org.jetbrains.java.decompiler.util.InterpreterUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class MethodProcessorRunnableTest {
+  private Fernflower fernflower;
+  private DecompilerContext context;
+  private StructMethod method;
+
+  @Before
+  public void setUp() {
+    File classFile = new File("testData/classes/pkg/TestClassSwitch.class");
+    assertTrue(classFile.getAbsolutePath(), classFile.isFile());
+
+    PrintStreamLogger logger = new PrintStreamLogger(new PrintStream(System.out));
+    fernflower = new Fernflower((external, internal) -> InterpreterUtil.getBytes(new File(external)), null,
+                                Collections.singletonMap(IFernflowerPreferences.LOG_LEVEL, "error"), logger);
+    fernflower.addSource(classFile);
+    context = DecompilerContext.getCurrentContext();
+
+    StructClass cl = DecompilerContext.getStructContext().getClass("pkg/TestClassSwitch");
+    DecompilerContext.setProperty(DecompilerContext.CURRENT_CLASS, cl);
+    method = cl.getMethod("testCaseOrder", "(I)V");
+    assertNotNull(method);
+  }
+
+  @After
+  public void tearDown() {
+    fernflower.clearContext();
+  }
+
+  @Test
+  public void testMethodFinishes() throws Throwable {
+    MethodProcessorRunnable mtProc = newRunnable(60_000);
+
+    assertTrue(mtProc.runWithTimeLimit());
+    assertNotNull(mtProc.getResult());
+    assertSame(context, DecompilerContext.getCurrentContext());
+    assertNull(CancellationManager.getDeadline());
+  }
+
+  @Test
+  public void testMethodTimesOut() throws Throwable {
+    MethodProcessorRunnable mtProc = newRunnable(0);
+
+    assertFalse(mtProc.runWithTimeLimit());
+    assertNull(mtProc.getResult());
+    assertSame(context, DecompilerContext.getCurrentContext());
+    assertNull(CancellationManager.getDeadline());
+  }
+
+  private MethodProcessorRunnable newRunnable(long timeoutMillis) {
+    MethodDescriptor md = MethodDescriptor.parseDescriptor(method.getDescriptor());
+    VarProcessor varProc = new VarProcessor(method, md);
+    DecompilerContext.startMethod(varProc);
+    return new MethodProcessorRunnable(method, md, varProc, context, timeoutMillis);
+  }
+}